@@ -0,0 +1,71 @@
+package com.giannivanhoecke.oauth.desktop;
+
+import com.giannivanhoecke.oauth.desktop.fixtures.AuthorizationServerMock;
+import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full refresh round trip, from building the request up to the parsed {@link AccessTokenResponse}, against
+ * the in-process {@link AuthorizationServerMock}. Network latency of a real authorization server is not included.
+ * <p>
+ * Both benchmarks send one request per operation over a pooled connection, so they should score within the same
+ * range. {@link #refreshAsync()} is usually slightly slower, because the response is handed from the HTTP client's
+ * threads back to the benchmark thread. The asynchronous API saves threads when many refreshes are in flight; it does
+ * not make a single refresh faster.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefreshRoundTripBenchmark {
+
+    private AuthorizationServerMock authorizationServerMock;
+    private AuthorizationCodeFlowWithPkce flow;
+
+    @Setup(Level.Trial)
+    public void setup()
+            throws IOException {
+        authorizationServerMock = new AuthorizationServerMock();
+        authorizationServerMock.start();
+
+        flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        authorizationServerMock.stop();
+    }
+
+    @Benchmark
+    public AccessTokenResponse refresh() {
+        return flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN);
+    }
+
+    @Benchmark
+    public AccessTokenResponse refreshAsync() {
+        return flow.refreshAsync(AuthorizationServerMock.VALID_REFRESH_TOKEN).join();
+    }
+}
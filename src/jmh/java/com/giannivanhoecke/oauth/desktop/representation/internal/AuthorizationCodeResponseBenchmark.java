@@ -0,0 +1,44 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing the query of the redirect the authorization server sends to the callback server.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationCodeResponseBenchmark {
+
+    private static final String QUERY = "state=bHZrTFN6UkxhSUVCWnN0RzRpc0R0d0pqOWJHY3V1Wm5nbkJp" +
+            "&session_state=3dac9c9b-bcd8-4ed4-82c4-df618cbcb3ad" +
+            "&code=0e3b8a1c-6d2f-4f5e-9a7b-2c1d0e9f8a7b.3dac9c9b-bcd8-4ed4-82c4-df618cbcb3ad." +
+            "9047370c-24f9-45f1-9959-faca5e60e6b9";
+
+    @Benchmark
+    public Map<String, String> getParamMap() {
+        return QueryParameter.getParamMap(QUERY);
+    }
+
+    @Benchmark
+    public AuthorizationCodeResponse parse() {
+        return AuthorizationCodeResponse.parse(QUERY);
+    }
+}
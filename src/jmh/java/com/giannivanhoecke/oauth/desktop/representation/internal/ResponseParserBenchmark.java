@@ -0,0 +1,64 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+import com.giannivanhoecke.oauth.desktop.representation.UserInfoResponse;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building a new {@link Gson} per response, as done before 1.1, with the shared {@link ResponseParser}.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseParserBenchmark {
+
+    private static final String ACCESS_TOKEN_RESPONSE = "{\"access_token\":\"eyJhbGciOiJSUzI1NiJ9.eyJzdWIiOiIxIn0." +
+            "c2lnbmF0dXJl\",\"expires_in\":300,\"refresh_expires_in\":0,\"refresh_token\":\"eyJhbGciOiJIUzI1NiJ9." +
+            "eyJzdWIiOiIxIn0.c2lnbmF0dXJl\",\"token_type\":\"Bearer\",\"id_token\":\"eyJhbGciOiJSUzI1NiJ9." +
+            "eyJzdWIiOiIxIn0.c2lnbmF0dXJl\",\"not-before-policy\":0,\"session_state\":\"3dac9c9b-bcd8-4ed4-82c4-" +
+            "df618cbcb3ad\",\"scope\":\"openid offline_access email profile\"}";
+    private static final String USER_INFO_RESPONSE = "{\"sub\":\"9047370c-24f9-45f1-9959-faca5e60e6b9\"," +
+            "\"email_verified\":true,\"name\":\"Gianni Van Hoecke\",\"preferred_username\":" +
+            "\"gianni@giannivanhoecke.com\",\"given_name\":\"Gianni\",\"locale\":\"en\",\"family_name\":" +
+            "\"Van Hoecke\",\"email\":\"gianni@giannivanhoecke.com\"}";
+
+    @Benchmark
+    public AccessTokenResponse accessTokenResponseNewGson() {
+        return new Gson().fromJson(ACCESS_TOKEN_RESPONSE, AccessTokenResponse.class);
+    }
+
+    @Benchmark
+    public AccessTokenResponse accessTokenResponseSharedParser()
+            throws IOException {
+        return ResponseParser.toAccessTokenResponse(ACCESS_TOKEN_RESPONSE);
+    }
+
+    @Benchmark
+    public UserInfoResponse userInfoResponseNewGson() {
+        return new Gson().fromJson(USER_INFO_RESPONSE, UserInfoResponse.class);
+    }
+
+    @Benchmark
+    public UserInfoResponse userInfoResponseSharedParser()
+            throws IOException {
+        return ResponseParser.toUserInfoResponse(USER_INFO_RESPONSE);
+    }
+}
@@ -1,10 +1,17 @@
 package com.giannivanhoecke.oauth.desktop;
 
+import com.giannivanhoecke.oauth.desktop.concurrent.BoundedBatch;
+import com.giannivanhoecke.oauth.desktop.concurrent.Futures;
+import com.giannivanhoecke.oauth.desktop.concurrent.SingleFlight;
 import com.giannivanhoecke.oauth.desktop.exception.ActionNotSupportedException;
 import com.giannivanhoecke.oauth.desktop.exception.BrowserException;
 import com.giannivanhoecke.oauth.desktop.exception.CallbackServerException;
 import com.giannivanhoecke.oauth.desktop.exception.IllegalStateException;
+import com.giannivanhoecke.oauth.desktop.exception.IntrospectionException;
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.MissingConfigException;
 import com.giannivanhoecke.oauth.desktop.exception.PkceException;
+import com.giannivanhoecke.oauth.desktop.exception.RevocationException;
 import com.giannivanhoecke.oauth.desktop.exception.TokenException;
 import com.giannivanhoecke.oauth.desktop.exception.UserInfoException;
 import com.giannivanhoecke.oauth.desktop.exception.VerificationException;
@@ -14,40 +21,83 @@ import com.giannivanhoecke.oauth.desktop.io.local.CallbackServer;
 import com.giannivanhoecke.oauth.desktop.io.local.CallbackServerConfig;
 import com.giannivanhoecke.oauth.desktop.io.remote.GetRequest;
 import com.giannivanhoecke.oauth.desktop.io.remote.GetResult;
+import com.giannivanhoecke.oauth.desktop.io.remote.JsonResult;
 import com.giannivanhoecke.oauth.desktop.io.remote.KeyValuePair;
 import com.giannivanhoecke.oauth.desktop.io.remote.PostRequest;
 import com.giannivanhoecke.oauth.desktop.io.remote.PostResult;
 import com.giannivanhoecke.oauth.desktop.io.remote.RemoteResource;
 import com.giannivanhoecke.oauth.desktop.io.remote.RequestParameters;
 import com.giannivanhoecke.oauth.desktop.io.remote.ResourceException;
+import com.giannivanhoecke.oauth.desktop.jwt.IdTokenVerifier;
+import com.giannivanhoecke.oauth.desktop.jwt.JwksCache;
+import com.giannivanhoecke.oauth.desktop.observability.MetricsRecorder;
+import com.giannivanhoecke.oauth.desktop.observability.OAuthOperation;
+import com.giannivanhoecke.oauth.desktop.observability.Span;
+import com.giannivanhoecke.oauth.desktop.observability.Tracer;
+import com.giannivanhoecke.oauth.desktop.observability.TracingConstants;
 import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+import com.giannivanhoecke.oauth.desktop.representation.IntrospectionResponse;
+import com.giannivanhoecke.oauth.desktop.representation.IntrospectionResult;
+import com.giannivanhoecke.oauth.desktop.representation.RefreshResult;
+import com.giannivanhoecke.oauth.desktop.representation.TokenTypeHint;
 import com.giannivanhoecke.oauth.desktop.representation.UserInfoResponse;
 import com.giannivanhoecke.oauth.desktop.representation.internal.AuthorizationCodeResponse;
 import com.giannivanhoecke.oauth.desktop.representation.internal.GrantType;
+import com.giannivanhoecke.oauth.desktop.representation.internal.JsonWebKeySet;
+import com.giannivanhoecke.oauth.desktop.representation.internal.ResponseParser;
+import com.giannivanhoecke.oauth.desktop.resilience.CircuitBreakerState;
+import com.giannivanhoecke.oauth.desktop.resilience.RetryPolicy;
 import com.giannivanhoecke.oauth.desktop.system.Browser;
 import com.giannivanhoecke.oauth.desktop.system.DefaultBrowser;
-import com.google.gson.Gson;
+import com.giannivanhoecke.oauth.desktop.system.ExecutorStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
+import java.util.function.Function;
 
 /**
  * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
  * @since 1.0
  */
-public class AuthorizationCodeFlowWithPkce {
+public class AuthorizationCodeFlowWithPkce implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizationCodeFlowWithPkce.class);
+
+    public static final int  DEFAULT_MAX_CONCURRENT_AUTHORIZATIONS      = 1;
+    public static final long DEFAULT_CALLBACK_SERVER_IDLE_TIMEOUT_IN_MS = 0;
+    public static final int  DEFAULT_REFRESH_PARALLELISM                = 8;
+    public static final int  DEFAULT_REVOCATION_PARALLELISM             = 8;
+    public static final int  DEFAULT_REVOCATION_MAX_ATTEMPTS            = 5;
+    public static final long DEFAULT_REVOCATION_RETRY_DELAY_IN_MS       = 1_000;
+
+    private static final SingleFlight<RefreshKey, AccessTokenResponse> ONGOING_REFRESHES = new SingleFlight<>();
 
     private final AuthorizationServerConfig authorizationServerConfig;
     private final CallbackServer callbackServer;
     private final Browser browser;
-
-    private Pkce pkce;
-    private String state;
-    private String redirectUri;
-    private CompletableFuture<AccessTokenResponse> accessTokenResponseCompletableFuture;
+    private final RemoteResource remoteResource;
+    private final UserInfoCache userInfoCache;
+    private final IntrospectionCache introspectionCache;
+    private final SingleFlight<String, IntrospectionResponse> ongoingIntrospections = new SingleFlight<>();
+    private final RevocationQueue revocationQueue;
+    private final int maxConcurrentAuthorizations;
+    private final Tracer tracer;
+    private final IdTokenVerifier idTokenVerifier;
+    private final ConcurrentMap<String, AuthorizationSession> authorizationSessions = new ConcurrentHashMap<>();
 
     /**
      * Creates an instance of the Authorization Code Flow with PKCE, using the system's default browser.
@@ -65,12 +115,43 @@ public class AuthorizationCodeFlowWithPkce {
      * @param browser the browser to use
      */
     public AuthorizationCodeFlowWithPkce(AuthorizationServerConfig authorizationServerConfig, Browser browser) {
-        this.authorizationServerConfig = authorizationServerConfig;
-        this.browser = browser;
+        this(newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withBrowser(browser));
+    }
+
+    private AuthorizationCodeFlowWithPkce(Builder builder) {
+        this.authorizationServerConfig = builder.authorizationServerConfig;
+        this.browser = builder.browser == null ? new DefaultBrowser() : builder.browser;
+        this.userInfoCache = builder.userInfoCache;
+        this.introspectionCache = builder.introspectionCache;
+        this.maxConcurrentAuthorizations = builder.maxConcurrentAuthorizations;
+        this.tracer = builder.tracer;
+        this.remoteResource = RemoteResource
+                .newBuilder()
+                .withExecutorStrategy(builder.executorStrategy)
+                .withMetricsRecorder(builder.metricsRecorder)
+                .build();
+        // without the issuer, an ID token can't be told apart from one of another realm served by the same keys
+        this.idTokenVerifier = this.authorizationServerConfig.getIssuer()
+                .map(issuer -> new IdTokenVerifier(
+                        issuer,
+                        this.authorizationServerConfig.getClientId(),
+                        new JwksCache(this::fetchJsonWebKeySet,
+                                JwksCache.DEFAULT_TTL_IN_MS, JwksCache.DEFAULT_MIN_REFRESH_INTERVAL_IN_MS),
+                        IdTokenVerifier.DEFAULT_CLOCK_SKEW_IN_MS))
+                .orElse(null);
+        // the queue retries failed revocations itself, so each of its requests is sent only once
+        this.revocationQueue = new RevocationQueue(
+                (token, tokenTypeHint) -> sendRevocationAsync(token, tokenTypeHint, RetryPolicy.NONE),
+                builder.revocationParallelism, builder.revocationMaxAttempts, builder.revocationRetryDelayInMs);
         this.callbackServer = new CallbackServer(CallbackServerConfig
                 .newBuilder()
                 .withCallbackListener(this::callbackReceived)
                 .withSuccessRedirectUri(this.authorizationServerConfig.getSuccessRedirectUri())
+                .withIdleTimeoutInMs(builder.callbackServerIdleTimeoutInMs)
+                .withExecutorStrategy(builder.executorStrategy)
+                .withMetricsRecorder(builder.metricsRecorder)
                 .build());
     }
 
@@ -79,32 +160,75 @@ public class AuthorizationCodeFlowWithPkce {
      * A background server is started which will catch the authorization server's redirect to get the authorization
      * code. After shutting down the background server, and exchanging the authorization code for tokens, the
      * {@link Future} will complete, or will throw a {@link TokenException} or {@link VerificationException} on failure.
+     * <p>
+     * Each call gets its own PKCE code and state, so several authorizations can be ongoing at the same time, up to
+     * the configured maximum. They share a single background server, which is stopped once none are ongoing anymore,
+     * or after the configured idle timeout. Cancelling the returned {@link Future} abandons the authorization.
      *
      * @return the {@link AccessTokenResponse} as a {@link Future}
      *
-     * @throws IllegalStateException when an authorization is already ongoing
+     * @throws IllegalStateException when the maximum number of authorizations is already ongoing
      * @throws PkceException when the PKCE code couldn't be generated
      * @throws ActionNotSupportedException when {@link java.awt.Desktop} is not supported on the current platform
      * @throws BrowserException when the browser couldn't be opened
      * @throws CallbackServerException when the callback server couldn't be started
      */
     public Future<AccessTokenResponse> authorize() {
-        assertCanStartAuthorization();
-        initAuthorization();
+        Span authorizeSpan = this.tracer.startSpan(TracingConstants.SPAN_AUTHORIZE, null);
+        AuthorizationSession session;
+        try {
+            session = startAuthorizationSession(authorizeSpan);
+        } catch (RuntimeException e) {
+            endSpan(authorizeSpan, e);
+            throw e;
+        }
         String authzUrl = this.authorizationServerConfig.getEndpointAuth() +
                 "?response_type=code" +
-                "&code_challenge=" + pkce.getCodeChallenge() +
+                "&code_challenge=" + session.pkce.getCodeChallenge() +
                 "&code_challenge_method=" + Pkce.CODE_CHALLENGE_METHOD +
                 "&client_id=" + this.authorizationServerConfig.getClientId() +
-                "&redirect_uri=" + redirectUri +
+                "&redirect_uri=" + session.redirectUri +
                 "&scope=" + uriEncode(this.authorizationServerConfig.getAuthScope()) +
-                "&state=" + state;
-        this.browser.open(authzUrl);
-        return accessTokenResponseCompletableFuture;
+                "&state=" + session.state;
+        try {
+            trace(TracingConstants.SPAN_BROWSER_OPEN, authorizeSpan, span -> {
+                this.browser.open(authzUrl);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            session.accessTokenResponseCompletableFuture.completeExceptionally(e);
+            throw e;
+        }
+        session.startCallbackWait(this.tracer.startSpan(TracingConstants.SPAN_CALLBACK_WAIT, authorizeSpan));
+        return session.accessTokenResponseCompletableFuture;
+    }
+
+    /**
+     * Gets the number of authorizations that are waiting for the authorization server's redirect.
+     *
+     * @return the number of ongoing authorizations
+     */
+    public int getOngoingAuthorizations() {
+        return this.authorizationSessions.size();
+    }
+
+    /**
+     * Stops the background server right away, without waiting for its idle timeout. Ongoing authorizations are
+     * cancelled, and revocations still queued in the background are dropped. Use {@link #awaitRevocations(long)}
+     * first to give them a chance to complete, e.g. when your application exits right after signing out.
+     */
+    @Override
+    public synchronized void close() {
+        for (AuthorizationSession session : this.authorizationSessions.values()) {
+            session.accessTokenResponseCompletableFuture.cancel(true);
+        }
+        this.callbackServer.stop();
+        this.revocationQueue.close();
     }
 
     /**
      * Exchanges a refresh token for a new access token and a new refresh token.
+     * Concurrent refreshes of the same refresh token share a single request to the authorization server.
      *
      * @param refreshToken the refresh token to use
      * @return a new {@link AccessTokenResponse}
@@ -112,11 +236,75 @@ public class AuthorizationCodeFlowWithPkce {
      * @throws TokenException when the refresh action failed
      */
     public AccessTokenResponse refresh(String refreshToken) {
-        return requestTokens(GrantType.REFRESH_TOKEN, refreshToken);
+        return ONGOING_REFRESHES.execute(toRefreshKey(refreshToken),
+                () -> trace(TracingConstants.SPAN_REFRESH, null, span ->
+                        requestTokens(buildRefreshTokenPayload(refreshToken), OAuthOperation.REFRESH, span)));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token, without blocking the calling thread.
+     * Concurrent refreshes of the same refresh token share a single request to the authorization server.
+     *
+     * @param refreshToken the refresh token to use
+     * @return a new {@link AccessTokenResponse} as a {@link CompletableFuture}, which completes exceptionally with a
+     * {@link TokenException} when the refresh action failed
+     */
+    public CompletableFuture<AccessTokenResponse> refreshAsync(String refreshToken) {
+        return ONGOING_REFRESHES.executeAsync(toRefreshKey(refreshToken),
+                () -> traceAsync(TracingConstants.SPAN_REFRESH, null, span ->
+                        requestTokensAsync(buildRefreshTokenPayload(refreshToken), OAuthOperation.REFRESH, span)));
+    }
+
+    /**
+     * Exchanges many refresh tokens at once, with at most {@link #DEFAULT_REFRESH_PARALLELISM} refreshes in flight.
+     *
+     * @param refreshTokens the refresh tokens to use
+     * @return a {@link RefreshResult} per refresh token, in the same order
+     *
+     * @see #refreshAll(Collection, int)
+     */
+    public List<RefreshResult> refreshAll(Collection<String> refreshTokens) {
+        return refreshAll(refreshTokens, DEFAULT_REFRESH_PARALLELISM);
+    }
+
+    /**
+     * Exchanges many refresh tokens at once, with at most the given number of refreshes in flight. All refreshes
+     * share the same pooled connections. A failing refresh doesn't abort the others: its {@link RefreshResult} holds
+     * the {@link TokenException} instead.
+     *
+     * @param refreshTokens the refresh tokens to use
+     * @param maxParallelism the maximum number of refreshes in flight
+     * @return a {@link RefreshResult} per refresh token, in the same order
+     *
+     * @throws InvalidConfigException when the maximum number of refreshes in flight isn't positive
+     */
+    public List<RefreshResult> refreshAll(Collection<String> refreshTokens, int maxParallelism) {
+        return refreshAllAsync(refreshTokens, maxParallelism).join();
+    }
+
+    /**
+     * Exchanges many refresh tokens at once without blocking the calling thread, with at most the given number of
+     * refreshes in flight. A failing refresh doesn't abort the others: its {@link RefreshResult} holds the
+     * {@link TokenException} instead.
+     *
+     * @param refreshTokens the refresh tokens to use
+     * @param maxParallelism the maximum number of refreshes in flight
+     * @return a {@link RefreshResult} per refresh token, in the same order, as a {@link CompletableFuture}
+     *
+     * @throws InvalidConfigException when the maximum number of refreshes in flight isn't positive
+     */
+    public CompletableFuture<List<RefreshResult>> refreshAllAsync(Collection<String> refreshTokens,
+                                                                  int maxParallelism) {
+        if (maxParallelism <= 0) {
+            throw new InvalidConfigException("maxParallelism must be greater than 0");
+        }
+        return BoundedBatch.run(new ArrayList<>(refreshTokens), maxParallelism, this::refreshToResult);
     }
 
     /**
      * Gets the user info by access token.
+     * When a {@link UserInfoCache} is configured, cached user info is returned without contacting the authorization
+     * server.
      *
      * @param accessToken the access token to use
      * @return A {@link UserInfoResponse}
@@ -124,138 +312,919 @@ public class AuthorizationCodeFlowWithPkce {
      * @throws UserInfoException when the user info request failed
      */
     public UserInfoResponse getUserInfo(String accessToken) {
-        KeyValuePair token = KeyValuePair.authorizationBearerFor(accessToken);
-        GetRequest getRequest = new GetRequest(RequestParameters
-                .newBuilder()
-                .withEndpoint(this.authorizationServerConfig.getEndpointUserInfo())
-                .withKeyValuePairs(token)
-                .build());
-        GetResult getResult = sendUserInfoGetRequest(getRequest);
-        assertValidUserInfoResponse(getResult);
-        return toUserInfoResponse(getResult);
+        Optional<UserInfoResponse> cachedUserInfoResponse = getCachedUserInfo(accessToken);
+        if (cachedUserInfoResponse.isPresent()) {
+            return cachedUserInfoResponse.get();
+        }
+        return trace(TracingConstants.SPAN_USER_INFO, null, span -> {
+            JsonResult<UserInfoResponse> jsonResult = sendUserInfoGetRequest(
+                    buildUserInfoGetRequest(accessToken, span));
+            setStatusCode(span, jsonResult);
+            assertValidUserInfoResponse(jsonResult);
+            return cacheUserInfo(accessToken, toUserInfoResponse(jsonResult));
+        });
     }
-    
+
+    /**
+     * Gets the user info by access token, without blocking the calling thread.
+     * When a {@link UserInfoCache} is configured, cached user info is returned without contacting the authorization
+     * server.
+     *
+     * @param accessToken the access token to use
+     * @return A {@link UserInfoResponse} as a {@link CompletableFuture}, which completes exceptionally with a
+     * {@link UserInfoException} when the user info request failed
+     */
+    public CompletableFuture<UserInfoResponse> getUserInfoAsync(String accessToken) {
+        Optional<UserInfoResponse> cachedUserInfoResponse = getCachedUserInfo(accessToken);
+        if (cachedUserInfoResponse.isPresent()) {
+            return CompletableFuture.completedFuture(cachedUserInfoResponse.get());
+        }
+        return traceAsync(TracingConstants.SPAN_USER_INFO, null, span -> this.remoteResource
+                .getAsync(buildUserInfoGetRequest(accessToken, span), ResponseParser.USER_INFO_RESPONSE_ADAPTER)
+                .handle((jsonResult, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = Futures.unwrap(throwable);
+                        throw new UserInfoException(
+                                String.format("Cannot request user info: %s", cause.getMessage()), cause);
+                    }
+                    setStatusCode(span, jsonResult);
+                    assertValidUserInfoResponse(jsonResult);
+                    return cacheUserInfo(accessToken, toUserInfoResponse(jsonResult));
+                }));
+    }
+
+    /**
+     * Gets the user info from an ID token, like the one in {@link AccessTokenResponse#getIdToken()}, without calling
+     * the user info endpoint. The ID token is verified locally: its RS256 or ES256 signature must match a key served
+     * by the JWKS endpoint, and it must be issued to this client by the configured issuer, and not be expired. The
+     * keys are fetched on first use and cached as long as the authorization server allows, or until a token is signed
+     * by a key that isn't cached.
+     *
+     * @param idToken the ID token to use
+     * @return A {@link UserInfoResponse} with the {@code sub}, {@code preferred_username}, {@code name} and
+     * {@code email} claims of the ID token
+     *
+     * @throws MissingConfigException when no issuer is configured, see
+     * {@link AuthorizationServerConfig.Builder#withIssuer(String)}
+     * @throws VerificationException when the ID token isn't valid, or the signing keys couldn't be requested
+     */
+    public UserInfoResponse getUserInfoFromIdToken(String idToken) {
+        if (this.idTokenVerifier == null) {
+            throw new MissingConfigException(
+                    "issuer cannot be null to verify ID tokens, set it with withIssuer or withProviderMetadata");
+        }
+        return ResponseParser.USER_INFO_RESPONSE_ADAPTER.fromJsonTree(this.idTokenVerifier.verify(idToken));
+    }
+
+    /**
+     * Introspects a token (RFC 7662), e.g. to check an opaque bearer token presented to a resource server. The
+     * request is authenticated with the client ID and, when configured, the client secret.
+     * When an {@link IntrospectionCache} is configured, a cached result is returned without contacting the
+     * authorization server. Concurrent introspections of the same token share a single request.
+     *
+     * @param token the token to introspect
+     * @return An {@link IntrospectionResponse}, which tells whether the token is active
+     *
+     * @throws IntrospectionException when the introspection request failed
+     */
+    public IntrospectionResponse introspect(String token) {
+        Optional<IntrospectionResponse> cachedIntrospectionResponse = getCachedIntrospection(token);
+        if (cachedIntrospectionResponse.isPresent()) {
+            return cachedIntrospectionResponse.get();
+        }
+        return this.ongoingIntrospections.execute(token,
+                () -> trace(TracingConstants.SPAN_INTROSPECTION, null, span -> {
+                    JsonResult<IntrospectionResponse> jsonResult = sendIntrospectionPostRequest(
+                            buildIntrospectionPostRequest(token, span));
+                    setStatusCode(span, jsonResult);
+                    return cacheIntrospection(token, toIntrospectionResponse(jsonResult));
+                }));
+    }
+
+    /**
+     * Introspects a token (RFC 7662), without blocking the calling thread.
+     * When an {@link IntrospectionCache} is configured, a cached result is returned without contacting the
+     * authorization server. Concurrent introspections of the same token share a single request.
+     *
+     * @param token the token to introspect
+     * @return An {@link IntrospectionResponse} as a {@link CompletableFuture}, which completes exceptionally with an
+     * {@link IntrospectionException} when the introspection request failed
+     */
+    public CompletableFuture<IntrospectionResponse> introspectAsync(String token) {
+        Optional<IntrospectionResponse> cachedIntrospectionResponse = getCachedIntrospection(token);
+        if (cachedIntrospectionResponse.isPresent()) {
+            return CompletableFuture.completedFuture(cachedIntrospectionResponse.get());
+        }
+        return this.ongoingIntrospections.executeAsync(token,
+                () -> traceAsync(TracingConstants.SPAN_INTROSPECTION, null, span -> this.remoteResource
+                        .postAsync(buildIntrospectionPostRequest(token, span),
+                                ResponseParser.INTROSPECTION_RESPONSE_ADAPTER)
+                        .handle((jsonResult, throwable) -> {
+                            if (throwable != null) {
+                                Throwable cause = Futures.unwrap(throwable);
+                                throw new IntrospectionException(
+                                        String.format("Cannot introspect token: %s", cause.getMessage()), cause);
+                            }
+                            setStatusCode(span, jsonResult);
+                            return cacheIntrospection(token, toIntrospectionResponse(jsonResult));
+                        })));
+    }
+
+    /**
+     * Introspects many tokens at once without blocking the calling thread, with at most the given number of
+     * introspections in flight. Cached tokens are answered without a request, and duplicate tokens share one. A
+     * failing introspection doesn't abort the others: its {@link IntrospectionResult} holds the
+     * {@link IntrospectionException} instead.
+     *
+     * @param tokens the tokens to introspect
+     * @param maxParallelism the maximum number of introspections in flight
+     * @return an {@link IntrospectionResult} per token, in the same order, as a {@link CompletableFuture}
+     *
+     * @throws InvalidConfigException when the maximum number of introspections in flight isn't positive
+     */
+    public CompletableFuture<List<IntrospectionResult>> introspectAllAsync(Collection<String> tokens,
+                                                                           int maxParallelism) {
+        if (maxParallelism <= 0) {
+            throw new InvalidConfigException("maxParallelism must be greater than 0");
+        }
+        return BoundedBatch.run(new ArrayList<>(tokens), maxParallelism, this::introspectToResult);
+    }
+
+    /**
+     * Revokes a token (RFC 7009), e.g. when signing out. Revoking a token that's already invalid succeeds.
+     *
+     * @param token the token to revoke
+     * @param tokenTypeHint the type of the token
+     *
+     * @throws RevocationException when the revocation request failed
+     */
+    public void revoke(String token, TokenTypeHint tokenTypeHint) {
+        trace(TracingConstants.SPAN_REVOCATION, null, span -> {
+            PostResult postResult = sendRevocationPostRequest(buildRevocationPostRequest(token, tokenTypeHint,
+                    this.authorizationServerConfig.getRetryPolicy(), span));
+            span.setAttribute(TracingConstants.ATTRIBUTE_HTTP_STATUS_CODE, postResult.getResultCode());
+            checkRevoked(postResult);
+            return null;
+        });
+    }
+
+    /**
+     * Revokes a token (RFC 7009), without blocking the calling thread.
+     *
+     * @param token the token to revoke
+     * @param tokenTypeHint the type of the token
+     * @return a {@link CompletableFuture}, which completes exceptionally with a {@link RevocationException} when the
+     * revocation request failed
+     */
+    public CompletableFuture<Void> revokeAsync(String token, TokenTypeHint tokenTypeHint) {
+        return sendRevocationAsync(token, tokenTypeHint, this.authorizationServerConfig.getRetryPolicy())
+                .thenAccept(this::checkRevoked);
+    }
+
+    /**
+     * Queues a token to be revoked (RFC 7009) on a background thread, and returns right away, so signing out never
+     * blocks the calling thread. Tokens queued while others are being revoked are revoked together as a next batch.
+     * A revocation that fails because the authorization server couldn't be reached, or is temporarily unavailable,
+     * is retried after a backoff, up to the configured maximum number of attempts. These retries take the place of the
+     * authorization server's retry policy.
+     *
+     * @param token the token to revoke
+     * @param tokenTypeHint the type of the token
+     */
+    public void revokeInBackground(String token, TokenTypeHint tokenTypeHint) {
+        this.revocationQueue.enqueue(token, tokenTypeHint);
+    }
+
+    /**
+     * Gets the number of revocations queued in the background that didn't succeed or were given up yet.
+     *
+     * @return the number of pending revocations
+     */
+    public int getPendingRevocations() {
+        return this.revocationQueue.getPending();
+    }
+
+    /**
+     * Waits until all revocations queued in the background succeeded or were given up, e.g. before your application
+     * exits.
+     *
+     * @param timeoutInMs the maximum time to wait in milliseconds
+     * @return {@code true} when no revocations are pending anymore, {@code false} when the timeout elapsed first
+     *
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public boolean awaitRevocations(long timeoutInMs)
+            throws InterruptedException {
+        return this.revocationQueue.await(timeoutInMs);
+    }
+
+    /**
+     * Gets the state of the circuit breaker guarding each endpoint of the authorization server, e.g. for monitoring.
+     *
+     * @return the circuit breaker states by endpoint URL, empty when no circuit breaker is configured
+     */
+    public Map<String, CircuitBreakerState> getCircuitBreakerStates() {
+        return this.remoteResource.getCircuitBreakerStates();
+    }
+
     // util
 
-    private void assertCanStartAuthorization() {
-        if (this.accessTokenResponseCompletableFuture != null && !this.accessTokenResponseCompletableFuture.isDone()) {
-            throw new IllegalStateException("An authorization request is already ongoing");
+    private synchronized AuthorizationSession startAuthorizationSession(Span authorizeSpan) {
+        assertCanStartAuthorization();
+        Pkce pkce = Pkce.generate();
+        String redirectUri = uriEncode(startCallbackServer());
+        AuthorizationSession session = new AuthorizationSession(
+                pkce, UUID.randomUUID().toString(), redirectUri, authorizeSpan);
+        this.authorizationSessions.put(session.state, session);
+        session.accessTokenResponseCompletableFuture.whenComplete((accessTokenResponse, throwable) ->
+                endAuthorizationSession(session, throwable));
+        return session;
+    }
+
+    private void endAuthorizationSession(AuthorizationSession session, Throwable throwable) {
+        synchronized (this) {
+            this.authorizationSessions.remove(session.state, session);
+            if (this.authorizationSessions.isEmpty()) {
+                this.callbackServer.release();
+            }
         }
+        session.endCallbackWait();
+        endSpan(session.authorizeSpan, throwable);
     }
 
-    private void assertValidAuthorizationState(String authorizationState) {
-        if (!state.equals(authorizationState)) {
-            accessTokenResponseCompletableFuture.completeExceptionally(new VerificationException("Invalid state"));
+    private void assertCanStartAuthorization() {
+        if (this.authorizationSessions.size() >= this.maxConcurrentAuthorizations) {
+            throw new IllegalStateException(this.maxConcurrentAuthorizations == 1
+                    ? "An authorization request is already ongoing"
+                    : String.format("%d authorization requests are already ongoing", this.maxConcurrentAuthorizations));
         }
     }
 
-    private void initAuthorization() {
-        accessTokenResponseCompletableFuture = new CompletableFuture<>();
-        pkce = Pkce.generate();
-        state = UUID.randomUUID().toString();
+    private String startCallbackServer() {
         try {
-            callbackServer.start();
-            redirectUri = uriEncode(this.callbackServer.getSuccessEndpoint());
+            this.callbackServer.start();
+            return this.callbackServer.getSuccessEndpoint();
         } catch (Exception e) {
             throw new CallbackServerException("Cannot start callback server", e);
         }
     }
 
     private void callbackReceived(AuthorizationCodeResponse authorizationCodeResponse) {
-        callbackServer.stop();
-        exchangeAuthorizationCode(authorizationCodeResponse);
+        Optional<AuthorizationSession> session = findAuthorizationSession(authorizationCodeResponse.getState());
+        if (session.isEmpty()) {
+            LOGGER.warn("Received callback for an unknown authorization request, ignoring");
+            return;
+        }
+        exchangeAuthorizationCode(session.get(), authorizationCodeResponse);
     }
 
-    private void exchangeAuthorizationCode(AuthorizationCodeResponse authorizationCodeResponse) {
-        assertValidAuthorizationState(authorizationCodeResponse.getState());
-        try {
-            AccessTokenResponse accessTokenResponse = requestTokens(
-                    GrantType.AUTHORIZATION_CODE, authorizationCodeResponse.getCode());
-            accessTokenResponseCompletableFuture.complete(accessTokenResponse);
-        } catch (Exception e) {
-            accessTokenResponseCompletableFuture.completeExceptionally(e);
+    private synchronized Optional<AuthorizationSession> findAuthorizationSession(String state) {
+        if (state != null && this.authorizationSessions.containsKey(state)) {
+            return Optional.of(this.authorizationSessions.get(state));
+        }
+        // with a single ongoing authorization, an unknown state can only be a forged or mangled callback for it
+        if (this.authorizationSessions.size() == 1) {
+            return this.authorizationSessions.values().stream().findFirst();
         }
+        return Optional.empty();
     }
 
-    private AccessTokenResponse requestTokens(GrantType grantType, String code) {
-        String payload = buildRequestTokensPayload(grantType, code);
-        PostRequest postRequest = new PostRequest(RequestParameters
-                .newBuilder()
-                .withEndpoint(this.authorizationServerConfig.getEndpointToken())
+    private void exchangeAuthorizationCode(AuthorizationSession session,
+                                           AuthorizationCodeResponse authorizationCodeResponse) {
+        CompletableFuture<AccessTokenResponse> future = session.accessTokenResponseCompletableFuture;
+        session.endCallbackWait();
+        if (!session.state.equals(authorizationCodeResponse.getState())) {
+            future.completeExceptionally(new VerificationException("Invalid state"));
+            return;
+        }
+        traceAsync(TracingConstants.SPAN_CODE_EXCHANGE, session.authorizeSpan, span -> requestTokensAsync(
+                buildAuthorizationCodePayload(session, authorizationCodeResponse.getCode()),
+                OAuthOperation.AUTHORIZATION_CODE_EXCHANGE, span))
+                .whenComplete((accessTokenResponse, throwable) -> {
+                    if (throwable == null) {
+                        future.complete(accessTokenResponse);
+                    } else {
+                        future.completeExceptionally(Futures.unwrap(throwable));
+                    }
+                });
+    }
+
+    private AccessTokenResponse requestTokens(String payload, OAuthOperation operation, Span span) {
+        JsonResult<AccessTokenResponse> jsonResult = sendTokenPostRequest(
+                buildRequestTokensPostRequest(payload, operation, span));
+        setStatusCode(span, jsonResult);
+        assertValidTokenResponse(jsonResult);
+        return toAccessTokenResponse(jsonResult);
+    }
+
+    private CompletableFuture<AccessTokenResponse> requestTokensAsync(String payload, OAuthOperation operation,
+                                                                      Span span) {
+        return this.remoteResource
+                .postAsync(buildRequestTokensPostRequest(payload, operation, span),
+                        ResponseParser.ACCESS_TOKEN_RESPONSE_ADAPTER)
+                .handle((jsonResult, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = Futures.unwrap(throwable);
+                        throw new TokenException(String.format("Cannot request tokens: %s", cause.getMessage()), cause);
+                    }
+                    setStatusCode(span, jsonResult);
+                    assertValidTokenResponse(jsonResult);
+                    return toAccessTokenResponse(jsonResult);
+                });
+    }
+
+    private PostRequest buildRequestTokensPostRequest(String payload, OAuthOperation operation, Span span) {
+        // an authorization code can only be redeemed once, so the exchange isn't replayed
+        boolean idempotent = operation != OAuthOperation.AUTHORIZATION_CODE_EXCHANGE;
+        return new PostRequest(newRequestParameters(
+                this.authorizationServerConfig.getEndpointTokenUri(), operation, span)
                 .withKeyValuePairs(KeyValuePair.CONTENT_TYPE_FORM)
-                .build(), payload);
-        PostResult postResult = sendTokenPostRequest(postRequest);
-        assertValidTokenResponse(postResult);
-        return toAccessTokenResponse(postResult);
+                .build(), payload, idempotent);
     }
 
-    private String buildRequestTokensPayload(GrantType grantType, String code) {
-        StringBuilder payload = new StringBuilder()
+    /**
+     * Starts the parameters of a request to the authorization server, with its configured HTTP version, limits, retry
+     * policy and circuit breaker.
+     */
+    private RequestParameters.Builder newRequestParameters(URI endpointUri, OAuthOperation operation, Span span) {
+        return RequestParameters
+                .newBuilder()
+                .withEndpointUri(endpointUri)
+                .withHttpVersion(this.authorizationServerConfig.getHttpVersion())
+                .withMaxConcurrentRequests(this.authorizationServerConfig.getMaxConcurrentRequests())
+                .withMaxQueuedRequests(this.authorizationServerConfig.getMaxQueuedRequests())
+                .withRetryPolicy(this.authorizationServerConfig.getRetryPolicy())
+                .withCircuitBreakerConfig(this.authorizationServerConfig.getCircuitBreakerConfig())
+                .withOperation(operation)
+                .withSpan(span);
+    }
+
+    private String buildAuthorizationCodePayload(AuthorizationSession session, String code) {
+        return buildRequestTokensPayload(GrantType.AUTHORIZATION_CODE)
+                .append("&code_verifier=").append(session.pkce.getCodeVerifier())
+                .append("&code=").append(code)
+                .append("&redirect_uri=").append(session.redirectUri)
+                .toString();
+    }
+
+    private String buildRefreshTokenPayload(String refreshToken) {
+        return buildRequestTokensPayload(GrantType.REFRESH_TOKEN)
+                .append("&refresh_token=").append(refreshToken)
+                .toString();
+    }
+
+    private StringBuilder buildRequestTokensPayload(GrantType grantType) {
+        return new StringBuilder()
                 .append("grant_type=").append(grantType.name().toLowerCase())
                 .append("&client_id=").append(this.authorizationServerConfig.getClientId());
-        if (grantType == GrantType.AUTHORIZATION_CODE) {
-            payload
-                    .append("&code_verifier=").append(pkce.getCodeVerifier())
-                    .append("&code=").append(code)
-                    .append("&redirect_uri=").append(redirectUri);
-        } else if (grantType == GrantType.REFRESH_TOKEN) {
-            payload
-                    .append("&refresh_token=").append(code);
-        }
-        return payload.toString();
     }
 
-    private PostResult sendTokenPostRequest(PostRequest postRequest) {
+    private JsonResult<AccessTokenResponse> sendTokenPostRequest(PostRequest postRequest) {
         try {
-            return new RemoteResource().post(postRequest);
+            return this.remoteResource.post(postRequest, ResponseParser.ACCESS_TOKEN_RESPONSE_ADAPTER);
         } catch (ResourceException e) {
             throw new TokenException(String.format("Cannot request tokens: %s", e.getMessage()), e);
         }
     }
 
-    private void assertValidTokenResponse(PostResult postResult) {
-        if (postResult == null) {
+    private void assertValidTokenResponse(JsonResult<AccessTokenResponse> jsonResult) {
+        if (jsonResult == null) {
             throw new TokenException("Something went wrong while exchanging token");
         }
-        if (postResult.getResultCode() != HttpStatusCode.OK) {
-            throw new TokenException(String.format("Unauthorized: %s", postResult));
+        if (jsonResult.getResultCode() != HttpStatusCode.OK) {
+            throw new TokenException(String.format("Unauthorized: %s", toPostResult(jsonResult)),
+                    jsonResult.getResultCode());
         }
     }
 
-    private AccessTokenResponse toAccessTokenResponse(PostResult postResult) {
-        try {
-            return new Gson().fromJson(postResult.getContent(), AccessTokenResponse.class);
-        } catch (Exception e) {
-            throw new TokenException(String.format("Cannot create AccessTokenResponse: %s", postResult), e);
-        }
+    private AccessTokenResponse toAccessTokenResponse(JsonResult<AccessTokenResponse> jsonResult) {
+        return jsonResult.getValue().orElseThrow(() -> new TokenException(
+                String.format("Cannot create AccessTokenResponse: %s", toPostResult(jsonResult)),
+                jsonResult.getParseException().orElse(null)));
     }
 
-    private GetResult sendUserInfoGetRequest(GetRequest getRequest) {
+    private PostResult toPostResult(JsonResult<?> jsonResult) {
+        return new PostResult(jsonResult.getResultCode(), jsonResult.getContent());
+    }
+
+    private GetRequest buildUserInfoGetRequest(String accessToken, Span span) {
+        KeyValuePair token = KeyValuePair.authorizationBearerFor(accessToken);
+        return new GetRequest(newRequestParameters(
+                this.authorizationServerConfig.getEndpointUserInfoUri(), OAuthOperation.USER_INFO, span)
+                .withKeyValuePairs(token)
+                .build());
+    }
+
+    private JsonResult<UserInfoResponse> sendUserInfoGetRequest(GetRequest getRequest) {
         try {
-            return new RemoteResource().get(getRequest);
+            return this.remoteResource.get(getRequest, ResponseParser.USER_INFO_RESPONSE_ADAPTER);
         } catch (ResourceException e) {
             throw new UserInfoException(String.format("Cannot request user info: %s", e.getMessage()), e);
         }
     }
 
-    private void assertValidUserInfoResponse(GetResult getResult) {
-        if (getResult == null) {
+    private void assertValidUserInfoResponse(JsonResult<UserInfoResponse> jsonResult) {
+        if (jsonResult == null) {
             throw new UserInfoException("Something went wrong while getting user info");
         }
-        if (getResult.getResultCode() != HttpStatusCode.OK) {
-            throw new UserInfoException(String.format("Unauthorized: %s", getResult));
+        if (jsonResult.getResultCode() != HttpStatusCode.OK) {
+            throw new UserInfoException(String.format("Unauthorized: %s", toGetResult(jsonResult)));
+        }
+    }
+
+    private UserInfoResponse toUserInfoResponse(JsonResult<UserInfoResponse> jsonResult) {
+        return jsonResult.getValue().orElseThrow(() -> new UserInfoException(
+                String.format("Cannot create UserInfoResponse: %s", toGetResult(jsonResult)),
+                jsonResult.getParseException().orElse(null)));
+    }
+
+    private GetResult toGetResult(JsonResult<?> jsonResult) {
+        return new GetResult(jsonResult.getResultCode(), jsonResult.getContent());
+    }
+    
+    private JsonResult<JsonWebKeySet> fetchJsonWebKeySet() {
+        return trace(TracingConstants.SPAN_JWKS, null, span -> {
+            JsonResult<JsonWebKeySet> jsonResult;
+            try {
+                jsonResult = this.remoteResource.get(
+                        buildJwksGetRequest(span), ResponseParser.JSON_WEB_KEY_SET_ADAPTER);
+            } catch (ResourceException e) {
+                throw new VerificationException(
+                        String.format("Cannot request signing keys: %s", e.getMessage()), e);
+            }
+            setStatusCode(span, jsonResult);
+            return jsonResult;
+        });
+    }
+
+    private GetRequest buildJwksGetRequest(Span span) {
+        return new GetRequest(newRequestParameters(
+                this.authorizationServerConfig.getEndpointJwksUri(), OAuthOperation.JWKS, span)
+                .build());
+    }
+
+    private Optional<UserInfoResponse> getCachedUserInfo(String accessToken) {
+        if (this.userInfoCache == null) {
+            return Optional.empty();
+        }
+        return this.userInfoCache.get(accessToken);
+    }
+
+    private UserInfoResponse cacheUserInfo(String accessToken, UserInfoResponse userInfoResponse) {
+        if (this.userInfoCache != null) {
+            this.userInfoCache.put(accessToken, userInfoResponse);
+        }
+        return userInfoResponse;
+    }
+
+    private PostRequest buildIntrospectionPostRequest(String token, Span span) {
+        StringBuilder payload = new StringBuilder()
+                .append("token=").append(uriEncode(token))
+                .append("&client_id=").append(uriEncode(this.authorizationServerConfig.getClientId()));
+        this.authorizationServerConfig.getClientSecret()
+                .ifPresent(clientSecret -> payload.append("&client_secret=").append(uriEncode(clientSecret)));
+        // introspection doesn't change any state, so it's safe to replay
+        return new PostRequest(newRequestParameters(
+                this.authorizationServerConfig.getEndpointIntrospectionUri(), OAuthOperation.INTROSPECTION, span)
+                .withKeyValuePairs(KeyValuePair.CONTENT_TYPE_FORM)
+                .build(), payload.toString(), true);
+    }
+
+    private JsonResult<IntrospectionResponse> sendIntrospectionPostRequest(PostRequest postRequest) {
+        try {
+            return this.remoteResource.post(postRequest, ResponseParser.INTROSPECTION_RESPONSE_ADAPTER);
+        } catch (ResourceException e) {
+            throw new IntrospectionException(String.format("Cannot introspect token: %s", e.getMessage()), e);
+        }
+    }
+
+    private IntrospectionResponse toIntrospectionResponse(JsonResult<IntrospectionResponse> jsonResult) {
+        if (jsonResult.getResultCode() != HttpStatusCode.OK) {
+            throw new IntrospectionException(String.format("Unauthorized: %s", toPostResult(jsonResult)));
+        }
+        return jsonResult.getValue().orElseThrow(() -> new IntrospectionException(
+                String.format("Cannot create IntrospectionResponse: %s", toPostResult(jsonResult)),
+                jsonResult.getParseException().orElse(null)));
+    }
+
+    private Optional<IntrospectionResponse> getCachedIntrospection(String token) {
+        if (this.introspectionCache == null) {
+            return Optional.empty();
+        }
+        return this.introspectionCache.get(token);
+    }
+
+    private IntrospectionResponse cacheIntrospection(String token, IntrospectionResponse introspectionResponse) {
+        if (this.introspectionCache != null) {
+            this.introspectionCache.put(token, introspectionResponse);
         }
+        return introspectionResponse;
     }
 
-    private UserInfoResponse toUserInfoResponse(GetResult getResult) {
+    private CompletableFuture<IntrospectionResult> introspectToResult(String token) {
+        return introspectAsync(token).handle((introspectionResponse, throwable) -> {
+            if (throwable == null) {
+                return IntrospectionResult.success(token, introspectionResponse);
+            }
+            Throwable cause = Futures.unwrap(throwable);
+            return IntrospectionResult.failure(token, cause instanceof IntrospectionException
+                    ? (IntrospectionException) cause
+                    : new IntrospectionException(String.format("Cannot introspect token: %s", cause.getMessage()),
+                    cause));
+        });
+    }
+
+    private PostRequest buildRevocationPostRequest(String token, TokenTypeHint tokenTypeHint, RetryPolicy retryPolicy,
+                                                   Span span) {
+        StringBuilder payload = new StringBuilder()
+                .append("token=").append(uriEncode(token))
+                .append("&token_type_hint=").append(tokenTypeHint.getValue())
+                .append("&client_id=").append(uriEncode(this.authorizationServerConfig.getClientId()));
+        this.authorizationServerConfig.getClientSecret()
+                .ifPresent(clientSecret -> payload.append("&client_secret=").append(uriEncode(clientSecret)));
+        // revoking a token twice has the same effect as revoking it once, so it's safe to replay
+        return new PostRequest(newRequestParameters(
+                this.authorizationServerConfig.getEndpointRevocationUri(), OAuthOperation.REVOCATION, span)
+                .withKeyValuePairs(KeyValuePair.CONTENT_TYPE_FORM)
+                .withRetryPolicy(retryPolicy)
+                .build(), payload.toString(), true);
+    }
+
+    private PostResult sendRevocationPostRequest(PostRequest postRequest) {
         try {
-            return new Gson().fromJson(getResult.getContent(), UserInfoResponse.class);
-        } catch (Exception e) {
-            throw new UserInfoException(String.format("Cannot create UserInfoResponse: %s", getResult), e);
+            return this.remoteResource.post(postRequest);
+        } catch (ResourceException e) {
+            throw new RevocationException(String.format("Cannot revoke token: %s", e.getMessage()), e);
         }
     }
-    
+
+    private CompletableFuture<PostResult> sendRevocationAsync(String token, TokenTypeHint tokenTypeHint,
+                                                              RetryPolicy retryPolicy) {
+        return traceAsync(TracingConstants.SPAN_REVOCATION, null, span -> this.remoteResource
+                .postAsync(buildRevocationPostRequest(token, tokenTypeHint, retryPolicy, span))
+                .handle((postResult, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = Futures.unwrap(throwable);
+                        throw new RevocationException(
+                                String.format("Cannot revoke token: %s", cause.getMessage()), cause);
+                    }
+                    span.setAttribute(TracingConstants.ATTRIBUTE_HTTP_STATUS_CODE, postResult.getResultCode());
+                    return postResult;
+                }));
+    }
+
+    private void checkRevoked(PostResult postResult) {
+        if (postResult.getResultCode() != HttpStatusCode.OK) {
+            throw new RevocationException(String.format("Cannot revoke token: %s", postResult));
+        }
+    }
+
+    private CompletableFuture<RefreshResult> refreshToResult(String refreshToken) {
+        return refreshAsync(refreshToken).handle((accessTokenResponse, throwable) -> {
+            if (throwable == null) {
+                return RefreshResult.success(refreshToken, accessTokenResponse);
+            }
+            Throwable cause = Futures.unwrap(throwable);
+            return RefreshResult.failure(refreshToken, cause instanceof TokenException
+                    ? (TokenException) cause
+                    : new TokenException(String.format("Cannot refresh tokens: %s", cause.getMessage()), cause));
+        });
+    }
+
+    private RefreshKey toRefreshKey(String refreshToken) {
+        return new RefreshKey(this.authorizationServerConfig.getEndpointToken(),
+                this.authorizationServerConfig.getClientId(), refreshToken);
+    }
+
+    private <T> T trace(String spanName, Span parent, Function<Span, T> call) {
+        Span span = this.tracer.startSpan(spanName, parent);
+        try {
+            T result = call.apply(span);
+            span.end();
+            return result;
+        } catch (RuntimeException e) {
+            endSpan(span, e);
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> traceAsync(String spanName, Span parent,
+                                                Function<Span, CompletableFuture<T>> call) {
+        Span span = this.tracer.startSpan(spanName, parent);
+        CompletableFuture<T> future;
+        try {
+            future = call.apply(span);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, throwable) -> endSpan(span, throwable));
+    }
+
+    private void endSpan(Span span, Throwable throwable) {
+        if (throwable != null) {
+            span.recordFailure(Futures.unwrap(throwable));
+        }
+        span.end();
+    }
+
+    private void setStatusCode(Span span, JsonResult<?> jsonResult) {
+        if (jsonResult != null) {
+            span.setAttribute(TracingConstants.ATTRIBUTE_HTTP_STATUS_CODE, jsonResult.getResultCode());
+        }
+    }
+
     private String uriEncode(String toEncode) {
         return URLEncoder.encode(toEncode, StandardCharsets.UTF_8);
     }
+
+    // static util
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private AuthorizationServerConfig authorizationServerConfig;
+        private Browser browser;
+        private UserInfoCache userInfoCache;
+        private IntrospectionCache introspectionCache;
+        private int revocationParallelism;
+        private int revocationMaxAttempts;
+        private long revocationRetryDelayInMs;
+        private int maxConcurrentAuthorizations;
+        private long callbackServerIdleTimeoutInMs;
+        private ExecutorStrategy executorStrategy;
+        private MetricsRecorder metricsRecorder;
+        private Tracer tracer;
+
+        private Builder() {
+            maxConcurrentAuthorizations = DEFAULT_MAX_CONCURRENT_AUTHORIZATIONS;
+            callbackServerIdleTimeoutInMs = DEFAULT_CALLBACK_SERVER_IDLE_TIMEOUT_IN_MS;
+            revocationParallelism = DEFAULT_REVOCATION_PARALLELISM;
+            revocationMaxAttempts = DEFAULT_REVOCATION_MAX_ATTEMPTS;
+            revocationRetryDelayInMs = DEFAULT_REVOCATION_RETRY_DELAY_IN_MS;
+            executorStrategy = ExecutorStrategy.PLATFORM_THREADS;
+            metricsRecorder = MetricsRecorder.NOOP;
+            tracer = Tracer.NOOP;
+        }
+
+        /**
+         * Sets the authorization server config.
+         *
+         * @param val the config to use
+         * @return this builder for chaining
+         */
+        public Builder withAuthorizationServerConfig(AuthorizationServerConfig val) {
+            authorizationServerConfig = val;
+            return this;
+        }
+
+        /**
+         * Optional browser to open the authorization page with.
+         * Leave empty to use the system's default browser.
+         *
+         * @param val the browser to use
+         * @return this builder for chaining
+         */
+        public Builder withBrowser(Browser val) {
+            browser = val;
+            return this;
+        }
+
+        /**
+         * Optional cache for user info.
+         * Leave empty to always request user info from the authorization server.
+         *
+         * @param val the cache to use
+         * @return this builder for chaining
+         */
+        public Builder withUserInfoCache(UserInfoCache val) {
+            userInfoCache = val;
+            return this;
+        }
+
+        /**
+         * Optional cache for introspection results.
+         * Leave empty to always introspect tokens at the authorization server.
+         *
+         * @param val the cache to use
+         * @return this builder for chaining
+         */
+        public Builder withIntrospectionCache(IntrospectionCache val) {
+            introspectionCache = val;
+            return this;
+        }
+
+        /**
+         * Sets how many authorizations can be ongoing at the same time, e.g. to log in to several accounts at once.
+         * Defaults to `1`.
+         *
+         * @param val the maximum number of ongoing authorizations
+         * @return this builder for chaining
+         */
+        public Builder withMaxConcurrentAuthorizations(int val) {
+            maxConcurrentAuthorizations = val;
+            return this;
+        }
+
+        /**
+         * Sets how long the background server stays up after the last ongoing authorization, so a next authorization
+         * can reuse it instead of starting a new one. Call {@link AuthorizationCodeFlowWithPkce#close()} to stop it
+         * sooner, e.g. when your application exits.
+         * Defaults to `0`, stopping the server right after each authorization.
+         *
+         * @param val the idle timeout in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withCallbackServerIdleTimeoutInMs(long val) {
+            callbackServerIdleTimeoutInMs = val;
+            return this;
+        }
+
+        /**
+         * Sets how many revocations queued in the background are sent to your authorization server at the same time.
+         * Defaults to `8`.
+         *
+         * @param val the maximum number of revocation requests in flight
+         * @return this builder for chaining
+         */
+        public Builder withRevocationParallelism(int val) {
+            revocationParallelism = val;
+            return this;
+        }
+
+        /**
+         * Sets how many times a revocation queued in the background is attempted, before it's given up.
+         * Defaults to `5`.
+         *
+         * @param val the maximum number of attempts per revocation
+         * @return this builder for chaining
+         */
+        public Builder withRevocationMaxAttempts(int val) {
+            revocationMaxAttempts = val;
+            return this;
+        }
+
+        /**
+         * Sets how long a failed revocation queued in the background waits before its first retry. The delay doubles
+         * for each next retry, up to a minute.
+         * Defaults to `1000`.
+         *
+         * @param val the first retry delay in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withRevocationRetryDelayInMs(long val) {
+            revocationRetryDelayInMs = val;
+            return this;
+        }
+
+        /**
+         * Sets the threads serving the background server and the asynchronous calls to your authorization server.
+         * With {@link ExecutorStrategy#VIRTUAL_THREADS} on Java 21 or later, each task gets its own virtual thread.
+         * Defaults to `PLATFORM_THREADS`.
+         *
+         * @param val the executor strategy to use
+         * @return this builder for chaining
+         */
+        public Builder withExecutorStrategy(ExecutorStrategy val) {
+            executorStrategy = val;
+            return this;
+        }
+
+        /**
+         * Sets the recorder of the latency, status code and response size of every call to your authorization
+         * server, and of the time the background server takes to handle a callback.
+         * Defaults to {@link MetricsRecorder#NOOP}, recording nothing.
+         *
+         * @param val the metrics recorder to use
+         * @return this builder for chaining
+         */
+        public Builder withMetricsRecorder(MetricsRecorder val) {
+            metricsRecorder = val;
+            return this;
+        }
+
+        /**
+         * Sets the tracer of the phases of each authorization: opening the browser, waiting for the callback and
+         * exchanging the code, and of each refresh and user info request. The {@code traceparent} of their spans is
+         * sent along with the requests to your authorization server.
+         * Defaults to {@link Tracer#NOOP}, tracing nothing.
+         *
+         * @param val the tracer to use
+         * @return this builder for chaining
+         */
+        public Builder withTracer(Tracer val) {
+            tracer = val;
+            return this;
+        }
+
+        /**
+         * Constructs the {@link AuthorizationCodeFlowWithPkce} object with your given parameters.
+         *
+         * @return the {@link AuthorizationCodeFlowWithPkce} object
+         *
+         * @throws MissingConfigException when mandatory fields are missing
+         * @throws InvalidConfigException when the maximum number of ongoing authorizations, revocation parallelism or
+         * maximum number of revocation attempts isn't positive, or the idle timeout or revocation retry delay is
+         * negative
+         */
+        public AuthorizationCodeFlowWithPkce build() {
+            if (authorizationServerConfig == null) {
+                throw new MissingConfigException("authorizationServerConfig cannot be null");
+            }
+            if (maxConcurrentAuthorizations <= 0) {
+                throw new InvalidConfigException("maxConcurrentAuthorizations must be greater than 0");
+            }
+            if (executorStrategy == null) {
+                throw new MissingConfigException("executorStrategy cannot be null");
+            }
+            if (metricsRecorder == null) {
+                throw new MissingConfigException("metricsRecorder cannot be null");
+            }
+            if (tracer == null) {
+                throw new MissingConfigException("tracer cannot be null");
+            }
+            if (callbackServerIdleTimeoutInMs < 0) {
+                throw new InvalidConfigException("callbackServerIdleTimeoutInMs cannot be negative");
+            }
+            if (revocationParallelism <= 0) {
+                throw new InvalidConfigException("revocationParallelism must be greater than 0");
+            }
+            if (revocationMaxAttempts <= 0) {
+                throw new InvalidConfigException("revocationMaxAttempts must be greater than 0");
+            }
+            if (revocationRetryDelayInMs < 0) {
+                throw new InvalidConfigException("revocationRetryDelayInMs cannot be negative");
+            }
+            return new AuthorizationCodeFlowWithPkce(this);
+        }
+    }
+
+    private static final class AuthorizationSession {
+
+        private final Pkce pkce;
+        private final String state;
+        private final String redirectUri;
+        private final CompletableFuture<AccessTokenResponse> accessTokenResponseCompletableFuture;
+        private final Span authorizeSpan;
+
+        private Span callbackWaitSpan;
+        private boolean callbackWaitEnded;
+
+        private AuthorizationSession(Pkce pkce, String state, String redirectUri, Span authorizeSpan) {
+            this.pkce = pkce;
+            this.state = state;
+            this.redirectUri = redirectUri;
+            this.accessTokenResponseCompletableFuture = new CompletableFuture<>();
+            this.authorizeSpan = authorizeSpan;
+        }
+
+        private synchronized void startCallbackWait(Span span) {
+            // the callback can arrive before the browser call returns
+            if (this.callbackWaitEnded) {
+                span.end();
+            } else {
+                this.callbackWaitSpan = span;
+            }
+        }
+
+        private synchronized void endCallbackWait() {
+            this.callbackWaitEnded = true;
+            if (this.callbackWaitSpan != null) {
+                this.callbackWaitSpan.end();
+                this.callbackWaitSpan = null;
+            }
+        }
+    }
+
+    private static final class RefreshKey {
+
+        private final String endpointToken;
+        private final String clientId;
+        private final String refreshToken;
+
+        private RefreshKey(String endpointToken, String clientId, String refreshToken) {
+            this.endpointToken = endpointToken;
+            this.clientId = clientId;
+            this.refreshToken = refreshToken;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RefreshKey)) {
+                return false;
+            }
+            RefreshKey that = (RefreshKey) o;
+            return Objects.equals(endpointToken, that.endpointToken) && Objects.equals(clientId, that.clientId) &&
+                    Objects.equals(refreshToken, that.refreshToken);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endpointToken, clientId, refreshToken);
+        }
+    }
 }
@@ -1,9 +1,18 @@
 package com.giannivanhoecke.oauth.desktop;
 
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
 import com.giannivanhoecke.oauth.desktop.exception.MissingConfigException;
+import com.giannivanhoecke.oauth.desktop.representation.ProviderMetadata;
+import com.giannivanhoecke.oauth.desktop.resilience.CircuitBreakerConfig;
+import com.giannivanhoecke.oauth.desktop.resilience.RetryPolicy;
 import org.apache.commons.lang3.StringUtils;
 
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
@@ -11,45 +20,131 @@ import java.util.Objects;
  */
 public class AuthorizationServerConfig {
 
-    public static final String DEFAULT_ENDPOINT_AUTH      = "/auth";
-    public static final String DEFAULT_ENDPOINT_USER_INFO = "/userinfo";
-    public static final String DEFAULT_ENDPOINT_TOKEN     = "/token";
-    public static final String DEFAULT_AUTH_SCOPE         = "openid offline_access email profile";
+    public static final String DEFAULT_ENDPOINT_AUTH          = "/auth";
+    public static final String DEFAULT_ENDPOINT_USER_INFO     = "/userinfo";
+    public static final String DEFAULT_ENDPOINT_TOKEN         = "/token";
+    public static final String DEFAULT_ENDPOINT_JWKS          = "/certs";
+    public static final String DEFAULT_ENDPOINT_INTROSPECTION = "/token/introspect";
+    public static final String DEFAULT_ENDPOINT_REVOCATION    = "/revoke";
+    public static final String DEFAULT_AUTH_SCOPE             = "openid offline_access email profile";
+    public static final HttpClient.Version DEFAULT_HTTP_VERSION = HttpClient.Version.HTTP_1_1;
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 0;
+    public static final int DEFAULT_MAX_QUEUED_REQUESTS     = 100;
+    public static final RetryPolicy DEFAULT_RETRY_POLICY    = RetryPolicy.NONE;
+    public static final CircuitBreakerConfig DEFAULT_CIRCUIT_BREAKER_CONFIG = CircuitBreakerConfig.DISABLED;
+
+    private static final Set<String> SUPPORTED_SCHEMES = Set.of("http", "https");
     
     private final String baseUrl;
     private final String endpointAuth;
     private final String endpointUserInfo;
     private final String endpointToken;
+    private final String endpointJwks;
+    private final String endpointIntrospection;
+    private final String endpointRevocation;
+    private final String issuer;
     private final String clientId;
+    private final String clientSecret;
     private final String authScope;
     private final String successRedirectUri;
+    private final HttpClient.Version httpVersion;
+    private final int maxConcurrentRequests;
+    private final int maxQueuedRequests;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreakerConfig circuitBreakerConfig;
+    private final URI endpointAuthUri;
+    private final URI endpointUserInfoUri;
+    private final URI endpointTokenUri;
+    private final URI endpointJwksUri;
+    private final URI endpointIntrospectionUri;
+    private final URI endpointRevocationUri;
 
     private AuthorizationServerConfig(Builder builder) {
         baseUrl = builder.baseUrl;
         endpointAuth = builder.endpointAuth;
         endpointUserInfo = builder.endpointUserInfo;
         endpointToken = builder.endpointToken;
+        endpointJwks = builder.endpointJwks;
+        endpointIntrospection = builder.endpointIntrospection;
+        endpointRevocation = builder.endpointRevocation;
+        issuer = builder.issuer;
         clientId = builder.clientId;
+        clientSecret = builder.clientSecret;
         authScope = builder.authScope;
         successRedirectUri = builder.successRedirectUri;
+        httpVersion = builder.httpVersion;
+        maxConcurrentRequests = builder.maxConcurrentRequests;
+        maxQueuedRequests = builder.maxQueuedRequests;
+        retryPolicy = builder.retryPolicy;
+        circuitBreakerConfig = builder.circuitBreakerConfig;
+        endpointAuthUri = toEndpointUri("endpointAuth", baseUrl, endpointAuth);
+        endpointUserInfoUri = toEndpointUri("endpointUserInfo", baseUrl, endpointUserInfo);
+        endpointTokenUri = toEndpointUri("endpointToken", baseUrl, endpointToken);
+        endpointJwksUri = toEndpointUri("endpointJwks", baseUrl, endpointJwks);
+        endpointIntrospectionUri = toEndpointUri("endpointIntrospection", baseUrl, endpointIntrospection);
+        endpointRevocationUri = toEndpointUri("endpointRevocation", baseUrl, endpointRevocation);
     }
 
     public String getEndpointAuth() {
-        return String.format("%s%s", baseUrl, endpointAuth);
+        return endpointAuthUri.toString();
+    }
+
+    public URI getEndpointAuthUri() {
+        return endpointAuthUri;
     }
 
     public String getEndpointUserInfo() {
-        return String.format("%s%s", baseUrl, endpointUserInfo);
+        return endpointUserInfoUri.toString();
+    }
+
+    public URI getEndpointUserInfoUri() {
+        return endpointUserInfoUri;
     }
 
     public String getEndpointToken() {
-        return String.format("%s%s", baseUrl, endpointToken);
+        return endpointTokenUri.toString();
+    }
+
+    public URI getEndpointTokenUri() {
+        return endpointTokenUri;
+    }
+
+    public String getEndpointJwks() {
+        return endpointJwksUri.toString();
+    }
+
+    public URI getEndpointJwksUri() {
+        return endpointJwksUri;
+    }
+
+    public String getEndpointIntrospection() {
+        return endpointIntrospectionUri.toString();
+    }
+
+    public URI getEndpointIntrospectionUri() {
+        return endpointIntrospectionUri;
+    }
+
+    public String getEndpointRevocation() {
+        return endpointRevocationUri.toString();
+    }
+
+    public URI getEndpointRevocationUri() {
+        return endpointRevocationUri;
+    }
+
+    public Optional<String> getIssuer() {
+        return Optional.ofNullable(issuer);
     }
 
     public String getClientId() {
         return clientId;
     }
 
+    public Optional<String> getClientSecret() {
+        return Optional.ofNullable(clientSecret);
+    }
+
     public String getAuthScope() {
         return authScope;
     }
@@ -58,12 +153,37 @@ public class AuthorizationServerConfig {
         return successRedirectUri;
     }
 
+    public HttpClient.Version getHttpVersion() {
+        return httpVersion;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public CircuitBreakerConfig getCircuitBreakerConfig() {
+        return circuitBreakerConfig;
+    }
+
     @Override
     public String toString() {
         return "AuthorizationServerConfig{" + "baseUrl='" + baseUrl + '\'' + ", endpointAuth='" + endpointAuth + '\'' +
                 ", endpointUserInfo='" + endpointUserInfo + '\'' + ", endpointToken='" + endpointToken + '\'' +
-                ", clientId='" + clientId + '\'' + ", authScope='" + authScope + '\'' + ", successRedirectUri='" +
-                successRedirectUri + '\'' + '}';
+                ", endpointJwks='" + endpointJwks + '\'' + ", endpointIntrospection='" + endpointIntrospection + '\'' +
+                ", endpointRevocation='" + endpointRevocation + '\'' + ", issuer='" + issuer + '\'' +
+                ", clientId='" + clientId + '\'' + ", clientSecret=" + (clientSecret == null ? "null" : "'***'") +
+                ", authScope='" + authScope + '\'' +
+                ", successRedirectUri='" + successRedirectUri + '\'' + ", httpVersion=" + httpVersion +
+                ", maxConcurrentRequests=" + maxConcurrentRequests + ", maxQueuedRequests=" + maxQueuedRequests +
+                ", retryPolicy=" + retryPolicy + ", circuitBreakerConfig=" + circuitBreakerConfig + '}';
     }
 
     @Override
@@ -77,15 +197,49 @@ public class AuthorizationServerConfig {
         AuthorizationServerConfig config = (AuthorizationServerConfig) o;
         return Objects.equals(baseUrl, config.baseUrl) && Objects.equals(endpointAuth, config.endpointAuth) &&
                 Objects.equals(endpointUserInfo, config.endpointUserInfo) &&
-                Objects.equals(endpointToken, config.endpointToken) && Objects.equals(clientId, config.clientId) &&
+                Objects.equals(endpointToken, config.endpointToken) &&
+                Objects.equals(endpointJwks, config.endpointJwks) &&
+                Objects.equals(endpointIntrospection, config.endpointIntrospection) &&
+                Objects.equals(endpointRevocation, config.endpointRevocation) &&
+                Objects.equals(issuer, config.issuer) && Objects.equals(clientId, config.clientId) &&
+                Objects.equals(clientSecret, config.clientSecret) &&
                 Objects.equals(authScope, config.authScope) &&
-                Objects.equals(successRedirectUri, config.successRedirectUri);
+                Objects.equals(successRedirectUri, config.successRedirectUri) && httpVersion == config.httpVersion &&
+                maxConcurrentRequests == config.maxConcurrentRequests &&
+                maxQueuedRequests == config.maxQueuedRequests && Objects.equals(retryPolicy, config.retryPolicy) &&
+                Objects.equals(circuitBreakerConfig, config.circuitBreakerConfig);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(baseUrl, endpointAuth, endpointUserInfo, endpointToken, clientId, authScope,
-                successRedirectUri);
+        return Objects.hash(baseUrl, endpointAuth, endpointUserInfo, endpointToken, endpointJwks,
+                endpointIntrospection, endpointRevocation, issuer, clientId, clientSecret, authScope,
+                successRedirectUri, httpVersion, maxConcurrentRequests, maxQueuedRequests, retryPolicy,
+                circuitBreakerConfig);
+    }
+
+    // static util
+
+    private static URI toEndpointUri(String name, String baseUrl, String endpoint) {
+        String endpointUrl = isAbsoluteUrl(endpoint) ? endpoint : baseUrl + endpoint;
+        URI endpointUri;
+        try {
+            endpointUri = new URI(endpointUrl);
+        } catch (URISyntaxException e) {
+            throw new InvalidConfigException(String.format("%s '%s' is not a valid URL", name, endpointUrl), e);
+        }
+        String scheme = endpointUri.getScheme();
+        if (scheme == null || !SUPPORTED_SCHEMES.contains(scheme.toLowerCase()) || endpointUri.getHost() == null) {
+            throw new InvalidConfigException(String.format(
+                    "%s '%s' must be an absolute http or https URL", name, endpointUrl));
+        }
+        return endpointUri;
+    }
+
+    private static boolean isAbsoluteUrl(String endpoint) {
+        return SUPPORTED_SCHEMES
+                .stream()
+                .anyMatch(scheme -> StringUtils.startsWithIgnoreCase(endpoint, scheme + "://"));
     }
 
     public static Builder newBuilder() {
@@ -97,15 +251,33 @@ public class AuthorizationServerConfig {
         private String endpointAuth;
         private String endpointUserInfo;
         private String endpointToken;
+        private String endpointJwks;
+        private String endpointIntrospection;
+        private String endpointRevocation;
+        private String issuer;
         private String clientId;
+        private String clientSecret;
         private String authScope;
         private String successRedirectUri;
+        private HttpClient.Version httpVersion;
+        private int maxConcurrentRequests;
+        private int maxQueuedRequests;
+        private RetryPolicy retryPolicy;
+        private CircuitBreakerConfig circuitBreakerConfig;
 
         private Builder() {
             endpointAuth = DEFAULT_ENDPOINT_AUTH;
             endpointUserInfo = DEFAULT_ENDPOINT_USER_INFO;
             endpointToken = DEFAULT_ENDPOINT_TOKEN;
+            endpointJwks = DEFAULT_ENDPOINT_JWKS;
+            endpointIntrospection = DEFAULT_ENDPOINT_INTROSPECTION;
+            endpointRevocation = DEFAULT_ENDPOINT_REVOCATION;
             authScope = DEFAULT_AUTH_SCOPE;
+            httpVersion = DEFAULT_HTTP_VERSION;
+            maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+            maxQueuedRequests = DEFAULT_MAX_QUEUED_REQUESTS;
+            retryPolicy = DEFAULT_RETRY_POLICY;
+            circuitBreakerConfig = DEFAULT_CIRCUIT_BREAKER_CONFIG;
         }
 
         /**
@@ -120,7 +292,7 @@ public class AuthorizationServerConfig {
         }
 
         /**
-         * Sets your authorization endpoint. Make sure you leave out the base URL.
+         * Sets your authorization endpoint. Leave out the base URL, unless it's on another host.
          * Defaults to `/auth`.
          *
          * @param val the endpoint to use
@@ -132,7 +304,7 @@ public class AuthorizationServerConfig {
         }
 
         /**
-         * Sets your user info endpoint. Make sure you leave out the base URL.
+         * Sets your user info endpoint. Leave out the base URL, unless it's on another host.
          * Defaults to `/userinfo`.
          *
          * @param val the endpoint to use
@@ -144,7 +316,7 @@ public class AuthorizationServerConfig {
         }
 
         /**
-         * Sets your token exchange endpoint. Make sure you leave out the base URL.
+         * Sets your token exchange endpoint. Leave out the base URL, unless it's on another host.
          * Defaults to `/token`.
          *
          * @param val the endpoint to use
@@ -155,6 +327,91 @@ public class AuthorizationServerConfig {
             return this;
         }
 
+        /**
+         * Sets the endpoint serving the keys your ID tokens are signed with, as a JSON Web Key Set. Leave out the
+         * base URL, unless it's on another host.
+         * Defaults to `/certs`.
+         *
+         * @param val the endpoint to use
+         * @return this builder for chaining
+         */
+        public Builder withEndpointJwks(String val) {
+            endpointJwks = val;
+            return this;
+        }
+
+        /**
+         * Sets the endpoint tokens are introspected at (RFC 7662). Leave out the base URL, unless it's on another
+         * host.
+         * Defaults to `/token/introspect`.
+         *
+         * @param val the endpoint to use
+         * @return this builder for chaining
+         */
+        public Builder withEndpointIntrospection(String val) {
+            endpointIntrospection = val;
+            return this;
+        }
+
+        /**
+         * Sets the endpoint tokens are revoked at when signing out (RFC 7009). Leave out the base URL, unless it's on
+         * another host.
+         * Defaults to `/revoke`.
+         *
+         * @param val the endpoint to use
+         * @return this builder for chaining
+         */
+        public Builder withEndpointRevocation(String val) {
+            endpointRevocation = val;
+            return this;
+        }
+
+        /**
+         * Sets the issuer your ID tokens must carry in their {@code iss} claim, e.g.
+         * {@code https://auth.example.com/realms/test} for Keycloak. Required to verify ID tokens locally, and set
+         * by {@link #withProviderMetadata(ProviderMetadata)}.
+         *
+         * @param val the issuer to expect
+         * @return this builder for chaining
+         */
+        public Builder withIssuer(String val) {
+            issuer = val;
+            return this;
+        }
+
+        /**
+         * Sets the base URL, issuer and endpoints from the OpenID Connect provider metadata of your authorization
+         * server, e.g. as discovered by {@link OidcDiscovery}. The user info, JWKS, introspection and revocation
+         * endpoints keep their defaults when the metadata doesn't list them.
+         *
+         * @param val the provider metadata to use
+         * @return this builder for chaining
+         *
+         * @throws MissingConfigException when the provider metadata is null
+         */
+        public Builder withProviderMetadata(ProviderMetadata val) {
+            if (val == null) {
+                throw new MissingConfigException("providerMetadata cannot be null");
+            }
+            baseUrl = val.getIssuer();
+            issuer = val.getIssuer();
+            endpointAuth = val.getAuthorizationEndpoint();
+            endpointToken = val.getTokenEndpoint();
+            if (StringUtils.isNotBlank(val.getUserInfoEndpoint())) {
+                endpointUserInfo = val.getUserInfoEndpoint();
+            }
+            if (StringUtils.isNotBlank(val.getJwksUri())) {
+                endpointJwks = val.getJwksUri();
+            }
+            if (StringUtils.isNotBlank(val.getIntrospectionEndpoint())) {
+                endpointIntrospection = val.getIntrospectionEndpoint();
+            }
+            if (StringUtils.isNotBlank(val.getRevocationEndpoint())) {
+                endpointRevocation = val.getRevocationEndpoint();
+            }
+            return this;
+        }
+
         /**
          * Sets your client ID.
          *
@@ -166,6 +423,19 @@ public class AuthorizationServerConfig {
             return this;
         }
 
+        /**
+         * Optional client secret, for confidential clients like resource servers. It's only sent to authenticate
+         * token introspection and revocation, as desktop apps are public clients that can't keep a secret.
+         * Leave empty to authenticate with the client ID only.
+         *
+         * @param val the client secret to use
+         * @return this builder for chaining
+         */
+        public Builder withClientSecret(String val) {
+            clientSecret = val;
+            return this;
+        }
+
         /**
          * Sets your authorization scope. Use a space separated String.
          * Defaults to `openid offline_access email profile`.
@@ -190,12 +460,81 @@ public class AuthorizationServerConfig {
             return this;
         }
 
+        /**
+         * Sets the preferred HTTP version to talk to your authorization server. With
+         * {@link HttpClient.Version#HTTP_2}, concurrent token and user info calls share one connection. Plain
+         * {@code http://} base URLs try an h2c upgrade, and fall back to HTTP/1.1 when the server doesn't support it.
+         * Defaults to `HTTP_1_1`.
+         *
+         * @param val the HTTP version to use
+         * @return this builder for chaining
+         */
+        public Builder withHttpVersion(HttpClient.Version val) {
+            httpVersion = val;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests in flight to each endpoint of your authorization server. Further
+         * requests wait until one completes, so a slow server isn't flooded with ever more requests.
+         * Defaults to `0`, meaning unlimited.
+         *
+         * @param val the maximum number of requests in flight per endpoint
+         * @return this builder for chaining
+         */
+        public Builder withMaxConcurrentRequests(int val) {
+            maxConcurrentRequests = val;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of requests waiting for one in flight to complete, when the maximum number of
+         * concurrent requests is reached. Further requests fail right away.
+         * Defaults to `100`.
+         *
+         * @param val the maximum number of waiting requests per endpoint
+         * @return this builder for chaining
+         */
+        public Builder withMaxQueuedRequests(int val) {
+            maxQueuedRequests = val;
+            return this;
+        }
+
+        /**
+         * Sets how token and user info requests are retried after a transient failure, like a connect timeout or a
+         * `503` response. The authorization code exchange is only retried when the connection couldn't be made, so
+         * an authorization code is never sent twice.
+         * Defaults to {@link RetryPolicy#NONE}, never retrying.
+         *
+         * @param val the retry policy to use
+         * @return this builder for chaining
+         */
+        public Builder withRetryPolicy(RetryPolicy val) {
+            retryPolicy = val;
+            return this;
+        }
+
+        /**
+         * Sets the circuit breaker guarding each endpoint of your authorization server. Once open, requests fail
+         * right away instead of each waiting for the connect timeout while the server is down.
+         * Defaults to {@link CircuitBreakerConfig#DISABLED}, never opening.
+         *
+         * @param val the circuit breaker config to use
+         * @return this builder for chaining
+         */
+        public Builder withCircuitBreakerConfig(CircuitBreakerConfig val) {
+            circuitBreakerConfig = val;
+            return this;
+        }
+
         /**
          * Constructs the {@link AuthorizationServerConfig} object with your given parameters.
          *
          * @return the {@link AuthorizationServerConfig} object
          *
          * @throws MissingConfigException when mandatory fields are missing
+         * @throws InvalidConfigException when the request limits are negative, or the base URL and endpoints don't
+         * form valid http or https URLs
          */
         public AuthorizationServerConfig build() {
             if (StringUtils.isBlank(baseUrl)) {
@@ -210,12 +549,36 @@ public class AuthorizationServerConfig {
             if (StringUtils.isBlank(endpointToken)) {
                 throw new MissingConfigException("endpointToken cannot be null or empty");
             }
+            if (StringUtils.isBlank(endpointJwks)) {
+                throw new MissingConfigException("endpointJwks cannot be null or empty");
+            }
+            if (StringUtils.isBlank(endpointIntrospection)) {
+                throw new MissingConfigException("endpointIntrospection cannot be null or empty");
+            }
+            if (StringUtils.isBlank(endpointRevocation)) {
+                throw new MissingConfigException("endpointRevocation cannot be null or empty");
+            }
             if (StringUtils.isBlank(clientId)) {
                 throw new MissingConfigException("clientId cannot be null or empty");
             }
             if (StringUtils.isBlank(authScope)) {
                 throw new MissingConfigException("authScope cannot be null or empty");
             }
+            if (httpVersion == null) {
+                throw new MissingConfigException("httpVersion cannot be null");
+            }
+            if (retryPolicy == null) {
+                throw new MissingConfigException("retryPolicy cannot be null");
+            }
+            if (circuitBreakerConfig == null) {
+                throw new MissingConfigException("circuitBreakerConfig cannot be null");
+            }
+            if (maxConcurrentRequests < 0) {
+                throw new InvalidConfigException("maxConcurrentRequests cannot be negative");
+            }
+            if (maxQueuedRequests < 0) {
+                throw new InvalidConfigException("maxQueuedRequests cannot be negative");
+            }
             return new AuthorizationServerConfig(this);
         }
     }
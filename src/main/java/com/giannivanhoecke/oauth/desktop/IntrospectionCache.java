@@ -0,0 +1,159 @@
+package com.giannivanhoecke.oauth.desktop;
+
+import com.giannivanhoecke.oauth.desktop.cache.ExpiringCache;
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.representation.IntrospectionResponse;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Caches {@link IntrospectionResponse}s by token, so {@link AuthorizationCodeFlowWithPkce#introspect(String)} answers
+ * repeat tokens from memory. Active results expire after the configured time to live, and never outlive the token's
+ * {@code exp}. Inactive results are cached too, for a shorter time, so a flood of invalid tokens doesn't reach the
+ * authorization server either.
+ * <p>
+ * Tokens are never kept in memory: entries are keyed by a SHA-256 hash of the token.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class IntrospectionCache {
+
+    public static final int  DEFAULT_MAX_ENTRIES        = 10_000;
+    public static final long DEFAULT_ACTIVE_TTL_IN_MS   = 60_000;
+    public static final long DEFAULT_INACTIVE_TTL_IN_MS = 10_000;
+
+    private final ExpiringCache<String, IntrospectionResponse> cache;
+    private final long activeTtlInMs;
+    private final long inactiveTtlInMs;
+
+    private IntrospectionCache(Builder builder) {
+        cache = new ExpiringCache<>(builder.maxEntries);
+        activeTtlInMs = builder.activeTtlInMs;
+        inactiveTtlInMs = builder.inactiveTtlInMs;
+    }
+
+    /**
+     * Removes the cached result of a token, e.g. after revoking it.
+     *
+     * @param token the token to remove
+     */
+    public void invalidate(String token) {
+        this.cache.invalidate(toKey(token));
+    }
+
+    public void clear() {
+        this.cache.clear();
+    }
+
+    public int size() {
+        return this.cache.size();
+    }
+
+    public long getHits() {
+        return this.cache.getHits();
+    }
+
+    public long getMisses() {
+        return this.cache.getMisses();
+    }
+
+    Optional<IntrospectionResponse> get(String token) {
+        return this.cache.get(toKey(token));
+    }
+
+    void put(String token, IntrospectionResponse introspectionResponse) {
+        if (!introspectionResponse.isActive()) {
+            this.cache.put(toKey(token), introspectionResponse, Instant.now().plusMillis(this.inactiveTtlInMs));
+            return;
+        }
+        Instant expiresAt = Instant.now().plusMillis(this.activeTtlInMs);
+        Optional<Instant> tokenExpiresAt = introspectionResponse.getExpiresAt();
+        if (tokenExpiresAt.isPresent() && tokenExpiresAt.get().isBefore(expiresAt)) {
+            expiresAt = tokenExpiresAt.get();
+        }
+        this.cache.put(toKey(token), introspectionResponse, expiresAt);
+    }
+
+    // util
+
+    private String toKey(String token) {
+        return DigestUtils.sha256Hex(token);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int maxEntries;
+        private long activeTtlInMs;
+        private long inactiveTtlInMs;
+
+        private Builder() {
+            maxEntries = DEFAULT_MAX_ENTRIES;
+            activeTtlInMs = DEFAULT_ACTIVE_TTL_IN_MS;
+            inactiveTtlInMs = DEFAULT_INACTIVE_TTL_IN_MS;
+        }
+
+        /**
+         * Sets the maximum number of cached entries. When full, the least recently used entry is evicted.
+         * Defaults to `10000`.
+         *
+         * @param val the maximum number of entries
+         * @return this builder for chaining
+         */
+        public Builder withMaxEntries(int val) {
+            maxEntries = val;
+            return this;
+        }
+
+        /**
+         * Sets how long an active token is cached, unless it expires sooner. A token revoked meanwhile stays active
+         * in the cache until then, so keep this short.
+         * Defaults to 60 seconds.
+         *
+         * @param val the time to live in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withActiveTtlInMs(long val) {
+            activeTtlInMs = val;
+            return this;
+        }
+
+        /**
+         * Sets how long an inactive token is cached. Use `0` to not cache inactive tokens.
+         * Defaults to 10 seconds.
+         *
+         * @param val the time to live in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withInactiveTtlInMs(long val) {
+            inactiveTtlInMs = val;
+            return this;
+        }
+
+        /**
+         * Constructs the {@link IntrospectionCache} object with your given parameters.
+         *
+         * @return the {@link IntrospectionCache} object
+         *
+         * @throws InvalidConfigException when the maximum number of entries or the active time to live isn't
+         * positive, or the inactive time to live is negative
+         */
+        public IntrospectionCache build() {
+            if (maxEntries <= 0) {
+                throw new InvalidConfigException("maxEntries must be greater than 0");
+            }
+            if (activeTtlInMs <= 0) {
+                throw new InvalidConfigException("activeTtlInMs must be greater than 0");
+            }
+            if (inactiveTtlInMs < 0) {
+                throw new InvalidConfigException("inactiveTtlInMs cannot be negative");
+            }
+            return new IntrospectionCache(this);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.giannivanhoecke.oauth.desktop;
+
+import com.giannivanhoecke.oauth.desktop.concurrent.SingleFlight;
+import com.giannivanhoecke.oauth.desktop.exception.DiscoveryException;
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.MissingConfigException;
+import com.giannivanhoecke.oauth.desktop.io.CacheControl;
+import com.giannivanhoecke.oauth.desktop.io.HttpHeader;
+import com.giannivanhoecke.oauth.desktop.io.HttpStatusCode;
+import com.giannivanhoecke.oauth.desktop.io.remote.GetRequest;
+import com.giannivanhoecke.oauth.desktop.io.remote.JsonResult;
+import com.giannivanhoecke.oauth.desktop.io.remote.KeyValuePair;
+import com.giannivanhoecke.oauth.desktop.io.remote.RemoteResource;
+import com.giannivanhoecke.oauth.desktop.io.remote.RequestParameters;
+import com.giannivanhoecke.oauth.desktop.io.remote.ResourceException;
+import com.giannivanhoecke.oauth.desktop.observability.MetricsRecorder;
+import com.giannivanhoecke.oauth.desktop.observability.OAuthOperation;
+import com.giannivanhoecke.oauth.desktop.representation.ProviderMetadata;
+import com.giannivanhoecke.oauth.desktop.representation.internal.ResponseParser;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Discovers the OpenID Connect provider metadata of issuers from their {@code .well-known/openid-configuration}, so
+ * an {@link AuthorizationServerConfig} can be built without configuring each endpoint by hand.
+ * <p>
+ * Metadata is cached in memory and, when a cache directory is set, on disk, for as long as the response's
+ * {@code Cache-Control} allows, though a {@code no-store} response is never written to disk. A fresh cached copy is
+ * returned without a request, so starting up doesn't wait for the network. A stale copy is revalidated with its
+ * {@code ETag}, and keeps being used when the issuer can't be reached. Concurrent discoveries of the same issuer share
+ * one request.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class OidcDiscovery {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OidcDiscovery.class);
+
+    public static final long DEFAULT_TTL_IN_MS = 3_600_000;
+
+    private static final String WELL_KNOWN_PATH = "/.well-known/openid-configuration";
+    private static final String CACHE_FILE_SUFFIX = ".json";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String CACHE_ISSUER = "issuer";
+    private static final String CACHE_ETAG = "etag";
+    private static final String CACHE_EXPIRES_AT = "expires_at";
+    private static final String CACHE_METADATA = "metadata";
+
+    private final Path cacheDirectory;
+    private final long defaultTtlInMs;
+    private final RemoteResource remoteResource;
+    private final ConcurrentMap<String, CachedMetadata> cache = new ConcurrentHashMap<>();
+    private final SingleFlight<String, ProviderMetadata> singleFlight = new SingleFlight<>();
+
+    private OidcDiscovery(Builder builder) {
+        cacheDirectory = builder.cacheDirectory;
+        defaultTtlInMs = builder.defaultTtlInMs;
+        remoteResource = RemoteResource
+                .newBuilder()
+                .withMetricsRecorder(builder.metricsRecorder)
+                .build();
+    }
+
+    /**
+     * Gets the provider metadata of an issuer, from the cache when it's still fresh.
+     *
+     * @param issuer the issuer, e.g. {@code https://sso.example.com/realms/my-realm}
+     * @return the provider metadata
+     *
+     * @throws DiscoveryException when the metadata couldn't be fetched and no cached copy is available, or the
+     * metadata is served for another issuer
+     */
+    public ProviderMetadata discover(String issuer) {
+        if (StringUtils.isBlank(issuer)) {
+            throw new MissingConfigException("issuer cannot be null or empty");
+        }
+        CachedMetadata cached = this.cache.get(issuer);
+        if (cached != null && cached.isFresh()) {
+            return cached.metadata;
+        }
+        return this.singleFlight.execute(issuer, () -> discoverUncached(issuer));
+    }
+
+    /**
+     * Drops the cached metadata of an issuer, from memory and disk, so it's fetched again on next use.
+     *
+     * @param issuer the issuer to drop
+     */
+    public void invalidate(String issuer) {
+        this.cache.remove(issuer);
+        if (this.cacheDirectory != null) {
+            try {
+                Files.deleteIfExists(getCacheFile(issuer));
+            } catch (IOException e) {
+                LOGGER.warn("Cannot delete cached provider metadata of '{}': {}", issuer, e.getMessage());
+            }
+        }
+    }
+
+    // util
+
+    private ProviderMetadata discoverUncached(String issuer) {
+        CachedMetadata cached = this.cache.get(issuer);
+        if (cached == null) {
+            cached = readCacheFile(issuer).orElse(null);
+        }
+        if (cached != null && cached.isFresh()) {
+            LOGGER.debug("Using provider metadata of '{}' cached on disk", issuer);
+            this.cache.put(issuer, cached);
+            return cached.metadata;
+        }
+        CachedMetadata fetched;
+        try {
+            fetched = fetch(issuer, cached);
+        } catch (DiscoveryException e) {
+            if (cached == null) {
+                throw e;
+            }
+            LOGGER.warn("Cannot discover provider metadata, using the stale cached copy: {}", e.getMessage());
+            this.cache.put(issuer, cached);
+            return cached.metadata;
+        }
+        this.cache.put(issuer, fetched);
+        if (fetched.storable) {
+            writeCacheFile(fetched);
+        }
+        return fetched.metadata;
+    }
+
+    private CachedMetadata fetch(String issuer, CachedMetadata cached) {
+        JsonResult<ProviderMetadata> jsonResult;
+        try {
+            jsonResult = this.remoteResource.get(
+                    buildGetRequest(issuer, cached), ResponseParser.PROVIDER_METADATA_ADAPTER);
+        } catch (ResourceException e) {
+            throw new DiscoveryException(String.format(
+                    "Cannot request provider metadata of '%s': %s", issuer, e.getMessage()), e);
+        }
+        Instant expiresAt = Instant.now().plusMillis(
+                CacheControl.getMaxAgeInMs(jsonResult.getHeaders()).orElse(this.defaultTtlInMs));
+        // no-store forbids writing the response to disk, it's only kept in memory to revalidate it
+        boolean storable = !CacheControl.isNoStore(jsonResult.getHeaders());
+        if (cached != null && jsonResult.getResultCode() == HttpStatusCode.NOT_MODIFIED) {
+            LOGGER.debug("Provider metadata of '{}' not modified, caching it until {}", issuer, expiresAt);
+            return new CachedMetadata(issuer, cached.etag, expiresAt, cached.metadata, storable);
+        }
+        if (jsonResult.getResultCode() != HttpStatusCode.OK || jsonResult.getValue().isEmpty()) {
+            throw new DiscoveryException(String.format("Cannot get provider metadata of '%s': HTTP %d %s",
+                    issuer, jsonResult.getResultCode(), jsonResult.getContent()),
+                    jsonResult.getParseException().orElse(null));
+        }
+        ProviderMetadata metadata = jsonResult.getValue().get();
+        if (!issuer.equals(metadata.getIssuer())) {
+            // OpenID Connect Discovery requires an exact match, so one issuer can't impersonate another
+            throw new DiscoveryException(String.format(
+                    "Provider metadata issuer '%s' is not '%s'", metadata.getIssuer(), issuer));
+        }
+        String etag = jsonResult.getHeaders().firstValue(HttpHeader.ETAG).orElse(null);
+        LOGGER.debug("Fetched provider metadata of '{}', caching it until {}", issuer, expiresAt);
+        return new CachedMetadata(issuer, etag, expiresAt, metadata, storable);
+    }
+
+    private GetRequest buildGetRequest(String issuer, CachedMetadata cached) {
+        String wellKnownUrl = StringUtils.removeEnd(issuer, "/") + WELL_KNOWN_PATH;
+        URI wellKnownUri;
+        try {
+            wellKnownUri = new URI(wellKnownUrl);
+        } catch (URISyntaxException e) {
+            throw new DiscoveryException(String.format("Issuer '%s' is not a valid URL", issuer), e);
+        }
+        RequestParameters.Builder builder = RequestParameters
+                .newBuilder()
+                .withEndpointUri(wellKnownUri)
+                .withOperation(OAuthOperation.DISCOVERY);
+        if (cached != null && cached.etag != null) {
+            builder.withKeyValuePairs(KeyValuePair.of(HttpHeader.IF_NONE_MATCH, cached.etag));
+        }
+        return new GetRequest(builder.build());
+    }
+
+    private Optional<CachedMetadata> readCacheFile(String issuer) {
+        if (this.cacheDirectory == null) {
+            return Optional.empty();
+        }
+        Path cacheFile = getCacheFile(issuer);
+        if (!Files.exists(cacheFile)) {
+            return Optional.empty();
+        }
+        try {
+            JsonObject jsonObject = JsonParser.parseString(
+                    new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8)).getAsJsonObject();
+            if (!issuer.equals(jsonObject.get(CACHE_ISSUER).getAsString())) {
+                return Optional.empty();
+            }
+            return Optional.of(new CachedMetadata(
+                    issuer,
+                    jsonObject.has(CACHE_ETAG) ? jsonObject.get(CACHE_ETAG).getAsString() : null,
+                    Instant.ofEpochMilli(jsonObject.get(CACHE_EXPIRES_AT).getAsLong()),
+                    ResponseParser.PROVIDER_METADATA_ADAPTER.fromJsonTree(jsonObject.get(CACHE_METADATA)),
+                    true));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable provider metadata cache file '{}': {}", cacheFile, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void writeCacheFile(CachedMetadata cached) {
+        if (this.cacheDirectory == null) {
+            return;
+        }
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty(CACHE_ISSUER, cached.issuer);
+        if (cached.etag != null) {
+            jsonObject.addProperty(CACHE_ETAG, cached.etag);
+        }
+        jsonObject.addProperty(CACHE_EXPIRES_AT, cached.expiresAt.toEpochMilli());
+        jsonObject.add(CACHE_METADATA, ResponseParser.PROVIDER_METADATA_ADAPTER.toJsonTree(cached.metadata));
+        Path cacheFile = getCacheFile(cached.issuer);
+        Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + TEMP_FILE_SUFFIX);
+        try {
+            Files.createDirectories(this.cacheDirectory);
+            Files.write(tempFile, ResponseParser.getGson().toJson(jsonObject).getBytes(StandardCharsets.UTF_8));
+            // readers never see a half-written file, even when another process discovers the same issuer
+            Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot cache provider metadata of '{}' on disk: {}", cached.issuer, e.getMessage());
+        }
+    }
+
+    private Path getCacheFile(String issuer) {
+        return this.cacheDirectory.resolve(DigestUtils.sha256Hex(issuer) + CACHE_FILE_SUFFIX);
+    }
+
+    private static final class CachedMetadata {
+
+        private final String issuer;
+        private final String etag;
+        private final Instant expiresAt;
+        private final ProviderMetadata metadata;
+        private final boolean storable;
+
+        private CachedMetadata(String issuer, String etag, Instant expiresAt, ProviderMetadata metadata,
+                               boolean storable) {
+            this.issuer = issuer;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+            this.metadata = metadata;
+            this.storable = storable;
+        }
+
+        private boolean isFresh() {
+            return Instant.now().isBefore(this.expiresAt);
+        }
+    }
+
+    // static util
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private Path cacheDirectory;
+        private long defaultTtlInMs;
+        private MetricsRecorder metricsRecorder;
+
+        private Builder() {
+            defaultTtlInMs = DEFAULT_TTL_IN_MS;
+            metricsRecorder = MetricsRecorder.NOOP;
+        }
+
+        /**
+         * Optional directory to cache provider metadata in, so it survives restarts. Each issuer gets its own file.
+         * Leave empty to only cache in memory.
+         *
+         * @param val the cache directory to use
+         * @return this builder for chaining
+         */
+        public Builder withCacheDirectory(Path val) {
+            cacheDirectory = val;
+            return this;
+        }
+
+        /**
+         * Sets how long provider metadata is cached when the response has no {@code Cache-Control} max age.
+         * Defaults to 1 hour.
+         *
+         * @param val the time to live in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withDefaultTtlInMs(long val) {
+            defaultTtlInMs = val;
+            return this;
+        }
+
+        /**
+         * Sets the recorder of the latency, status code and response size of every discovery request.
+         * Defaults to {@link MetricsRecorder#NOOP}, recording nothing.
+         *
+         * @param val the metrics recorder to use
+         * @return this builder for chaining
+         */
+        public Builder withMetricsRecorder(MetricsRecorder val) {
+            metricsRecorder = val;
+            return this;
+        }
+
+        /**
+         * Constructs the {@link OidcDiscovery} object with your given parameters.
+         *
+         * @return the {@link OidcDiscovery} object
+         *
+         * @throws MissingConfigException when the metrics recorder is missing
+         * @throws InvalidConfigException when the default time to live is negative
+         */
+        public OidcDiscovery build() {
+            if (metricsRecorder == null) {
+                throw new MissingConfigException("metricsRecorder cannot be null");
+            }
+            if (defaultTtlInMs < 0) {
+                throw new InvalidConfigException("defaultTtlInMs cannot be negative");
+            }
+            return new OidcDiscovery(this);
+        }
+    }
+}
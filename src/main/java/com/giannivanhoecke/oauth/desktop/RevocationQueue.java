@@ -0,0 +1,234 @@
+package com.giannivanhoecke.oauth.desktop;
+
+import com.giannivanhoecke.oauth.desktop.concurrent.BoundedBatch;
+import com.giannivanhoecke.oauth.desktop.concurrent.Futures;
+import com.giannivanhoecke.oauth.desktop.io.HttpStatusCode;
+import com.giannivanhoecke.oauth.desktop.io.remote.PostResult;
+import com.giannivanhoecke.oauth.desktop.representation.TokenTypeHint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Revokes tokens on a background thread, so signing out never blocks the calling thread. Revocations queued while
+ * others are in flight are sent together as a next batch, with at most a given number of requests in flight.
+ * A revocation that fails because the authorization server couldn't be reached, or answered {@code 429} or
+ * {@code 5xx}, is queued again after an exponential backoff, up to a maximum number of attempts. Any other response
+ * won't change on retrying, so the revocation is given up.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+class RevocationQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevocationQueue.class);
+
+    private static final long MAX_RETRY_DELAY_IN_MS = 60_000;
+    private static final String THREAD_NAME         = "oauth-token-revocation";
+
+    private final BiFunction<String, TokenTypeHint, CompletableFuture<PostResult>> revoker;
+    private final int maxParallelism;
+    private final int maxAttempts;
+    private final long retryDelayInMs;
+    private final DelayQueue<Revocation> queue = new DelayQueue<>();
+    private final Object pendingLock = new Object();
+
+    private int pending;
+    private Thread worker;
+
+    /**
+     * Creates a queue, which starts its background thread once a first revocation is queued.
+     *
+     * @param revoker sends a revocation request
+     * @param maxParallelism the maximum number of revocation requests in flight
+     * @param maxAttempts the maximum number of attempts per revocation
+     * @param retryDelayInMs the delay before the first retry, doubled for each next one
+     */
+    RevocationQueue(BiFunction<String, TokenTypeHint, CompletableFuture<PostResult>> revoker, int maxParallelism,
+                    int maxAttempts, long retryDelayInMs) {
+        this.revoker = revoker;
+        this.maxParallelism = maxParallelism;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayInMs = retryDelayInMs;
+    }
+
+    /**
+     * Queues a token to be revoked in the background.
+     *
+     * @param token the token to revoke
+     * @param tokenTypeHint the type of the token
+     */
+    synchronized void enqueue(String token, TokenTypeHint tokenTypeHint) {
+        synchronized (this.pendingLock) {
+            this.pending++;
+        }
+        this.queue.offer(new Revocation(token, tokenTypeHint, 1, System.nanoTime()));
+        if (this.worker == null) {
+            this.worker = new Thread(this::drain, THREAD_NAME);
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+    }
+
+    /**
+     * Gets the number of revocations that are queued, waiting for a retry or in flight.
+     *
+     * @return the number of pending revocations
+     */
+    int getPending() {
+        synchronized (this.pendingLock) {
+            return this.pending;
+        }
+    }
+
+    /**
+     * Waits until no revocations are pending anymore, succeeded or given up.
+     *
+     * @param timeoutInMs the maximum time to wait in milliseconds
+     * @return {@code true} when no revocations are pending, {@code false} when the timeout elapsed first
+     *
+     * @throws InterruptedException when interrupted while waiting
+     */
+    boolean await(long timeoutInMs)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+        synchronized (this.pendingLock) {
+            while (this.pending > 0) {
+                long remainingInMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingInMs <= 0) {
+                    return false;
+                }
+                this.pendingLock.wait(remainingInMs);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stops the background thread. Queued revocations are dropped, and revocations in flight aren't retried anymore.
+     */
+    synchronized void close() {
+        if (this.worker == null) {
+            return;
+        }
+        this.worker.interrupt();
+        this.worker = null;
+        int dropped = this.queue.size();
+        this.queue.clear();
+        if (dropped > 0) {
+            LOGGER.warn("Dropping {} queued token revocations", dropped);
+            done(dropped);
+        }
+    }
+
+    // util
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Revocation> batch = new ArrayList<>();
+                batch.add(this.queue.take());
+                this.queue.drainTo(batch);
+                LOGGER.debug("Revoking a batch of {} tokens", batch.size());
+                BoundedBatch.run(batch, this.maxParallelism, this::attempt).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // attempts recover from their own failures, so this is a bug
+            LOGGER.error("Token revocation thread stopped unexpectedly", e.getCause());
+        }
+    }
+
+    private CompletableFuture<Void> attempt(Revocation revocation) {
+        CompletableFuture<PostResult> future;
+        try {
+            future = this.revoker.apply(revocation.token, revocation.tokenTypeHint);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.handle((postResult, throwable) -> {
+            if (throwable != null) {
+                retryOrGiveUp(revocation, Futures.unwrap(throwable).getMessage());
+            } else if (postResult.getResultCode() == HttpStatusCode.OK) {
+                LOGGER.debug("Revoked {} after {} attempts", revocation.tokenTypeHint, revocation.attempt);
+                done(1);
+            } else if (isRetryable(postResult.getResultCode())) {
+                retryOrGiveUp(revocation, String.format("HTTP %d", postResult.getResultCode()));
+            } else {
+                LOGGER.warn("Giving up revoking {}: {}", revocation.tokenTypeHint, postResult);
+                done(1);
+            }
+            return null;
+        });
+    }
+
+    private synchronized void retryOrGiveUp(Revocation revocation, String reason) {
+        if (this.worker == null || revocation.attempt >= this.maxAttempts) {
+            LOGGER.warn("Giving up revoking {} after {} attempts: {}", revocation.tokenTypeHint, revocation.attempt,
+                    reason);
+            done(1);
+            return;
+        }
+        long delayInMs = getRetryDelayInMs(revocation.attempt);
+        LOGGER.debug("Cannot revoke {}, retrying in {} ms: {}", revocation.tokenTypeHint, delayInMs, reason);
+        this.queue.offer(new Revocation(revocation.token, revocation.tokenTypeHint, revocation.attempt + 1,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayInMs)));
+    }
+
+    private long getRetryDelayInMs(int attempt) {
+        long delayInMs = this.retryDelayInMs;
+        for (int i = 1; i < attempt && delayInMs < MAX_RETRY_DELAY_IN_MS; i++) {
+            delayInMs *= 2;
+        }
+        return Math.min(delayInMs, MAX_RETRY_DELAY_IN_MS);
+    }
+
+    private void done(int count) {
+        synchronized (this.pendingLock) {
+            this.pending -= count;
+            if (this.pending == 0) {
+                this.pendingLock.notifyAll();
+            }
+        }
+    }
+
+    private static final class Revocation implements Delayed {
+
+        private final String token;
+        private final TokenTypeHint tokenTypeHint;
+        private final int attempt;
+        private final long dueAtInNanos;
+
+        private Revocation(String token, TokenTypeHint tokenTypeHint, int attempt, long dueAtInNanos) {
+            this.token = token;
+            this.tokenTypeHint = tokenTypeHint;
+            this.attempt = attempt;
+            this.dueAtInNanos = dueAtInNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(this.dueAtInNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    // static util
+
+    private static boolean isRetryable(int resultCode) {
+        return resultCode == HttpStatusCode.TOO_MANY_REQUESTS || resultCode >= HttpStatusCode.INTERNAL_SERVER_ERROR;
+    }
+}
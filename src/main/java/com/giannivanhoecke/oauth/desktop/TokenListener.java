@@ -0,0 +1,40 @@
+package com.giannivanhoecke.oauth.desktop;
+
+import com.giannivanhoecke.oauth.desktop.exception.TokenException;
+import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+
+/**
+ * Gets notified by the {@link TokenManager} after each background refresh.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public interface TokenListener {
+
+    /**
+     * Called after the tokens were refreshed. Persist the new refresh token here if your authorization server rotates
+     * refresh tokens. When the refresh response left the refresh token out, it holds the previous one.
+     *
+     * @param accessTokenResponse the new tokens
+     */
+    void onTokenRefreshed(AccessTokenResponse accessTokenResponse);
+
+    /**
+     * Called when a background refresh failed, e.g. because the authorization server couldn't be reached. The refresh
+     * is retried after the configured retry delay.
+     *
+     * @param tokenException the cause of the failure
+     */
+    default void onTokenRefreshFailed(TokenException tokenException) {
+    }
+
+    /**
+     * Called when the authorization server rejected a background refresh, e.g. because the refresh token was revoked
+     * or expired. Retrying won't help, so refreshing stops until {@link TokenManager#update(AccessTokenResponse)} is
+     * called with new tokens, e.g. after authorizing again.
+     *
+     * @param tokenException the cause of the failure
+     */
+    default void onTokenRefreshStopped(TokenException tokenException) {
+    }
+}
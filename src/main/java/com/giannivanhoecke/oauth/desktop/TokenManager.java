@@ -0,0 +1,469 @@
+package com.giannivanhoecke.oauth.desktop;
+
+import com.giannivanhoecke.oauth.desktop.concurrent.Futures;
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.MissingConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.TokenException;
+import com.giannivanhoecke.oauth.desktop.exception.TokenStoreException;
+import com.giannivanhoecke.oauth.desktop.io.HttpStatusCode;
+import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+import com.giannivanhoecke.oauth.desktop.store.StoredTokens;
+import com.giannivanhoecke.oauth.desktop.store.TokenStore;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps an access token valid by refreshing it in the background, before it expires. The refresh is scheduled at a
+ * fraction of the token's {@code expires_in}, with some jitter so that many managers don't refresh at the same time.
+ * Callers always get the current token immediately, and never wait for a refresh.
+ * <p>
+ * A refresh that fails because the authorization server couldn't be reached or was unavailable is retried. A refresh
+ * the authorization server rejected, e.g. because the refresh token was revoked, stops the background refresh.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class TokenManager implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenManager.class);
+
+    public static final double DEFAULT_REFRESH_FRACTION   = 0.75;
+    public static final double DEFAULT_JITTER_FRACTION    = 0.1;
+    public static final long   DEFAULT_RETRY_DELAY_IN_MS  = 10_000;
+    public static final String DEFAULT_TOKEN_STORE_KEY    = "default";
+
+    private final AuthorizationCodeFlowWithPkce authorizationCodeFlowWithPkce;
+    private final double refreshFraction;
+    private final double jitterFraction;
+    private final long retryDelayInMs;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final TokenListener tokenListener;
+    private final TokenStore tokenStore;
+    private final String tokenStoreKey;
+
+    private volatile IssuedToken issuedToken;
+    private ScheduledFuture<?> scheduledRefresh;
+    private boolean closed;
+
+    private TokenManager(Builder builder) {
+        authorizationCodeFlowWithPkce = builder.authorizationCodeFlowWithPkce;
+        refreshFraction = builder.refreshFraction;
+        jitterFraction = builder.jitterFraction;
+        retryDelayInMs = builder.retryDelayInMs;
+        scheduledExecutorService = builder.scheduledExecutorService == null
+                ? SharedScheduler.INSTANCE : builder.scheduledExecutorService;
+        tokenListener = builder.tokenListener;
+        tokenStore = builder.tokenStore;
+        tokenStoreKey = builder.tokenStoreKey;
+    }
+
+    /**
+     * Gets the current tokens. This never blocks on a refresh.
+     *
+     * @return the current {@link AccessTokenResponse}
+     *
+     * @throws TokenException when the current access token is expired, because the background refresh kept failing
+     */
+    public AccessTokenResponse getAccessTokenResponse() {
+        IssuedToken current = this.issuedToken;
+        if (current.isExpired()) {
+            throw new TokenException("Access token expired and could not be refreshed");
+        }
+        return current.accessTokenResponse;
+    }
+
+    /**
+     * Gets the current access token. This never blocks on a refresh.
+     *
+     * @return the current access token
+     *
+     * @throws TokenException when the current access token is expired, because the background refresh kept failing
+     */
+    public String getAccessToken() {
+        return getAccessTokenResponse().getAccessToken();
+    }
+
+    public Instant getIssuedAt() {
+        return this.issuedToken.issuedAt;
+    }
+
+    /**
+     * Gets the moment the current access token expires.
+     *
+     * @return the expiry, or {@link Instant#MAX} when the authorization server didn't specify {@code expires_in}
+     */
+    public Instant getExpiresAt() {
+        return this.issuedToken.expiresAt;
+    }
+
+    public boolean isExpired() {
+        return this.issuedToken.isExpired();
+    }
+
+    /**
+     * Replaces the managed tokens, e.g. after a new authorization, and reschedules the background refresh.
+     * The tokens are saved to the token store, if any.
+     *
+     * @param accessTokenResponse the new tokens
+     */
+    public synchronized void update(AccessTokenResponse accessTokenResponse) {
+        manage(new IssuedToken(accessTokenResponse, Instant.now()));
+        saveToTokenStore();
+    }
+
+    /**
+     * Stops refreshing in the background. The last tokens remain available.
+     */
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        cancelScheduledRefresh();
+    }
+
+    // util
+
+    private synchronized void manage(IssuedToken issuedToken) {
+        this.issuedToken = issuedToken;
+        scheduleRefresh(computeRefreshDelayInMs(issuedToken));
+    }
+
+    private void saveToTokenStore() {
+        if (this.tokenStore == null) {
+            return;
+        }
+        try {
+            this.tokenStore.save(this.tokenStoreKey,
+                    new StoredTokens(this.issuedToken.accessTokenResponse, this.issuedToken.issuedAt));
+        } catch (TokenStoreException e) {
+            // the tokens are still managed in memory, they'll just have to be authorized again after a restart
+            LOGGER.warn("Cannot save tokens to the token store: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void scheduleRefresh(long delayInMs) {
+        cancelScheduledRefresh();
+        if (this.closed) {
+            return;
+        }
+        if (StringUtils.isBlank(this.issuedToken.accessTokenResponse.getRefreshToken())) {
+            LOGGER.warn("No refresh token available, cannot refresh in the background");
+            return;
+        }
+        if (delayInMs < 0) {
+            LOGGER.debug("Access token doesn't expire, not scheduling a refresh");
+            return;
+        }
+        LOGGER.debug("Scheduling token refresh in {} ms", delayInMs);
+        this.scheduledRefresh = this.scheduledExecutorService.schedule(this::refresh, delayInMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelScheduledRefresh() {
+        if (this.scheduledRefresh != null) {
+            this.scheduledRefresh.cancel(false);
+            this.scheduledRefresh = null;
+        }
+    }
+
+    private void refresh() {
+        // the tokens may be updated while the refresh is in flight, so its result only applies to these
+        IssuedToken refreshed = this.issuedToken;
+        this.authorizationCodeFlowWithPkce
+                .refreshAsync(refreshed.accessTokenResponse.getRefreshToken())
+                .whenComplete((accessTokenResponse, throwable) -> {
+                    if (throwable == null) {
+                        refreshSucceeded(refreshed, accessTokenResponse);
+                    } else {
+                        refreshFailed(refreshed, Futures.unwrap(throwable));
+                    }
+                });
+    }
+
+    private void refreshSucceeded(IssuedToken refreshed, AccessTokenResponse refreshResponse) {
+        AccessTokenResponse accessTokenResponse = keepRefreshToken(refreshed.accessTokenResponse, refreshResponse);
+        synchronized (this) {
+            if (this.issuedToken != refreshed) {
+                LOGGER.debug("Tokens were updated during the background refresh, dropping its result");
+                return;
+            }
+            LOGGER.debug("Refreshed tokens in the background");
+            update(accessTokenResponse);
+        }
+        if (this.tokenListener != null) {
+            this.tokenListener.onTokenRefreshed(accessTokenResponse);
+        }
+    }
+
+    private void refreshFailed(IssuedToken refreshed, Throwable cause) {
+        TokenException tokenException = cause instanceof TokenException
+                ? (TokenException) cause
+                : new TokenException(String.format("Cannot refresh tokens: %s", cause.getMessage()), cause);
+        boolean retryable = isRetryable(tokenException);
+        synchronized (this) {
+            if (this.issuedToken != refreshed) {
+                LOGGER.debug("Tokens were updated during the background refresh, ignoring its failure");
+                return;
+            }
+            if (retryable) {
+                LOGGER.warn("Background token refresh failed, retrying in {} ms: {}", this.retryDelayInMs,
+                        cause.getMessage());
+                scheduleRefresh(this.retryDelayInMs);
+            } else {
+                LOGGER.warn("Background token refresh was rejected, stopping: {}", cause.getMessage());
+            }
+        }
+        if (this.tokenListener == null) {
+            return;
+        }
+        if (retryable) {
+            this.tokenListener.onTokenRefreshFailed(tokenException);
+        } else {
+            this.tokenListener.onTokenRefreshStopped(tokenException);
+        }
+    }
+
+    private long computeRefreshDelayInMs(IssuedToken issuedToken) {
+        if (issuedToken.accessTokenResponse.getExpiresIn() <= 0) {
+            return -1;
+        }
+        long lifetimeInMs = TimeUnit.SECONDS.toMillis(issuedToken.accessTokenResponse.getExpiresIn());
+        double jitter = this.jitterFraction == 0
+                ? 0 : ThreadLocalRandom.current().nextDouble(-this.jitterFraction, this.jitterFraction);
+        long delayInMs = Math.round(lifetimeInMs * (this.refreshFraction + jitter));
+        // restored tokens were issued before this manager started, so part of their lifetime has already passed
+        long elapsedInMs = Duration.between(issuedToken.issuedAt, Instant.now()).toMillis();
+        return Math.max(0, Math.min(delayInMs, lifetimeInMs) - Math.max(0, elapsedInMs));
+    }
+
+    private static final class IssuedToken {
+
+        private final AccessTokenResponse accessTokenResponse;
+        private final Instant issuedAt;
+        private final Instant expiresAt;
+
+        private IssuedToken(AccessTokenResponse accessTokenResponse, Instant issuedAt) {
+            this.accessTokenResponse = accessTokenResponse;
+            this.issuedAt = issuedAt;
+            this.expiresAt = accessTokenResponse.getExpiresIn() > 0
+                    ? issuedAt.plusSeconds(accessTokenResponse.getExpiresIn()) : Instant.MAX;
+        }
+
+        private boolean isExpired() {
+            return !Instant.now().isBefore(this.expiresAt);
+        }
+    }
+
+    private static final class SharedScheduler {
+
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                    Thread thread = new Thread(runnable, "oauth-token-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // static util
+
+    /**
+     * Keeps the previous refresh token when the refresh response leaves it out, as authorization servers that don't
+     * rotate refresh tokens may (RFC 6749 section 6).
+     */
+    private static AccessTokenResponse keepRefreshToken(AccessTokenResponse previous,
+                                                        AccessTokenResponse refreshResponse) {
+        if (StringUtils.isNotBlank(refreshResponse.getRefreshToken())) {
+            return refreshResponse;
+        }
+        return new AccessTokenResponse(refreshResponse.getAccessToken(), previous.getRefreshToken(),
+                refreshResponse.getIdToken(), refreshResponse.getTokenType(), refreshResponse.getExpiresIn());
+    }
+
+    private static boolean isRetryable(TokenException tokenException) {
+        // without a response, the authorization server couldn't be reached, which may be different next time
+        if (tokenException.getResultCode().isEmpty()) {
+            return true;
+        }
+        int resultCode = tokenException.getResultCode().getAsInt();
+        return resultCode == HttpStatusCode.TOO_MANY_REQUESTS || resultCode >= HttpStatusCode.INTERNAL_SERVER_ERROR;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private AuthorizationCodeFlowWithPkce authorizationCodeFlowWithPkce;
+        private AccessTokenResponse accessTokenResponse;
+        private double refreshFraction;
+        private double jitterFraction;
+        private long retryDelayInMs;
+        private ScheduledExecutorService scheduledExecutorService;
+        private TokenListener tokenListener;
+        private TokenStore tokenStore;
+        private String tokenStoreKey;
+
+        private Builder() {
+            refreshFraction = DEFAULT_REFRESH_FRACTION;
+            jitterFraction = DEFAULT_JITTER_FRACTION;
+            retryDelayInMs = DEFAULT_RETRY_DELAY_IN_MS;
+            tokenStoreKey = DEFAULT_TOKEN_STORE_KEY;
+        }
+
+        /**
+         * Sets the flow used to refresh the tokens.
+         *
+         * @param val the flow to use
+         * @return this builder for chaining
+         */
+        public Builder withAuthorizationCodeFlowWithPkce(AuthorizationCodeFlowWithPkce val) {
+            authorizationCodeFlowWithPkce = val;
+            return this;
+        }
+
+        /**
+         * Sets the initial tokens, e.g. the result of {@link AuthorizationCodeFlowWithPkce#authorize()}.
+         * Can be left empty when a token store is set that holds tokens from a previous run.
+         *
+         * @param val the tokens to manage
+         * @return this builder for chaining
+         */
+        public Builder withAccessTokenResponse(AccessTokenResponse val) {
+            accessTokenResponse = val;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of the token lifetime after which the tokens are refreshed.
+         * Defaults to `0.75`.
+         *
+         * @param val the fraction to use, between 0 and 1
+         * @return this builder for chaining
+         */
+        public Builder withRefreshFraction(double val) {
+            refreshFraction = val;
+            return this;
+        }
+
+        /**
+         * Sets the maximum random deviation, as a fraction of the token lifetime, added to the refresh moment.
+         * Defaults to `0.1`.
+         *
+         * @param val the fraction to use, between 0 and 1
+         * @return this builder for chaining
+         */
+        public Builder withJitterFraction(double val) {
+            jitterFraction = val;
+            return this;
+        }
+
+        /**
+         * Sets the delay before retrying a failed refresh.
+         * Defaults to 10 seconds.
+         *
+         * @param val the delay in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withRetryDelayInMs(long val) {
+            retryDelayInMs = val;
+            return this;
+        }
+
+        /**
+         * Optional scheduler to run the refreshes on.
+         * Leave empty to use a scheduler shared by all token managers.
+         *
+         * @param val the scheduler to use
+         * @return this builder for chaining
+         */
+        public Builder withScheduledExecutorService(ScheduledExecutorService val) {
+            scheduledExecutorService = val;
+            return this;
+        }
+
+        /**
+         * Optional listener notified after each background refresh.
+         *
+         * @param val the listener to use
+         * @return this builder for chaining
+         */
+        public Builder withTokenListener(TokenListener val) {
+            tokenListener = val;
+            return this;
+        }
+
+        /**
+         * Optional store the tokens are saved to on every update, and restored from when no initial tokens are set.
+         * The token manager doesn't close the store.
+         *
+         * @param val the token store to use
+         * @return this builder for chaining
+         */
+        public Builder withTokenStore(TokenStore val) {
+            tokenStore = val;
+            return this;
+        }
+
+        /**
+         * Sets the key the tokens are stored under, e.g. to keep the tokens of several accounts in one store.
+         * Defaults to `default`.
+         *
+         * @param val the key to use
+         * @return this builder for chaining
+         */
+        public Builder withTokenStoreKey(String val) {
+            tokenStoreKey = val;
+            return this;
+        }
+
+        /**
+         * Constructs the {@link TokenManager} and schedules the first refresh.
+         *
+         * @return the {@link TokenManager} object
+         *
+         * @throws MissingConfigException when mandatory fields are missing, or no initial tokens are set and the
+         * token store holds none
+         * @throws TokenStoreException when the tokens couldn't be loaded from the token store
+         * @throws InvalidConfigException when a fraction or delay is out of range
+         */
+        public TokenManager build() {
+            if (authorizationCodeFlowWithPkce == null) {
+                throw new MissingConfigException("authorizationCodeFlowWithPkce cannot be null");
+            }
+            if (tokenStoreKey == null) {
+                throw new MissingConfigException("tokenStoreKey cannot be null");
+            }
+            Optional<StoredTokens> storedTokens = accessTokenResponse == null && tokenStore != null
+                    ? tokenStore.load(tokenStoreKey) : Optional.empty();
+            if (accessTokenResponse == null && storedTokens.isEmpty()) {
+                throw new MissingConfigException("accessTokenResponse cannot be null");
+            }
+            if (refreshFraction <= 0 || refreshFraction > 1) {
+                throw new InvalidConfigException("refreshFraction must be greater than 0 and at most 1");
+            }
+            if (jitterFraction < 0 || jitterFraction >= 1) {
+                throw new InvalidConfigException("jitterFraction must be at least 0 and less than 1");
+            }
+            if (retryDelayInMs <= 0) {
+                throw new InvalidConfigException("retryDelayInMs must be greater than 0");
+            }
+            TokenManager tokenManager = new TokenManager(this);
+            if (storedTokens.isPresent()) {
+                LOGGER.debug("Restored tokens issued at {} from the token store", storedTokens.get().getIssuedAt());
+                tokenManager.manage(new IssuedToken(
+                        storedTokens.get().getAccessTokenResponse(), storedTokens.get().getIssuedAt()));
+            } else {
+                tokenManager.update(accessTokenResponse);
+            }
+            return tokenManager;
+        }
+    }
+}
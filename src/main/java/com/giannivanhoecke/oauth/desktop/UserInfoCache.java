@@ -0,0 +1,133 @@
+package com.giannivanhoecke.oauth.desktop;
+
+import com.giannivanhoecke.oauth.desktop.cache.ExpiringCache;
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.representation.UserInfoResponse;
+import com.giannivanhoecke.oauth.desktop.representation.internal.TokenExpiry;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Caches {@link UserInfoResponse}s by access token, so {@link AuthorizationCodeFlowWithPkce#getUserInfo(String)}
+ * doesn't call the authorization server again for a token it has seen before. Entries expire after the configured
+ * time to live, and never outlive the access token itself when it carries an {@code exp} claim.
+ * <p>
+ * Access tokens are never kept in memory: entries are keyed by a SHA-256 hash of the token.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class UserInfoCache {
+
+    public static final int  DEFAULT_MAX_ENTRIES = 1_000;
+    public static final long DEFAULT_TTL_IN_MS   = 60_000;
+
+    private final ExpiringCache<String, UserInfoResponse> cache;
+    private final long ttlInMs;
+
+    private UserInfoCache(Builder builder) {
+        cache = new ExpiringCache<>(builder.maxEntries);
+        ttlInMs = builder.ttlInMs;
+    }
+
+    /**
+     * Removes the cached user info of an access token, e.g. after logging out.
+     *
+     * @param accessToken the access token to remove
+     */
+    public void invalidate(String accessToken) {
+        this.cache.invalidate(toKey(accessToken));
+    }
+
+    public void clear() {
+        this.cache.clear();
+    }
+
+    public int size() {
+        return this.cache.size();
+    }
+
+    public long getHits() {
+        return this.cache.getHits();
+    }
+
+    public long getMisses() {
+        return this.cache.getMisses();
+    }
+
+    Optional<UserInfoResponse> get(String accessToken) {
+        return this.cache.get(toKey(accessToken));
+    }
+
+    void put(String accessToken, UserInfoResponse userInfoResponse) {
+        Instant expiresAt = Instant.now().plusMillis(this.ttlInMs);
+        Optional<Instant> tokenExpiresAt = TokenExpiry.of(accessToken);
+        if (tokenExpiresAt.isPresent() && tokenExpiresAt.get().isBefore(expiresAt)) {
+            expiresAt = tokenExpiresAt.get();
+        }
+        this.cache.put(toKey(accessToken), userInfoResponse, expiresAt);
+    }
+
+    // util
+
+    private String toKey(String accessToken) {
+        return DigestUtils.sha256Hex(accessToken);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int maxEntries;
+        private long ttlInMs;
+
+        private Builder() {
+            maxEntries = DEFAULT_MAX_ENTRIES;
+            ttlInMs = DEFAULT_TTL_IN_MS;
+        }
+
+        /**
+         * Sets the maximum number of cached entries. When full, the least recently used entry is evicted.
+         * Defaults to `1000`.
+         *
+         * @param val the maximum number of entries
+         * @return this builder for chaining
+         */
+        public Builder withMaxEntries(int val) {
+            maxEntries = val;
+            return this;
+        }
+
+        /**
+         * Sets how long user info is cached, unless the access token expires sooner.
+         * Defaults to 60 seconds.
+         *
+         * @param val the time to live in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withTtlInMs(long val) {
+            ttlInMs = val;
+            return this;
+        }
+
+        /**
+         * Constructs the {@link UserInfoCache} object with your given parameters.
+         *
+         * @return the {@link UserInfoCache} object
+         *
+         * @throws InvalidConfigException when the maximum number of entries or the time to live isn't positive
+         */
+        public UserInfoCache build() {
+            if (maxEntries <= 0) {
+                throw new InvalidConfigException("maxEntries must be greater than 0");
+            }
+            if (ttlInMs <= 0) {
+                throw new InvalidConfigException("ttlInMs must be greater than 0");
+            }
+            return new UserInfoCache(this);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.giannivanhoecke.oauth.desktop.cache;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded cache whose entries each expire at their own moment. When full, the least recently used entry is
+ * evicted.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maxEntries;
+    private final Map<K, CachedValue<V>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ExpiringCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = -3460722526735012546L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+                return size() > ExpiringCache.this.maxEntries;
+            }
+        };
+    }
+
+    public Optional<V> get(K key) {
+        CachedValue<V> entry;
+        synchronized (this.entries) {
+            entry = this.entries.get(key);
+            if (entry != null && entry.isExpired()) {
+                this.entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            this.misses.incrementAndGet();
+            return Optional.empty();
+        }
+        this.hits.incrementAndGet();
+        return Optional.of(entry.value);
+    }
+
+    public void put(K key, V value, Instant expiresAt) {
+        if (!Instant.now().isBefore(expiresAt)) {
+            return;
+        }
+        synchronized (this.entries) {
+            this.entries.put(key, new CachedValue<>(value, expiresAt));
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (this.entries) {
+            this.entries.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static final class CachedValue<V> {
+
+        private final V value;
+        private final Instant expiresAt;
+
+        private CachedValue(V value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return !Instant.now().isBefore(this.expiresAt);
+        }
+    }
+}
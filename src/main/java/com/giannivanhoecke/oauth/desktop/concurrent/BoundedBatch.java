@@ -0,0 +1,103 @@
+package com.giannivanhoecke.oauth.desktop.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Runs an asynchronous call for each item of a batch, with at most a given number of calls in flight at the same
+ * time. A next call starts as soon as one completes, so a slow call never holds back the rest of the batch.
+ *
+ * @param <T> the item type
+ * @param <R> the result type
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class BoundedBatch<T, R> {
+
+    private final List<T> items;
+    private final Function<T, CompletableFuture<R>> call;
+    private final AtomicReferenceArray<R> results;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final CompletableFuture<List<R>> promise = new CompletableFuture<>();
+
+    private BoundedBatch(List<T> items, Function<T, CompletableFuture<R>> call) {
+        this.items = items;
+        this.call = call;
+        this.results = new AtomicReferenceArray<>(items.size());
+        this.remaining = new AtomicInteger(items.size());
+    }
+
+    /**
+     * Runs the call for each item. The batch fails as soon as one call fails, so calls that shouldn't abort the batch
+     * must recover from their own failures.
+     *
+     * @param items the items to run the call for
+     * @param maxParallelism the maximum number of calls in flight
+     * @param call the call to make
+     * @param <T> the item type
+     * @param <R> the result type
+     * @return the results in the order of the items, as a {@link CompletableFuture}
+     */
+    public static <T, R> CompletableFuture<List<R>> run(List<T> items, int maxParallelism,
+                                                         Function<T, CompletableFuture<R>> call) {
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        BoundedBatch<T, R> batch = new BoundedBatch<>(items, call);
+        for (int i = 0; i < Math.min(maxParallelism, items.size()); i++) {
+            batch.startNext();
+        }
+        return batch.promise;
+    }
+
+    // util
+
+    private void startNext() {
+        // loops instead of recursing when calls complete right away, so large batches can't overflow the stack
+        while (!this.promise.isDone()) {
+            int index = this.nextIndex.getAndIncrement();
+            if (index >= this.items.size()) {
+                return;
+            }
+            CompletableFuture<R> future = apply(this.items.get(index));
+            if (!future.isDone()) {
+                future.whenComplete((result, throwable) -> {
+                    if (completed(index, result, throwable)) {
+                        startNext();
+                    }
+                });
+                return;
+            }
+            future.whenComplete((result, throwable) -> completed(index, result, throwable));
+        }
+    }
+
+    private CompletableFuture<R> apply(T item) {
+        try {
+            return this.call.apply(item);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean completed(int index, R result, Throwable throwable) {
+        if (throwable != null) {
+            this.promise.completeExceptionally(Futures.unwrap(throwable));
+            return false;
+        }
+        this.results.set(index, result);
+        if (this.remaining.decrementAndGet() == 0) {
+            List<R> ordered = new ArrayList<>(this.results.length());
+            for (int i = 0; i < this.results.length(); i++) {
+                ordered.add(this.results.get(i));
+            }
+            this.promise.complete(ordered);
+        }
+        return true;
+    }
+}
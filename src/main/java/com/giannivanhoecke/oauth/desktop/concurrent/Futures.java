@@ -0,0 +1,30 @@
+package com.giannivanhoecke.oauth.desktop.concurrent;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Strips the {@link CompletionException} and {@link ExecutionException} wrappers added by
+     * {@link java.util.concurrent.CompletableFuture} to get to the exception that actually caused the failure.
+     *
+     * @param throwable the throwable to unwrap
+     * @return the underlying cause
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) &&
+                cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
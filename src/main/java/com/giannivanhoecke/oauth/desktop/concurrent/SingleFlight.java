@@ -0,0 +1,103 @@
+package com.giannivanhoecke.oauth.desktop.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * De-duplicates concurrent calls for the same key: while a call is in flight, other callers with an equal key don't
+ * start their own call, but share the outcome of the ongoing one.
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the blocking call on the calling thread, unless a call for the same key is already in flight, in which
+     * case this waits for that call's outcome instead.
+     *
+     * @param key the key to de-duplicate on
+     * @param call the call to make
+     * @return the result of the call
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> ongoing = this.inFlight.putIfAbsent(key, promise);
+        if (ongoing != null) {
+            return join(ongoing);
+        }
+        // the key is released before the promise completes, so a caller woken by it starts a new call
+        try {
+            V result = call.get();
+            this.inFlight.remove(key, promise);
+            promise.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // whatever the call throws, callers waiting on it must not wait forever
+            this.inFlight.remove(key, promise);
+            promise.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the asynchronous call, unless a call for the same key is already in flight, in which case the outcome of
+     * that call is returned instead.
+     *
+     * @param key the key to de-duplicate on
+     * @param call the call to make
+     * @return the result of the call as a {@link CompletableFuture}
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> ongoing = this.inFlight.putIfAbsent(key, promise);
+        if (ongoing != null) {
+            return ongoing.copy();
+        }
+        try {
+            call.get().whenComplete((result, throwable) -> {
+                this.inFlight.remove(key, promise);
+                if (throwable == null) {
+                    promise.complete(result);
+                } else {
+                    promise.completeExceptionally(Futures.unwrap(throwable));
+                }
+            });
+        } catch (Throwable e) {
+            this.inFlight.remove(key, promise);
+            promise.completeExceptionally(e);
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        }
+        return promise.copy();
+    }
+
+    public int size() {
+        return this.inFlight.size();
+    }
+
+    // util
+
+    private V join(CompletableFuture<V> ongoing) {
+        try {
+            return ongoing.join();
+        } catch (CompletionException e) {
+            Throwable cause = Futures.unwrap(e);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
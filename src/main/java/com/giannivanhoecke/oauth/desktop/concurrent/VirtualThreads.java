@@ -0,0 +1,59 @@
+package com.giannivanhoecke.oauth.desktop.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates virtual thread executors when running on Java 21 or later. The library targets Java 11, so the factory
+ * method is looked up reflectively instead of being called directly.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class VirtualThreads {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findNewVirtualThreadPerTaskExecutor();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for each task.
+     *
+     * @return the executor, or empty when virtual threads aren't supported by the running Java version
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        if (!isSupported()) {
+            LOGGER.debug("Virtual threads aren't supported on Java {}, falling back to platform threads",
+                    Runtime.version().feature());
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null));
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("Cannot create virtual thread executor, falling back to platform threads", e);
+            return Optional.empty();
+        }
+    }
+
+    // static util
+
+    private static Method findNewVirtualThreadPerTaskExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.giannivanhoecke.oauth.desktop.exception;
+
+/**
+ * Thrown when a request isn't sent because the circuit breaker of its endpoint is open.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class CircuitBreakerOpenException extends OAuth2Exception {
+
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.giannivanhoecke.oauth.desktop.exception;
+
+/**
+ * Thrown when the provider metadata of an issuer can't be discovered, and no cached copy is available.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class DiscoveryException extends OAuth2Exception {
+
+    public DiscoveryException(String message) {
+        super(message);
+    }
+
+    public DiscoveryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
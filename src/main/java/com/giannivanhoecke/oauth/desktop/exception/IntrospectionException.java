@@ -0,0 +1,19 @@
+package com.giannivanhoecke.oauth.desktop.exception;
+
+/**
+ * Thrown when a token couldn't be introspected. An inactive token isn't a failure: it's introspected fine, but not
+ * active.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class IntrospectionException extends OAuth2Exception {
+
+    public IntrospectionException(String message) {
+        super(message);
+    }
+
+    public IntrospectionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.giannivanhoecke.oauth.desktop.exception;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class InvalidConfigException extends OAuth2Exception {
+
+    public InvalidConfigException(String message) {
+        super(message);
+    }
+
+    public InvalidConfigException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package com.giannivanhoecke.oauth.desktop.exception;
+
+/**
+ * Thrown when a token couldn't be revoked. Revoking a token that's already invalid isn't a failure.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class RevocationException extends OAuth2Exception {
+
+    public RevocationException(String message) {
+        super(message);
+    }
+
+    public RevocationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
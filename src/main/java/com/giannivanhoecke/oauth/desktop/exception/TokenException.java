@@ -1,16 +1,45 @@
 package com.giannivanhoecke.oauth.desktop.exception;
 
+import java.util.OptionalInt;
+
 /**
  * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
  * @since 1.0
  */
 public class TokenException extends OAuth2Exception {
 
+    private final Integer resultCode;
+
     public TokenException(String message) {
         super(message);
+        this.resultCode = null;
     }
 
     public TokenException(String message, Throwable cause) {
         super(message, cause);
+        this.resultCode = null;
+    }
+
+    /**
+     * Creates an exception for a response of the authorization server rejecting the token request.
+     *
+     * @param message the message
+     * @param resultCode the status code of the response
+     * @since 1.1
+     */
+    public TokenException(String message, int resultCode) {
+        super(message);
+        this.resultCode = resultCode;
+    }
+
+    /**
+     * Gets the status code of the authorization server's response, e.g. {@code 400} for a revoked or expired refresh
+     * token.
+     *
+     * @return the status code, or empty when the request failed without a response
+     * @since 1.1
+     */
+    public OptionalInt getResultCode() {
+        return resultCode == null ? OptionalInt.empty() : OptionalInt.of(resultCode);
     }
 }
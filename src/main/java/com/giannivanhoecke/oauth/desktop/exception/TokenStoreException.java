@@ -0,0 +1,18 @@
+package com.giannivanhoecke.oauth.desktop.exception;
+
+/**
+ * Thrown when tokens can't be saved to, loaded from or removed from a token store.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class TokenStoreException extends OAuth2Exception {
+
+    public TokenStoreException(String message) {
+        super(message);
+    }
+
+    public TokenStoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -9,4 +9,8 @@ public class VerificationException extends OAuth2Exception {
     public VerificationException(String message) {
         super(message);
     }
+
+    public VerificationException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -0,0 +1,72 @@
+package com.giannivanhoecke.oauth.desktop.io;
+
+import java.net.http.HttpHeaders;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads how long, and where, a response may be cached from its {@code Cache-Control} header.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class CacheControl {
+
+    private static final String MAX_AGE  = "max-age=";
+    private static final String NO_CACHE = "no-cache";
+    private static final String NO_STORE = "no-store";
+
+    private CacheControl() {
+    }
+
+    // static util
+
+    /**
+     * Gets how long a response may be cached.
+     *
+     * @param headers the response headers
+     * @return the {@code max-age} in milliseconds, `0` when the response may not be cached, or empty when the
+     * response doesn't say
+     */
+    public static Optional<Long> getMaxAgeInMs(HttpHeaders headers) {
+        Optional<Long> maxAgeInMs = Optional.empty();
+        for (String value : headers.allValues(HttpHeader.CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                String normalized = directive.trim().toLowerCase(Locale.ROOT);
+                if (normalized.equals(NO_CACHE) || normalized.equals(NO_STORE)) {
+                    return Optional.of(0L);
+                }
+                if (normalized.startsWith(MAX_AGE)) {
+                    maxAgeInMs = parseSeconds(normalized.substring(MAX_AGE.length())).or(() -> Optional.of(0L));
+                }
+            }
+        }
+        return maxAgeInMs;
+    }
+
+    /**
+     * Checks whether a response may be stored at all, e.g. in a cache on disk.
+     *
+     * @param headers the response headers
+     * @return {@code true} when the response has a {@code no-store} directive
+     */
+    public static boolean isNoStore(HttpHeaders headers) {
+        for (String value : headers.allValues(HttpHeader.CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                if (directive.trim().toLowerCase(Locale.ROOT).equals(NO_STORE)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Optional<Long> parseSeconds(String seconds) {
+        try {
+            return Optional.of(TimeUnit.SECONDS.toMillis(Math.max(Long.parseLong(seconds.replace("\"", "")), 0)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -6,5 +6,10 @@ package com.giannivanhoecke.oauth.desktop.io;
  */
 public class HttpHeader {
 
-    public static final String LOCATION = "Location";
+    public static final String CACHE_CONTROL = "Cache-Control";
+    public static final String ETAG          = "ETag";
+    public static final String IF_NONE_MATCH = "If-None-Match";
+    public static final String LOCATION      = "Location";
+    public static final String RETRY_AFTER   = "Retry-After";
+    public static final String TRACEPARENT   = "traceparent";
 }
@@ -6,6 +6,12 @@ package com.giannivanhoecke.oauth.desktop.io;
  */
 public class HttpStatusCode {
 
-    public static final int OK                = 200;
-    public static final int MOVED_PERMANENTLY = 301;
+    public static final int OK                    = 200;
+    public static final int MOVED_PERMANENTLY     = 301;
+    public static final int NOT_MODIFIED          = 304;
+    public static final int TOO_MANY_REQUESTS     = 429;
+    public static final int INTERNAL_SERVER_ERROR = 500;
+    public static final int BAD_GATEWAY           = 502;
+    public static final int SERVICE_UNAVAILABLE   = 503;
+    public static final int GATEWAY_TIMEOUT       = 504;
 }
@@ -0,0 +1,60 @@
+package com.giannivanhoecke.oauth.desktop.io;
+
+import java.util.Set;
+
+/**
+ * Masks the secrets in form payloads and query strings before they end up in log output, keeping the other
+ * parameters readable.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class Redaction {
+
+    public static final String REDACTED = "[REDACTED]";
+    public static final Set<String> SECRET_PARAMETERS = Set.of(
+            "code", "code_verifier", "refresh_token", "access_token", "id_token", "token", "client_secret",
+            "client_assertion", "password");
+
+    private Redaction() {
+    }
+
+    // static util
+
+    /**
+     * Masks the values of the {@link #SECRET_PARAMETERS} in an {@code application/x-www-form-urlencoded} payload or
+     * query string.
+     *
+     * @param form the payload or query string, may be {@code null}
+     * @return the form with its secret values replaced by {@link #REDACTED}, or {@code null} when it was
+     * {@code null}
+     */
+    public static String redactForm(String form) {
+        if (form == null || form.isEmpty()) {
+            return form;
+        }
+        StringBuilder redacted = new StringBuilder(form.length());
+        int start = 0;
+        while (start <= form.length()) {
+            int end = form.indexOf('&', start);
+            if (end < 0) {
+                end = form.length();
+            }
+            if (start > 0) {
+                redacted.append('&');
+            }
+            appendRedacted(redacted, form, start, end);
+            start = end + 1;
+        }
+        return redacted.toString();
+    }
+
+    private static void appendRedacted(StringBuilder redacted, String form, int start, int end) {
+        int separator = form.indexOf('=', start);
+        if (separator < 0 || separator > end || !SECRET_PARAMETERS.contains(form.substring(start, separator))) {
+            redacted.append(form, start, end);
+            return;
+        }
+        redacted.append(form, start, separator + 1).append(REDACTED);
+    }
+}
@@ -1,16 +1,25 @@
 package com.giannivanhoecke.oauth.desktop.io.local;
 
+import com.giannivanhoecke.oauth.desktop.concurrent.VirtualThreads;
 import com.giannivanhoecke.oauth.desktop.exception.CallbackServerException;
+import com.giannivanhoecke.oauth.desktop.system.ExecutorStrategy;
 import com.sun.net.httpserver.HttpServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Local server catching the authorization server's redirect. Once started, the server keeps running until it's
+ * {@link #stop() stopped}, or until it has been {@link #release() released} for longer than the configured idle
+ * timeout. Starting a running server reuses it, so consecutive authorizations don't pay for binding a socket and
+ * starting threads each time.
+ *
  * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
  * @since 1.0
  */
@@ -27,39 +36,94 @@ public class CallbackServer {
     private final CallbackServerConfig callbackServerConfig;
 
     private HttpServer server;
-    private ScheduledExecutorService scheduledExecutorService;
+    private ExecutorService executorService;
+    private Object idleStop;
 
     public CallbackServer(CallbackServerConfig callbackServerConfig) {
         this.callbackServerConfig = callbackServerConfig;
     }
 
-    public void start()
+    /**
+     * Starts the server, or keeps it running when it's already started.
+     *
+     * @throws IOException when the server couldn't be started
+     */
+    public synchronized void start()
             throws IOException {
         if (this.server != null) {
-            stop();
+            cancelIdleStop();
+            LOGGER.debug("Server already running on port {}, reusing it", this.server.getAddress().getPort());
+            return;
         }
         this.server = HttpServer.create(
                 new InetSocketAddress(HOSTNAME, RANDOM_AVAILABLE_PORT),
                 WITHOUT_REQUEST_QUEUEING);
         this.server.createContext(ENDPOINT_SUCCESS, new SuccessHttpHandler(this.callbackServerConfig));
-        this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
-        this.server.setExecutor(scheduledExecutorService);
+        this.executorService = createExecutorService();
+        this.server.setExecutor(this.executorService);
         this.server.start();
         LOGGER.debug("Server started on host '{}' and port {}", HOSTNAME, this.server.getAddress().getPort());
     }
 
-    public void stop() {
+    /**
+     * Signals the server isn't needed anymore. It's stopped after the configured idle timeout, unless it's started
+     * again in the meantime.
+     */
+    public synchronized void release() {
+        if (this.server == null) {
+            return;
+        }
+        long idleTimeoutInMs = this.callbackServerConfig.getIdleTimeoutInMs();
+        if (idleTimeoutInMs <= 0) {
+            stop();
+            return;
+        }
+        Object thisIdleStop = new Object();
+        this.idleStop = thisIdleStop;
+        LOGGER.debug("Server idle, stopping in {} ms", idleTimeoutInMs);
+        CompletableFuture
+                .delayedExecutor(idleTimeoutInMs, TimeUnit.MILLISECONDS)
+                .execute(() -> stopWhenIdle(thisIdleStop));
+    }
+
+    public synchronized void stop() {
         if (this.server != null) {
+            cancelIdleStop();
             this.server.stop(NO_DELAY);
-            this.scheduledExecutorService.shutdown();
+            this.executorService.shutdown();
+            this.server = null;
             LOGGER.debug("Server stopped");
         }
     }
 
-    public String getSuccessEndpoint() {
+    public synchronized boolean isRunning() {
+        return this.server != null;
+    }
+
+    public synchronized String getSuccessEndpoint() {
         if (this.server == null) {
             throw new CallbackServerException("Server isn't running, cannot request endpoint");
         }
         return String.format("http://%s:%d%s", HOSTNAME, this.server.getAddress().getPort(), ENDPOINT_SUCCESS);
     }
+
+    // util
+
+    private synchronized void stopWhenIdle(Object scheduledIdleStop) {
+        // a start() or a later release() may have replaced the scheduled stop in the meantime
+        if (this.idleStop == scheduledIdleStop) {
+            stop();
+        }
+    }
+
+    private void cancelIdleStop() {
+        this.idleStop = null;
+    }
+
+    private ExecutorService createExecutorService() {
+        if (this.callbackServerConfig.getExecutorStrategy() == ExecutorStrategy.VIRTUAL_THREADS) {
+            return VirtualThreads.newVirtualThreadPerTaskExecutor().orElseGet(Executors::newSingleThreadExecutor);
+        }
+        return Executors.newSingleThreadExecutor();
+    }
 }
@@ -1,5 +1,8 @@
 package com.giannivanhoecke.oauth.desktop.io.local;
 
+import com.giannivanhoecke.oauth.desktop.observability.MetricsRecorder;
+import com.giannivanhoecke.oauth.desktop.system.ExecutorStrategy;
+
 import java.util.Objects;
 import java.util.Optional;
 
@@ -11,10 +14,16 @@ public class CallbackServerConfig {
 
     private final CallbackListener callbackListener;
     private final String successRedirectUri;
+    private final long idleTimeoutInMs;
+    private final ExecutorStrategy executorStrategy;
+    private final MetricsRecorder metricsRecorder;
 
     private CallbackServerConfig(Builder builder) {
         callbackListener = builder.callbackListener;
         successRedirectUri = builder.successRedirectUri;
+        idleTimeoutInMs = builder.idleTimeoutInMs;
+        executorStrategy = builder.executorStrategy;
+        metricsRecorder = builder.metricsRecorder;
     }
 
     public CallbackListener getCallbackListener() {
@@ -25,10 +34,23 @@ public class CallbackServerConfig {
         return Optional.ofNullable(successRedirectUri);
     }
 
+    public long getIdleTimeoutInMs() {
+        return idleTimeoutInMs;
+    }
+
+    public ExecutorStrategy getExecutorStrategy() {
+        return executorStrategy;
+    }
+
+    public MetricsRecorder getMetricsRecorder() {
+        return metricsRecorder;
+    }
+
     @Override
     public String toString() {
         return "CallbackServerConfig{" + "callbackListener=" + callbackListener + ", successRedirectUri='" +
-                successRedirectUri + '\'' + '}';
+                successRedirectUri + '\'' + ", idleTimeoutInMs=" + idleTimeoutInMs +
+                ", executorStrategy=" + executorStrategy + ", metricsRecorder=" + metricsRecorder + '}';
     }
 
     @Override
@@ -41,12 +63,14 @@ public class CallbackServerConfig {
         }
         CallbackServerConfig that = (CallbackServerConfig) o;
         return Objects.equals(callbackListener, that.callbackListener) &&
-                Objects.equals(successRedirectUri, that.successRedirectUri);
+                Objects.equals(successRedirectUri, that.successRedirectUri) &&
+                idleTimeoutInMs == that.idleTimeoutInMs && executorStrategy == that.executorStrategy &&
+                Objects.equals(metricsRecorder, that.metricsRecorder);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(callbackListener, successRedirectUri);
+        return Objects.hash(callbackListener, successRedirectUri, idleTimeoutInMs, executorStrategy, metricsRecorder);
     }
 
     public static Builder newBuilder() {
@@ -56,8 +80,13 @@ public class CallbackServerConfig {
     public static final class Builder {
         private CallbackListener callbackListener;
         private String successRedirectUri;
+        private long idleTimeoutInMs;
+        private ExecutorStrategy executorStrategy;
+        private MetricsRecorder metricsRecorder;
 
         private Builder() {
+            executorStrategy = ExecutorStrategy.PLATFORM_THREADS;
+            metricsRecorder = MetricsRecorder.NOOP;
         }
 
         public Builder withCallbackListener(CallbackListener val) {
@@ -70,6 +99,43 @@ public class CallbackServerConfig {
             return this;
         }
 
+        /**
+         * Sets how long the server stays up after it's {@link CallbackServer#release() released}, so a next
+         * authorization doesn't have to start a new one.
+         * Defaults to `0`, stopping the server right away.
+         *
+         * @param val the idle timeout in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withIdleTimeoutInMs(long val) {
+            idleTimeoutInMs = val;
+            return this;
+        }
+
+        /**
+         * Sets the threads serving the callbacks.
+         * Defaults to a single platform thread.
+         *
+         * @param val the executor strategy to use
+         * @return this builder for chaining
+         */
+        public Builder withExecutorStrategy(ExecutorStrategy val) {
+            executorStrategy = val;
+            return this;
+        }
+
+        /**
+         * Sets the recorder of the time each callback takes to handle.
+         * Defaults to {@link MetricsRecorder#NOOP}.
+         *
+         * @param val the metrics recorder to use
+         * @return this builder for chaining
+         */
+        public Builder withMetricsRecorder(MetricsRecorder val) {
+            metricsRecorder = val;
+            return this;
+        }
+
         public CallbackServerConfig build() {
             return new CallbackServerConfig(this);
         }
@@ -2,6 +2,7 @@ package com.giannivanhoecke.oauth.desktop.io.local;
 
 import com.giannivanhoecke.oauth.desktop.io.HttpHeader;
 import com.giannivanhoecke.oauth.desktop.io.HttpStatusCode;
+import com.giannivanhoecke.oauth.desktop.io.Redaction;
 import com.giannivanhoecke.oauth.desktop.representation.internal.AuthorizationCodeResponse;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -12,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.time.Duration;
 import java.util.Optional;
 
 /**
@@ -33,14 +35,31 @@ public class SuccessHttpHandler implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange)
             throws IOException {
+        long startInNs = System.nanoTime();
         String query = exchange.getRequestURI().getQuery();
-        LOGGER.debug("Received callback with query '{}'", query);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Received callback with query '{}'", Redaction.redactForm(query));
+        }
         AuthorizationCodeResponse codeResponse = AuthorizationCodeResponse.parse(query);
-        handleResponse(exchange, codeResponse);
+        try {
+            handleResponse(exchange, codeResponse);
+        } finally {
+            recordCallback(startInNs);
+        }
     }
 
     // util
 
+    private void recordCallback(long startInNs) {
+        try {
+            this.callbackServerConfig.getMetricsRecorder().recordCallback(
+                    Duration.ofNanos(System.nanoTime() - startInNs));
+        } catch (RuntimeException e) {
+            // a broken recorder must not fail the callback
+            LOGGER.warn("Cannot record metrics", e);
+        }
+    }
+
     private void handleResponse(HttpExchange exchange, AuthorizationCodeResponse codeResponse)
             throws IOException {
         OutputStream outputStream = exchange.getResponseBody();
@@ -0,0 +1,170 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import com.giannivanhoecke.oauth.desktop.resilience.CircuitBreakerConfig;
+import com.giannivanhoecke.oauth.desktop.resilience.CircuitBreakerState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guards one endpoint. Opens after a number of consecutive failures, so requests fail right away instead of waiting
+ * for a connect timeout, and lets probe requests through once the open duration has passed.
+ * <p>
+ * Every request first {@link #tryAcquire() acquires} a permit, and reports its outcome on it exactly once.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private final String endpoint;
+    private final CircuitBreakerConfig circuitBreakerConfig;
+
+    private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtInNs;
+    private int probesInFlight;
+    private int probeSuccesses;
+    private int halfOpenGeneration;
+
+    public CircuitBreaker(String endpoint, CircuitBreakerConfig circuitBreakerConfig) {
+        this.endpoint = endpoint;
+        this.circuitBreakerConfig = circuitBreakerConfig;
+    }
+
+    /**
+     * Acquires a permit to send a request.
+     *
+     * @return the permit, or empty when the breaker is open, or half open with all probes in flight
+     */
+    public synchronized Optional<Permit> tryAcquire() {
+        updateState();
+        switch (this.state) {
+            case CLOSED:
+                return Optional.of(new Permit(false, this.halfOpenGeneration));
+            case HALF_OPEN:
+                if (this.probesInFlight < this.circuitBreakerConfig.getHalfOpenProbes()) {
+                    this.probesInFlight++;
+                    return Optional.of(new Permit(true, this.halfOpenGeneration));
+                }
+                return Optional.empty();
+            default:
+                return Optional.empty();
+        }
+    }
+
+    public synchronized CircuitBreakerState getState() {
+        updateState();
+        return this.state;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    // util
+
+    private void updateState() {
+        if (this.state == CircuitBreakerState.OPEN && System.nanoTime() - this.openedAtInNs
+                >= TimeUnit.MILLISECONDS.toNanos(this.circuitBreakerConfig.getOpenDurationInMs())) {
+            this.state = CircuitBreakerState.HALF_OPEN;
+            this.probesInFlight = 0;
+            this.probeSuccesses = 0;
+            this.halfOpenGeneration++;
+            LOGGER.debug("Circuit breaker for '{}' half open", this.endpoint);
+        }
+    }
+
+    private synchronized void onSuccess(Permit permit) {
+        if (!permit.probe) {
+            if (this.state == CircuitBreakerState.CLOSED) {
+                this.consecutiveFailures = 0;
+            }
+            return;
+        }
+        if (!isCurrentProbe(permit)) {
+            return;
+        }
+        this.probesInFlight--;
+        this.probeSuccesses++;
+        if (this.probeSuccesses >= this.circuitBreakerConfig.getHalfOpenProbes()) {
+            this.state = CircuitBreakerState.CLOSED;
+            this.consecutiveFailures = 0;
+            LOGGER.debug("Circuit breaker for '{}' closed", this.endpoint);
+        }
+    }
+
+    private synchronized void onFailure(Permit permit) {
+        if (isCurrentProbe(permit)) {
+            open();
+            return;
+        }
+        if (!permit.probe && this.state == CircuitBreakerState.CLOSED
+                && ++this.consecutiveFailures >= this.circuitBreakerConfig.getFailureThreshold()) {
+            open();
+        }
+    }
+
+    private synchronized void onIgnored(Permit permit) {
+        if (isCurrentProbe(permit)) {
+            this.probesInFlight--;
+        }
+    }
+
+    private boolean isCurrentProbe(Permit permit) {
+        // a probe from an earlier half open period doesn't tell anything about the current one
+        return permit.probe && this.state == CircuitBreakerState.HALF_OPEN
+                && permit.halfOpenGeneration == this.halfOpenGeneration;
+    }
+
+    private void open() {
+        this.state = CircuitBreakerState.OPEN;
+        this.openedAtInNs = System.nanoTime();
+        LOGGER.debug("Circuit breaker for '{}' open for {} ms",
+                this.endpoint, this.circuitBreakerConfig.getOpenDurationInMs());
+    }
+
+    /**
+     * Permission to send one request. Its outcome must be reported exactly once.
+     */
+    public final class Permit {
+
+        private final boolean probe;
+        private final int halfOpenGeneration;
+
+        private Permit(boolean probe, int halfOpenGeneration) {
+            this.probe = probe;
+            this.halfOpenGeneration = halfOpenGeneration;
+        }
+
+        public boolean isProbe() {
+            return probe;
+        }
+
+        /**
+         * Reports the endpoint handled the request.
+         */
+        public void onSuccess() {
+            CircuitBreaker.this.onSuccess(this);
+        }
+
+        /**
+         * Reports the endpoint failed the request.
+         */
+        public void onFailure() {
+            CircuitBreaker.this.onFailure(this);
+        }
+
+        /**
+         * Reports the request ended without telling anything about the endpoint's health, e.g. when it was never
+         * sent.
+         */
+        public void onIgnored() {
+            CircuitBreaker.this.onIgnored(this);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Limits the number of requests in flight to one endpoint. Requests over the limit wait in a bounded queue, and are
+ * rejected right away once the queue is full, so a slow server doesn't pile up ever more waiting callers.
+ * <p>
+ * Waiting doesn't block a thread: {@link #acquire()} returns a future which completes once a permit is handed over.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class ConcurrencyLimiter {
+
+    private final int maxConcurrentRequests;
+    private final int maxQueuedRequests;
+    private final Queue<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+
+    private int inFlight;
+
+    public ConcurrencyLimiter(int maxConcurrentRequests, int maxQueuedRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+
+    /**
+     * Acquires a permit to send a request. Every successfully acquired permit must be {@link #release() released}.
+     *
+     * @return a future completing once the permit is acquired, or completed exceptionally with a
+     * {@link RejectedExecutionException} when the queue is full
+     */
+    public synchronized CompletableFuture<Void> acquire() {
+        if (this.inFlight < this.maxConcurrentRequests) {
+            this.inFlight++;
+            return CompletableFuture.completedFuture(null);
+        }
+        if (this.waiting.size() >= this.maxQueuedRequests) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(String.format(
+                    "Too many concurrent requests: %d in flight and %d queued",
+                    this.inFlight, this.waiting.size())));
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        this.waiting.add(permit);
+        return permit;
+    }
+
+    /**
+     * Releases a permit, handing it over to the longest waiting request, if any.
+     */
+    public void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            next = this.waiting.poll();
+            while (next != null && next.isDone()) {
+                // the waiting caller gave up, e.g. by cancelling
+                next = this.waiting.poll();
+            }
+            if (next == null) {
+                this.inFlight--;
+                return;
+            }
+        }
+        // completed outside the lock, as this runs the waiting request's follow-up actions
+        if (!next.complete(null)) {
+            release();
+        }
+    }
+
+    public synchronized int getInFlight() {
+        return this.inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return this.waiting.size();
+    }
+}
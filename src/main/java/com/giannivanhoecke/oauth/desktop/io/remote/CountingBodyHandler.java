@@ -0,0 +1,75 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the response body bytes while handing them over to another body handler.
+ *
+ * @param <T> the response body type
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+class CountingBodyHandler<T> implements HttpResponse.BodyHandler<T> {
+
+    private final HttpResponse.BodyHandler<T> bodyHandler;
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    CountingBodyHandler(HttpResponse.BodyHandler<T> bodyHandler) {
+        this.bodyHandler = bodyHandler;
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<T> apply(HttpResponse.ResponseInfo responseInfo) {
+        return new CountingBodySubscriber<>(this.bodyHandler.apply(responseInfo), this.bytesReceived);
+    }
+
+    long getBytesReceived() {
+        return this.bytesReceived.get();
+    }
+
+    private static final class CountingBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+
+        private final HttpResponse.BodySubscriber<T> bodySubscriber;
+        private final AtomicLong bytesReceived;
+
+        private CountingBodySubscriber(HttpResponse.BodySubscriber<T> bodySubscriber, AtomicLong bytesReceived) {
+            this.bodySubscriber = bodySubscriber;
+            this.bytesReceived = bytesReceived;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return this.bodySubscriber.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.bodySubscriber.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            long bytes = 0;
+            for (ByteBuffer item : items) {
+                bytes += item.remaining();
+            }
+            this.bytesReceived.addAndGet(bytes);
+            this.bodySubscriber.onNext(items);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.bodySubscriber.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            this.bodySubscriber.onComplete();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import com.giannivanhoecke.oauth.desktop.system.ExecutorStrategy;
+
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.util.Objects;
+
+/**
+ * Identifies a pooled {@link HttpClient} in the {@link HttpClientRegistry}. Requests sharing the same key share the
+ * same client, and thus the same connection pool.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class HttpClientKey {
+
+    private final int connectTimeoutInMs;
+    private final ProxySelector proxySelector;
+    private final HttpClient.Version version;
+    private final ExecutorStrategy executorStrategy;
+
+    public HttpClientKey(int connectTimeoutInMs, ProxySelector proxySelector, HttpClient.Version version) {
+        this(connectTimeoutInMs, proxySelector, version, ExecutorStrategy.PLATFORM_THREADS);
+    }
+
+    public HttpClientKey(int connectTimeoutInMs, ProxySelector proxySelector, HttpClient.Version version,
+                         ExecutorStrategy executorStrategy) {
+        this.connectTimeoutInMs = connectTimeoutInMs;
+        this.proxySelector = proxySelector;
+        this.version = version;
+        this.executorStrategy = executorStrategy;
+    }
+
+    public int getConnectTimeoutInMs() {
+        return connectTimeoutInMs;
+    }
+
+    public ProxySelector getProxySelector() {
+        return proxySelector;
+    }
+
+    public HttpClient.Version getVersion() {
+        return version;
+    }
+
+    public ExecutorStrategy getExecutorStrategy() {
+        return executorStrategy;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpClientKey{" + "connectTimeoutInMs=" + connectTimeoutInMs + ", proxySelector=" + proxySelector +
+                ", version=" + version + ", executorStrategy=" + executorStrategy + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HttpClientKey)) {
+            return false;
+        }
+        HttpClientKey that = (HttpClientKey) o;
+        return connectTimeoutInMs == that.connectTimeoutInMs && Objects.equals(proxySelector, that.proxySelector) &&
+                version == that.version && executorStrategy == that.executorStrategy;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(connectTimeoutInMs, proxySelector, version, executorStrategy);
+    }
+}
@@ -0,0 +1,140 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import com.giannivanhoecke.oauth.desktop.concurrent.VirtualThreads;
+import com.giannivanhoecke.oauth.desktop.system.ExecutorStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Keeps one {@link HttpClient} per {@link HttpClientKey}, so consecutive requests reuse the client's selector thread
+ * and its pool of kept-alive connections instead of paying a new TCP and TLS handshake on every call.
+ * <p>
+ * Idle pooled connections are closed by the JDK after {@code jdk.httpclient.keepalive.timeout} seconds. Closing a
+ * registry you created shuts down the clients and the executors it created for them. The {@link #getDefault() default}
+ * registry is shared by the whole process and is never closed.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class HttpClientRegistry implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientRegistry.class);
+
+    private static final HttpClientRegistry DEFAULT = new HttpClientRegistry();
+    private static final Method SHUTDOWN = findShutdown();
+
+    private final ConcurrentMap<HttpClientKey, PooledClient> pooledClients = new ConcurrentHashMap<>();
+
+    public HttpClientRegistry() {
+    }
+
+    /**
+     * Gets the registry shared by all {@link RemoteResource} instances which weren't given their own registry.
+     * Closing it does nothing, as other callers in the process may still be using its clients.
+     *
+     * @return the shared registry
+     */
+    public static HttpClientRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the pooled client for the given key, creating it on first use.
+     *
+     * @param httpClientKey the key of the client
+     * @return the pooled client
+     */
+    public HttpClient get(HttpClientKey httpClientKey) {
+        return pooledClients.computeIfAbsent(httpClientKey, this::createPooledClient).httpClient;
+    }
+
+    public int size() {
+        return pooledClients.size();
+    }
+
+    /**
+     * Releases all pooled clients, shutting down the virtual thread executors the registry created for them. On Java
+     * 21 or later, the clients are shut down as well, closing their connections once in-flight requests complete.
+     * On older versions, their connections are closed once the clients are garbage collected. Close the registry
+     * when no more requests are made through its clients, e.g. when your application exits. The registry stays
+     * usable: the next request creates a fresh client.
+     * <p>
+     * Only registries you created yourself are closed: closing the {@link #getDefault() default} registry does
+     * nothing.
+     */
+    @Override
+    public void close() {
+        if (this == DEFAULT) {
+            LOGGER.debug("Not closing the default HTTP client registry, it's shared by the whole process");
+            return;
+        }
+        for (HttpClientKey httpClientKey : pooledClients.keySet()) {
+            PooledClient pooledClient = pooledClients.remove(httpClientKey);
+            if (pooledClient != null) {
+                pooledClient.shutdown();
+            }
+        }
+        LOGGER.debug("Released pooled HTTP clients");
+    }
+
+    // util
+
+    private PooledClient createPooledClient(HttpClientKey httpClientKey) {
+        LOGGER.debug("Creating pooled HTTP client for {}", httpClientKey);
+        HttpClient.Builder httpClientBuilder = HttpClient
+                .newBuilder()
+                .version(httpClientKey.getVersion())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(httpClientKey.getConnectTimeoutInMs()))
+                .proxy(httpClientKey.getProxySelector());
+        Optional<ExecutorService> executorService = Optional.empty();
+        if (httpClientKey.getExecutorStrategy() == ExecutorStrategy.VIRTUAL_THREADS) {
+            executorService = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            executorService.ifPresent(httpClientBuilder::executor);
+        }
+        return new PooledClient(httpClientBuilder.build(), executorService.orElse(null));
+    }
+
+    private static final class PooledClient {
+
+        private final HttpClient httpClient;
+        private final ExecutorService executorService;
+
+        private PooledClient(HttpClient httpClient, ExecutorService executorService) {
+            this.httpClient = httpClient;
+            this.executorService = executorService;
+        }
+
+        private void shutdown() {
+            if (SHUTDOWN != null) {
+                try {
+                    SHUTDOWN.invoke(this.httpClient);
+                } catch (ReflectiveOperationException e) {
+                    LOGGER.warn("Cannot shut down pooled HTTP client", e);
+                }
+            }
+            if (this.executorService != null) {
+                this.executorService.shutdown();
+            }
+        }
+    }
+
+    // static util
+
+    private static Method findShutdown() {
+        // HttpClient can be shut down since Java 21, but the library targets Java 11
+        try {
+            return HttpClient.class.getMethod("shutdown");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
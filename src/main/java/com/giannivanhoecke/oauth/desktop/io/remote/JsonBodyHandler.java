@@ -0,0 +1,56 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import com.giannivanhoecke.oauth.desktop.io.HttpStatusCode;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads a successful response body into a JSON representation, without decoding it into an intermediate
+ * {@link String} first. Any other response is kept as a raw {@link String}, for use in error messages.
+ * <p>
+ * The body bytes are collected before parsing, rather than parsed from a blocking {@link java.io.InputStream}, so
+ * asynchronous requests never block the HTTP client's threads.
+ *
+ * @param <T> the representation type
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class JsonBodyHandler<T> implements HttpResponse.BodyHandler<JsonResult<T>> {
+
+    private final TypeAdapter<T> typeAdapter;
+
+    public JsonBodyHandler(TypeAdapter<T> typeAdapter) {
+        this.typeAdapter = typeAdapter;
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<JsonResult<T>> apply(HttpResponse.ResponseInfo responseInfo) {
+        int resultCode = responseInfo.statusCode();
+        HttpHeaders headers = responseInfo.headers();
+        if (resultCode != HttpStatusCode.OK) {
+            return HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                    content -> JsonResult.<T>unparsed(resultCode, content).withHeaders(headers));
+        }
+        return HttpResponse.BodySubscribers.mapping(
+                HttpResponse.BodySubscribers.ofByteArray(),
+                body -> read(resultCode, body).withHeaders(headers));
+    }
+
+    // util
+
+    private JsonResult<T> read(int resultCode, byte[] body) {
+        try (JsonReader jsonReader = new JsonReader(
+                new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))) {
+            return JsonResult.parsed(resultCode, this.typeAdapter.read(jsonReader));
+        } catch (Exception e) {
+            return JsonResult.unparseable(resultCode, new String(body, StandardCharsets.UTF_8), e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import java.net.http.HttpHeaders;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The result of a request whose successful response body was read straight into a JSON representation. The raw body
+ * is only kept when it wasn't parsed, i.e. on non-200 responses and on malformed JSON, for use in error messages.
+ *
+ * @param <T> the representation type
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class JsonResult<T> {
+
+    private static final HttpHeaders NO_HEADERS = HttpHeaders.of(Map.of(), (name, value) -> true);
+
+    private final int resultCode;
+    private final T value;
+    private final String content;
+    private final Exception parseException;
+    private final HttpHeaders headers;
+
+    private JsonResult(int resultCode, T value, String content, Exception parseException, HttpHeaders headers) {
+        this.resultCode = resultCode;
+        this.value = value;
+        this.content = content;
+        this.parseException = parseException;
+        this.headers = headers;
+    }
+
+    public static <T> JsonResult<T> parsed(int resultCode, T value) {
+        return new JsonResult<>(resultCode, value, null, null, NO_HEADERS);
+    }
+
+    public static <T> JsonResult<T> unparsed(int resultCode, String content) {
+        return new JsonResult<>(resultCode, null, content, null, NO_HEADERS);
+    }
+
+    public static <T> JsonResult<T> unparseable(int resultCode, String content, Exception parseException) {
+        return new JsonResult<>(resultCode, null, content, parseException, NO_HEADERS);
+    }
+
+    JsonResult<T> withHeaders(HttpHeaders headers) {
+        return new JsonResult<>(this.resultCode, this.value, this.content, this.parseException, headers);
+    }
+
+    public int getResultCode() {
+        return resultCode;
+    }
+
+    public Optional<T> getValue() {
+        return Optional.ofNullable(value);
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public Optional<Exception> getParseException() {
+        return Optional.ofNullable(parseException);
+    }
+
+    /**
+     * Gets the response headers, e.g. to honour {@code Cache-Control}. These aren't part of the result's equality.
+     *
+     * @return the response headers, empty when the result wasn't read from a response
+     */
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public String toString() {
+        return "JsonResult{" + "resultCode=" + resultCode + ", value=" + value + ", content='" + content + '\'' +
+                ", parseException=" + parseException + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof JsonResult)) {
+            return false;
+        }
+        JsonResult<?> that = (JsonResult<?>) o;
+        return resultCode == that.resultCode && Objects.equals(value, that.value) &&
+                Objects.equals(content, that.content) && Objects.equals(parseException, that.parseException);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(resultCode, value, content, parseException);
+    }
+}
@@ -1,5 +1,7 @@
 package com.giannivanhoecke.oauth.desktop.io.remote;
 
+import com.giannivanhoecke.oauth.desktop.io.Redaction;
+
 import java.util.Objects;
 
 /**
@@ -10,10 +12,24 @@ public class PostRequest {
     
     private final RequestParameters requestParameters;
     private final String payload;
+    private final boolean idempotent;
 
     public PostRequest(RequestParameters requestParameters, String payload) {
+        this(requestParameters, payload, false);
+    }
+
+    /**
+     * Creates a post request.
+     *
+     * @param requestParameters the request parameters
+     * @param payload the payload to send
+     * @param idempotent whether the request is safe to replay after the server might have seen it. Requests which
+     * aren't idempotent are only retried when the connection couldn't be made.
+     */
+    public PostRequest(RequestParameters requestParameters, String payload, boolean idempotent) {
         this.requestParameters = requestParameters;
         this.payload = payload;
+        this.idempotent = idempotent;
     }
 
     public RequestParameters getRequestParameters() {
@@ -24,9 +40,15 @@ public class PostRequest {
         return payload;
     }
 
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
     @Override
     public String toString() {
-        return "PostRequest{" + "requestParameters=" + requestParameters + ", payload='" + payload + '\'' + '}';
+        // the payload carries codes, verifiers and refresh tokens
+        return "PostRequest{" + "requestParameters=" + requestParameters + ", payload='" +
+                Redaction.redactForm(payload) + '\'' + ", idempotent=" + idempotent + '}';
     }
 
     @Override
@@ -38,11 +60,12 @@ public class PostRequest {
             return false;
         }
         PostRequest that = (PostRequest) o;
-        return Objects.equals(requestParameters, that.requestParameters) && Objects.equals(payload, that.payload);
+        return Objects.equals(requestParameters, that.requestParameters) && Objects.equals(payload, that.payload) &&
+                idempotent == that.idempotent;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(requestParameters, payload);
+        return Objects.hash(requestParameters, payload, idempotent);
     }
 }
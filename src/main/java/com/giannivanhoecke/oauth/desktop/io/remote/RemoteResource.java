@@ -1,11 +1,32 @@
 package com.giannivanhoecke.oauth.desktop.io.remote;
 
+import com.giannivanhoecke.oauth.desktop.concurrent.Futures;
+import com.giannivanhoecke.oauth.desktop.exception.CircuitBreakerOpenException;
+import com.giannivanhoecke.oauth.desktop.io.HttpStatusCode;
+import com.giannivanhoecke.oauth.desktop.observability.MetricsRecorder;
+import com.giannivanhoecke.oauth.desktop.observability.Span;
+import com.giannivanhoecke.oauth.desktop.resilience.CircuitBreakerConfig;
+import com.giannivanhoecke.oauth.desktop.resilience.CircuitBreakerState;
+import com.giannivanhoecke.oauth.desktop.resilience.RetryPolicy;
+import com.giannivanhoecke.oauth.desktop.system.ExecutorStrategy;
+import com.google.gson.TypeAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 
+import java.io.IOException;
 import java.net.http.HttpResponse;
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
@@ -15,29 +36,83 @@ public class RemoteResource {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RemoteResource.class);
 
+    private final HttpClientRegistry httpClientRegistry;
+    private final ExecutorStrategy executorStrategy;
+    private final MetricsRecorder metricsRecorder;
+    private final ConcurrentMap<String, ConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Retrier> retriers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a remote resource using the shared {@link HttpClientRegistry#getDefault() default} client registry.
+     */
+    public RemoteResource() {
+        this(newBuilder());
+    }
+
+    /**
+     * Creates a remote resource using the given client registry.
+     *
+     * @param httpClientRegistry the registry to get pooled clients from
+     */
+    public RemoteResource(HttpClientRegistry httpClientRegistry) {
+        this(newBuilder().withHttpClientRegistry(httpClientRegistry));
+    }
+
+    private RemoteResource(Builder builder) {
+        this.httpClientRegistry = builder.httpClientRegistry;
+        this.executorStrategy = builder.executorStrategy;
+        this.metricsRecorder = builder.metricsRecorder;
+    }
+
     public GetResult get(GetRequest getRequest)
             throws ResourceException {
-        RequestParameters requestParameters = getRequest.getRequestParameters();
-        try {
-            MDC.put(RemoteResourceMdcConstants.LOGGER_MDC_REMOTE_LOCATION, requestParameters.getEndpoint());
-            MDC.put(RemoteResourceMdcConstants.LOGGER_MDC_KEY_VALUES, Arrays.toString(requestParameters.getKeyValuePairs()));
-            LOGGER.debug("[{}] resource...", RequestMethod.GET.name());
-            HttpResponse<String> response = ResourceConnection
-                    .newBuilder()
-                    .withRequestMethod(RequestMethod.GET)
-                    .withUrl(requestParameters.getEndpoint())
-                    .withKeyValuePairs(requestParameters.getKeyValuePairs())
-                    .withConnectTimeoutInMs(requestParameters.getConnectTimeoutInMs())
-                    .withRequestTimeoutInMs(requestParameters.getRequestTimeoutInMs())
-                    .build()
-                    .exec();
-            return new GetResult(response.statusCode(), response.body());
-        } catch (Exception e) {
-            throw new ResourceException(requestParameters.getEndpoint(),
-                    String.format("Can't get data: %s", e.getMessage()), e);
-        } finally {
-            clearMdc();
-        }
+        HttpResponse<String> response = sendGet(
+                getRequest.getRequestParameters(),
+                HttpResponse.BodyHandlers.ofString());
+        return new GetResult(response.statusCode(), response.body());
+    }
+
+    /**
+     * Gets the resource, reading a successful response body straight into a JSON representation.
+     *
+     * @param getRequest the request to send
+     * @param typeAdapter the adapter reading the response body
+     * @param <T> the representation type
+     * @return the result
+     *
+     * @throws ResourceException when the request couldn't be sent
+     */
+    public <T> JsonResult<T> get(GetRequest getRequest, TypeAdapter<T> typeAdapter)
+            throws ResourceException {
+        return sendGet(getRequest.getRequestParameters(), new JsonBodyHandler<>(typeAdapter)).body();
+    }
+
+    /**
+     * Gets the resource without blocking the calling thread.
+     *
+     * @param getRequest the request to send
+     * @return the result as a {@link CompletableFuture}, completed exceptionally with a {@link ResourceException} on
+     * failure
+     */
+    public CompletableFuture<GetResult> getAsync(GetRequest getRequest) {
+        return sendGetAsync(getRequest.getRequestParameters(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(httpResponse -> new GetResult(httpResponse.statusCode(), httpResponse.body()));
+    }
+
+    /**
+     * Gets the resource without blocking the calling thread, reading a successful response body straight into a JSON
+     * representation.
+     *
+     * @param getRequest the request to send
+     * @param typeAdapter the adapter reading the response body
+     * @param <T> the representation type
+     * @return the result as a {@link CompletableFuture}, completed exceptionally with a {@link ResourceException} on
+     * failure
+     */
+    public <T> CompletableFuture<JsonResult<T>> getAsync(GetRequest getRequest, TypeAdapter<T> typeAdapter) {
+        return sendGetAsync(getRequest.getRequestParameters(), new JsonBodyHandler<>(typeAdapter))
+                .thenApply(HttpResponse::body);
     }
 
     public PostResult post(PostRequest postRequest)
@@ -45,43 +120,487 @@ public class RemoteResource {
         HttpResponse<String> response = sendPayload(
                 postRequest.getRequestParameters(),
                 postRequest.getPayload(),
-                RequestMethod.POST);
+                postRequest.isIdempotent(),
+                RequestMethod.POST,
+                HttpResponse.BodyHandlers.ofString());
         return new PostResult(response.statusCode(), response.body());
     }
 
+    /**
+     * Posts the payload, reading a successful response body straight into a JSON representation.
+     *
+     * @param postRequest the request to send
+     * @param typeAdapter the adapter reading the response body
+     * @param <T> the representation type
+     * @return the result
+     *
+     * @throws ResourceException when the request couldn't be sent
+     */
+    public <T> JsonResult<T> post(PostRequest postRequest, TypeAdapter<T> typeAdapter)
+            throws ResourceException {
+        return sendPayload(
+                postRequest.getRequestParameters(),
+                postRequest.getPayload(),
+                postRequest.isIdempotent(),
+                RequestMethod.POST,
+                new JsonBodyHandler<>(typeAdapter)).body();
+    }
+
+    /**
+     * Posts the payload without blocking the calling thread.
+     *
+     * @param postRequest the request to send
+     * @return the result as a {@link CompletableFuture}, completed exceptionally with a {@link ResourceException} on
+     * failure
+     */
+    public CompletableFuture<PostResult> postAsync(PostRequest postRequest) {
+        return sendPayloadAsync(
+                postRequest.getRequestParameters(),
+                postRequest.getPayload(),
+                postRequest.isIdempotent(),
+                RequestMethod.POST,
+                HttpResponse.BodyHandlers.ofString())
+                .thenApply(httpResponse -> new PostResult(httpResponse.statusCode(), httpResponse.body()));
+    }
+
+    /**
+     * Posts the payload without blocking the calling thread, reading a successful response body straight into a JSON
+     * representation.
+     *
+     * @param postRequest the request to send
+     * @param typeAdapter the adapter reading the response body
+     * @param <T> the representation type
+     * @return the result as a {@link CompletableFuture}, completed exceptionally with a {@link ResourceException} on
+     * failure
+     */
+    public <T> CompletableFuture<JsonResult<T>> postAsync(PostRequest postRequest, TypeAdapter<T> typeAdapter) {
+        return sendPayloadAsync(
+                postRequest.getRequestParameters(),
+                postRequest.getPayload(),
+                postRequest.isIdempotent(),
+                RequestMethod.POST,
+                new JsonBodyHandler<>(typeAdapter))
+                .thenApply(HttpResponse::body);
+    }
+
+    /**
+     * Gets the state of the circuit breaker of each endpoint requested so far.
+     *
+     * @return the circuit breaker states by endpoint, empty when circuit breakers are disabled
+     */
+    public Map<String, CircuitBreakerState> getCircuitBreakerStates() {
+        Map<String, CircuitBreakerState> circuitBreakerStates = new TreeMap<>();
+        this.circuitBreakers.forEach((endpoint, circuitBreaker) ->
+                circuitBreakerStates.put(endpoint, circuitBreaker.getState()));
+        return circuitBreakerStates;
+    }
+
     // util
 
-    private HttpResponse<String> sendPayload(RequestParameters requestParameters, String payload,
-                                             RequestMethod requestMethod)
+    private <T> HttpResponse<T> sendGet(RequestParameters requestParameters, HttpResponse.BodyHandler<T> bodyHandler)
+            throws ResourceException {
+        RequestDiagnostics diagnostics = RequestDiagnostics.start(LOGGER, requestParameters, null);
+        try {
+            LOGGER.debug("[{}] resource...", RequestMethod.GET.name());
+            return exec(requestParameters, true, bodyHandler, toGetConnection(requestParameters)::exec);
+        } catch (Exception e) {
+            throw new ResourceException(requestParameters.getEndpoint(),
+                    String.format("Can't get data: %s", e.getMessage()), e);
+        } finally {
+            diagnostics.close();
+        }
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendGetAsync(RequestParameters requestParameters,
+                                                                HttpResponse.BodyHandler<T> bodyHandler) {
+        CompletableFuture<HttpResponse<T>> response;
+        RequestDiagnostics diagnostics = RequestDiagnostics.start(LOGGER, requestParameters, null);
+        try {
+            LOGGER.debug("[{}] resource asynchronously...", RequestMethod.GET.name());
+            response = execAsync(requestParameters, true, bodyHandler, toGetConnection(requestParameters)::execAsync);
+        } finally {
+            diagnostics.close();
+        }
+        return wrapFailure(response, requestParameters, "Can't get data: %s");
+    }
+
+    private <T> HttpResponse<T> sendPayload(RequestParameters requestParameters, String payload, boolean idempotent,
+                                            RequestMethod requestMethod, HttpResponse.BodyHandler<T> bodyHandler)
             throws ResourceException {
+        RequestDiagnostics diagnostics = RequestDiagnostics.start(LOGGER, requestParameters, payload);
         try {
-            MDC.put(RemoteResourceMdcConstants.LOGGER_MDC_REMOTE_LOCATION, requestParameters.getEndpoint());
-            MDC.put(RemoteResourceMdcConstants.LOGGER_MDC_PAYLOAD, payload);
-            MDC.put(RemoteResourceMdcConstants.LOGGER_MDC_KEY_VALUES, Arrays.toString(requestParameters.getKeyValuePairs()));
             LOGGER.debug("[{}] resource...", requestMethod.name());
-            return ResourceConnection
-                    .newBuilder()
-                    .withRequestMethod(requestMethod)
-                    .withOutput(true)
-                    .withUrl(requestParameters.getEndpoint())
-                    .withKeyValuePairs(requestParameters.getKeyValuePairs())
-                    .withPayload(payload)
-                    .withConnectTimeoutInMs(requestParameters.getConnectTimeoutInMs())
-                    .withRequestTimeoutInMs(requestParameters.getRequestTimeoutInMs())
-                    .build()
-                    .exec();
+            return exec(requestParameters, idempotent, bodyHandler,
+                    toPayloadConnection(requestParameters, payload, requestMethod)::exec);
         } catch (Exception e) {
             throw new ResourceException(requestParameters.getEndpoint(),
                     String.format("Can't send data: %s", e.getMessage()), e);
         } finally {
-            clearMdc();
+            diagnostics.close();
+        }
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendPayloadAsync(RequestParameters requestParameters,
+                                                                    String payload, boolean idempotent,
+                                                                    RequestMethod requestMethod,
+                                                                    HttpResponse.BodyHandler<T> bodyHandler) {
+        CompletableFuture<HttpResponse<T>> response;
+        RequestDiagnostics diagnostics = RequestDiagnostics.start(LOGGER, requestParameters, payload);
+        try {
+            LOGGER.debug("[{}] resource asynchronously...", requestMethod.name());
+            response = execAsync(requestParameters, idempotent, bodyHandler,
+                    toPayloadConnection(requestParameters, payload, requestMethod)::execAsync);
+        } finally {
+            diagnostics.close();
+        }
+        return wrapFailure(response, requestParameters, "Can't send data: %s");
+    }
+
+    private <T> HttpResponse<T> exec(RequestParameters requestParameters, boolean idempotent,
+                                     HttpResponse.BodyHandler<T> bodyHandler, Send<T> send)
+            throws Exception {
+        // a request rejected by the circuit breaker doesn't take a slot from the concurrency limiter
+        return retry(requestParameters, idempotent, () -> guard(requestParameters,
+                () -> limit(requestParameters, () -> measure(requestParameters, bodyHandler, send))));
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> execAsync(RequestParameters requestParameters, boolean idempotent,
+                                                             HttpResponse.BodyHandler<T> bodyHandler,
+                                                             SendAsync<T> send) {
+        return retryAsync(requestParameters, idempotent, () -> guardAsync(requestParameters,
+                () -> limitAsync(requestParameters, () -> measureAsync(requestParameters, bodyHandler, send))));
+    }
+
+    private <T> HttpResponse<T> measure(RequestParameters requestParameters, HttpResponse.BodyHandler<T> bodyHandler,
+                                        Send<T> send)
+            throws IOException {
+        if (this.metricsRecorder == MetricsRecorder.NOOP) {
+            return send.exec(bodyHandler);
+        }
+        CountingBodyHandler<T> countingBodyHandler = new CountingBodyHandler<>(bodyHandler);
+        long startInNs = System.nanoTime();
+        HttpResponse<T> response;
+        try {
+            response = send.exec(countingBodyHandler);
+        } catch (IOException | RuntimeException e) {
+            record(requestParameters, null, e, countingBodyHandler, startInNs);
+            throw e;
         }
+        record(requestParameters, response, null, countingBodyHandler, startInNs);
+        return response;
     }
 
-    private void clearMdc() {
-        MDC.remove(RemoteResourceMdcConstants.LOGGER_MDC_KEY_VALUES);
-        MDC.remove(RemoteResourceMdcConstants.LOGGER_MDC_PAYLOAD);
-        MDC.remove(RemoteResourceMdcConstants.LOGGER_MDC_REMOTE_LOCATION);
-        MDC.remove(RemoteResourceMdcConstants.LOGGER_MDC_HTTP_RESPONSE_CODE);
+    private <T> CompletableFuture<HttpResponse<T>> measureAsync(RequestParameters requestParameters,
+                                                                HttpResponse.BodyHandler<T> bodyHandler,
+                                                                SendAsync<T> send) {
+        if (this.metricsRecorder == MetricsRecorder.NOOP) {
+            return send.exec(bodyHandler);
+        }
+        CountingBodyHandler<T> countingBodyHandler = new CountingBodyHandler<>(bodyHandler);
+        long startInNs = System.nanoTime();
+        return send.exec(countingBodyHandler).whenComplete((response, throwable) -> record(requestParameters,
+                response, throwable == null ? null : Futures.unwrap(throwable), countingBodyHandler, startInNs));
+    }
+
+    private void record(RequestParameters requestParameters, HttpResponse<?> response, Throwable failure,
+                        CountingBodyHandler<?> countingBodyHandler, long startInNs) {
+        Duration duration = Duration.ofNanos(System.nanoTime() - startInNs);
+        try {
+            if (failure != null) {
+                this.metricsRecorder.recordFailure(
+                        requestParameters.getOperation(), requestParameters.getEndpoint(), failure, duration);
+            } else {
+                this.metricsRecorder.recordResponse(requestParameters.getOperation(), requestParameters.getEndpoint(),
+                        response.statusCode(), duration, countingBodyHandler.getBytesReceived());
+            }
+        } catch (RuntimeException e) {
+            // a broken recorder must not fail the request
+            LOGGER.warn("Cannot record metrics", e);
+        }
+    }
+
+    private <T> HttpResponse<T> retry(RequestParameters requestParameters, boolean idempotent,
+                                      Retrier.Call<HttpResponse<T>> call)
+            throws Exception {
+        Optional<Retrier> retrier = getRetrier(requestParameters);
+        if (retrier.isEmpty()) {
+            return call.exec();
+        }
+        return retrier.get().execute(idempotent, call);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> retryAsync(RequestParameters requestParameters, boolean idempotent,
+                                                              Supplier<CompletableFuture<HttpResponse<T>>> call) {
+        Optional<Retrier> retrier = getRetrier(requestParameters);
+        if (retrier.isEmpty()) {
+            return call.get();
+        }
+        return retrier.get().executeAsync(idempotent, call);
+    }
+
+    private Optional<Retrier> getRetrier(RequestParameters requestParameters) {
+        RetryPolicy retryPolicy = requestParameters.getRetryPolicy();
+        if (retryPolicy == null || !retryPolicy.isEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.of(this.retriers.computeIfAbsent(requestParameters.getEndpoint(),
+                endpoint -> new Retrier(retryPolicy)));
+    }
+
+    private <T> HttpResponse<T> guard(RequestParameters requestParameters, Retrier.Call<HttpResponse<T>> call)
+            throws Exception {
+        Optional<CircuitBreaker> circuitBreaker = getCircuitBreaker(requestParameters);
+        if (circuitBreaker.isEmpty()) {
+            return call.exec();
+        }
+        CircuitBreaker.Permit permit = acquire(circuitBreaker.get());
+        HttpResponse<T> response;
+        try {
+            response = call.exec();
+        } catch (Exception e) {
+            report(permit, null, e);
+            throw e;
+        }
+        report(permit, response, null);
+        return response;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> guardAsync(RequestParameters requestParameters,
+                                                              Supplier<CompletableFuture<HttpResponse<T>>> call) {
+        Optional<CircuitBreaker> circuitBreaker = getCircuitBreaker(requestParameters);
+        if (circuitBreaker.isEmpty()) {
+            return call.get();
+        }
+        CircuitBreaker.Permit permit;
+        CompletableFuture<HttpResponse<T>> response;
+        try {
+            permit = acquire(circuitBreaker.get());
+        } catch (CircuitBreakerOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.whenComplete((httpResponse, throwable) ->
+                report(permit, httpResponse, throwable == null ? null : Futures.unwrap(throwable)));
+    }
+
+    private CircuitBreaker.Permit acquire(CircuitBreaker circuitBreaker) {
+        return circuitBreaker.tryAcquire().orElseThrow(() -> new CircuitBreakerOpenException(
+                String.format("Circuit breaker for '%s' is %s, failing fast", circuitBreaker.getEndpoint(),
+                        circuitBreaker.getState().name().toLowerCase().replace('_', ' '))));
+    }
+
+    private void report(CircuitBreaker.Permit permit, HttpResponse<?> response, Throwable failure) {
+        if (failure != null) {
+            if (failure instanceof IOException && !(failure.getCause() instanceof InterruptedException)) {
+                permit.onFailure();
+            } else {
+                // e.g. rejected by the concurrency limiter, so never sent
+                permit.onIgnored();
+            }
+        } else if (response.statusCode() >= HttpStatusCode.INTERNAL_SERVER_ERROR) {
+            permit.onFailure();
+        } else {
+            permit.onSuccess();
+        }
+    }
+
+    private Optional<CircuitBreaker> getCircuitBreaker(RequestParameters requestParameters) {
+        CircuitBreakerConfig circuitBreakerConfig = requestParameters.getCircuitBreakerConfig();
+        if (circuitBreakerConfig == null || !circuitBreakerConfig.isEnabled()) {
+            return Optional.empty();
+        }
+        return Optional.of(this.circuitBreakers.computeIfAbsent(requestParameters.getEndpoint(),
+                endpoint -> new CircuitBreaker(endpoint, circuitBreakerConfig)));
+    }
+
+    private <T> T limit(RequestParameters requestParameters, Call<T> call)
+            throws Exception {
+        Optional<ConcurrencyLimiter> concurrencyLimiter = getConcurrencyLimiter(requestParameters);
+        if (concurrencyLimiter.isEmpty()) {
+            return call.exec();
+        }
+        acquire(concurrencyLimiter.get(), requestParameters.getRequestTimeoutInMs());
+        try {
+            return call.exec();
+        } finally {
+            concurrencyLimiter.get().release();
+        }
+    }
+
+    private void acquire(ConcurrencyLimiter concurrencyLimiter, int timeoutInMs)
+            throws Exception {
+        CompletableFuture<Void> permit = concurrencyLimiter.acquire();
+        try {
+            // waiting for a slot counts against the request timeout, so a stalled endpoint can't block callers forever
+            permit.get(timeoutInMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            giveUp(concurrencyLimiter, permit);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (TimeoutException e) {
+            giveUp(concurrencyLimiter, permit);
+            throw new TimeoutException(String.format(
+                    "Timed out after %d ms waiting for a free request slot", timeoutInMs));
+        } catch (ExecutionException e) {
+            Throwable cause = Futures.unwrap(e);
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private void giveUp(ConcurrencyLimiter concurrencyLimiter, CompletableFuture<Void> permit) {
+        // the permit may have been handed over in the meantime, in which case it must be passed on
+        if (!permit.cancel(false)) {
+            concurrencyLimiter.release();
+        }
+    }
+
+    private <T> CompletableFuture<T> limitAsync(RequestParameters requestParameters,
+                                                Supplier<CompletableFuture<T>> call) {
+        Optional<ConcurrencyLimiter> concurrencyLimiter = getConcurrencyLimiter(requestParameters);
+        if (concurrencyLimiter.isEmpty()) {
+            return call.get();
+        }
+        return concurrencyLimiter.get().acquire().thenCompose(permit -> {
+            CompletableFuture<T> response;
+            try {
+                response = call.get();
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            return response.whenComplete((result, throwable) -> concurrencyLimiter.get().release());
+        });
+    }
+
+    private Optional<ConcurrencyLimiter> getConcurrencyLimiter(RequestParameters requestParameters) {
+        if (requestParameters.getMaxConcurrentRequests() <= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(this.concurrencyLimiters.computeIfAbsent(requestParameters.getEndpoint(),
+                endpoint -> new ConcurrencyLimiter(
+                        requestParameters.getMaxConcurrentRequests(), requestParameters.getMaxQueuedRequests())));
+    }
+
+    private ResourceConnection toGetConnection(RequestParameters requestParameters) {
+        return ResourceConnection
+                .newBuilder()
+                .withRequestMethod(RequestMethod.GET)
+                .withUrl(requestParameters.getEndpoint())
+                .withUri(requestParameters.getEndpointUri())
+                .withKeyValuePairs(requestParameters.getKeyValuePairs())
+                .withTraceparent(getTraceparent(requestParameters))
+                .withConnectTimeoutInMs(requestParameters.getConnectTimeoutInMs())
+                .withRequestTimeoutInMs(requestParameters.getRequestTimeoutInMs())
+                .withHttpVersion(requestParameters.getHttpVersion())
+                .withExecutorStrategy(this.executorStrategy)
+                .withHttpClientRegistry(this.httpClientRegistry)
+                .build();
+    }
+
+    private ResourceConnection toPayloadConnection(RequestParameters requestParameters, String payload,
+                                                   RequestMethod requestMethod) {
+        return ResourceConnection
+                .newBuilder()
+                .withRequestMethod(requestMethod)
+                .withOutput(true)
+                .withUrl(requestParameters.getEndpoint())
+                .withUri(requestParameters.getEndpointUri())
+                .withKeyValuePairs(requestParameters.getKeyValuePairs())
+                .withTraceparent(getTraceparent(requestParameters))
+                .withPayload(payload)
+                .withConnectTimeoutInMs(requestParameters.getConnectTimeoutInMs())
+                .withRequestTimeoutInMs(requestParameters.getRequestTimeoutInMs())
+                .withHttpVersion(requestParameters.getHttpVersion())
+                .withExecutorStrategy(this.executorStrategy)
+                .withHttpClientRegistry(this.httpClientRegistry)
+                .build();
+    }
+
+    private String getTraceparent(RequestParameters requestParameters) {
+        Span span = requestParameters.getSpan();
+        return span == null ? null : span.getTraceparent().orElse(null);
+    }
+
+    private <T> CompletableFuture<T> wrapFailure(CompletableFuture<T> future, RequestParameters requestParameters,
+                                                 String messageFormat) {
+        return future.handle((result, throwable) -> {
+            if (throwable != null) {
+                Throwable cause = Futures.unwrap(throwable);
+                throw new CompletionException(new ResourceException(requestParameters.getEndpoint(),
+                        String.format(messageFormat, cause.getMessage()), cause));
+            }
+            return result;
+        });
+    }
+
+    private interface Call<T> {
+
+        T exec()
+                throws IOException;
+    }
+
+    private interface Send<T> {
+
+        HttpResponse<T> exec(HttpResponse.BodyHandler<T> bodyHandler)
+                throws IOException;
+    }
+
+    private interface SendAsync<T> {
+
+        CompletableFuture<HttpResponse<T>> exec(HttpResponse.BodyHandler<T> bodyHandler);
+    }
+
+    // static util
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private HttpClientRegistry httpClientRegistry;
+        private ExecutorStrategy executorStrategy;
+        private MetricsRecorder metricsRecorder;
+
+        private Builder() {
+            httpClientRegistry = HttpClientRegistry.getDefault();
+            executorStrategy = ExecutorStrategy.PLATFORM_THREADS;
+            metricsRecorder = MetricsRecorder.NOOP;
+        }
+
+        public Builder withHttpClientRegistry(HttpClientRegistry val) {
+            httpClientRegistry = val;
+            return this;
+        }
+
+        /**
+         * Sets the threads the HTTP client runs its asynchronous tasks on.
+         * Defaults to {@link ExecutorStrategy#PLATFORM_THREADS}.
+         *
+         * @param val the executor strategy to use
+         * @return this builder for chaining
+         */
+        public Builder withExecutorStrategy(ExecutorStrategy val) {
+            executorStrategy = val;
+            return this;
+        }
+
+        /**
+         * Sets the recorder of each request's latency, status code and response size.
+         * Defaults to {@link MetricsRecorder#NOOP}.
+         *
+         * @param val the metrics recorder to use
+         * @return this builder for chaining
+         */
+        public Builder withMetricsRecorder(MetricsRecorder val) {
+            metricsRecorder = val;
+            return this;
+        }
+
+        public RemoteResource build() {
+            return new RemoteResource(this);
+        }
     }
 }
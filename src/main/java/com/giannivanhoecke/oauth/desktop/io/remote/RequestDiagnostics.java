@@ -0,0 +1,67 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import com.giannivanhoecke.oauth.desktop.io.Redaction;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+
+import java.util.Arrays;
+
+/**
+ * Puts the details of a request in the {@link MDC} while it's being sent, with its secrets redacted.
+ * <p>
+ * When debug logging is disabled nothing is built or put, so a request pays no more than a level check.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+class RequestDiagnostics implements AutoCloseable {
+
+    private static final RequestDiagnostics DISABLED = new RequestDiagnostics(false);
+    private static final RequestDiagnostics ENABLED  = new RequestDiagnostics(true);
+
+    private final boolean enabled;
+
+    private RequestDiagnostics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Removes the request details from the {@link MDC}, if they were put.
+     */
+    @Override
+    public void close() {
+        if (this.enabled) {
+            MDC.remove(RemoteResourceMdcConstants.LOGGER_MDC_KEY_VALUES);
+            MDC.remove(RemoteResourceMdcConstants.LOGGER_MDC_PAYLOAD);
+            MDC.remove(RemoteResourceMdcConstants.LOGGER_MDC_REMOTE_LOCATION);
+        }
+    }
+
+    // static util
+
+    /**
+     * Puts the details of a request in the {@link MDC} when the logger has debug logging enabled.
+     *
+     * @param logger the logger the request is logged to
+     * @param requestParameters the request parameters
+     * @param payload the payload to send, or {@code null} when there is none
+     * @return the diagnostics to {@link #close()} once the request is sent
+     */
+    static RequestDiagnostics start(Logger logger, RequestParameters requestParameters, String payload) {
+        if (!logger.isDebugEnabled()) {
+            return DISABLED;
+        }
+        MDC.put(RemoteResourceMdcConstants.LOGGER_MDC_REMOTE_LOCATION, requestParameters.getEndpoint());
+        if (payload != null) {
+            MDC.put(RemoteResourceMdcConstants.LOGGER_MDC_PAYLOAD, Redaction.redactForm(payload));
+        }
+        // key value pairs redact their authorization header themselves
+        MDC.put(RemoteResourceMdcConstants.LOGGER_MDC_KEY_VALUES,
+                Arrays.toString(requestParameters.getKeyValuePairs()));
+        return ENABLED;
+    }
+}
@@ -1,5 +1,12 @@
 package com.giannivanhoecke.oauth.desktop.io.remote;
 
+import com.giannivanhoecke.oauth.desktop.observability.OAuthOperation;
+import com.giannivanhoecke.oauth.desktop.observability.Span;
+import com.giannivanhoecke.oauth.desktop.resilience.CircuitBreakerConfig;
+import com.giannivanhoecke.oauth.desktop.resilience.RetryPolicy;
+
+import java.net.URI;
+import java.net.http.HttpClient;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -12,13 +19,29 @@ public class RequestParameters {
     private final int connectTimeoutInMs;
     private final int requestTimeoutInMs;
     private final String endpoint;
+    private final URI endpointUri;
     private final KeyValuePair[] keyValuePairs;
+    private final HttpClient.Version httpVersion;
+    private final int maxConcurrentRequests;
+    private final int maxQueuedRequests;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreakerConfig circuitBreakerConfig;
+    private final OAuthOperation operation;
+    private final Span span;
 
     private RequestParameters(Builder builder) {
         connectTimeoutInMs = builder.connectTimeoutInMs;
         requestTimeoutInMs = builder.requestTimeoutInMs;
         endpoint = builder.endpoint;
+        endpointUri = builder.endpointUri;
         keyValuePairs = builder.keyValuePairs;
+        httpVersion = builder.httpVersion;
+        maxConcurrentRequests = builder.maxConcurrentRequests;
+        maxQueuedRequests = builder.maxQueuedRequests;
+        retryPolicy = builder.retryPolicy;
+        circuitBreakerConfig = builder.circuitBreakerConfig;
+        operation = builder.operation;
+        span = builder.span;
     }
 
     public int getConnectTimeoutInMs() {
@@ -33,15 +56,60 @@ public class RequestParameters {
         return endpoint;
     }
 
+    /**
+     * Gets the endpoint as an already parsed {@link URI}, saving the connection from parsing it again.
+     *
+     * @return the endpoint URI, or {@code null} when the endpoint was only set as a string
+     */
+    public URI getEndpointUri() {
+        return endpointUri;
+    }
+
     public KeyValuePair[] getKeyValuePairs() {
         return keyValuePairs;
     }
 
+    public HttpClient.Version getHttpVersion() {
+        return httpVersion;
+    }
+
+    /**
+     * Gets the maximum number of requests in flight to the endpoint.
+     *
+     * @return the maximum, or {@code 0} when unlimited
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public CircuitBreakerConfig getCircuitBreakerConfig() {
+        return circuitBreakerConfig;
+    }
+
+    public OAuthOperation getOperation() {
+        return operation;
+    }
+
+    public Span getSpan() {
+        return span;
+    }
+
     @Override
     public String toString() {
         return "RequestParameters{" + "connectTimeoutInMs=" + connectTimeoutInMs + ", requestTimeoutInMs=" +
                 requestTimeoutInMs + ", endpoint='" + endpoint + '\'' + ", keyValuePairs=" +
-                Arrays.toString(keyValuePairs) + '}';
+                Arrays.toString(keyValuePairs) + ", httpVersion=" + httpVersion + ", maxConcurrentRequests=" +
+                maxConcurrentRequests + ", maxQueuedRequests=" + maxQueuedRequests + ", retryPolicy=" + retryPolicy +
+                ", circuitBreakerConfig=" + circuitBreakerConfig + ", operation=" + operation + ", span=" + span +
+                '}';
     }
 
     @Override
@@ -54,12 +122,18 @@ public class RequestParameters {
         }
         RequestParameters that = (RequestParameters) o;
         return connectTimeoutInMs == that.connectTimeoutInMs && requestTimeoutInMs == that.requestTimeoutInMs &&
-                Objects.equals(endpoint, that.endpoint) && Arrays.equals(keyValuePairs, that.keyValuePairs);
+                Objects.equals(endpoint, that.endpoint) && Objects.equals(endpointUri, that.endpointUri) &&
+                Arrays.equals(keyValuePairs, that.keyValuePairs) &&
+                httpVersion == that.httpVersion && maxConcurrentRequests == that.maxConcurrentRequests &&
+                maxQueuedRequests == that.maxQueuedRequests && Objects.equals(retryPolicy, that.retryPolicy) &&
+                Objects.equals(circuitBreakerConfig, that.circuitBreakerConfig) && operation == that.operation &&
+                Objects.equals(span, that.span);
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(connectTimeoutInMs, requestTimeoutInMs, endpoint);
+        int result = Objects.hash(connectTimeoutInMs, requestTimeoutInMs, endpoint, endpointUri, httpVersion,
+                maxConcurrentRequests, maxQueuedRequests, retryPolicy, circuitBreakerConfig, operation, span);
         result = 31 * result + Arrays.hashCode(keyValuePairs);
         return result;
     }
@@ -78,11 +152,24 @@ public class RequestParameters {
         private int connectTimeoutInMs;
         private int requestTimeoutInMs;
         private String endpoint;
+        private URI endpointUri;
         private KeyValuePair[] keyValuePairs;
+        private HttpClient.Version httpVersion;
+        private int maxConcurrentRequests;
+        private int maxQueuedRequests;
+        private RetryPolicy retryPolicy;
+        private CircuitBreakerConfig circuitBreakerConfig;
+        private OAuthOperation operation;
+        private Span span;
 
         private Builder() {
             connectTimeoutInMs = DEFAULT_TIMEOUT_CONNECT;
             requestTimeoutInMs = DEFAULT_TIMEOUT_REQUEST;
+            httpVersion = HttpClient.Version.HTTP_1_1;
+            retryPolicy = RetryPolicy.NONE;
+            circuitBreakerConfig = CircuitBreakerConfig.DISABLED;
+            operation = OAuthOperation.OTHER;
+            span = Span.NOOP;
         }
 
         public Builder withConnectTimeoutInMs(int val) {
@@ -97,6 +184,20 @@ public class RequestParameters {
 
         public Builder withEndpoint(String val) {
             endpoint = val;
+            endpointUri = null;
+            return this;
+        }
+
+        /**
+         * Sets the endpoint as an already parsed {@link URI}, e.g. one precomputed by the configuration, so it isn't
+         * parsed again for every request.
+         *
+         * @param val the endpoint URI to use
+         * @return this builder for chaining
+         */
+        public Builder withEndpointUri(URI val) {
+            endpoint = val == null ? null : val.toString();
+            endpointUri = val;
             return this;
         }
 
@@ -105,6 +206,48 @@ public class RequestParameters {
             return this;
         }
 
+        public Builder withHttpVersion(HttpClient.Version val) {
+            httpVersion = val;
+            return this;
+        }
+
+        public Builder withMaxConcurrentRequests(int val) {
+            maxConcurrentRequests = val;
+            return this;
+        }
+
+        public Builder withMaxQueuedRequests(int val) {
+            maxQueuedRequests = val;
+            return this;
+        }
+
+        public Builder withRetryPolicy(RetryPolicy val) {
+            retryPolicy = val;
+            return this;
+        }
+
+        public Builder withCircuitBreakerConfig(CircuitBreakerConfig val) {
+            circuitBreakerConfig = val;
+            return this;
+        }
+
+        public Builder withOperation(OAuthOperation val) {
+            operation = val;
+            return this;
+        }
+
+        /**
+         * Sets the span the request is made within. Its {@code traceparent} is sent along with the request.
+         * Defaults to {@link Span#NOOP}, sending none.
+         *
+         * @param val the span to use
+         * @return this builder for chaining
+         */
+        public Builder withSpan(Span val) {
+            span = val;
+            return this;
+        }
+
         public RequestParameters build() {
             return new RequestParameters(this);
         }
@@ -1,5 +1,7 @@
 package com.giannivanhoecke.oauth.desktop.io.remote;
 
+import com.giannivanhoecke.oauth.desktop.io.HttpHeader;
+import com.giannivanhoecke.oauth.desktop.system.ExecutorStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -13,6 +15,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
@@ -25,56 +28,118 @@ public class ResourceConnection {
     private final RequestMethod requestMethod;
     private final boolean output;
     private final String url;
+    private final URI uri;
     private final KeyValuePair[] keyValuePairs;
     private final String payload;
+    private final String traceparent;
     private final int connectTimeoutInMs;
     private final int requestTimeoutInMs;
+    private final HttpClient.Version httpVersion;
+    private final ExecutorStrategy executorStrategy;
+    private final HttpClientRegistry httpClientRegistry;
 
     private ResourceConnection(Builder builder) {
         this.requestMethod = builder.requestMethod;
         this.output = builder.output;
         this.url = builder.url;
+        this.uri = builder.uri;
         this.keyValuePairs = builder.keyValuePairs == null ? new KeyValuePair[0] : builder.keyValuePairs;
         this.payload = builder.payload;
+        this.traceparent = builder.traceparent;
         this.connectTimeoutInMs = builder.connectTimeoutInMs;
         this.requestTimeoutInMs = builder.requestTimeoutInMs;
+        this.httpVersion = builder.httpVersion == null ? HttpClient.Version.HTTP_1_1 : builder.httpVersion;
+        this.executorStrategy = builder.executorStrategy == null
+                ? ExecutorStrategy.PLATFORM_THREADS : builder.executorStrategy;
+        this.httpClientRegistry = builder.httpClientRegistry == null
+                ? HttpClientRegistry.getDefault() : builder.httpClientRegistry;
     }
 
     public HttpResponse<String> exec()
             throws IOException {
-        return sendHttpRequest(HttpResponse.BodyHandlers.ofString());
+        return exec(HttpResponse.BodyHandlers.ofString());
     }
-    
+
+    public <T> HttpResponse<T> exec(HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException {
+        return sendHttpRequest(bodyHandler);
+    }
+
+    /**
+     * Sends the request without blocking the calling thread.
+     *
+     * @return the response as a {@link CompletableFuture}, completed exceptionally with an {@link IOException} when
+     * the request couldn't be sent
+     */
+    public CompletableFuture<HttpResponse<String>> execAsync() {
+        return execAsync(HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Sends the request without blocking the calling thread.
+     *
+     * @param bodyHandler the handler reading the response body
+     * @param <T> the response body type
+     * @return the response as a {@link CompletableFuture}, completed exceptionally with an {@link IOException} when
+     * the request couldn't be sent
+     */
+    public <T> CompletableFuture<HttpResponse<T>> execAsync(HttpResponse.BodyHandler<T> bodyHandler) {
+        return sendHttpRequestAsync(bodyHandler);
+    }
+
     private <T> HttpResponse<T> sendHttpRequest(HttpResponse.BodyHandler<T> bodyHandler)
             throws IOException {
         try {
-            HttpClient httpClient = HttpClient
-                    .newBuilder()
-                    .version(HttpClient.Version.HTTP_1_1)
-                    .followRedirects(HttpClient.Redirect.NORMAL)
-                    .connectTimeout(Duration.ofMillis(this.connectTimeoutInMs))
-                    .proxy(ProxySelector.getDefault())
-                    .build();
-            HttpResponse<T> httpResponse = httpClient.send(toHttpRequest(), bodyHandler);
-            MDC.put(RemoteResourceMdcConstants.LOGGER_MDC_HTTP_RESPONSE_CODE, Integer.toString(httpResponse.statusCode()));
-            LOGGER.debug("Request sent to resource");
+            HttpResponse<T> httpResponse = getHttpClient().send(toHttpRequest(), bodyHandler);
+            if (LOGGER.isDebugEnabled()) {
+                MDC.put(RemoteResourceMdcConstants.LOGGER_MDC_HTTP_RESPONSE_CODE,
+                        Integer.toString(httpResponse.statusCode()));
+                try {
+                    LOGGER.debug("Request sent to resource");
+                } finally {
+                    MDC.remove(RemoteResourceMdcConstants.LOGGER_MDC_HTTP_RESPONSE_CODE);
+                }
+            }
             return httpResponse;
         } catch (InterruptedException e) {
             throw new IOException(e);
         }
     }
-    
-    private HttpRequest toHttpRequest()
+
+    private <T> CompletableFuture<HttpResponse<T>> sendHttpRequestAsync(HttpResponse.BodyHandler<T> bodyHandler) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = toHttpRequest();
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return getHttpClient()
+                .sendAsync(httpRequest, bodyHandler)
+                .thenApply(httpResponse -> {
+                    LOGGER.debug("Request sent to resource, got response code {}", httpResponse.statusCode());
+                    return httpResponse;
+                });
+    }
+
+    private HttpClient getHttpClient() {
+        return this.httpClientRegistry.get(new HttpClientKey(
+                this.connectTimeoutInMs, ProxySelector.getDefault(), this.httpVersion, this.executorStrategy));
+    }
+
+    HttpRequest toHttpRequest()
             throws IOException {
         try {
             HttpRequest.Builder httpRequestBuilder = HttpRequest
                     .newBuilder()
-                    .uri(new URI(this.url))
+                    .uri(this.uri != null ? this.uri : new URI(this.url))
                     .method(this.requestMethod.name(), getBodyPublisher())
                     .timeout(Duration.of(this.requestTimeoutInMs, ChronoUnit.MILLIS));
             for (KeyValuePair keyValuePair : this.keyValuePairs) {
                 httpRequestBuilder.header(keyValuePair.getKey(), keyValuePair.getValue());
             }
+            if (this.traceparent != null) {
+                httpRequestBuilder.header(HttpHeader.TRACEPARENT, this.traceparent);
+            }
             return httpRequestBuilder.build();
         } catch (URISyntaxException e) {
             throw new IOException(e);
@@ -99,10 +164,15 @@ public class ResourceConnection {
         private RequestMethod requestMethod = RequestMethod.GET;
         private boolean output = false;
         private String url;
+        private URI uri;
         private KeyValuePair[] keyValuePairs;
         private String payload;
+        private String traceparent;
         private int connectTimeoutInMs;
         private int requestTimeoutInMs;
+        private HttpClient.Version httpVersion;
+        private ExecutorStrategy executorStrategy;
+        private HttpClientRegistry httpClientRegistry;
 
         private Builder() {
         }
@@ -122,6 +192,17 @@ public class ResourceConnection {
             return this;
         }
 
+        /**
+         * Sets the URL as an already parsed {@link URI}, taking precedence over the {@link #withUrl(String) URL}.
+         *
+         * @param val the URI to use
+         * @return this builder for chaining
+         */
+        public Builder withUri(URI val) {
+            uri = val;
+            return this;
+        }
+
         public Builder withKeyValuePairs(KeyValuePair[] val) {
             keyValuePairs = val;
             return this;
@@ -132,6 +213,18 @@ public class ResourceConnection {
             return this;
         }
 
+        /**
+         * Sets the W3C Trace Context {@code traceparent} header to send along with the request.
+         * Defaults to none.
+         *
+         * @param val the traceparent header value
+         * @return this builder for chaining
+         */
+        public Builder withTraceparent(String val) {
+            traceparent = val;
+            return this;
+        }
+
         public Builder withConnectTimeoutInMs(int val) {
             connectTimeoutInMs = val;
             return this;
@@ -142,6 +235,37 @@ public class ResourceConnection {
             return this;
         }
 
+        /**
+         * Sets the preferred HTTP version. With {@link HttpClient.Version#HTTP_2}, concurrent requests to the same
+         * server share one connection. Plain {@code http://} URLs try an h2c upgrade, and fall back to HTTP/1.1 when
+         * the server doesn't support it.
+         * Defaults to {@link HttpClient.Version#HTTP_1_1}.
+         *
+         * @param val the HTTP version to use
+         * @return this builder for chaining
+         */
+        public Builder withHttpVersion(HttpClient.Version val) {
+            httpVersion = val;
+            return this;
+        }
+
+        /**
+         * Sets the threads the HTTP client runs its asynchronous tasks on.
+         * Defaults to {@link ExecutorStrategy#PLATFORM_THREADS}.
+         *
+         * @param val the executor strategy to use
+         * @return this builder for chaining
+         */
+        public Builder withExecutorStrategy(ExecutorStrategy val) {
+            executorStrategy = val;
+            return this;
+        }
+
+        public Builder withHttpClientRegistry(HttpClientRegistry val) {
+            httpClientRegistry = val;
+            return this;
+        }
+
         public ResourceConnection build() {
             return new ResourceConnection(this);
         }
@@ -0,0 +1,209 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import com.giannivanhoecke.oauth.desktop.concurrent.Futures;
+import com.giannivanhoecke.oauth.desktop.io.HttpHeader;
+import com.giannivanhoecke.oauth.desktop.resilience.RetryPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Retries the requests to one endpoint according to a {@link RetryPolicy}, drawing every retry from the endpoint's
+ * retry budget.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+class Retrier {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Retrier.class);
+
+    private final RetryPolicy retryPolicy;
+    private final double maxRetryBudget;
+
+    private double retryBudget;
+
+    Retrier(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        this.maxRetryBudget = Math.max(retryPolicy.getRetryBudgetMinimum(), 1);
+        this.retryBudget = retryPolicy.getRetryBudgetMinimum();
+    }
+
+    /**
+     * Sends the request, retrying transient failures on the calling thread.
+     *
+     * @param idempotent whether the request is safe to replay after the server might have seen it
+     * @param call sends one attempt of the request
+     * @param <T> the response body type
+     * @return the response of the last attempt
+     *
+     * @throws Exception the failure of the last attempt, or an {@link InterruptedException} when interrupted while
+     * backing off
+     */
+    <T> HttpResponse<T> execute(boolean idempotent, Call<HttpResponse<T>> call)
+            throws Exception {
+        depositRetryBudget();
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<T> response = null;
+            Exception failure = null;
+            try {
+                response = call.exec();
+            } catch (Exception e) {
+                failure = e;
+            }
+            Optional<Long> retryDelayInMs = getRetryDelayInMs(attempt, idempotent, response, failure);
+            if (retryDelayInMs.isEmpty()) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+            Thread.sleep(retryDelayInMs.get());
+        }
+    }
+
+    /**
+     * Sends the request, retrying transient failures without blocking the calling thread.
+     *
+     * @param idempotent whether the request is safe to replay after the server might have seen it
+     * @param call sends one attempt of the request
+     * @param <T> the response body type
+     * @return the response of the last attempt as a {@link CompletableFuture}, completed exceptionally with the
+     * failure of the last attempt
+     */
+    <T> CompletableFuture<HttpResponse<T>> executeAsync(boolean idempotent,
+                                                        Supplier<CompletableFuture<HttpResponse<T>>> call) {
+        depositRetryBudget();
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        attemptAsync(1, idempotent, call, result);
+        return result;
+    }
+
+    // util
+
+    private <T> void attemptAsync(int attempt, boolean idempotent, Supplier<CompletableFuture<HttpResponse<T>>> call,
+                                  CompletableFuture<HttpResponse<T>> result) {
+        CompletableFuture<HttpResponse<T>> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((httpResponse, throwable) -> {
+            Throwable failure = throwable == null ? null : Futures.unwrap(throwable);
+            // a cancelled result needs no further attempts
+            Optional<Long> retryDelayInMs = result.isDone()
+                    ? Optional.empty() : getRetryDelayInMs(attempt, idempotent, httpResponse, failure);
+            if (retryDelayInMs.isPresent()) {
+                CompletableFuture
+                        .delayedExecutor(retryDelayInMs.get(), TimeUnit.MILLISECONDS)
+                        .execute(() -> attemptAsync(attempt + 1, idempotent, call, result));
+            } else if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(httpResponse);
+            }
+        });
+    }
+
+    private Optional<Long> getRetryDelayInMs(int attempt, boolean idempotent, HttpResponse<?> response,
+                                             Throwable failure) {
+        if (attempt >= this.retryPolicy.getMaxAttempts()) {
+            return Optional.empty();
+        }
+        boolean retryable = failure != null ? isRetryable(failure, idempotent) : isRetryable(response, idempotent);
+        if (!retryable) {
+            return Optional.empty();
+        }
+        Optional<Long> retryAfterInMs = response == null ? Optional.empty() : getRetryAfterInMs(response);
+        if (retryAfterInMs.isPresent() && retryAfterInMs.get() > this.retryPolicy.getMaxRetryAfterInMs()) {
+            LOGGER.debug("Not retrying, server asked to retry after {} ms", retryAfterInMs.get());
+            return Optional.empty();
+        }
+        if (!withdrawRetryBudget()) {
+            LOGGER.debug("Not retrying, retry budget exhausted");
+            return Optional.empty();
+        }
+        long retryDelayInMs = retryAfterInMs.orElseGet(() -> getBackoffInMs(attempt));
+        LOGGER.debug("Attempt {} failed, retrying in {} ms", attempt, retryDelayInMs);
+        return Optional.of(retryDelayInMs);
+    }
+
+    private boolean isRetryable(HttpResponse<?> response, boolean idempotent) {
+        return idempotent && this.retryPolicy.getRetryableStatusCodes().contains(response.statusCode());
+    }
+
+    private boolean isRetryable(Throwable failure, boolean idempotent) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException) {
+                return false;
+            }
+            // the connection couldn't be made, so the server never saw the request
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+                return true;
+            }
+        }
+        return idempotent && failure instanceof IOException;
+    }
+
+    private long getBackoffInMs(int attempt) {
+        double exponentialBackoffInMs = this.retryPolicy.getInitialBackoffInMs()
+                * Math.pow(this.retryPolicy.getBackoffMultiplier(), attempt - 1);
+        double backoffInMs = Math.min(exponentialBackoffInMs, this.retryPolicy.getMaxBackoffInMs());
+        double jitterInMs = backoffInMs * this.retryPolicy.getJitter() * ThreadLocalRandom.current().nextDouble();
+        return Math.round(backoffInMs - jitterInMs);
+    }
+
+    private synchronized void depositRetryBudget() {
+        this.retryBudget = Math.min(this.maxRetryBudget, this.retryBudget + this.retryPolicy.getRetryBudgetRatio());
+    }
+
+    private synchronized boolean withdrawRetryBudget() {
+        if (this.retryBudget < 1) {
+            return false;
+        }
+        this.retryBudget--;
+        return true;
+    }
+
+    // static util
+
+    static Optional<Long> getRetryAfterInMs(HttpResponse<?> response) {
+        return response.headers().firstValue(HttpHeader.RETRY_AFTER).flatMap(Retrier::parseRetryAfterInMs);
+    }
+
+    static Optional<Long> parseRetryAfterInMs(String retryAfter) {
+        String value = retryAfter.trim();
+        try {
+            return Optional.of(TimeUnit.SECONDS.toMillis(Math.max(Long.parseLong(value), 0)));
+        } catch (NumberFormatException e) {
+            // not delay-seconds, try an HTTP-date
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Optional.of(Math.max(Duration.between(ZonedDateTime.now(), date).toMillis(), 0));
+        } catch (DateTimeParseException e) {
+            LOGGER.debug("Ignoring invalid Retry-After header '{}'", retryAfter);
+            return Optional.empty();
+        }
+    }
+
+    interface Call<T> {
+
+        T exec()
+                throws Exception;
+    }
+}
@@ -0,0 +1,145 @@
+package com.giannivanhoecke.oauth.desktop.jwt;
+
+import com.giannivanhoecke.oauth.desktop.exception.VerificationException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Verifies ID tokens locally, as OpenID Connect Core describes for the authorization code flow: the signature must
+ * match a key of the authorization server, the token must be issued by the expected issuer for this client, and it
+ * must not be expired.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class IdTokenVerifier {
+
+    public static final long DEFAULT_CLOCK_SKEW_IN_MS = 60_000;
+
+    private static final String CLAIM_ISSUER           = "iss";
+    private static final String CLAIM_AUDIENCE         = "aud";
+    private static final String CLAIM_AUTHORIZED_PARTY = "azp";
+    private static final String CLAIM_EXPIRY           = "exp";
+    private static final String CLAIM_NOT_BEFORE       = "nbf";
+
+    private final String issuer;
+    private final String clientId;
+    private final JwksCache jwksCache;
+    private final long clockSkewInMs;
+
+    /**
+     * Creates a verifier.
+     *
+     * @param issuer the issuer to expect
+     * @param clientId the client ID the tokens must be issued to
+     * @param jwksCache the keys of the authorization server
+     * @param clockSkewInMs how far the clocks of the authorization server and this machine may drift apart
+     */
+    public IdTokenVerifier(String issuer, String clientId, JwksCache jwksCache, long clockSkewInMs) {
+        this.issuer = issuer;
+        this.clientId = clientId;
+        this.jwksCache = jwksCache;
+        this.clockSkewInMs = clockSkewInMs;
+    }
+
+    /**
+     * Verifies an ID token.
+     *
+     * @param idToken the ID token to verify
+     * @return the verified claims
+     *
+     * @throws VerificationException when the token isn't valid
+     */
+    public JsonObject verify(String idToken) {
+        SignedJwt signedJwt = SignedJwt.parse(idToken);
+        String algorithmName = signedJwt.getAlgorithm().orElse(null);
+        JwtAlgorithm algorithm = JwtAlgorithm.of(algorithmName).orElseThrow(() -> new VerificationException(
+                String.format("ID token algorithm '%s' is not supported", algorithmName)));
+        PublicKey key = this.jwksCache.getKey(signedJwt.getKeyId().orElse(null), algorithm);
+        if (!isSignatureValid(signedJwt, algorithm, key)) {
+            throw new VerificationException("ID token signature is invalid");
+        }
+        JsonObject claims = signedJwt.getClaims();
+        assertValidIssuer(claims);
+        assertValidAudience(claims);
+        assertValidTime(claims);
+        return claims;
+    }
+
+    // util
+
+    private boolean isSignatureValid(SignedJwt signedJwt, JwtAlgorithm algorithm, PublicKey key) {
+        try {
+            Signature signature = Signature.getInstance(algorithm.getSignatureAlgorithm());
+            signature.initVerify(key);
+            signature.update(signedJwt.getSigningInput());
+            return signature.verify(signedJwt.getSignature());
+        } catch (GeneralSecurityException e) {
+            // e.g. a signature of the wrong length
+            return false;
+        }
+    }
+
+    private void assertValidIssuer(JsonObject claims) {
+        Optional<String> tokenIssuer = SignedJwt.getString(claims, CLAIM_ISSUER);
+        if (tokenIssuer.isEmpty()) {
+            throw new VerificationException("ID token has no issuer");
+        }
+        if (!tokenIssuer.get().equals(this.issuer)) {
+            throw new VerificationException(String.format("ID token issuer '%s' is not '%s'",
+                    tokenIssuer.get(), this.issuer));
+        }
+    }
+
+    private void assertValidAudience(JsonObject claims) {
+        JsonElement audience = claims.get(CLAIM_AUDIENCE);
+        boolean issuedToClient;
+        int audiences = 1;
+        if (audience != null && audience.isJsonArray()) {
+            audiences = audience.getAsJsonArray().size();
+            issuedToClient = false;
+            for (JsonElement element : audience.getAsJsonArray()) {
+                issuedToClient |= element.isJsonPrimitive() && this.clientId.equals(element.getAsString());
+            }
+        } else {
+            issuedToClient = audience != null && audience.isJsonPrimitive()
+                    && this.clientId.equals(audience.getAsString());
+        }
+        if (!issuedToClient) {
+            throw new VerificationException("ID token is not issued to this client");
+        }
+        Optional<String> authorizedParty = SignedJwt.getString(claims, CLAIM_AUTHORIZED_PARTY);
+        if (authorizedParty.isPresent() ? !this.clientId.equals(authorizedParty.get()) : audiences > 1) {
+            throw new VerificationException("ID token is not authorized for this client");
+        }
+    }
+
+    private void assertValidTime(JsonObject claims) {
+        Instant now = Instant.now();
+        Instant expiry = getInstant(claims, CLAIM_EXPIRY).orElseThrow(
+                () -> new VerificationException("ID token has no expiry"));
+        if (!now.isBefore(expiry.plusMillis(this.clockSkewInMs))) {
+            throw new VerificationException(String.format("ID token expired at %s", expiry));
+        }
+        Optional<Instant> notBefore = getInstant(claims, CLAIM_NOT_BEFORE);
+        if (notBefore.isPresent() && now.isBefore(notBefore.get().minusMillis(this.clockSkewInMs))) {
+            throw new VerificationException(String.format("ID token is not valid before %s", notBefore.get()));
+        }
+    }
+
+    // static util
+
+    private static Optional<Instant> getInstant(JsonObject claims, String claim) {
+        JsonElement element = claims.get(claim);
+        if (element == null || !element.isJsonPrimitive() || !element.getAsJsonPrimitive().isNumber()) {
+            return Optional.empty();
+        }
+        return Optional.of(Instant.ofEpochSecond(element.getAsLong()));
+    }
+}
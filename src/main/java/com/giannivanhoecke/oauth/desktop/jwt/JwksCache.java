@@ -0,0 +1,253 @@
+package com.giannivanhoecke.oauth.desktop.jwt;
+
+import com.giannivanhoecke.oauth.desktop.exception.VerificationException;
+import com.giannivanhoecke.oauth.desktop.io.CacheControl;
+import com.giannivanhoecke.oauth.desktop.io.HttpStatusCode;
+import com.giannivanhoecke.oauth.desktop.io.remote.JsonResult;
+import com.giannivanhoecke.oauth.desktop.representation.internal.JsonWebKey;
+import com.giannivanhoecke.oauth.desktop.representation.internal.JsonWebKeySet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.KeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the keys the authorization server signs its tokens with, so verifying a token doesn't take a request. The
+ * keys are kept as long as the JWKS response's {@code Cache-Control} allows, and fetched again early when a token is
+ * signed by a key that isn't cached, e.g. after the authorization server rotated its keys. Both are spaced by a minimum
+ * refresh interval, so neither a {@code no-cache} response nor tokens with made up key IDs can flood the
+ * authorization server.
+ * <p>
+ * When fetching fails while keys are cached, the cached keys keep being used until the next attempt.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class JwksCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JwksCache.class);
+
+    public static final long DEFAULT_TTL_IN_MS                  = 300_000;
+    public static final long DEFAULT_MIN_REFRESH_INTERVAL_IN_MS = 10_000;
+
+    private static final String USE_SIGNATURE = "sig";
+    private static final String CURVE_P256    = "P-256";
+
+    private final Supplier<JsonResult<JsonWebKeySet>> fetcher;
+    private final long defaultTtlInMs;
+    private final long minRefreshIntervalInMs;
+    private final Object refreshLock = new Object();
+
+    private volatile Keys keys;
+
+    /**
+     * Creates a cache, which fetches the keys on first use.
+     *
+     * @param fetcher gets the JWKS response from the authorization server
+     * @param defaultTtlInMs how long keys are cached when the response doesn't say
+     * @param minRefreshIntervalInMs the minimum time between fetches for an unknown key
+     */
+    public JwksCache(Supplier<JsonResult<JsonWebKeySet>> fetcher, long defaultTtlInMs, long minRefreshIntervalInMs) {
+        this.fetcher = fetcher;
+        this.defaultTtlInMs = defaultTtlInMs;
+        this.minRefreshIntervalInMs = minRefreshIntervalInMs;
+    }
+
+    /**
+     * Gets the key to verify a signature with, fetching the keys when they aren't cached.
+     *
+     * @param keyId the {@code kid} of the token, or {@code null} when it has none
+     * @param algorithm the algorithm the token is signed with
+     * @return the public key
+     *
+     * @throws VerificationException when no such key is served, or the keys couldn't be fetched
+     */
+    public PublicKey getKey(String keyId, JwtAlgorithm algorithm) {
+        Keys current = this.keys;
+        if (current == null || current.isExpired()) {
+            current = refresh(current);
+        }
+        Optional<PublicKey> key = current.find(keyId, algorithm);
+        if (key.isEmpty() && current.canRefreshAfter(this.minRefreshIntervalInMs)) {
+            LOGGER.debug("Key '{}' isn't cached, fetching the keys again", keyId);
+            current = refresh(current);
+            key = current.find(keyId, algorithm);
+        }
+        return key.orElseThrow(() -> new VerificationException(
+                String.format("No %s key with ID '%s' is served by the authorization server", algorithm, keyId)));
+    }
+
+    /**
+     * Drops the cached keys, so they are fetched again on next use.
+     */
+    public void clear() {
+        synchronized (this.refreshLock) {
+            this.keys = null;
+        }
+    }
+
+    // util
+
+    private Keys refresh(Keys seen) {
+        synchronized (this.refreshLock) {
+            Keys current = this.keys;
+            if (current != seen) {
+                // refreshed by another thread meanwhile
+                return current == null ? refresh(null) : current;
+            }
+            try {
+                this.keys = fetch();
+            } catch (RuntimeException e) {
+                if (current == null) {
+                    throw e instanceof VerificationException ? (VerificationException) e : new VerificationException(
+                            String.format("Cannot get the signing keys: %s", e.getMessage()), e);
+                }
+                LOGGER.warn("Cannot refresh the signing keys, using the cached ones: {}", e.getMessage());
+                Instant now = Instant.now();
+                this.keys = new Keys(current.keys, now, now.plusMillis(this.minRefreshIntervalInMs));
+            }
+            return this.keys;
+        }
+    }
+
+    private Keys fetch() {
+        JsonResult<JsonWebKeySet> jsonResult = this.fetcher.get();
+        if (jsonResult.getResultCode() != HttpStatusCode.OK || jsonResult.getValue().isEmpty()) {
+            throw new VerificationException(String.format("Cannot get the signing keys: HTTP %d %s",
+                    jsonResult.getResultCode(), jsonResult.getContent()),
+                    jsonResult.getParseException().orElse(null));
+        }
+        List<CachedKey> cachedKeys = new ArrayList<>();
+        for (JsonWebKey jsonWebKey : jsonResult.getValue().get().getKeys()) {
+            toCachedKey(jsonWebKey).ifPresent(cachedKeys::add);
+        }
+        // no-cache or no-store would otherwise mean a fetch for every verified token
+        long ttlInMs = Math.max(CacheControl.getMaxAgeInMs(jsonResult.getHeaders()).orElse(this.defaultTtlInMs),
+                this.minRefreshIntervalInMs);
+        LOGGER.debug("Fetched {} signing keys, caching them for {} ms", cachedKeys.size(), ttlInMs);
+        Instant now = Instant.now();
+        return new Keys(cachedKeys, now, now.plusMillis(ttlInMs));
+    }
+
+    private static final class Keys {
+
+        private final List<CachedKey> keys;
+        private final Instant fetchedAt;
+        private final Instant expiresAt;
+
+        private Keys(List<CachedKey> keys, Instant fetchedAt, Instant expiresAt) {
+            this.keys = keys;
+            this.fetchedAt = fetchedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return !Instant.now().isBefore(this.expiresAt);
+        }
+
+        private boolean canRefreshAfter(long minRefreshIntervalInMs) {
+            return !Instant.now().isBefore(this.fetchedAt.plusMillis(minRefreshIntervalInMs));
+        }
+
+        private Optional<PublicKey> find(String keyId, JwtAlgorithm algorithm) {
+            List<CachedKey> candidates = this.keys
+                    .stream()
+                    .filter(key -> key.accepts(algorithm))
+                    .filter(key -> keyId == null || keyId.equals(key.keyId))
+                    .collect(Collectors.toList());
+            // without a key ID, the key must be unambiguous
+            return candidates.size() == 1 ? Optional.of(candidates.get(0).publicKey) : Optional.empty();
+        }
+    }
+
+    private static final class CachedKey {
+
+        private final String keyId;
+        private final String keyType;
+        private final String algorithm;
+        private final PublicKey publicKey;
+
+        private CachedKey(String keyId, String keyType, String algorithm, PublicKey publicKey) {
+            this.keyId = keyId;
+            this.keyType = keyType;
+            this.algorithm = algorithm;
+            this.publicKey = publicKey;
+        }
+
+        private boolean accepts(JwtAlgorithm jwtAlgorithm) {
+            return jwtAlgorithm.getKeyType().equals(this.keyType)
+                    && (this.algorithm == null || jwtAlgorithm.name().equals(this.algorithm));
+        }
+    }
+
+    // static util
+
+    private static Optional<CachedKey> toCachedKey(JsonWebKey jsonWebKey) {
+        if (jsonWebKey.getUse() != null && !USE_SIGNATURE.equals(jsonWebKey.getUse())) {
+            return Optional.empty();
+        }
+        try {
+            return toKeySpec(jsonWebKey).map(keySpec -> new CachedKey(jsonWebKey.getKeyId(), jsonWebKey.getKeyType(),
+                    jsonWebKey.getAlgorithm(), toPublicKey(jsonWebKey.getKeyType(), keySpec)));
+        } catch (RuntimeException e) {
+            LOGGER.debug("Ignoring invalid key {}: {}", jsonWebKey, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<KeySpec> toKeySpec(JsonWebKey jsonWebKey) {
+        if (JwtAlgorithm.RS256.getKeyType().equals(jsonWebKey.getKeyType())) {
+            return Optional.of(new RSAPublicKeySpec(
+                    toBigInteger(jsonWebKey.getModulus()), toBigInteger(jsonWebKey.getExponent())));
+        }
+        if (JwtAlgorithm.ES256.getKeyType().equals(jsonWebKey.getKeyType())
+                && CURVE_P256.equals(jsonWebKey.getCurve())) {
+            return Optional.of(new ECPublicKeySpec(
+                    new ECPoint(toBigInteger(jsonWebKey.getX()), toBigInteger(jsonWebKey.getY())), getP256()));
+        }
+        LOGGER.debug("Ignoring unsupported key {}", jsonWebKey);
+        return Optional.empty();
+    }
+
+    private static PublicKey toPublicKey(String keyType, KeySpec keySpec) {
+        try {
+            return KeyFactory.getInstance(keyType).generatePublic(keySpec);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static ECParameterSpec getP256() {
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance(JwtAlgorithm.ES256.getKeyType());
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            return parameters.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static BigInteger toBigInteger(String base64Url) {
+        if (base64Url == null) {
+            throw new IllegalArgumentException("Missing key parameter");
+        }
+        return new BigInteger(1, Base64.getUrlDecoder().decode(base64Url));
+    }
+}
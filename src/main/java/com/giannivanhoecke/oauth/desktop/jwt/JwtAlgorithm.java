@@ -0,0 +1,56 @@
+package com.giannivanhoecke.oauth.desktop.jwt;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The signature algorithms accepted for ID tokens. Symmetric algorithms and {@code none} are never accepted: a
+ * public client can't keep a shared secret.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public enum JwtAlgorithm {
+
+    /**
+     * RSASSA-PKCS1-v1_5 using SHA-256.
+     */
+    RS256("SHA256withRSA", "RSA"),
+
+    /**
+     * ECDSA using P-256 and SHA-256. The signature is the concatenation of R and S, as JWS prescribes.
+     */
+    ES256("SHA256withECDSAinP1363Format", "EC");
+
+    private final String signatureAlgorithm;
+    private final String keyType;
+
+    JwtAlgorithm(String signatureAlgorithm, String keyType) {
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.keyType = keyType;
+    }
+
+    /**
+     * Gets the name of the algorithm for {@link java.security.Signature#getInstance(String)}.
+     *
+     * @return the JCA signature algorithm
+     */
+    public String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    /**
+     * Gets the {@code kty} of the keys this algorithm verifies with.
+     *
+     * @return the JWK key type
+     */
+    public String getKeyType() {
+        return keyType;
+    }
+
+    // static util
+
+    public static Optional<JwtAlgorithm> of(String name) {
+        return Arrays.stream(values()).filter(algorithm -> algorithm.name().equals(name)).findFirst();
+    }
+}
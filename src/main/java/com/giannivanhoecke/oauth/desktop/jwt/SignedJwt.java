@@ -0,0 +1,97 @@
+package com.giannivanhoecke.oauth.desktop.jwt;
+
+import com.giannivanhoecke.oauth.desktop.exception.VerificationException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * A JSON Web Token in compact serialization, decoded but not verified yet.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class SignedJwt {
+
+    private static final String HEADER_ALGORITHM = "alg";
+    private static final String HEADER_KEY_ID    = "kid";
+
+    private final JsonObject header;
+    private final JsonObject claims;
+    private final byte[] signingInput;
+    private final byte[] signature;
+
+    private SignedJwt(JsonObject header, JsonObject claims, byte[] signingInput, byte[] signature) {
+        this.header = header;
+        this.claims = claims;
+        this.signingInput = signingInput;
+        this.signature = signature;
+    }
+
+    public Optional<String> getAlgorithm() {
+        return getString(this.header, HEADER_ALGORITHM);
+    }
+
+    public Optional<String> getKeyId() {
+        return getString(this.header, HEADER_KEY_ID);
+    }
+
+    public JsonObject getClaims() {
+        return claims.deepCopy();
+    }
+
+    byte[] getSigningInput() {
+        return signingInput;
+    }
+
+    byte[] getSignature() {
+        return signature;
+    }
+
+    // static util
+
+    /**
+     * Decodes a JWT, without verifying it.
+     *
+     * @param token the token in compact serialization
+     * @return the decoded token
+     *
+     * @throws VerificationException when the token isn't a well-formed signed JWT
+     */
+    public static SignedJwt parse(String token) {
+        if (token == null) {
+            throw new VerificationException("Token cannot be null");
+        }
+        int headerEnd = token.indexOf('.');
+        int claimsEnd = token.indexOf('.', headerEnd + 1);
+        if (headerEnd < 0 || claimsEnd < 0 || token.indexOf('.', claimsEnd + 1) >= 0) {
+            throw new VerificationException("Token is not a signed JWT");
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            JsonObject header = parseObject(decoder.decode(token.substring(0, headerEnd)));
+            JsonObject claims = parseObject(decoder.decode(token.substring(headerEnd + 1, claimsEnd)));
+            byte[] signature = decoder.decode(token.substring(claimsEnd + 1));
+            return new SignedJwt(header, claims,
+                    token.substring(0, claimsEnd).getBytes(StandardCharsets.US_ASCII), signature);
+        } catch (RuntimeException e) {
+            throw new VerificationException(String.format("Token is not a well-formed JWT: %s", e.getMessage()), e);
+        }
+    }
+
+    static Optional<String> getString(JsonObject object, String member) {
+        JsonElement element = object.get(member);
+        if (element == null || !element.isJsonPrimitive() || !element.getAsJsonPrimitive().isString()) {
+            return Optional.empty();
+        }
+        return Optional.of(element.getAsString());
+    }
+
+    private static JsonObject parseObject(byte[] json) {
+        return JsonParser.parseString(new String(json, StandardCharsets.UTF_8)).getAsJsonObject();
+    }
+}
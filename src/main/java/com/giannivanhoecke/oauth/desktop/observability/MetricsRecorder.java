@@ -0,0 +1,54 @@
+package com.giannivanhoecke.oauth.desktop.observability;
+
+import java.time.Duration;
+
+/**
+ * Records metrics of the calls to the authorization server and of the callback server, e.g. to bind them to your
+ * metrics library. Each attempt of a retried request is recorded separately.
+ * <p>
+ * Implementations are called on the threads completing the requests, so they must be thread safe and shouldn't
+ * block. Every method does nothing by default, so implementations only override what they need.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public interface MetricsRecorder {
+
+    /**
+     * Records nothing.
+     */
+    MetricsRecorder NOOP = new MetricsRecorder() {
+    };
+
+    /**
+     * Records a response of the authorization server, whatever its status code.
+     *
+     * @param operation the call the request was made for
+     * @param endpoint the requested endpoint URL
+     * @param statusCode the response status code
+     * @param duration the time from sending the request until the response body was read
+     * @param bytesReceived the size of the response body
+     */
+    default void recordResponse(OAuthOperation operation, String endpoint, int statusCode, Duration duration,
+                                long bytesReceived) {
+    }
+
+    /**
+     * Records a request which didn't get a response, e.g. because the connection couldn't be made or timed out.
+     *
+     * @param operation the call the request was made for
+     * @param endpoint the requested endpoint URL
+     * @param failure the failure, whose type tells what went wrong
+     * @param duration the time from sending the request until it failed
+     */
+    default void recordFailure(OAuthOperation operation, String endpoint, Throwable failure, Duration duration) {
+    }
+
+    /**
+     * Records a callback handled by the callback server.
+     *
+     * @param duration the time from accepting the callback until it was completely handled
+     */
+    default void recordCallback(Duration duration) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.giannivanhoecke.oauth.desktop.observability;
+
+/**
+ * The call to the authorization server a request is made for, used to tag its metrics.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public enum OAuthOperation {
+
+    /**
+     * Exchanges an authorization code for tokens.
+     */
+    AUTHORIZATION_CODE_EXCHANGE,
+
+    /**
+     * Exchanges a refresh token for new tokens.
+     */
+    REFRESH,
+
+    /**
+     * Gets the user info.
+     */
+    USER_INFO,
+
+    /**
+     * Gets the keys the authorization server signs its ID tokens with.
+     */
+    JWKS,
+
+    /**
+     * Gets the OpenID Connect provider metadata of an issuer.
+     */
+    DISCOVERY,
+
+    /**
+     * Introspects a token.
+     */
+    INTROSPECTION,
+
+    /**
+     * Revokes a token.
+     */
+    REVOCATION,
+
+    /**
+     * Any other request.
+     */
+    OTHER
+}
@@ -0,0 +1,53 @@
+package com.giannivanhoecke.oauth.desktop.observability;
+
+import java.util.Optional;
+
+/**
+ * A phase of an authorization or a call to the authorization server, started by a {@link Tracer}. Every method does
+ * nothing by default, so implementations only override what they need.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public interface Span {
+
+    /**
+     * Traces nothing.
+     */
+    Span NOOP = new Span() {
+    };
+
+    /**
+     * Sets an attribute, e.g. the response status code.
+     *
+     * @param key the attribute key
+     * @param value the attribute value
+     */
+    default void setAttribute(String key, long value) {
+    }
+
+    /**
+     * Records the failure ending the span.
+     *
+     * @param failure the failure
+     */
+    default void recordFailure(Throwable failure) {
+    }
+
+    /**
+     * Gets the W3C Trace Context {@code traceparent} header value identifying this span, e.g.
+     * {@code 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01}. It's sent along with every request made
+     * within the span, so the authorization server's traces can be joined to yours.
+     *
+     * @return the {@code traceparent} header value, or empty to not send one
+     */
+    default Optional<String> getTraceparent() {
+        return Optional.empty();
+    }
+
+    /**
+     * Ends the span. Called exactly once.
+     */
+    default void end() {
+    }
+}
@@ -0,0 +1,30 @@
+package com.giannivanhoecke.oauth.desktop.observability;
+
+/**
+ * Starts the spans tracing the phases of an authorization and the calls to the authorization server, e.g. to bind
+ * them to OpenTelemetry. The span names are listed in {@link TracingConstants}.
+ * <p>
+ * Implementations are called on the threads running the phases, so they must be thread safe and shouldn't block.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public interface Tracer {
+
+    /**
+     * Traces nothing.
+     */
+    Tracer NOOP = new Tracer() {
+    };
+
+    /**
+     * Starts a span.
+     *
+     * @param name the span name
+     * @param parent the span the new span is part of, or {@code null} to start a new trace
+     * @return the started span, which is always {@link Span#end() ended}
+     */
+    default Span startSpan(String name, Span parent) {
+        return Span.NOOP;
+    }
+}
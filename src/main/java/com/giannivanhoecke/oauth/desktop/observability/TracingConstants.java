@@ -0,0 +1,57 @@
+package com.giannivanhoecke.oauth.desktop.observability;
+
+/**
+ * The names of the spans started by the {@link Tracer}, and of their attributes.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class TracingConstants {
+
+    /**
+     * A whole authorization, from opening the browser until the tokens are received. Parent of the
+     * {@link #SPAN_BROWSER_OPEN}, {@link #SPAN_CALLBACK_WAIT} and {@link #SPAN_CODE_EXCHANGE} spans.
+     */
+    public static final String SPAN_AUTHORIZE     = "oauth.authorize";
+    /**
+     * Opening the browser on the authorization page.
+     */
+    public static final String SPAN_BROWSER_OPEN  = "oauth.browser_open";
+    /**
+     * Waiting for the user to log in and the authorization server to redirect to the callback server.
+     */
+    public static final String SPAN_CALLBACK_WAIT = "oauth.callback_wait";
+    /**
+     * Exchanging the authorization code for tokens, reading and parsing the response included.
+     */
+    public static final String SPAN_CODE_EXCHANGE = "oauth.code_exchange";
+    /**
+     * Exchanging a refresh token for new tokens, reading and parsing the response included.
+     */
+    public static final String SPAN_REFRESH       = "oauth.refresh";
+    /**
+     * Requesting the user info, reading and parsing the response included.
+     */
+    public static final String SPAN_USER_INFO     = "oauth.user_info";
+    /**
+     * Requesting the keys the authorization server signs its ID tokens with, when an ID token is verified by a key
+     * that isn't cached.
+     */
+    public static final String SPAN_JWKS          = "oauth.jwks";
+    /**
+     * Introspecting a token that isn't cached, reading and parsing the response included.
+     */
+    public static final String SPAN_INTROSPECTION = "oauth.introspection";
+    /**
+     * Revoking a token. A revocation queued in the background gets a span per attempt.
+     */
+    public static final String SPAN_REVOCATION    = "oauth.revocation";
+
+    /**
+     * The status code of the authorization server's response.
+     */
+    public static final String ATTRIBUTE_HTTP_STATUS_CODE = "http.response.status_code";
+
+    private TracingConstants() {
+    }
+}
@@ -0,0 +1,112 @@
+package com.giannivanhoecke.oauth.desktop.representation;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The state of a token, as returned by the introspection endpoint (RFC 7662). Only {@link #isActive()} is always
+ * present: an inactive token has no other members.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class IntrospectionResponse {
+
+    public static final IntrospectionResponse INACTIVE = new IntrospectionResponse(
+            false, null, null, null, null, null, null, 0);
+
+    private final boolean active;
+    private final String scope;
+    private final String clientId;
+    private final String username;
+    private final String tokenType;
+    private final String subject;
+    private final String issuer;
+    private final long expiresAtInSeconds;
+
+    public IntrospectionResponse(boolean active, String scope, String clientId, String username, String tokenType,
+                                 String subject, String issuer, long expiresAtInSeconds) {
+        this.active = active;
+        this.scope = scope;
+        this.clientId = clientId;
+        this.username = username;
+        this.tokenType = tokenType;
+        this.subject = subject;
+        this.issuer = issuer;
+        this.expiresAtInSeconds = expiresAtInSeconds;
+    }
+
+    /**
+     * Tells whether the token is valid: issued by the authorization server, not revoked and not expired.
+     *
+     * @return {@code true} when the token is active
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    /**
+     * Gets the {@code exp} member, in seconds since the epoch.
+     *
+     * @return the expiry in seconds, or `0` when the response has none
+     */
+    public long getExpiresAtInSeconds() {
+        return expiresAtInSeconds;
+    }
+
+    public Optional<Instant> getExpiresAt() {
+        return expiresAtInSeconds > 0 ? Optional.of(Instant.ofEpochSecond(expiresAtInSeconds)) : Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        return "IntrospectionResponse{" + "active=" + active + ", scope='" + scope + '\'' + ", clientId='" + clientId +
+                '\'' + ", username='" + username + '\'' + ", tokenType='" + tokenType + '\'' + ", subject='" +
+                subject + '\'' + ", issuer='" + issuer + '\'' + ", expiresAtInSeconds=" + expiresAtInSeconds + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntrospectionResponse)) {
+            return false;
+        }
+        IntrospectionResponse that = (IntrospectionResponse) o;
+        return active == that.active && expiresAtInSeconds == that.expiresAtInSeconds &&
+                Objects.equals(scope, that.scope) && Objects.equals(clientId, that.clientId) &&
+                Objects.equals(username, that.username) && Objects.equals(tokenType, that.tokenType) &&
+                Objects.equals(subject, that.subject) && Objects.equals(issuer, that.issuer);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(active, scope, clientId, username, tokenType, subject, issuer, expiresAtInSeconds);
+    }
+}
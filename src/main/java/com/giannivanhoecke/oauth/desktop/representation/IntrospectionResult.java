@@ -0,0 +1,82 @@
+package com.giannivanhoecke.oauth.desktop.representation;
+
+import com.giannivanhoecke.oauth.desktop.exception.IntrospectionException;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The outcome of introspecting one token in a batch: either the token's state, or the reason the introspection
+ * failed.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class IntrospectionResult {
+
+    private final String token;
+    private final IntrospectionResponse introspectionResponse;
+    private final IntrospectionException introspectionException;
+
+    private IntrospectionResult(String token, IntrospectionResponse introspectionResponse,
+                                IntrospectionException introspectionException) {
+        this.token = token;
+        this.introspectionResponse = introspectionResponse;
+        this.introspectionException = introspectionException;
+    }
+
+    public static IntrospectionResult success(String token, IntrospectionResponse introspectionResponse) {
+        return new IntrospectionResult(token, introspectionResponse, null);
+    }
+
+    public static IntrospectionResult failure(String token, IntrospectionException introspectionException) {
+        return new IntrospectionResult(token, null, introspectionException);
+    }
+
+    /**
+     * Gets the token that was introspected.
+     *
+     * @return the original token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    public boolean isSuccess() {
+        return introspectionResponse != null;
+    }
+
+    public Optional<IntrospectionResponse> getIntrospectionResponse() {
+        return Optional.ofNullable(introspectionResponse);
+    }
+
+    public Optional<IntrospectionException> getIntrospectionException() {
+        return Optional.ofNullable(introspectionException);
+    }
+
+    @Override
+    public String toString() {
+        // the token is left out, so results can be logged
+        return "IntrospectionResult{" + "introspectionResponse=" + introspectionResponse +
+                ", introspectionException=" + introspectionException + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntrospectionResult)) {
+            return false;
+        }
+        IntrospectionResult that = (IntrospectionResult) o;
+        return Objects.equals(token, that.token) &&
+                Objects.equals(introspectionResponse, that.introspectionResponse) &&
+                Objects.equals(introspectionException, that.introspectionException);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(token, introspectionResponse, introspectionException);
+    }
+}
@@ -0,0 +1,92 @@
+package com.giannivanhoecke.oauth.desktop.representation;
+
+import java.util.Objects;
+
+/**
+ * The OpenID Connect provider metadata of an issuer, as served at its {@code .well-known/openid-configuration}.
+ * Only the members this library uses are read.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class ProviderMetadata {
+
+    private final String issuer;
+    private final String authorizationEndpoint;
+    private final String tokenEndpoint;
+    private final String userInfoEndpoint;
+    private final String jwksUri;
+    private final String introspectionEndpoint;
+    private final String revocationEndpoint;
+
+    public ProviderMetadata(String issuer, String authorizationEndpoint, String tokenEndpoint,
+                            String userInfoEndpoint, String jwksUri, String introspectionEndpoint,
+                            String revocationEndpoint) {
+        this.issuer = issuer;
+        this.authorizationEndpoint = authorizationEndpoint;
+        this.tokenEndpoint = tokenEndpoint;
+        this.userInfoEndpoint = userInfoEndpoint;
+        this.jwksUri = jwksUri;
+        this.introspectionEndpoint = introspectionEndpoint;
+        this.revocationEndpoint = revocationEndpoint;
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public String getAuthorizationEndpoint() {
+        return authorizationEndpoint;
+    }
+
+    public String getTokenEndpoint() {
+        return tokenEndpoint;
+    }
+
+    public String getUserInfoEndpoint() {
+        return userInfoEndpoint;
+    }
+
+    public String getJwksUri() {
+        return jwksUri;
+    }
+
+    public String getIntrospectionEndpoint() {
+        return introspectionEndpoint;
+    }
+
+    public String getRevocationEndpoint() {
+        return revocationEndpoint;
+    }
+
+    @Override
+    public String toString() {
+        return "ProviderMetadata{" + "issuer='" + issuer + '\'' + ", authorizationEndpoint='" +
+                authorizationEndpoint + '\'' + ", tokenEndpoint='" + tokenEndpoint + '\'' + ", userInfoEndpoint='" +
+                userInfoEndpoint + '\'' + ", jwksUri='" + jwksUri + '\'' + ", introspectionEndpoint='" +
+                introspectionEndpoint + '\'' + ", revocationEndpoint='" + revocationEndpoint + '\'' + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProviderMetadata)) {
+            return false;
+        }
+        ProviderMetadata that = (ProviderMetadata) o;
+        return Objects.equals(issuer, that.issuer) &&
+                Objects.equals(authorizationEndpoint, that.authorizationEndpoint) &&
+                Objects.equals(tokenEndpoint, that.tokenEndpoint) &&
+                Objects.equals(userInfoEndpoint, that.userInfoEndpoint) && Objects.equals(jwksUri, that.jwksUri) &&
+                Objects.equals(introspectionEndpoint, that.introspectionEndpoint) &&
+                Objects.equals(revocationEndpoint, that.revocationEndpoint);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(issuer, authorizationEndpoint, tokenEndpoint, userInfoEndpoint, jwksUri,
+                introspectionEndpoint, revocationEndpoint);
+    }
+}
@@ -0,0 +1,80 @@
+package com.giannivanhoecke.oauth.desktop.representation;
+
+import com.giannivanhoecke.oauth.desktop.exception.TokenException;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The outcome of refreshing one refresh token in a batch: either the new tokens, or the reason the refresh failed.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class RefreshResult {
+
+    private final String refreshToken;
+    private final AccessTokenResponse accessTokenResponse;
+    private final TokenException tokenException;
+
+    private RefreshResult(String refreshToken, AccessTokenResponse accessTokenResponse,
+                          TokenException tokenException) {
+        this.refreshToken = refreshToken;
+        this.accessTokenResponse = accessTokenResponse;
+        this.tokenException = tokenException;
+    }
+
+    public static RefreshResult success(String refreshToken, AccessTokenResponse accessTokenResponse) {
+        return new RefreshResult(refreshToken, accessTokenResponse, null);
+    }
+
+    public static RefreshResult failure(String refreshToken, TokenException tokenException) {
+        return new RefreshResult(refreshToken, null, tokenException);
+    }
+
+    /**
+     * Gets the refresh token that was exchanged.
+     *
+     * @return the original refresh token
+     */
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public boolean isSuccess() {
+        return accessTokenResponse != null;
+    }
+
+    public Optional<AccessTokenResponse> getAccessTokenResponse() {
+        return Optional.ofNullable(accessTokenResponse);
+    }
+
+    public Optional<TokenException> getTokenException() {
+        return Optional.ofNullable(tokenException);
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshResult{" + "refreshToken='" + refreshToken + '\'' + ", accessTokenResponse=" +
+                accessTokenResponse + ", tokenException=" + tokenException + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RefreshResult)) {
+            return false;
+        }
+        RefreshResult that = (RefreshResult) o;
+        return Objects.equals(refreshToken, that.refreshToken) &&
+                Objects.equals(accessTokenResponse, that.accessTokenResponse) &&
+                Objects.equals(tokenException, that.tokenException);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(refreshToken, accessTokenResponse, tokenException);
+    }
+}
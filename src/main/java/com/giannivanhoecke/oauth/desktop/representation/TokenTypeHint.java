@@ -0,0 +1,35 @@
+package com.giannivanhoecke.oauth.desktop.representation;
+
+/**
+ * The type of a token to revoke, sent along as a hint so the authorization server finds it faster (RFC 7009).
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public enum TokenTypeHint {
+
+    /**
+     * An access token.
+     */
+    ACCESS_TOKEN("access_token"),
+
+    /**
+     * A refresh token. Revoking it usually ends the session, revoking its access tokens along with it.
+     */
+    REFRESH_TOKEN("refresh_token");
+
+    private final String value;
+
+    TokenTypeHint(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Gets the value sent as {@code token_type_hint}.
+     *
+     * @return the hint value
+     */
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,78 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes {@link AccessTokenResponse} without reflection.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class AccessTokenResponseTypeAdapter extends TypeAdapter<AccessTokenResponse> {
+
+    private static final String ACCESS_TOKEN  = "access_token";
+    private static final String REFRESH_TOKEN = "refresh_token";
+    private static final String ID_TOKEN      = "id_token";
+    private static final String TOKEN_TYPE    = "token_type";
+    private static final String EXPIRES_IN    = "expires_in";
+
+    @Override
+    public void write(JsonWriter out, AccessTokenResponse value)
+            throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        JsonValues.writeString(out, ACCESS_TOKEN, value.getAccessToken());
+        JsonValues.writeString(out, REFRESH_TOKEN, value.getRefreshToken());
+        JsonValues.writeString(out, ID_TOKEN, value.getIdToken());
+        JsonValues.writeString(out, TOKEN_TYPE, value.getTokenType());
+        out.name(EXPIRES_IN).value(value.getExpiresIn());
+        out.endObject();
+    }
+
+    @Override
+    public AccessTokenResponse read(JsonReader in)
+            throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String accessToken = null;
+        String refreshToken = null;
+        String idToken = null;
+        String tokenType = null;
+        int expiresIn = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case ACCESS_TOKEN:
+                    accessToken = JsonValues.readString(in);
+                    break;
+                case REFRESH_TOKEN:
+                    refreshToken = JsonValues.readString(in);
+                    break;
+                case ID_TOKEN:
+                    idToken = JsonValues.readString(in);
+                    break;
+                case TOKEN_TYPE:
+                    tokenType = JsonValues.readString(in);
+                    break;
+                case EXPIRES_IN:
+                    expiresIn = JsonValues.readInt(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new AccessTokenResponse(accessToken, refreshToken, idToken, tokenType, expiresIn);
+    }
+}
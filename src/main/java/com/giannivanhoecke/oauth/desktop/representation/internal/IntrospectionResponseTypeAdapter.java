@@ -0,0 +1,99 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import com.giannivanhoecke.oauth.desktop.representation.IntrospectionResponse;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes {@link IntrospectionResponse} without reflection.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class IntrospectionResponseTypeAdapter extends TypeAdapter<IntrospectionResponse> {
+
+    private static final String ACTIVE     = "active";
+    private static final String SCOPE      = "scope";
+    private static final String CLIENT_ID  = "client_id";
+    private static final String USERNAME   = "username";
+    private static final String TOKEN_TYPE = "token_type";
+    private static final String SUBJECT    = "sub";
+    private static final String ISSUER     = "iss";
+    private static final String EXPIRES_AT = "exp";
+
+    @Override
+    public void write(JsonWriter out, IntrospectionResponse value)
+            throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(ACTIVE).value(value.isActive());
+        JsonValues.writeString(out, SCOPE, value.getScope());
+        JsonValues.writeString(out, CLIENT_ID, value.getClientId());
+        JsonValues.writeString(out, USERNAME, value.getUsername());
+        JsonValues.writeString(out, TOKEN_TYPE, value.getTokenType());
+        JsonValues.writeString(out, SUBJECT, value.getSubject());
+        JsonValues.writeString(out, ISSUER, value.getIssuer());
+        if (value.getExpiresAtInSeconds() > 0) {
+            out.name(EXPIRES_AT).value(value.getExpiresAtInSeconds());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public IntrospectionResponse read(JsonReader in)
+            throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        boolean active = false;
+        String scope = null;
+        String clientId = null;
+        String username = null;
+        String tokenType = null;
+        String subject = null;
+        String issuer = null;
+        long expiresAtInSeconds = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case ACTIVE:
+                    active = JsonValues.readBoolean(in);
+                    break;
+                case SCOPE:
+                    scope = JsonValues.readString(in);
+                    break;
+                case CLIENT_ID:
+                    clientId = JsonValues.readString(in);
+                    break;
+                case USERNAME:
+                    username = JsonValues.readString(in);
+                    break;
+                case TOKEN_TYPE:
+                    tokenType = JsonValues.readString(in);
+                    break;
+                case SUBJECT:
+                    subject = JsonValues.readString(in);
+                    break;
+                case ISSUER:
+                    issuer = JsonValues.readString(in);
+                    break;
+                case EXPIRES_AT:
+                    expiresAtInSeconds = JsonValues.readLong(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new IntrospectionResponse(
+                active, scope, clientId, username, tokenType, subject, issuer, expiresAtInSeconds);
+    }
+}
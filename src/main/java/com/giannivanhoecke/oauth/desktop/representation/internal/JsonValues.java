@@ -0,0 +1,60 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+class JsonValues {
+
+    private JsonValues() {
+    }
+
+    static String readString(JsonReader in)
+            throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    static int readInt(JsonReader in)
+            throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        return in.nextInt();
+    }
+
+    static long readLong(JsonReader in)
+            throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        return in.nextLong();
+    }
+
+    static boolean readBoolean(JsonReader in)
+            throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return false;
+        }
+        return in.nextBoolean();
+    }
+
+    static void writeString(JsonWriter out, String name, String value)
+            throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+}
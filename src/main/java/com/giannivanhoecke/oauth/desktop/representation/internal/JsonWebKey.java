@@ -0,0 +1,98 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import java.util.Objects;
+
+/**
+ * A public key of a JSON Web Key Set, as published by the authorization server. Only the members needed to verify
+ * RSA and elliptic curve signatures are read.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class JsonWebKey {
+
+    private final String keyId;
+    private final String keyType;
+    private final String use;
+    private final String algorithm;
+    private final String modulus;
+    private final String exponent;
+    private final String curve;
+    private final String x;
+    private final String y;
+
+    public JsonWebKey(String keyId, String keyType, String use, String algorithm, String modulus, String exponent,
+                      String curve, String x, String y) {
+        this.keyId = keyId;
+        this.keyType = keyType;
+        this.use = use;
+        this.algorithm = algorithm;
+        this.modulus = modulus;
+        this.exponent = exponent;
+        this.curve = curve;
+        this.x = x;
+        this.y = y;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public String getKeyType() {
+        return keyType;
+    }
+
+    public String getUse() {
+        return use;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getModulus() {
+        return modulus;
+    }
+
+    public String getExponent() {
+        return exponent;
+    }
+
+    public String getCurve() {
+        return curve;
+    }
+
+    public String getX() {
+        return x;
+    }
+
+    public String getY() {
+        return y;
+    }
+
+    @Override
+    public String toString() {
+        return "JsonWebKey{" + "keyId='" + keyId + '\'' + ", keyType='" + keyType + '\'' + ", use='" + use + '\'' +
+                ", algorithm='" + algorithm + '\'' + ", curve='" + curve + '\'' + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof JsonWebKey)) {
+            return false;
+        }
+        JsonWebKey that = (JsonWebKey) o;
+        return Objects.equals(keyId, that.keyId) && Objects.equals(keyType, that.keyType) &&
+                Objects.equals(use, that.use) && Objects.equals(algorithm, that.algorithm) &&
+                Objects.equals(modulus, that.modulus) && Objects.equals(exponent, that.exponent) &&
+                Objects.equals(curve, that.curve) && Objects.equals(x, that.x) && Objects.equals(y, that.y);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keyId, keyType, use, algorithm, modulus, exponent, curve, x, y);
+    }
+}
@@ -0,0 +1,45 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The keys the authorization server signs its tokens with, as served by its JWKS endpoint.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class JsonWebKeySet {
+
+    private final List<JsonWebKey> keys;
+
+    public JsonWebKeySet(List<JsonWebKey> keys) {
+        this.keys = List.copyOf(keys);
+    }
+
+    public List<JsonWebKey> getKeys() {
+        return keys;
+    }
+
+    @Override
+    public String toString() {
+        return "JsonWebKeySet{" + "keys=" + keys + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof JsonWebKeySet)) {
+            return false;
+        }
+        JsonWebKeySet that = (JsonWebKeySet) o;
+        return Objects.equals(keys, that.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keys);
+    }
+}
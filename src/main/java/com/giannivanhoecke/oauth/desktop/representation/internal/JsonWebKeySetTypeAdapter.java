@@ -0,0 +1,132 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes {@link JsonWebKeySet} without reflection, skipping the members that aren't needed to verify
+ * signatures, like certificate chains.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class JsonWebKeySetTypeAdapter extends TypeAdapter<JsonWebKeySet> {
+
+    private static final String KEYS      = "keys";
+    private static final String KEY_ID    = "kid";
+    private static final String KEY_TYPE  = "kty";
+    private static final String USE       = "use";
+    private static final String ALGORITHM = "alg";
+    private static final String MODULUS   = "n";
+    private static final String EXPONENT  = "e";
+    private static final String CURVE     = "crv";
+    private static final String X         = "x";
+    private static final String Y         = "y";
+
+    @Override
+    public void write(JsonWriter out, JsonWebKeySet value)
+            throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(KEYS).beginArray();
+        for (JsonWebKey key : value.getKeys()) {
+            out.beginObject();
+            JsonValues.writeString(out, KEY_ID, key.getKeyId());
+            JsonValues.writeString(out, KEY_TYPE, key.getKeyType());
+            JsonValues.writeString(out, USE, key.getUse());
+            JsonValues.writeString(out, ALGORITHM, key.getAlgorithm());
+            JsonValues.writeString(out, MODULUS, key.getModulus());
+            JsonValues.writeString(out, EXPONENT, key.getExponent());
+            JsonValues.writeString(out, CURVE, key.getCurve());
+            JsonValues.writeString(out, X, key.getX());
+            JsonValues.writeString(out, Y, key.getY());
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public JsonWebKeySet read(JsonReader in)
+            throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<JsonWebKey> keys = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            if (KEYS.equals(in.nextName()) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    keys.add(readKey(in));
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return new JsonWebKeySet(keys);
+    }
+
+    // util
+
+    private JsonWebKey readKey(JsonReader in)
+            throws IOException {
+        String keyId = null;
+        String keyType = null;
+        String use = null;
+        String algorithm = null;
+        String modulus = null;
+        String exponent = null;
+        String curve = null;
+        String x = null;
+        String y = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case KEY_ID:
+                    keyId = JsonValues.readString(in);
+                    break;
+                case KEY_TYPE:
+                    keyType = JsonValues.readString(in);
+                    break;
+                case USE:
+                    use = JsonValues.readString(in);
+                    break;
+                case ALGORITHM:
+                    algorithm = JsonValues.readString(in);
+                    break;
+                case MODULUS:
+                    modulus = JsonValues.readString(in);
+                    break;
+                case EXPONENT:
+                    exponent = JsonValues.readString(in);
+                    break;
+                case CURVE:
+                    curve = JsonValues.readString(in);
+                    break;
+                case X:
+                    x = JsonValues.readString(in);
+                    break;
+                case Y:
+                    y = JsonValues.readString(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new JsonWebKey(keyId, keyType, use, algorithm, modulus, exponent, curve, x, y);
+    }
+}
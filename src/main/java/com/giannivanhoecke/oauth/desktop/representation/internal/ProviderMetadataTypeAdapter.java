@@ -0,0 +1,91 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import com.giannivanhoecke.oauth.desktop.representation.ProviderMetadata;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes {@link ProviderMetadata} without reflection.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class ProviderMetadataTypeAdapter extends TypeAdapter<ProviderMetadata> {
+
+    private static final String ISSUER                 = "issuer";
+    private static final String AUTHORIZATION_ENDPOINT = "authorization_endpoint";
+    private static final String TOKEN_ENDPOINT         = "token_endpoint";
+    private static final String USER_INFO_ENDPOINT     = "userinfo_endpoint";
+    private static final String JWKS_URI               = "jwks_uri";
+    private static final String INTROSPECTION_ENDPOINT = "introspection_endpoint";
+    private static final String REVOCATION_ENDPOINT    = "revocation_endpoint";
+
+    @Override
+    public void write(JsonWriter out, ProviderMetadata value)
+            throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        JsonValues.writeString(out, ISSUER, value.getIssuer());
+        JsonValues.writeString(out, AUTHORIZATION_ENDPOINT, value.getAuthorizationEndpoint());
+        JsonValues.writeString(out, TOKEN_ENDPOINT, value.getTokenEndpoint());
+        JsonValues.writeString(out, USER_INFO_ENDPOINT, value.getUserInfoEndpoint());
+        JsonValues.writeString(out, JWKS_URI, value.getJwksUri());
+        JsonValues.writeString(out, INTROSPECTION_ENDPOINT, value.getIntrospectionEndpoint());
+        JsonValues.writeString(out, REVOCATION_ENDPOINT, value.getRevocationEndpoint());
+        out.endObject();
+    }
+
+    @Override
+    public ProviderMetadata read(JsonReader in)
+            throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String issuer = null;
+        String authorizationEndpoint = null;
+        String tokenEndpoint = null;
+        String userInfoEndpoint = null;
+        String jwksUri = null;
+        String introspectionEndpoint = null;
+        String revocationEndpoint = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case ISSUER:
+                    issuer = JsonValues.readString(in);
+                    break;
+                case AUTHORIZATION_ENDPOINT:
+                    authorizationEndpoint = JsonValues.readString(in);
+                    break;
+                case TOKEN_ENDPOINT:
+                    tokenEndpoint = JsonValues.readString(in);
+                    break;
+                case USER_INFO_ENDPOINT:
+                    userInfoEndpoint = JsonValues.readString(in);
+                    break;
+                case JWKS_URI:
+                    jwksUri = JsonValues.readString(in);
+                    break;
+                case INTROSPECTION_ENDPOINT:
+                    introspectionEndpoint = JsonValues.readString(in);
+                    break;
+                case REVOCATION_ENDPOINT:
+                    revocationEndpoint = JsonValues.readString(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new ProviderMetadata(issuer, authorizationEndpoint, tokenEndpoint, userInfoEndpoint, jwksUri,
+                introspectionEndpoint, revocationEndpoint);
+    }
+}
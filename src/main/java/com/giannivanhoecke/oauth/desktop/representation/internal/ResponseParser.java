@@ -0,0 +1,57 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+import com.giannivanhoecke.oauth.desktop.representation.IntrospectionResponse;
+import com.giannivanhoecke.oauth.desktop.representation.ProviderMetadata;
+import com.giannivanhoecke.oauth.desktop.representation.UserInfoResponse;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+
+import java.io.IOException;
+
+/**
+ * Parses authorization server responses using one shared, thread-safe {@link Gson} instance and hand-written
+ * {@link TypeAdapter}s, instead of building a new {@link Gson} and its reflective adapters on every call.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class ResponseParser {
+
+    public static final TypeAdapter<AccessTokenResponse> ACCESS_TOKEN_RESPONSE_ADAPTER =
+            new AccessTokenResponseTypeAdapter();
+    public static final TypeAdapter<UserInfoResponse> USER_INFO_RESPONSE_ADAPTER =
+            new UserInfoResponseTypeAdapter();
+    public static final TypeAdapter<JsonWebKeySet> JSON_WEB_KEY_SET_ADAPTER =
+            new JsonWebKeySetTypeAdapter();
+    public static final TypeAdapter<ProviderMetadata> PROVIDER_METADATA_ADAPTER =
+            new ProviderMetadataTypeAdapter();
+    public static final TypeAdapter<IntrospectionResponse> INTROSPECTION_RESPONSE_ADAPTER =
+            new IntrospectionResponseTypeAdapter();
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(AccessTokenResponse.class, ACCESS_TOKEN_RESPONSE_ADAPTER)
+            .registerTypeAdapter(UserInfoResponse.class, USER_INFO_RESPONSE_ADAPTER)
+            .registerTypeAdapter(JsonWebKeySet.class, JSON_WEB_KEY_SET_ADAPTER)
+            .registerTypeAdapter(ProviderMetadata.class, PROVIDER_METADATA_ADAPTER)
+            .registerTypeAdapter(IntrospectionResponse.class, INTROSPECTION_RESPONSE_ADAPTER)
+            .create();
+
+    private ResponseParser() {
+    }
+
+    public static Gson getGson() {
+        return GSON;
+    }
+
+    public static AccessTokenResponse toAccessTokenResponse(String json)
+            throws IOException {
+        return ACCESS_TOKEN_RESPONSE_ADAPTER.fromJson(json);
+    }
+
+    public static UserInfoResponse toUserInfoResponse(String json)
+            throws IOException {
+        return USER_INFO_RESPONSE_ADAPTER.fromJson(json);
+    }
+}
@@ -0,0 +1,49 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.codec.binary.Base64;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class TokenExpiry {
+
+    private static final String CLAIM_EXPIRY = "exp";
+
+    private TokenExpiry() {
+    }
+
+    /**
+     * Reads the {@code exp} claim of a token, without verifying the token. Opaque tokens have no readable expiry.
+     *
+     * @param token the token to read
+     * @return the expiry, or empty if the token isn't a JWT with an {@code exp} claim
+     */
+    public static Optional<Instant> of(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        try {
+            String payload = new String(Base64.decodeBase64(parts[1]), StandardCharsets.UTF_8);
+            JsonObject claims = JsonParser.parseString(payload).getAsJsonObject();
+            JsonElement expiry = claims.get(CLAIM_EXPIRY);
+            if (expiry == null || !expiry.isJsonPrimitive()) {
+                return Optional.empty();
+            }
+            return Optional.of(Instant.ofEpochSecond(expiry.getAsLong()));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import com.giannivanhoecke.oauth.desktop.representation.UserInfoResponse;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes {@link UserInfoResponse} without reflection.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class UserInfoResponseTypeAdapter extends TypeAdapter<UserInfoResponse> {
+
+    private static final String ID       = "sub";
+    private static final String USERNAME = "preferred_username";
+    private static final String NAME     = "name";
+    private static final String EMAIL    = "email";
+
+    @Override
+    public void write(JsonWriter out, UserInfoResponse value)
+            throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        JsonValues.writeString(out, ID, value.getId());
+        JsonValues.writeString(out, USERNAME, value.getUsername());
+        JsonValues.writeString(out, NAME, value.getName());
+        JsonValues.writeString(out, EMAIL, value.getEmail());
+        out.endObject();
+    }
+
+    @Override
+    public UserInfoResponse read(JsonReader in)
+            throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String id = null;
+        String username = null;
+        String name = null;
+        String email = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case ID:
+                    id = JsonValues.readString(in);
+                    break;
+                case USERNAME:
+                    username = JsonValues.readString(in);
+                    break;
+                case NAME:
+                    name = JsonValues.readString(in);
+                    break;
+                case EMAIL:
+                    email = JsonValues.readString(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new UserInfoResponse(id, username, name, email);
+    }
+}
@@ -0,0 +1,152 @@
+package com.giannivanhoecke.oauth.desktop.resilience;
+
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+
+import java.util.Objects;
+
+/**
+ * Configures the circuit breaker guarding each endpoint of the authorization server. After a number of consecutive
+ * failures, the breaker opens and requests fail right away instead of waiting for a server which is down. Once the
+ * open duration has passed, probe requests find out whether the endpoint has recovered.
+ * <p>
+ * Connection failures, timeouts and {@code 5xx} responses count as failures.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class CircuitBreakerConfig {
+
+    public static final int DEFAULT_FAILURE_THRESHOLD    = 5;
+    public static final long DEFAULT_OPEN_DURATION_IN_MS = 30_000;
+    public static final int DEFAULT_HALF_OPEN_PROBES     = 1;
+
+    /**
+     * Never opens.
+     */
+    public static final CircuitBreakerConfig DISABLED = newBuilder().withFailureThreshold(0).build();
+
+    private final int failureThreshold;
+    private final long openDurationInMs;
+    private final int halfOpenProbes;
+
+    private CircuitBreakerConfig(Builder builder) {
+        failureThreshold = builder.failureThreshold;
+        openDurationInMs = builder.openDurationInMs;
+        halfOpenProbes = builder.halfOpenProbes;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public boolean isEnabled() {
+        return failureThreshold > 0;
+    }
+
+    public long getOpenDurationInMs() {
+        return openDurationInMs;
+    }
+
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreakerConfig{" + "failureThreshold=" + failureThreshold + ", openDurationInMs=" +
+                openDurationInMs + ", halfOpenProbes=" + halfOpenProbes + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CircuitBreakerConfig)) {
+            return false;
+        }
+        CircuitBreakerConfig that = (CircuitBreakerConfig) o;
+        return failureThreshold == that.failureThreshold && openDurationInMs == that.openDurationInMs &&
+                halfOpenProbes == that.halfOpenProbes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(failureThreshold, openDurationInMs, halfOpenProbes);
+    }
+
+    // static util
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int failureThreshold;
+        private long openDurationInMs;
+        private int halfOpenProbes;
+
+        private Builder() {
+            failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+            openDurationInMs = DEFAULT_OPEN_DURATION_IN_MS;
+            halfOpenProbes = DEFAULT_HALF_OPEN_PROBES;
+        }
+
+        /**
+         * Sets the number of consecutive failures opening the breaker.
+         * Defaults to `5`. Use `0` to never open.
+         *
+         * @param val the failure threshold
+         * @return this builder for chaining
+         */
+        public Builder withFailureThreshold(int val) {
+            failureThreshold = val;
+            return this;
+        }
+
+        /**
+         * Sets how long the breaker stays open before probing the endpoint.
+         * Defaults to `30000`.
+         *
+         * @param val the open duration in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withOpenDurationInMs(long val) {
+            openDurationInMs = val;
+            return this;
+        }
+
+        /**
+         * Sets the number of probe requests let through while half open. The breaker closes once all of them
+         * succeed, and opens again as soon as one fails.
+         * Defaults to `1`.
+         *
+         * @param val the number of probe requests
+         * @return this builder for chaining
+         */
+        public Builder withHalfOpenProbes(int val) {
+            halfOpenProbes = val;
+            return this;
+        }
+
+        /**
+         * Constructs the {@link CircuitBreakerConfig} object with your given parameters.
+         *
+         * @return the {@link CircuitBreakerConfig} object
+         *
+         * @throws InvalidConfigException when a parameter is out of range
+         */
+        public CircuitBreakerConfig build() {
+            if (failureThreshold < 0) {
+                throw new InvalidConfigException("failureThreshold cannot be negative");
+            }
+            if (openDurationInMs < 0) {
+                throw new InvalidConfigException("openDurationInMs cannot be negative");
+            }
+            if (halfOpenProbes < 1) {
+                throw new InvalidConfigException("halfOpenProbes must be at least 1");
+            }
+            return new CircuitBreakerConfig(this);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.giannivanhoecke.oauth.desktop.resilience;
+
+/**
+ * The state of the circuit breaker guarding an endpoint of the authorization server.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public enum CircuitBreakerState {
+
+    /**
+     * Requests are sent as usual, while consecutive failures are counted.
+     */
+    CLOSED,
+
+    /**
+     * Too many consecutive requests failed. Requests fail right away, without contacting the endpoint.
+     */
+    OPEN,
+
+    /**
+     * The open duration has passed. A limited number of probe requests is sent to find out whether the endpoint has
+     * recovered, while other requests still fail right away.
+     */
+    HALF_OPEN
+}
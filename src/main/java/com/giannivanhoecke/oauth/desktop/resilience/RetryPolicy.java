@@ -0,0 +1,317 @@
+package com.giannivanhoecke.oauth.desktop.resilience;
+
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.MissingConfigException;
+import com.giannivanhoecke.oauth.desktop.io.HttpStatusCode;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Decides how requests to the authorization server are retried after a transient failure: a connection that couldn't
+ * be made, a timeout, or a {@code 429}, {@code 502}, {@code 503} or {@code 504} response.
+ * <p>
+ * Retries back off exponentially with random jitter, so many clients failing at once don't retry in lockstep. A
+ * {@code Retry-After} header sent by the server takes precedence over the computed backoff. A retry budget caps the
+ * number of retries relative to the number of requests, so an outage doesn't multiply the load on the server.
+ * <p>
+ * Requests which aren't safe to replay, like the authorization code exchange, are only retried when the connection
+ * couldn't be made, as the server never saw them.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class RetryPolicy {
+
+    public static final int DEFAULT_MAX_ATTEMPTS            = 3;
+    public static final long DEFAULT_INITIAL_BACKOFF_IN_MS  = 200;
+    public static final long DEFAULT_MAX_BACKOFF_IN_MS      = 5_000;
+    public static final double DEFAULT_BACKOFF_MULTIPLIER   = 2.0;
+    public static final double DEFAULT_JITTER               = 0.5;
+    public static final long DEFAULT_MAX_RETRY_AFTER_IN_MS  = 30_000;
+    public static final double DEFAULT_RETRY_BUDGET_RATIO   = 0.2;
+    public static final int DEFAULT_RETRY_BUDGET_MINIMUM    = 10;
+    public static final Set<Integer> DEFAULT_RETRYABLE_STATUS_CODES = Set.of(
+            HttpStatusCode.TOO_MANY_REQUESTS, HttpStatusCode.BAD_GATEWAY, HttpStatusCode.SERVICE_UNAVAILABLE,
+            HttpStatusCode.GATEWAY_TIMEOUT);
+
+    /**
+     * Never retries.
+     */
+    public static final RetryPolicy NONE = newBuilder().withMaxAttempts(1).build();
+
+    private final int maxAttempts;
+    private final long initialBackoffInMs;
+    private final long maxBackoffInMs;
+    private final double backoffMultiplier;
+    private final double jitter;
+    private final long maxRetryAfterInMs;
+    private final double retryBudgetRatio;
+    private final int retryBudgetMinimum;
+    private final Set<Integer> retryableStatusCodes;
+
+    private RetryPolicy(Builder builder) {
+        maxAttempts = builder.maxAttempts;
+        initialBackoffInMs = builder.initialBackoffInMs;
+        maxBackoffInMs = builder.maxBackoffInMs;
+        backoffMultiplier = builder.backoffMultiplier;
+        jitter = builder.jitter;
+        maxRetryAfterInMs = builder.maxRetryAfterInMs;
+        retryBudgetRatio = builder.retryBudgetRatio;
+        retryBudgetMinimum = builder.retryBudgetMinimum;
+        retryableStatusCodes = Set.copyOf(builder.retryableStatusCodes);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isEnabled() {
+        return maxAttempts > 1;
+    }
+
+    public long getInitialBackoffInMs() {
+        return initialBackoffInMs;
+    }
+
+    public long getMaxBackoffInMs() {
+        return maxBackoffInMs;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public long getMaxRetryAfterInMs() {
+        return maxRetryAfterInMs;
+    }
+
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    public int getRetryBudgetMinimum() {
+        return retryBudgetMinimum;
+    }
+
+    public Set<Integer> getRetryableStatusCodes() {
+        return retryableStatusCodes;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{" + "maxAttempts=" + maxAttempts + ", initialBackoffInMs=" + initialBackoffInMs +
+                ", maxBackoffInMs=" + maxBackoffInMs + ", backoffMultiplier=" + backoffMultiplier + ", jitter=" +
+                jitter + ", maxRetryAfterInMs=" + maxRetryAfterInMs + ", retryBudgetRatio=" + retryBudgetRatio +
+                ", retryBudgetMinimum=" + retryBudgetMinimum + ", retryableStatusCodes=" + retryableStatusCodes + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RetryPolicy)) {
+            return false;
+        }
+        RetryPolicy that = (RetryPolicy) o;
+        return maxAttempts == that.maxAttempts && initialBackoffInMs == that.initialBackoffInMs &&
+                maxBackoffInMs == that.maxBackoffInMs &&
+                Double.compare(backoffMultiplier, that.backoffMultiplier) == 0 &&
+                Double.compare(jitter, that.jitter) == 0 && maxRetryAfterInMs == that.maxRetryAfterInMs &&
+                Double.compare(retryBudgetRatio, that.retryBudgetRatio) == 0 &&
+                retryBudgetMinimum == that.retryBudgetMinimum &&
+                Objects.equals(retryableStatusCodes, that.retryableStatusCodes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxAttempts, initialBackoffInMs, maxBackoffInMs, backoffMultiplier, jitter,
+                maxRetryAfterInMs, retryBudgetRatio, retryBudgetMinimum, retryableStatusCodes);
+    }
+
+    // static util
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int maxAttempts;
+        private long initialBackoffInMs;
+        private long maxBackoffInMs;
+        private double backoffMultiplier;
+        private double jitter;
+        private long maxRetryAfterInMs;
+        private double retryBudgetRatio;
+        private int retryBudgetMinimum;
+        private Set<Integer> retryableStatusCodes;
+
+        private Builder() {
+            maxAttempts = DEFAULT_MAX_ATTEMPTS;
+            initialBackoffInMs = DEFAULT_INITIAL_BACKOFF_IN_MS;
+            maxBackoffInMs = DEFAULT_MAX_BACKOFF_IN_MS;
+            backoffMultiplier = DEFAULT_BACKOFF_MULTIPLIER;
+            jitter = DEFAULT_JITTER;
+            maxRetryAfterInMs = DEFAULT_MAX_RETRY_AFTER_IN_MS;
+            retryBudgetRatio = DEFAULT_RETRY_BUDGET_RATIO;
+            retryBudgetMinimum = DEFAULT_RETRY_BUDGET_MINIMUM;
+            retryableStatusCodes = DEFAULT_RETRYABLE_STATUS_CODES;
+        }
+
+        /**
+         * Sets the maximum number of attempts per request, the first one included.
+         * Defaults to `3`. Use `1` to never retry.
+         *
+         * @param val the maximum number of attempts
+         * @return this builder for chaining
+         */
+        public Builder withMaxAttempts(int val) {
+            maxAttempts = val;
+            return this;
+        }
+
+        /**
+         * Sets the backoff before the first retry. Each next retry multiplies it by the backoff multiplier.
+         * Defaults to `200`.
+         *
+         * @param val the initial backoff in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withInitialBackoffInMs(long val) {
+            initialBackoffInMs = val;
+            return this;
+        }
+
+        /**
+         * Sets the upper bound of the backoff.
+         * Defaults to `5000`.
+         *
+         * @param val the maximum backoff in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withMaxBackoffInMs(long val) {
+            maxBackoffInMs = val;
+            return this;
+        }
+
+        /**
+         * Sets the factor the backoff grows with after each retry.
+         * Defaults to `2.0`.
+         *
+         * @param val the backoff multiplier, at least `1.0`
+         * @return this builder for chaining
+         */
+        public Builder withBackoffMultiplier(double val) {
+            backoffMultiplier = val;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of the backoff which is randomized. With `0.5`, a backoff of 400 ms becomes a random
+         * value between 200 ms and 400 ms.
+         * Defaults to `0.5`.
+         *
+         * @param val the jitter, between `0.0` and `1.0`
+         * @return this builder for chaining
+         */
+        public Builder withJitter(double val) {
+            jitter = val;
+            return this;
+        }
+
+        /**
+         * Sets the longest {@code Retry-After} delay which is waited for. When the server asks to wait longer, the
+         * response is returned without retrying.
+         * Defaults to `30000`.
+         *
+         * @param val the maximum retry after delay in milliseconds
+         * @return this builder for chaining
+         */
+        public Builder withMaxRetryAfterInMs(long val) {
+            maxRetryAfterInMs = val;
+            return this;
+        }
+
+        /**
+         * Sets the number of retries each request adds to the retry budget of its endpoint. With `0.2`, at most one
+         * in five requests is retried once the budget's minimum is spent.
+         * Defaults to `0.2`.
+         *
+         * @param val the retry budget ratio, between `0.0` and `1.0`
+         * @return this builder for chaining
+         */
+        public Builder withRetryBudgetRatio(double val) {
+            retryBudgetRatio = val;
+            return this;
+        }
+
+        /**
+         * Sets the number of retries each endpoint's retry budget starts with, and can build up to, so occasional
+         * failures are always retried.
+         * Defaults to `10`.
+         *
+         * @param val the retry budget minimum
+         * @return this builder for chaining
+         */
+        public Builder withRetryBudgetMinimum(int val) {
+            retryBudgetMinimum = val;
+            return this;
+        }
+
+        /**
+         * Sets the response status codes which are retried.
+         * Defaults to `429`, `502`, `503` and `504`.
+         *
+         * @param val the retryable status codes
+         * @return this builder for chaining
+         */
+        public Builder withRetryableStatusCodes(Set<Integer> val) {
+            retryableStatusCodes = val;
+            return this;
+        }
+
+        /**
+         * Constructs the {@link RetryPolicy} object with your given parameters.
+         *
+         * @return the {@link RetryPolicy} object
+         *
+         * @throws MissingConfigException when the retryable status codes are missing
+         * @throws InvalidConfigException when a parameter is out of range
+         */
+        public RetryPolicy build() {
+            if (retryableStatusCodes == null) {
+                throw new MissingConfigException("retryableStatusCodes cannot be null");
+            }
+            if (maxAttempts < 1) {
+                throw new InvalidConfigException("maxAttempts must be at least 1");
+            }
+            if (initialBackoffInMs < 0) {
+                throw new InvalidConfigException("initialBackoffInMs cannot be negative");
+            }
+            if (maxBackoffInMs < initialBackoffInMs) {
+                throw new InvalidConfigException("maxBackoffInMs cannot be less than initialBackoffInMs");
+            }
+            if (backoffMultiplier < 1.0) {
+                throw new InvalidConfigException("backoffMultiplier must be at least 1.0");
+            }
+            if (jitter < 0.0 || jitter > 1.0) {
+                throw new InvalidConfigException("jitter must be between 0.0 and 1.0");
+            }
+            if (maxRetryAfterInMs < 0) {
+                throw new InvalidConfigException("maxRetryAfterInMs cannot be negative");
+            }
+            if (retryBudgetRatio < 0.0 || retryBudgetRatio > 1.0) {
+                throw new InvalidConfigException("retryBudgetRatio must be between 0.0 and 1.0");
+            }
+            if (retryBudgetMinimum < 0) {
+                throw new InvalidConfigException("retryBudgetMinimum cannot be negative");
+            }
+            return new RetryPolicy(this);
+        }
+    }
+}
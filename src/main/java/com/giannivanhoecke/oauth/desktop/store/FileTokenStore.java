@@ -0,0 +1,658 @@
+package com.giannivanhoecke.oauth.desktop.store;
+
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.MissingConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.TokenStoreException;
+import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps tokens in an encrypted file, so they survive a restart of your application.
+ * <p>
+ * The file is an append-only log, memory-mapped for cheap writes: saving or removing tokens appends one record,
+ * encrypted and authenticated with AES-GCM under your key. Each record is bound to its position in the log and to a
+ * sequence number that increases with every write, so records can't be moved, reordered or replayed from an older log.
+ * Opening the store replays the log. A record torn by a crash fails authentication, and as it's the last one the log
+ * is cut off right before it, so a crash never corrupts the tokens saved before. A bad record followed by others isn't
+ * a torn write, so the store refuses to open and leaves the file as is.
+ * Once the log grows past the compaction threshold and is mostly made up of replaced tokens, the live records are
+ * written to a new file, which atomically replaces the log. When that fails, compaction is retried once the log has
+ * doubled in size.
+ * <p>
+ * The store locks its file, so only one process can use it at a time. Keep the secret key out of the file system,
+ * e.g. in the operating system's key store.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class FileTokenStore implements TokenStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileTokenStore.class);
+
+    public static final FsyncPolicy DEFAULT_FSYNC_POLICY                  = FsyncPolicy.ALWAYS;
+    public static final long DEFAULT_COMPACTION_THRESHOLD_IN_BYTES        = 1024 * 1024;
+
+    private static final int MAGIC                = 0x4F415453;
+    private static final int VERSION              = 1;
+    private static final int PREAMBLE_SIZE        = 8;
+    private static final int LENGTH_SIZE          = 4;
+    private static final int SEQUENCE_SIZE        = 8;
+    private static final int IV_SIZE              = 12;
+    private static final int TAG_SIZE_IN_BITS     = 128;
+    private static final int MIN_RECORD_SIZE      = SEQUENCE_SIZE + IV_SIZE + TAG_SIZE_IN_BITS / 8;
+    private static final int HEADER_SIZE          = PREAMBLE_SIZE + MIN_RECORD_SIZE;
+    private static final int INITIAL_CAPACITY     = 64 * 1024;
+    private static final String CIPHER            = "AES/GCM/NoPadding";
+    private static final String KEY_ALGORITHM     = "AES";
+    private static final byte OPERATION_SAVE      = 1;
+    private static final byte OPERATION_REMOVE    = 2;
+
+    private final Path path;
+    private final Path compactionPath;
+    private final SecretKey secretKey;
+    private final FsyncPolicy fsyncPolicy;
+    private final long compactionThresholdInBytes;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int end;
+    private long sequence;
+    private long liveBytes;
+    private long nextCompactionInBytes;
+    private boolean closed;
+
+    private FileTokenStore(Builder builder) {
+        path = builder.path.toAbsolutePath();
+        compactionPath = path.resolveSibling(path.getFileName() + ".compact");
+        secretKey = builder.secretKey;
+        fsyncPolicy = builder.fsyncPolicy;
+        compactionThresholdInBytes = builder.compactionThresholdInBytes;
+        nextCompactionInBytes = compactionThresholdInBytes;
+    }
+
+    @Override
+    public synchronized void save(String key, StoredTokens storedTokens) {
+        assertOpen();
+        putEntry(key, append(storedTokens, serialize(OPERATION_SAVE, key, storedTokens)));
+        compactIfNeeded();
+    }
+
+    @Override
+    public synchronized Optional<StoredTokens> load(String key) {
+        assertOpen();
+        return Optional.ofNullable(this.entries.get(key)).map(entry -> entry.storedTokens);
+    }
+
+    @Override
+    public synchronized void remove(String key) {
+        assertOpen();
+        if (!this.entries.containsKey(key)) {
+            return;
+        }
+        append(null, serialize(OPERATION_REMOVE, key, null));
+        removeEntry(key);
+        compactIfNeeded();
+    }
+
+    /**
+     * Gets the size of the log, which compaction keeps close to the size of the live tokens.
+     *
+     * @return the size of the log in bytes
+     */
+    public synchronized long getLogSizeInBytes() {
+        return this.end;
+    }
+
+    /**
+     * Forces the written tokens to disk, and releases the file.
+     *
+     * @throws TokenStoreException when the tokens couldn't be forced to disk
+     */
+    @Override
+    public synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.buffer.force();
+            closeLog();
+        } finally {
+            releaseLock();
+        }
+    }
+
+    // util
+
+    private void open() {
+        try {
+            Path directory = this.path.getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            acquireLock();
+            // a compaction interrupted by a crash leaves its file behind, while the log itself is still intact
+            Files.deleteIfExists(this.compactionPath);
+            openLog();
+        } catch (IOException | RuntimeException e) {
+            if (this.channel != null) {
+                closeLog();
+            }
+            releaseLock();
+            throw e instanceof TokenStoreException ? (TokenStoreException) e : new TokenStoreException(
+                    String.format("Cannot open token store '%s': %s", this.path, e.getMessage()), e);
+        }
+    }
+
+    private void acquireLock()
+            throws IOException {
+        this.lockChannel = FileChannel.open(this.path.resolveSibling(this.path.getFileName() + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            this.lock = this.lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            this.lock = null;
+        }
+        if (this.lock == null) {
+            throw new TokenStoreException(String.format("Token store '%s' is in use by another store", this.path));
+        }
+    }
+
+    private void releaseLock() {
+        try {
+            if (this.lock != null) {
+                this.lock.release();
+            }
+            if (this.lockChannel != null) {
+                this.lockChannel.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot release lock of token store '{}'", this.path, e);
+        }
+    }
+
+    private void openLog()
+            throws IOException {
+        this.channel = FileChannel.open(this.path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = this.channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new TokenStoreException(String.format("Token store '%s' is too large", this.path));
+        }
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_CAPACITY));
+        // mapping extends a new file with zeros, so a crash before its header is forced leaves a zero preamble
+        if (size == 0 || this.buffer.getInt(0) == 0) {
+            ByteBuffer view = this.buffer.duplicate();
+            view.put(createHeader());
+            this.buffer.force();
+        } else if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+            throw new TokenStoreException(String.format("'%s' is not a token store", this.path));
+        } else if (decrypt(PREAMBLE_SIZE, read(PREAMBLE_SIZE, MIN_RECORD_SIZE)).isEmpty()) {
+            // refuse to open rather than drop every record as corrupt
+            throw new TokenStoreException(String.format("Token store '%s' is encrypted with another key", this.path));
+        }
+        replay();
+    }
+
+    private void closeLog() {
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new TokenStoreException(String.format("Cannot close token store '%s'", this.path), e);
+        } finally {
+            this.channel = null;
+            this.buffer = null;
+        }
+    }
+
+    private void replay() {
+        this.entries.clear();
+        this.liveBytes = 0;
+        this.sequence = 0;
+        int position = HEADER_SIZE;
+        while (position + LENGTH_SIZE <= this.buffer.capacity()) {
+            int length = this.buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            boolean inBounds = length >= MIN_RECORD_SIZE && length <= this.buffer.capacity() - position - LENGTH_SIZE;
+            Optional<byte[]> plaintext = inBounds && this.buffer.getLong(position + LENGTH_SIZE) > this.sequence
+                    ? decrypt(position, read(position + LENGTH_SIZE, length)) : Optional.empty();
+            if (plaintext.isEmpty()) {
+                int recordEnd = inBounds ? position + LENGTH_SIZE + length : position + LENGTH_SIZE;
+                if (!isBlank(recordEnd)) {
+                    throw new TokenStoreException(String.format(
+                            "Token store '%s' has a corrupt record at offset %d", this.path, position));
+                }
+                LOGGER.warn("Dropping torn record at the end of token store '{}' at offset {}", this.path, position);
+                clear(position, recordEnd);
+                break;
+            }
+            this.sequence = this.buffer.getLong(position + LENGTH_SIZE);
+            apply(plaintext.get(), position, LENGTH_SIZE + length);
+            position += LENGTH_SIZE + length;
+        }
+        this.end = position;
+    }
+
+    private void apply(byte[] plaintext, int position, int size) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(plaintext))) {
+            byte operation = in.readByte();
+            String key = readString(in);
+            if (operation == OPERATION_SAVE) {
+                putEntry(key, new Entry(readStoredTokens(in), position, size));
+            } else {
+                removeEntry(key);
+            }
+        } catch (IOException e) {
+            throw new TokenStoreException(String.format("Cannot read token store '%s'", this.path), e);
+        }
+    }
+
+    private Entry append(StoredTokens storedTokens, byte[] plaintext) {
+        byte[] record = encrypt(plaintext, this.end, this.sequence + 1);
+        int size = LENGTH_SIZE + record.length;
+        ensureCapacity(this.end + size);
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(this.end + LENGTH_SIZE);
+        view.put(record);
+        // the length goes last, so a record torn before it reads as the end of the log
+        this.buffer.putInt(this.end, record.length);
+        if (this.fsyncPolicy == FsyncPolicy.ALWAYS) {
+            this.buffer.force();
+        }
+        Entry entry = new Entry(storedTokens, this.end, size);
+        this.end += size;
+        this.sequence++;
+        return entry;
+    }
+
+    private void ensureCapacity(long capacity) {
+        if (capacity <= this.buffer.capacity()) {
+            return;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new TokenStoreException(String.format("Token store '%s' is full", this.path));
+        }
+        try {
+            long newCapacity = Math.min(Math.max(capacity, 2L * this.buffer.capacity()), Integer.MAX_VALUE);
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+        } catch (IOException e) {
+            throw new TokenStoreException(String.format("Cannot grow token store '%s'", this.path), e);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (this.end < this.nextCompactionInBytes || this.end - HEADER_SIZE < 2 * this.liveBytes) {
+            return;
+        }
+        LOGGER.debug("Compacting token store '{}' of {} bytes, {} bytes live", this.path, this.end, this.liveBytes);
+        try {
+            writeCompactedLog();
+        } catch (IOException e) {
+            LOGGER.warn("Cannot write compacted log of token store '{}', keeping the log", this.path, e);
+            backOffCompaction();
+            return;
+        }
+        try {
+            this.buffer.force();
+            closeLog();
+            try {
+                Files.move(this.compactionPath, this.path,
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                forceDirectory();
+                this.nextCompactionInBytes = this.compactionThresholdInBytes;
+            } catch (IOException e) {
+                // e.g. the platform doesn't allow replacing a mapped file, the old log is still complete
+                LOGGER.warn("Cannot replace token store '{}' by its compacted log, keeping it", this.path, e);
+                backOffCompaction();
+            }
+            openLog();
+        } catch (IOException e) {
+            throw new TokenStoreException(String.format("Cannot compact token store '%s'", this.path), e);
+        }
+    }
+
+    /**
+     * Waits for the log to double before compacting again, rather than rewriting it on every write.
+     */
+    private void backOffCompaction() {
+        this.nextCompactionInBytes = Math.max(this.compactionThresholdInBytes, 2L * this.end);
+        try {
+            Files.deleteIfExists(this.compactionPath);
+        } catch (IOException e) {
+            LOGGER.debug("Cannot delete compacted log of token store '{}'", this.path);
+        }
+    }
+
+    /**
+     * Writes the live records to the compacted log. They're encrypted again, as they're bound to their new position,
+     * with sequence numbers that carry on from the log's.
+     */
+    private void writeCompactedLog()
+            throws IOException {
+        ByteBuffer compacted = ByteBuffer.allocate(Math.toIntExact(HEADER_SIZE + this.liveBytes));
+        compacted.put(createHeader());
+        long compactedSequence = this.sequence;
+        for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            byte[] record = encrypt(serialize(OPERATION_SAVE, entry.getKey(), entry.getValue().storedTokens),
+                    compacted.position(), ++compactedSequence);
+            compacted.putInt(record.length).put(record);
+        }
+        compacted.flip();
+        try (FileChannel compactionChannel = FileChannel.open(this.compactionPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (compacted.hasRemaining()) {
+                compactionChannel.write(compacted);
+            }
+            compactionChannel.force(true);
+        }
+    }
+
+    private void forceDirectory() {
+        try (FileChannel directoryChannel = FileChannel.open(this.path.getParent(), StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            // not every platform can open a directory, the rename itself is atomic anyway
+            LOGGER.debug("Cannot force directory of token store '{}'", this.path);
+        }
+    }
+
+    private void putEntry(String key, Entry entry) {
+        Entry previous = this.entries.put(key, entry);
+        if (previous != null) {
+            this.liveBytes -= previous.size;
+        }
+        this.liveBytes += entry.size;
+    }
+
+    private void removeEntry(String key) {
+        Entry previous = this.entries.remove(key);
+        if (previous != null) {
+            this.liveBytes -= previous.size;
+        }
+    }
+
+    private byte[] read(int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(position);
+        view.get(bytes);
+        return bytes;
+    }
+
+    private boolean isBlank(int position) {
+        for (int i = position; i < this.buffer.capacity(); i++) {
+            if (this.buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void clear(int position, int end) {
+        for (int i = position; i < end; i++) {
+            this.buffer.put(i, (byte) 0);
+        }
+        this.buffer.force();
+    }
+
+    /**
+     * Encrypts a record: its sequence number, followed by the IV and the ciphertext, authenticated together with the
+     * record's position.
+     */
+    private byte[] encrypt(byte[] plaintext, int position, long sequence) {
+        try {
+            byte[] iv = new byte[IV_SIZE];
+            this.secureRandom.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, this.secretKey, new GCMParameterSpec(TAG_SIZE_IN_BITS, iv));
+            cipher.updateAAD(getAssociatedData(position, sequence));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            return ByteBuffer.allocate(SEQUENCE_SIZE + IV_SIZE + ciphertext.length)
+                    .putLong(sequence).put(iv).put(ciphertext).array();
+        } catch (GeneralSecurityException e) {
+            throw new TokenStoreException("Cannot encrypt tokens", e);
+        }
+    }
+
+    private Optional<byte[]> decrypt(int position, byte[] record) {
+        try {
+            long sequence = ByteBuffer.wrap(record).getLong();
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, this.secretKey,
+                    new GCMParameterSpec(TAG_SIZE_IN_BITS, record, SEQUENCE_SIZE, IV_SIZE));
+            cipher.updateAAD(getAssociatedData(position, sequence));
+            int offset = SEQUENCE_SIZE + IV_SIZE;
+            return Optional.of(cipher.doFinal(record, offset, record.length - offset));
+        } catch (GeneralSecurityException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Creates the header: the format, followed by an empty record to check the secret key with before replaying.
+     */
+    private byte[] createHeader() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION)
+                .put(encrypt(new byte[0], PREAMBLE_SIZE, 0)).array();
+    }
+
+    private void assertOpen() {
+        if (this.closed) {
+            throw new TokenStoreException(String.format("Token store '%s' is closed", this.path));
+        }
+    }
+
+    private static final class Entry {
+
+        private final StoredTokens storedTokens;
+        private final int position;
+        private final int size;
+
+        private Entry(StoredTokens storedTokens, int position, int size) {
+            this.storedTokens = storedTokens;
+            this.position = position;
+            this.size = size;
+        }
+    }
+
+    // static util
+
+    /**
+     * Generates a new 256-bit AES key to encrypt a token store with.
+     *
+     * @return the secret key
+     *
+     * @throws TokenStoreException when the platform can't generate AES keys
+     */
+    public static SecretKey generateSecretKey() {
+        try {
+            KeyGenerator keyGenerator = KeyGenerator.getInstance(KEY_ALGORITHM);
+            keyGenerator.init(256);
+            return keyGenerator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new TokenStoreException("Cannot generate secret key", e);
+        }
+    }
+
+    private static byte[] getAssociatedData(int position, long sequence) {
+        return ByteBuffer.allocate(PREAMBLE_SIZE + Integer.BYTES + SEQUENCE_SIZE)
+                .putInt(MAGIC).putInt(VERSION).putInt(position).putLong(sequence).array();
+    }
+
+    private static byte[] serialize(byte operation, String key, StoredTokens storedTokens) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(operation);
+            writeString(out, key);
+            if (storedTokens != null) {
+                AccessTokenResponse accessTokenResponse = storedTokens.getAccessTokenResponse();
+                writeString(out, accessTokenResponse.getAccessToken());
+                writeString(out, accessTokenResponse.getRefreshToken());
+                writeString(out, accessTokenResponse.getIdToken());
+                writeString(out, accessTokenResponse.getTokenType());
+                out.writeInt(accessTokenResponse.getExpiresIn());
+                out.writeLong(storedTokens.getIssuedAt().toEpochMilli());
+            }
+        } catch (IOException e) {
+            throw new TokenStoreException("Cannot serialize tokens", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static StoredTokens readStoredTokens(DataInputStream in)
+            throws IOException {
+        AccessTokenResponse accessTokenResponse = new AccessTokenResponse(
+                readString(in), readString(in), readString(in), readString(in), in.readInt());
+        return new StoredTokens(accessTokenResponse, Instant.ofEpochMilli(in.readLong()));
+    }
+
+    private static void writeString(DataOutputStream out, String value)
+            throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in)
+            throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private Path path;
+        private SecretKey secretKey;
+        private FsyncPolicy fsyncPolicy;
+        private long compactionThresholdInBytes;
+
+        private Builder() {
+            fsyncPolicy = DEFAULT_FSYNC_POLICY;
+            compactionThresholdInBytes = DEFAULT_COMPACTION_THRESHOLD_IN_BYTES;
+        }
+
+        /**
+         * Sets the file to keep the tokens in. Missing parent directories are created.
+         *
+         * @param val the path to use
+         * @return this builder for chaining
+         */
+        public Builder withPath(Path val) {
+            path = val;
+            return this;
+        }
+
+        /**
+         * Sets the AES key the tokens are encrypted with, e.g. one generated with {@link #generateSecretKey()} and
+         * kept in the operating system's key store.
+         *
+         * @param val the secret key to use, of 128, 192 or 256 bits
+         * @return this builder for chaining
+         */
+        public Builder withSecretKey(SecretKey val) {
+            secretKey = val;
+            return this;
+        }
+
+        /**
+         * Sets when writes are forced to disk.
+         * Defaults to {@link FsyncPolicy#ALWAYS}.
+         *
+         * @param val the fsync policy to use
+         * @return this builder for chaining
+         */
+        public Builder withFsyncPolicy(FsyncPolicy val) {
+            fsyncPolicy = val;
+            return this;
+        }
+
+        /**
+         * Sets the log size from which the log is compacted, once at least half of it holds replaced or removed
+         * tokens.
+         * Defaults to 1 MiB.
+         *
+         * @param val the compaction threshold in bytes
+         * @return this builder for chaining
+         */
+        public Builder withCompactionThresholdInBytes(long val) {
+            compactionThresholdInBytes = val;
+            return this;
+        }
+
+        /**
+         * Constructs the {@link FileTokenStore} and opens its file.
+         *
+         * @return the {@link FileTokenStore} object
+         *
+         * @throws MissingConfigException when mandatory fields are missing
+         * @throws InvalidConfigException when the secret key isn't an AES key, or the compaction threshold isn't
+         * positive
+         * @throws TokenStoreException when the file couldn't be opened, or is in use by another store
+         */
+        public FileTokenStore build() {
+            if (path == null) {
+                throw new MissingConfigException("path cannot be null");
+            }
+            if (secretKey == null) {
+                throw new MissingConfigException("secretKey cannot be null");
+            }
+            if (fsyncPolicy == null) {
+                throw new MissingConfigException("fsyncPolicy cannot be null");
+            }
+            if (!KEY_ALGORITHM.equalsIgnoreCase(secretKey.getAlgorithm())) {
+                throw new InvalidConfigException("secretKey must be an AES key");
+            }
+            if (compactionThresholdInBytes <= 0) {
+                throw new InvalidConfigException("compactionThresholdInBytes must be greater than 0");
+            }
+            FileTokenStore fileTokenStore = new FileTokenStore(this);
+            fileTokenStore.open();
+            return fileTokenStore;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.giannivanhoecke.oauth.desktop.store;
+
+/**
+ * Decides when a {@link FileTokenStore} forces its writes to disk.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Forces every write to disk before returning, so saved tokens survive a power loss.
+     */
+    ALWAYS,
+
+    /**
+     * Leaves flushing to the operating system, and only forces the writes to disk when the store is closed. Saved
+     * tokens survive a crash of your application, but not necessarily a power loss.
+     */
+    ON_CLOSE
+}
@@ -0,0 +1,35 @@
+package com.giannivanhoecke.oauth.desktop.store;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps tokens in memory only, so they're lost on restart. Useful in tests, or to share tokens between token
+ * managers within one run.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class InMemoryTokenStore implements TokenStore {
+
+    private final ConcurrentMap<String, StoredTokens> storedTokensByKey = new ConcurrentHashMap<>();
+
+    public InMemoryTokenStore() {
+    }
+
+    @Override
+    public void save(String key, StoredTokens storedTokens) {
+        this.storedTokensByKey.put(key, storedTokens);
+    }
+
+    @Override
+    public Optional<StoredTokens> load(String key) {
+        return Optional.ofNullable(this.storedTokensByKey.get(key));
+    }
+
+    @Override
+    public void remove(String key) {
+        this.storedTokensByKey.remove(key);
+    }
+}
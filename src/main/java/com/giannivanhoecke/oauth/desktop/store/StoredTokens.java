@@ -0,0 +1,55 @@
+package com.giannivanhoecke.oauth.desktop.store;
+
+import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Tokens kept in a {@link TokenStore}, along with the moment they were issued, so their expiry is still known after
+ * a restart.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class StoredTokens {
+
+    private final AccessTokenResponse accessTokenResponse;
+    private final Instant issuedAt;
+
+    public StoredTokens(AccessTokenResponse accessTokenResponse, Instant issuedAt) {
+        this.accessTokenResponse = accessTokenResponse;
+        this.issuedAt = issuedAt;
+    }
+
+    public AccessTokenResponse getAccessTokenResponse() {
+        return accessTokenResponse;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    @Override
+    public String toString() {
+        // never log the tokens themselves
+        return "StoredTokens{" + "issuedAt=" + issuedAt + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StoredTokens)) {
+            return false;
+        }
+        StoredTokens that = (StoredTokens) o;
+        return Objects.equals(accessTokenResponse, that.accessTokenResponse) && Objects.equals(issuedAt, that.issuedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(accessTokenResponse, issuedAt);
+    }
+}
@@ -0,0 +1,55 @@
+package com.giannivanhoecke.oauth.desktop.store;
+
+import com.giannivanhoecke.oauth.desktop.exception.TokenStoreException;
+
+import java.util.Optional;
+
+/**
+ * Keeps tokens across restarts of your application, so a user doesn't have to log in again. Tokens are stored by
+ * key, e.g. one per account.
+ * <p>
+ * Implementations must be thread safe.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public interface TokenStore extends AutoCloseable {
+
+    /**
+     * Saves tokens, replacing the ones stored under the same key.
+     *
+     * @param key the key to store the tokens under
+     * @param storedTokens the tokens to store
+     *
+     * @throws TokenStoreException when the tokens couldn't be saved
+     */
+    void save(String key, StoredTokens storedTokens);
+
+    /**
+     * Loads the tokens stored under a key.
+     *
+     * @param key the key the tokens are stored under
+     * @return the stored tokens, or empty when none are stored
+     *
+     * @throws TokenStoreException when the tokens couldn't be loaded
+     */
+    Optional<StoredTokens> load(String key);
+
+    /**
+     * Removes the tokens stored under a key, e.g. after logging out.
+     *
+     * @param key the key the tokens are stored under
+     *
+     * @throws TokenStoreException when the tokens couldn't be removed
+     */
+    void remove(String key);
+
+    /**
+     * Releases the resources held by the store. Does nothing by default.
+     *
+     * @throws TokenStoreException when the store couldn't be closed cleanly
+     */
+    @Override
+    default void close() {
+    }
+}
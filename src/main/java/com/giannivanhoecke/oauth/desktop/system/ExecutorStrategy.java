@@ -0,0 +1,22 @@
+package com.giannivanhoecke.oauth.desktop.system;
+
+/**
+ * Chooses the threads the library runs its blocking work on: serving the callback server and the HTTP client's
+ * asynchronous tasks.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public enum ExecutorStrategy {
+
+    /**
+     * Uses platform threads: a single thread for the callback server, and the HTTP client's default thread pool.
+     */
+    PLATFORM_THREADS,
+
+    /**
+     * Uses a new virtual thread per task, so blocking calls don't tie up platform threads. Virtual threads need Java
+     * 21 or later. On older versions, this falls back to {@link #PLATFORM_THREADS}.
+     */
+    VIRTUAL_THREADS
+}
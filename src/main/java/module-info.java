@@ -6,7 +6,7 @@ module com.giannivanhoecke.oauth.desktop {
 
     requires jdk.httpserver;
     requires java.desktop;
-    requires java.net.http;
+    requires transitive java.net.http;
 
     requires com.google.gson;
     requires org.apache.commons.lang3;
@@ -17,6 +17,9 @@ module com.giannivanhoecke.oauth.desktop {
 
     exports com.giannivanhoecke.oauth.desktop;
     exports com.giannivanhoecke.oauth.desktop.exception;
+    exports com.giannivanhoecke.oauth.desktop.observability;
     exports com.giannivanhoecke.oauth.desktop.representation;
+    exports com.giannivanhoecke.oauth.desktop.resilience;
+    exports com.giannivanhoecke.oauth.desktop.store;
     exports com.giannivanhoecke.oauth.desktop.system;
 }
\ No newline at end of file
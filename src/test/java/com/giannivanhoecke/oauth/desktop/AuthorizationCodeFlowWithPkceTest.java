@@ -1,13 +1,32 @@
 package com.giannivanhoecke.oauth.desktop;
 
+import com.giannivanhoecke.oauth.desktop.exception.CircuitBreakerOpenException;
+import com.giannivanhoecke.oauth.desktop.exception.IllegalStateException;
+import com.giannivanhoecke.oauth.desktop.exception.IntrospectionException;
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.MissingConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.RevocationException;
 import com.giannivanhoecke.oauth.desktop.exception.TokenException;
 import com.giannivanhoecke.oauth.desktop.exception.UserInfoException;
 import com.giannivanhoecke.oauth.desktop.exception.VerificationException;
 import com.giannivanhoecke.oauth.desktop.fixtures.AuthorizationServerMock;
 import com.giannivanhoecke.oauth.desktop.fixtures.BrowserMock;
+import com.giannivanhoecke.oauth.desktop.fixtures.JwtSigner;
+import com.giannivanhoecke.oauth.desktop.fixtures.MetricsRecorderMock;
+import com.giannivanhoecke.oauth.desktop.fixtures.TracerMock;
+import com.giannivanhoecke.oauth.desktop.observability.OAuthOperation;
+import com.giannivanhoecke.oauth.desktop.observability.TracingConstants;
 import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+import com.giannivanhoecke.oauth.desktop.representation.IntrospectionResponse;
+import com.giannivanhoecke.oauth.desktop.representation.IntrospectionResult;
+import com.giannivanhoecke.oauth.desktop.representation.RefreshResult;
+import com.giannivanhoecke.oauth.desktop.representation.TokenTypeHint;
 import com.giannivanhoecke.oauth.desktop.representation.UserInfoResponse;
+import com.giannivanhoecke.oauth.desktop.resilience.CircuitBreakerConfig;
+import com.giannivanhoecke.oauth.desktop.resilience.CircuitBreakerState;
+import com.giannivanhoecke.oauth.desktop.resilience.RetryPolicy;
 import com.giannivanhoecke.oauth.desktop.system.Browser;
+import com.giannivanhoecke.oauth.desktop.system.ExecutorStrategy;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,11 +34,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
 import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
@@ -58,6 +83,8 @@ public class AuthorizationCodeFlowWithPkceTest {
     @BeforeEach
     public void reset() {
         authorizationServerMock.resetAuth();
+        authorizationServerMock.resetTokenFailures();
+        authorizationServerMock.resetTraceparents();
     }
 
     @Test
@@ -182,4 +209,920 @@ public class AuthorizationCodeFlowWithPkceTest {
         assertThat(tokenException.getMessage(), is(
                 equalTo("Unauthorized: PostResult{resultCode=401, resultBody='Unauthorized'}")));
     }
+
+    @Test
+    public void getUserInfoAsync()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        String accessToken = AuthorizationServerMock.VALID_ACCESS_TOKEN;
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+
+        // when
+        UserInfoResponse userInfoResponse = flow.getUserInfoAsync(accessToken).get(1, TimeUnit.MINUTES);
+
+        // then
+        assertThat(userInfoResponse, is(not(equalTo(null))));
+        assertThat(userInfoResponse.getId(), is(equalTo("9047370c-24f9-45f1-9959-faca5e60e6b9")));
+        assertThat(userInfoResponse.getUsername(), is(equalTo("gianni@giannivanhoecke.com")));
+    }
+
+    @Test
+    public void getUserInfoAsyncInvalidTokenThrowsUserInfoException() {
+        // given
+        String accessToken = "invalid-access-token";
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+
+        // when
+        Future<UserInfoResponse> userInfoResponseFuture = flow.getUserInfoAsync(accessToken);
+
+        // expect
+        ExecutionException executionException = assertThrows(
+                ExecutionException.class, () -> userInfoResponseFuture.get(1, TimeUnit.MINUTES));
+
+        // then
+        assertThat(executionException.getCause(), is(instanceOf(UserInfoException.class)));
+        assertThat(executionException.getCause().getMessage(), is(
+                equalTo("Unauthorized: GetResult{resultCode=401, content='Unauthorized'}")));
+    }
+
+    @Test
+    public void refreshAsync()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        String refreshToken = AuthorizationServerMock.VALID_REFRESH_TOKEN;
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+
+        // when
+        AccessTokenResponse accessTokenResponse = flow.refreshAsync(refreshToken).get(1, TimeUnit.MINUTES);
+
+        // then
+        assertThat(accessTokenResponse, is(not(equalTo(null))));
+        assertThat(accessTokenResponse.getAccessToken(), is(equalTo("new-access-token")));
+        assertThat(accessTokenResponse.getRefreshToken(), is(equalTo("new-refresh-token")));
+    }
+
+    @Test
+    public void refreshAsyncInvalidTokenThrowsTokenException() {
+        // given
+        String refreshToken = "invalid-refresh-token";
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+
+        // when
+        Future<AccessTokenResponse> accessTokenResponseFuture = flow.refreshAsync(refreshToken);
+
+        // expect
+        ExecutionException executionException = assertThrows(
+                ExecutionException.class, () -> accessTokenResponseFuture.get(1, TimeUnit.MINUTES));
+
+        // then
+        assertThat(executionException.getCause(), is(instanceOf(TokenException.class)));
+        assertThat(executionException.getCause().getMessage(), is(
+                equalTo("Unauthorized: PostResult{resultCode=401, resultBody='Unauthorized'}")));
+    }
+
+    @Test
+    public void refreshAsyncUnreachableServerThrowsTokenException() {
+        // given
+        AuthorizationServerConfig unreachableConfig = AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl("http://localhost:1")
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .build();
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(unreachableConfig);
+
+        // when
+        Future<AccessTokenResponse> accessTokenResponseFuture = flow.refreshAsync(
+                AuthorizationServerMock.VALID_REFRESH_TOKEN);
+
+        // expect
+        ExecutionException executionException = assertThrows(
+                ExecutionException.class, () -> accessTokenResponseFuture.get(1, TimeUnit.MINUTES));
+
+        // then
+        assertThat(executionException.getCause(), is(instanceOf(TokenException.class)));
+        assertThat(executionException.getCause().getMessage().startsWith("Cannot request tokens: "), is(true));
+    }
+
+    @Test
+    public void refreshConcurrentCallsShareOneRequest()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        String refreshToken = AuthorizationServerMock.VALID_REFRESH_TOKEN;
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+        AuthorizationCodeFlowWithPkce otherFlow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+        authorizationServerMock.overrideTokenDelayInMs(500);
+        int tokenRequestCount = authorizationServerMock.getTokenRequestCount();
+
+        try {
+            // when
+            List<Future<AccessTokenResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                futures.add(flow.refreshAsync(refreshToken));
+                futures.add(otherFlow.refreshAsync(refreshToken));
+            }
+            AccessTokenResponse accessTokenResponse = flow.refresh(refreshToken);
+
+            // then
+            assertThat(accessTokenResponse.getAccessToken(), is(equalTo("new-access-token")));
+            for (Future<AccessTokenResponse> future : futures) {
+                assertThat(future.get(1, TimeUnit.MINUTES), is(equalTo(accessTokenResponse)));
+            }
+            assertThat(authorizationServerMock.getTokenRequestCount(), is(equalTo(tokenRequestCount + 1)));
+        } finally {
+            authorizationServerMock.overrideTokenDelayInMs(0);
+        }
+    }
+
+    @Test
+    public void getUserInfoWithCacheOnlyRequestsOnce() {
+        // given
+        String accessToken = AuthorizationServerMock.VALID_ACCESS_TOKEN;
+        UserInfoCache userInfoCache = UserInfoCache.newBuilder().build();
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withUserInfoCache(userInfoCache)
+                .build();
+
+        // when
+        UserInfoResponse userInfoResponse = flow.getUserInfo(accessToken);
+        UserInfoResponse cachedUserInfoResponse = flow.getUserInfo(accessToken);
+
+        // then
+        assertThat(cachedUserInfoResponse, is(equalTo(userInfoResponse)));
+        assertThat(userInfoCache.getMisses(), is(equalTo(1L)));
+        assertThat(userInfoCache.getHits(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void getUserInfoWithCacheDoesNotCacheFailures() {
+        // given
+        String accessToken = "invalid-access-token";
+        UserInfoCache userInfoCache = UserInfoCache.newBuilder().build();
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withUserInfoCache(userInfoCache)
+                .build();
+
+        // expect
+        assertThrows(UserInfoException.class, () -> flow.getUserInfo(accessToken));
+        assertThrows(UserInfoException.class, () -> flow.getUserInfo(accessToken));
+
+        // then
+        assertThat(userInfoCache.size(), is(equalTo(0)));
+        assertThat(userInfoCache.getMisses(), is(equalTo(2L)));
+    }
+
+    @Test
+    public void getUserInfoFromIdTokenVerifiesLocallyWithCachedKeys() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .withIssuer(authorizationServerMock.getBaseUrl())
+                .build());
+        JwtSigner jwtSigner = authorizationServerMock.getJwtSigner();
+        String claims = jwtSigner.idTokenClaims(
+                authorizationServerMock.getBaseUrl(), AuthorizationServerMock.VALID_CLIENT_ID);
+        int jwksRequestCount = authorizationServerMock.getJwksRequestCount();
+
+        // when
+        UserInfoResponse rsaUserInfoResponse = flow.getUserInfoFromIdToken(
+                jwtSigner.signRs256(JwtSigner.RSA_KEY_ID, claims));
+        UserInfoResponse ecUserInfoResponse = flow.getUserInfoFromIdToken(
+                jwtSigner.signEs256(JwtSigner.EC_KEY_ID, claims));
+
+        // then
+        UserInfoResponse expected = new UserInfoResponse("9047370c-24f9-45f1-9959-faca5e60e6b9",
+                "gianni@giannivanhoecke.com", "Gianni Van Hoecke", "gianni@giannivanhoecke.com");
+        assertThat(rsaUserInfoResponse, is(equalTo(expected)));
+        assertThat(ecUserInfoResponse, is(equalTo(expected)));
+        assertThat(authorizationServerMock.getJwksRequestCount(), is(equalTo(jwksRequestCount + 1)));
+    }
+
+    @Test
+    public void getUserInfoFromIdTokenKeepsNoCacheKeysForMinRefreshInterval() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .withIssuer(authorizationServerMock.getBaseUrl())
+                .build());
+        JwtSigner jwtSigner = authorizationServerMock.getJwtSigner();
+        String idToken = jwtSigner.signRs256(JwtSigner.RSA_KEY_ID, jwtSigner.idTokenClaims(
+                authorizationServerMock.getBaseUrl(), AuthorizationServerMock.VALID_CLIENT_ID));
+        authorizationServerMock.overrideJwksCacheControl("no-cache");
+        int jwksRequestCount = authorizationServerMock.getJwksRequestCount();
+
+        try {
+            // when
+            flow.getUserInfoFromIdToken(idToken);
+            flow.getUserInfoFromIdToken(idToken);
+
+            // then
+            assertThat(authorizationServerMock.getJwksRequestCount(), is(equalTo(jwksRequestCount + 1)));
+        } finally {
+            authorizationServerMock.overrideJwksCacheControl(AuthorizationServerMock.DEFAULT_JWKS_CACHE_CONTROL);
+        }
+    }
+
+    @Test
+    public void getUserInfoFromIdTokenOfOtherIssuerThrowsVerificationException() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .withIssuer(authorizationServerMock.getBaseUrl())
+                .build());
+        JwtSigner jwtSigner = authorizationServerMock.getJwtSigner();
+        String idToken = jwtSigner.signRs256(JwtSigner.RSA_KEY_ID,
+                jwtSigner.idTokenClaims("https://other-issuer", AuthorizationServerMock.VALID_CLIENT_ID));
+
+        // expect
+        assertThrows(VerificationException.class, () -> flow.getUserInfoFromIdToken(idToken));
+    }
+
+    @Test
+    public void getUserInfoFromIdTokenWithoutIssuerThrowsMissingConfigException() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .build());
+        JwtSigner jwtSigner = authorizationServerMock.getJwtSigner();
+        String idToken = jwtSigner.signRs256(JwtSigner.RSA_KEY_ID, jwtSigner.idTokenClaims(
+                authorizationServerMock.getBaseUrl(), AuthorizationServerMock.VALID_CLIENT_ID));
+
+        // expect
+        assertThrows(MissingConfigException.class, () -> flow.getUserInfoFromIdToken(idToken));
+    }
+
+    @Test
+    public void getUserInfoMalformedResponseThrowsUserInfoException() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .withEndpointUserInfo("/malformed")
+                .build());
+
+        // expect when
+        UserInfoException userInfoException = assertThrows(
+                UserInfoException.class, () -> flow.getUserInfo(AuthorizationServerMock.VALID_ACCESS_TOKEN));
+
+        // then
+        assertThat(userInfoException.getMessage(), is(
+                equalTo("Cannot create UserInfoResponse: GetResult{resultCode=200, content='{\"sub\":'}")));
+        assertThat(userInfoException.getCause(), is(not(equalTo(null))));
+    }
+
+    @Test
+    public void refreshMalformedResponseThrowsTokenException() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .withEndpointToken("/malformed")
+                .build());
+
+        // expect when
+        TokenException tokenException = assertThrows(
+                TokenException.class, () -> flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN));
+
+        // then
+        assertThat(tokenException.getMessage(), is(
+                equalTo("Cannot create AccessTokenResponse: PostResult{resultCode=200, resultBody='{\"sub\":'}")));
+    }
+
+    @Test
+    public void refreshWithHttp2FallsBackToHttp11() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .withHttpVersion(HttpClient.Version.HTTP_2)
+                .build());
+
+        // when
+        AccessTokenResponse accessTokenResponse = flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN);
+
+        // then
+        assertThat(accessTokenResponse.getAccessToken(), is(equalTo("new-access-token")));
+    }
+
+    @Test
+    public void authorizeConcurrentlyServesEachAuthorization()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withBrowser(new BrowserMock())
+                .withMaxConcurrentAuthorizations(3)
+                .build();
+
+        // when
+        List<Future<AccessTokenResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(flow.authorize());
+        }
+        List<AccessTokenResponse> accessTokenResponses = new ArrayList<>();
+        for (Future<AccessTokenResponse> future : futures) {
+            accessTokenResponses.add(future.get(1, TimeUnit.MINUTES));
+        }
+
+        // then
+        for (AccessTokenResponse accessTokenResponse : accessTokenResponses) {
+            assertThat(accessTokenResponse.getAccessToken(), is(equalTo(AuthorizationServerMock.VALID_ACCESS_TOKEN)));
+        }
+        assertThat(flow.getOngoingAuthorizations(), is(equalTo(0)));
+    }
+
+    @Test
+    public void authorizeWhileOngoingThrowsIllegalStateException() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig, uri -> {
+        });
+        Future<AccessTokenResponse> ongoing = flow.authorize();
+
+        // expect
+        assertThrows(IllegalStateException.class, flow::authorize);
+
+        // when
+        ongoing.cancel(true);
+
+        // then
+        assertThat(flow.getOngoingAuthorizations(), is(equalTo(0)));
+        flow.authorize().cancel(true);
+    }
+
+    @Test
+    public void builderWithInvalidMaxConcurrentAuthorizationsThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withMaxConcurrentAuthorizations(0)
+                .build());
+    }
+
+    @Test
+    public void builderWithInvalidRevocationMaxAttemptsThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withRevocationMaxAttempts(0)
+                .build());
+    }
+
+    @Test
+    public void closeCancelsOngoingAuthorizations() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withBrowser(uri -> {
+                })
+                .withCallbackServerIdleTimeoutInMs(60_000)
+                .build();
+        Future<AccessTokenResponse> ongoing = flow.authorize();
+
+        // when
+        flow.close();
+
+        // then
+        assertThat(ongoing.isCancelled(), is(true));
+        assertThat(flow.getOngoingAuthorizations(), is(equalTo(0)));
+    }
+
+    @Test
+    public void authorizeWithIdleTimeoutReusesCallbackServer()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        try (AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withBrowser(new BrowserMock())
+                .withCallbackServerIdleTimeoutInMs(60_000)
+                .build()) {
+
+            // when
+            AccessTokenResponse first = flow.authorize().get(1, TimeUnit.MINUTES);
+            AccessTokenResponse second = flow.authorize().get(1, TimeUnit.MINUTES);
+
+            // then
+            assertThat(first.getAccessToken(), is(equalTo(AuthorizationServerMock.VALID_ACCESS_TOKEN)));
+            assertThat(second.getAccessToken(), is(equalTo(AuthorizationServerMock.VALID_ACCESS_TOKEN)));
+        }
+    }
+
+    @Test
+    public void authorizeWithVirtualThreads()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withBrowser(new BrowserMock())
+                .withExecutorStrategy(ExecutorStrategy.VIRTUAL_THREADS)
+                .build();
+
+        // when
+        AccessTokenResponse accessTokenResponse = flow.authorize().get(1, TimeUnit.MINUTES);
+        UserInfoResponse userInfoResponse = flow.getUserInfoAsync(accessTokenResponse.getAccessToken())
+                .get(1, TimeUnit.MINUTES);
+
+        // then
+        assertThat(accessTokenResponse.getAccessToken(), is(equalTo(AuthorizationServerMock.VALID_ACCESS_TOKEN)));
+        assertThat(userInfoResponse, is(not(equalTo(null))));
+    }
+
+    @Test
+    public void refreshAllReturnsResultPerToken() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+        List<String> refreshTokens = List.of(
+                AuthorizationServerMock.VALID_REFRESH_TOKEN, "invalid-refresh-token",
+                AuthorizationServerMock.VALID_REFRESH_TOKEN);
+
+        // when
+        List<RefreshResult> refreshResults = flow.refreshAll(refreshTokens, 2);
+
+        // then
+        assertThat(refreshResults.size(), is(equalTo(3)));
+        assertThat(refreshResults.get(0).isSuccess(), is(true));
+        assertThat(refreshResults.get(0).getAccessTokenResponse().get().getAccessToken(),
+                is(equalTo("new-access-token")));
+        assertThat(refreshResults.get(1).isSuccess(), is(false));
+        assertThat(refreshResults.get(1).getRefreshToken(), is(equalTo("invalid-refresh-token")));
+        assertThat(refreshResults.get(1).getTokenException().get().getMessage(), is(
+                equalTo("Unauthorized: PostResult{resultCode=401, resultBody='Unauthorized'}")));
+        assertThat(refreshResults.get(2).isSuccess(), is(true));
+    }
+
+    @Test
+    public void refreshAllWithInvalidParallelismThrowsInvalidConfigException() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+
+        // expect
+        assertThrows(InvalidConfigException.class, () -> flow.refreshAll(List.of("refresh-token"), 0));
+    }
+
+    @Test
+    public void introspect() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+
+        // when
+        IntrospectionResponse active = flow.introspect(AuthorizationServerMock.VALID_ACCESS_TOKEN);
+        IntrospectionResponse inactive = flow.introspect("revoked-access-token");
+
+        // then
+        assertThat(active.isActive(), is(true));
+        assertThat(active.getClientId(), is(equalTo(AuthorizationServerMock.VALID_CLIENT_ID)));
+        assertThat(active.getUsername(), is(equalTo("gianni")));
+        assertThat(active.getExpiresAt().isPresent(), is(true));
+        assertThat(inactive, is(equalTo(IntrospectionResponse.INACTIVE)));
+    }
+
+    @Test
+    public void introspectUnauthorizedClientThrowsIntrospectionException() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId("other-client-id")
+                .withClientSecret("client-secret")
+                .build());
+
+        // expect
+        IntrospectionException introspectionException = assertThrows(IntrospectionException.class,
+                () -> flow.introspect(AuthorizationServerMock.VALID_ACCESS_TOKEN));
+
+        // then
+        assertThat(introspectionException.getMessage(), is(
+                equalTo("Unauthorized: PostResult{resultCode=401, resultBody='Unauthorized'}")));
+    }
+
+    @Test
+    public void introspectWithCacheAnswersRepeatTokensFromCache() {
+        // given
+        IntrospectionCache introspectionCache = IntrospectionCache.newBuilder().build();
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withIntrospectionCache(introspectionCache)
+                .build();
+        int introspectionRequestCount = authorizationServerMock.getIntrospectionRequestCount();
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            flow.introspect(AuthorizationServerMock.VALID_ACCESS_TOKEN);
+            flow.introspect("revoked-access-token");
+        }
+
+        // then
+        assertThat(authorizationServerMock.getIntrospectionRequestCount() - introspectionRequestCount,
+                is(equalTo(2)));
+        assertThat(introspectionCache.getHits(), is(equalTo(18L)));
+    }
+
+    @Test
+    public void introspectAllAsyncSharesRequestsForDuplicateTokens()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+        List<String> tokens = List.of(
+                AuthorizationServerMock.VALID_ACCESS_TOKEN, AuthorizationServerMock.VALID_ACCESS_TOKEN,
+                "revoked-access-token", AuthorizationServerMock.VALID_ACCESS_TOKEN);
+        int introspectionRequestCount = authorizationServerMock.getIntrospectionRequestCount();
+        authorizationServerMock.overrideTokenDelayInMs(200);
+
+        try {
+            // when
+            List<IntrospectionResult> introspectionResults = flow
+                    .introspectAllAsync(tokens, 4)
+                    .get(1, TimeUnit.MINUTES);
+
+            // then
+            assertThat(introspectionResults.size(), is(equalTo(4)));
+            assertThat(introspectionResults.get(0).getIntrospectionResponse().get().isActive(), is(true));
+            assertThat(introspectionResults.get(1).getIntrospectionResponse().get().isActive(), is(true));
+            assertThat(introspectionResults.get(2).getIntrospectionResponse().get().isActive(), is(false));
+            assertThat(introspectionResults.get(3).getIntrospectionResponse().get().isActive(), is(true));
+            assertThat(authorizationServerMock.getIntrospectionRequestCount() - introspectionRequestCount,
+                    is(equalTo(2)));
+        } finally {
+            authorizationServerMock.overrideTokenDelayInMs(0);
+        }
+    }
+
+    @Test
+    public void revoke() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+
+        // when
+        flow.revoke("signed-out-refresh-token", TokenTypeHint.REFRESH_TOKEN);
+
+        // then
+        assertThat(authorizationServerMock.getRevokedTokens().contains("signed-out-refresh-token"), is(true));
+    }
+
+    @Test
+    public void revokeUnauthorizedClientThrowsRevocationException() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId("other-client-id")
+                .build());
+
+        // expect
+        RevocationException revocationException = assertThrows(RevocationException.class,
+                () -> flow.revoke("signed-out-refresh-token", TokenTypeHint.REFRESH_TOKEN));
+
+        // then
+        assertThat(revocationException.getMessage(), is(
+                equalTo("Cannot revoke token: PostResult{resultCode=401, resultBody='Unauthorized'}")));
+    }
+
+    @Test
+    public void revokeInBackgroundRetriesFailedRevocations()
+            throws InterruptedException {
+        // given
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withRevocationRetryDelayInMs(10)
+                .build();
+        authorizationServerMock.failNextRevocationRequests(2);
+
+        try {
+            // when
+            flow.revokeInBackground("first-account-refresh-token", TokenTypeHint.REFRESH_TOKEN);
+            flow.revokeInBackground("second-account-refresh-token", TokenTypeHint.REFRESH_TOKEN);
+
+            // then
+            assertThat(flow.awaitRevocations(TimeUnit.MINUTES.toMillis(1)), is(true));
+            assertThat(flow.getPendingRevocations(), is(equalTo(0)));
+            assertThat(authorizationServerMock.getRevokedTokens().containsAll(
+                    List.of("first-account-refresh-token", "second-account-refresh-token")), is(true));
+        } finally {
+            authorizationServerMock.failNextRevocationRequests(0);
+            flow.close();
+        }
+    }
+
+    @Test
+    public void revokeInBackgroundGivesUpAfterMaxAttempts()
+            throws InterruptedException {
+        // given
+        // the retry policy doesn't add attempts on top of the queue's own
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(buildConfigWithRetryPolicy())
+                .withRevocationMaxAttempts(3)
+                .withRevocationRetryDelayInMs(10)
+                .build();
+        int revocationRequestCount = authorizationServerMock.getRevocationRequestCount();
+        authorizationServerMock.failNextRevocationRequests(10);
+
+        try {
+            // when
+            flow.revokeInBackground("unreachable-refresh-token", TokenTypeHint.REFRESH_TOKEN);
+
+            // then
+            assertThat(flow.awaitRevocations(TimeUnit.MINUTES.toMillis(1)), is(true));
+            assertThat(authorizationServerMock.getRevocationRequestCount() - revocationRequestCount,
+                    is(equalTo(3)));
+            assertThat(authorizationServerMock.getRevokedTokens().contains("unreachable-refresh-token"), is(false));
+        } finally {
+            authorizationServerMock.failNextRevocationRequests(0);
+            flow.close();
+        }
+    }
+
+    @Test
+    public void refreshOverRequestLimitIsRejected()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .withMaxConcurrentRequests(1)
+                .withMaxQueuedRequests(0)
+                .build());
+        authorizationServerMock.overrideTokenDelayInMs(500);
+
+        try {
+            // when
+            CompletableFuture<AccessTokenResponse> inFlight = flow.refreshAsync(
+                    AuthorizationServerMock.VALID_REFRESH_TOKEN);
+            CompletableFuture<AccessTokenResponse> rejected = flow.refreshAsync("other-refresh-token");
+
+            // then
+            ExecutionException executionException = assertThrows(
+                    ExecutionException.class, () -> rejected.get(1, TimeUnit.MINUTES));
+            assertThat(executionException.getCause(), is(instanceOf(TokenException.class)));
+            assertThat(executionException.getCause().getMessage(), containsString("Too many concurrent requests"));
+            assertThat(inFlight.get(1, TimeUnit.MINUTES).getAccessToken(), is(equalTo("new-access-token")));
+        } finally {
+            authorizationServerMock.overrideTokenDelayInMs(0);
+        }
+    }
+
+    @Test
+    public void refreshWithRetryPolicyRetriesServiceUnavailable() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(buildConfigWithRetryPolicy());
+        authorizationServerMock.failNextTokenRequests(2, 503, null);
+        int tokenRequestCount = authorizationServerMock.getTokenRequestCount();
+
+        // when
+        AccessTokenResponse accessTokenResponse = flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN);
+
+        // then
+        assertThat(accessTokenResponse.getAccessToken(), is(equalTo("new-access-token")));
+        assertThat(authorizationServerMock.getTokenRequestCount() - tokenRequestCount, is(equalTo(3)));
+    }
+
+    @Test
+    public void refreshAsyncWithRetryPolicyHonoursRetryAfter()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(buildConfigWithRetryPolicy());
+        authorizationServerMock.failNextTokenRequests(1, 429, "1");
+        long start = System.nanoTime();
+
+        // when
+        AccessTokenResponse accessTokenResponse = flow
+                .refreshAsync(AuthorizationServerMock.VALID_REFRESH_TOKEN)
+                .get(1, TimeUnit.MINUTES);
+
+        // then
+        assertThat(accessTokenResponse.getAccessToken(), is(equalTo("new-access-token")));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 1000, is(true));
+    }
+
+    @Test
+    public void refreshWithRetryAfterOverMaximumIsNotRetried() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(buildConfigWithRetryPolicy());
+        authorizationServerMock.failNextTokenRequests(1, 503, "120");
+        int tokenRequestCount = authorizationServerMock.getTokenRequestCount();
+
+        // expect
+        TokenException tokenException = assertThrows(
+                TokenException.class, () -> flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN));
+
+        // then
+        assertThat(tokenException.getMessage(), containsString("resultCode=503"));
+        assertThat(authorizationServerMock.getTokenRequestCount() - tokenRequestCount, is(equalTo(1)));
+    }
+
+    @Test
+    public void refreshWithoutRetryPolicyThrowsTokenException() {
+        // given
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(authorizationServerConfig);
+        authorizationServerMock.failNextTokenRequests(1, 503, null);
+
+        // expect
+        TokenException tokenException = assertThrows(
+                TokenException.class, () -> flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN));
+
+        // then
+        assertThat(tokenException.getMessage(), containsString("resultCode=503"));
+    }
+
+    @Test
+    public void authorizeWithRetryPolicyDoesNotReplayAuthorizationCode() {
+        // given
+        Browser browser = new BrowserMock();
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(buildConfigWithRetryPolicy(), browser);
+        authorizationServerMock.failNextTokenRequests(1, 503, null);
+        int tokenRequestCount = authorizationServerMock.getTokenRequestCount();
+
+        // when
+        Future<AccessTokenResponse> accessTokenResponseFuture = flow.authorize();
+
+        // expect
+        ExecutionException executionException = assertThrows(
+                ExecutionException.class, () -> accessTokenResponseFuture.get(1, TimeUnit.MINUTES));
+
+        // then
+        assertThat(executionException.getCause(), is(instanceOf(TokenException.class)));
+        assertThat(authorizationServerMock.getTokenRequestCount() - tokenRequestCount, is(equalTo(1)));
+    }
+
+    @Test
+    public void refreshWithOpenCircuitBreakerFailsFast()
+            throws InterruptedException {
+        // given
+        AuthorizationServerConfig config = AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .withCircuitBreakerConfig(CircuitBreakerConfig
+                        .newBuilder()
+                        .withFailureThreshold(2)
+                        .withOpenDurationInMs(200)
+                        .build())
+                .build();
+        AuthorizationCodeFlowWithPkce flow = new AuthorizationCodeFlowWithPkce(config);
+        String endpointToken = config.getEndpointToken();
+        authorizationServerMock.failNextTokenRequests(2, 503, null);
+        assertThrows(TokenException.class, () -> flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN));
+        assertThrows(TokenException.class, () -> flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN));
+        int tokenRequestCount = authorizationServerMock.getTokenRequestCount();
+
+        // when
+        TokenException tokenException = assertThrows(
+                TokenException.class, () -> flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN));
+
+        // then
+        assertThat(tokenException.getCause().getCause(), is(instanceOf(CircuitBreakerOpenException.class)));
+        assertThat(authorizationServerMock.getTokenRequestCount(), is(equalTo(tokenRequestCount)));
+        assertThat(flow.getCircuitBreakerStates().get(endpointToken), is(equalTo(CircuitBreakerState.OPEN)));
+
+        // when
+        Thread.sleep(400);
+        AccessTokenResponse accessTokenResponse = flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN);
+
+        // then
+        assertThat(accessTokenResponse.getAccessToken(), is(equalTo("new-access-token")));
+        assertThat(flow.getCircuitBreakerStates().get(endpointToken), is(equalTo(CircuitBreakerState.CLOSED)));
+    }
+
+    @Test
+    public void authorizeRecordsMetrics()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        MetricsRecorderMock metricsRecorder = new MetricsRecorderMock();
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withBrowser(new BrowserMock())
+                .withMetricsRecorder(metricsRecorder)
+                .build();
+
+        // when
+        flow.authorize().get(1, TimeUnit.MINUTES);
+        flow.getUserInfo(AuthorizationServerMock.VALID_ACCESS_TOKEN);
+
+        // then
+        assertThat(metricsRecorder.getResponses(), is(equalTo(List.of(
+                String.format("%s %s 200", OAuthOperation.AUTHORIZATION_CODE_EXCHANGE,
+                        authorizationServerConfig.getEndpointToken()),
+                String.format("%s %s 200", OAuthOperation.USER_INFO,
+                        authorizationServerConfig.getEndpointUserInfo())))));
+        assertThat(metricsRecorder.getBytesReceived() > 0, is(true));
+        assertThat(metricsRecorder.getCallbacks().size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void refreshFailureRecordsMetrics() {
+        // given
+        MetricsRecorderMock metricsRecorder = new MetricsRecorderMock();
+        AuthorizationServerConfig config = AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl("http://localhost:1")
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .build();
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(config)
+                .withMetricsRecorder(metricsRecorder)
+                .build();
+
+        // when
+        assertThrows(TokenException.class, () -> flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN));
+
+        // then
+        assertThat(metricsRecorder.getFailures(), is(equalTo(List.of(
+                String.format("%s %s ConnectException", OAuthOperation.REFRESH, config.getEndpointToken())))));
+    }
+
+    @Test
+    public void authorizeTracesPhases()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        TracerMock tracer = new TracerMock();
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(authorizationServerConfig)
+                .withBrowser(new BrowserMock())
+                .withTracer(tracer)
+                .build();
+
+        // when
+        flow.authorize().get(1, TimeUnit.MINUTES);
+        flow.getUserInfo(AuthorizationServerMock.VALID_ACCESS_TOKEN);
+
+        // then
+        TracerMock.SpanMock browserOpenSpan = tracer.findSpan(TracingConstants.SPAN_BROWSER_OPEN).orElseThrow();
+        TracerMock.SpanMock callbackWaitSpan = tracer.findSpan(TracingConstants.SPAN_CALLBACK_WAIT).orElseThrow();
+        TracerMock.SpanMock codeExchangeSpan = tracer.findSpan(TracingConstants.SPAN_CODE_EXCHANGE).orElseThrow();
+        TracerMock.SpanMock userInfoSpan = tracer.findSpan(TracingConstants.SPAN_USER_INFO).orElseThrow();
+        assertThat(browserOpenSpan.getParentName(), is(equalTo(Optional.of(TracingConstants.SPAN_AUTHORIZE))));
+        assertThat(callbackWaitSpan.getParentName(), is(equalTo(Optional.of(TracingConstants.SPAN_AUTHORIZE))));
+        assertThat(codeExchangeSpan.getParentName(), is(equalTo(Optional.of(TracingConstants.SPAN_AUTHORIZE))));
+        assertThat(userInfoSpan.getParentName(), is(equalTo(Optional.empty())));
+        assertThat(browserOpenSpan.getEnds(), is(equalTo(1L)));
+        assertThat(callbackWaitSpan.getEnds(), is(equalTo(1L)));
+        assertThat(codeExchangeSpan.getEnds(), is(equalTo(1L)));
+        assertThat(userInfoSpan.getEnds(), is(equalTo(1L)));
+        assertThat(codeExchangeSpan.getStatusCode(), is(equalTo(200L)));
+        assertThat(authorizationServerMock.getTraceparents(), is(equalTo(List.of(
+                codeExchangeSpan.getTraceparent().orElseThrow(), userInfoSpan.getTraceparent().orElseThrow()))));
+    }
+
+    @Test
+    public void refreshFailureRecordsSpanFailure() {
+        // given
+        TracerMock tracer = new TracerMock();
+        AuthorizationCodeFlowWithPkce flow = AuthorizationCodeFlowWithPkce
+                .newBuilder()
+                .withAuthorizationServerConfig(AuthorizationServerConfig
+                        .newBuilder()
+                        .withBaseUrl("http://localhost:1")
+                        .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                        .build())
+                .withTracer(tracer)
+                .build();
+
+        // when
+        assertThrows(TokenException.class, () -> flow.refresh(AuthorizationServerMock.VALID_REFRESH_TOKEN));
+
+        // then
+        TracerMock.SpanMock refreshSpan = tracer.findSpan(TracingConstants.SPAN_REFRESH).orElseThrow();
+        assertThat(refreshSpan.getFailure(), is(instanceOf(TokenException.class)));
+        assertThat(refreshSpan.getEnds(), is(equalTo(1L)));
+    }
+
+    // util
+
+    private AuthorizationServerConfig buildConfigWithRetryPolicy() {
+        return AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .withRetryPolicy(RetryPolicy
+                        .newBuilder()
+                        .withInitialBackoffInMs(10)
+                        .withMaxRetryAfterInMs(5_000)
+                        .build())
+                .build();
+    }
 }
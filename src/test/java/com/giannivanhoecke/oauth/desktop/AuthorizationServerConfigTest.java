@@ -1,8 +1,14 @@
 package com.giannivanhoecke.oauth.desktop;
 
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
 import com.giannivanhoecke.oauth.desktop.exception.MissingConfigException;
+import com.giannivanhoecke.oauth.desktop.resilience.RetryPolicy;
 import org.junit.jupiter.api.Test;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.Optional;
+
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -17,10 +23,13 @@ public class AuthorizationServerConfigTest {
     private static final String BASE_URL  = "http://auth.server/auth/realms/my-realm/protocol/openid-connect";
     private static final String CLIENT_ID = "my-client-id";
 
-    private static final String DEFAULT_ENDPOINT_AUTH      = "/auth";
-    private static final String DEFAULT_ENDPOINT_USER_INFO = "/userinfo";
-    private static final String DEFAULT_ENDPOINT_TOKEN     = "/token";
-    private static final String DEFAULT_AUTH_SCOPE         = "openid offline_access email profile";
+    private static final String DEFAULT_ENDPOINT_AUTH          = "/auth";
+    private static final String DEFAULT_ENDPOINT_USER_INFO     = "/userinfo";
+    private static final String DEFAULT_ENDPOINT_TOKEN         = "/token";
+    private static final String DEFAULT_ENDPOINT_JWKS          = "/certs";
+    private static final String DEFAULT_ENDPOINT_INTROSPECTION = "/token/introspect";
+    private static final String DEFAULT_ENDPOINT_REVOCATION    = "/revoke";
+    private static final String DEFAULT_AUTH_SCOPE             = "openid offline_access email profile";
 
     private static final String CUSTOM_ENDPOINT_AUTH        = "/custom/auth";
     private static final String CUSTOM_ENDPOINT_USER_INFO   = "/custom/userinfo";
@@ -34,6 +43,9 @@ public class AuthorizationServerConfigTest {
         String expectedEndpointAuth = String.format("%s%s", BASE_URL, DEFAULT_ENDPOINT_AUTH);
         String expectedEndpointUserInfo = String.format("%s%s", BASE_URL, DEFAULT_ENDPOINT_USER_INFO);
         String expectedEndpointToken = String.format("%s%s", BASE_URL, DEFAULT_ENDPOINT_TOKEN);
+        String expectedEndpointJwks = String.format("%s%s", BASE_URL, DEFAULT_ENDPOINT_JWKS);
+        String expectedEndpointIntrospection = String.format("%s%s", BASE_URL, DEFAULT_ENDPOINT_INTROSPECTION);
+        String expectedEndpointRevocation = String.format("%s%s", BASE_URL, DEFAULT_ENDPOINT_REVOCATION);
 
         // when
         AuthorizationServerConfig config = AuthorizationServerConfig
@@ -46,9 +58,16 @@ public class AuthorizationServerConfigTest {
         assertThat(config.getEndpointAuth(), is(equalTo(expectedEndpointAuth)));
         assertThat(config.getEndpointUserInfo(), is(equalTo(expectedEndpointUserInfo)));
         assertThat(config.getEndpointToken(), is(equalTo(expectedEndpointToken)));
+        assertThat(config.getEndpointJwks(), is(equalTo(expectedEndpointJwks)));
+        assertThat(config.getEndpointIntrospection(), is(equalTo(expectedEndpointIntrospection)));
+        assertThat(config.getEndpointRevocation(), is(equalTo(expectedEndpointRevocation)));
+        assertThat(config.getIssuer(), is(equalTo(Optional.empty())));
         assertThat(config.getClientId(), is(equalTo(CLIENT_ID)));
+        assertThat(config.getClientSecret(), is(equalTo(Optional.empty())));
         assertThat(config.getAuthScope(), is(equalTo(DEFAULT_AUTH_SCOPE)));
         assertThat(config.getSuccessRedirectUri(), is(equalTo(null)));
+        assertThat(config.getHttpVersion(), is(equalTo(HttpClient.Version.HTTP_1_1)));
+        assertThat(config.getRetryPolicy(), is(equalTo(RetryPolicy.NONE)));
     }
 
     @Test
@@ -68,6 +87,7 @@ public class AuthorizationServerConfigTest {
                 .withEndpointToken(CUSTOM_ENDPOINT_TOKEN)
                 .withAuthScope(CUSTOM_AUTH_SCOPE)
                 .withSuccessRedirectUri(CUSTOM_SUCCESS_REDIRECT_URI)
+                .withHttpVersion(HttpClient.Version.HTTP_2)
                 .build();
 
         // then
@@ -77,6 +97,105 @@ public class AuthorizationServerConfigTest {
         assertThat(config.getClientId(), is(equalTo(CLIENT_ID)));
         assertThat(config.getAuthScope(), is(equalTo(CUSTOM_AUTH_SCOPE)));
         assertThat(config.getSuccessRedirectUri(), is(equalTo(CUSTOM_SUCCESS_REDIRECT_URI)));
+        assertThat(config.getHttpVersion(), is(equalTo(HttpClient.Version.HTTP_2)));
+    }
+
+    @Test
+    public void builderWithoutHttpVersionThrowsMissingConfigException() {
+        // expect
+        assertThrows(MissingConfigException.class, () -> AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(BASE_URL)
+                .withClientId(CLIENT_ID)
+                .withHttpVersion(null)
+                .build());
+    }
+
+    @Test
+    public void builderPrecomputesEndpointUris() {
+        // when
+        AuthorizationServerConfig config = AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(BASE_URL)
+                .withClientId(CLIENT_ID)
+                .build();
+
+        // then
+        assertThat(config.getEndpointTokenUri(), is(equalTo(URI.create(BASE_URL + DEFAULT_ENDPOINT_TOKEN))));
+        assertThat(config.getEndpointTokenUri().toString(), is(equalTo(config.getEndpointToken())));
+        assertThat(config.getEndpointUserInfoUri().getHost(), is(equalTo("auth.server")));
+    }
+
+    @Test
+    public void toStringHidesClientSecret() {
+        // when
+        AuthorizationServerConfig config = AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(BASE_URL)
+                .withClientId(CLIENT_ID)
+                .withClientSecret("my-client-secret")
+                .build();
+
+        // then
+        assertThat(config.getClientSecret(), is(equalTo(Optional.of("my-client-secret"))));
+        assertThat(config.toString().contains("my-client-secret"), is(false));
+    }
+
+    @Test
+    public void builderUsesAbsoluteEndpointAsIs() {
+        // when
+        AuthorizationServerConfig config = AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(BASE_URL)
+                .withClientId(CLIENT_ID)
+                .withEndpointJwks("https://keys.auth.server/certs")
+                .build();
+
+        // then
+        assertThat(config.getEndpointJwks(), is(equalTo("https://keys.auth.server/certs")));
+        assertThat(config.getEndpointToken(), is(equalTo(BASE_URL + DEFAULT_ENDPOINT_TOKEN)));
+    }
+
+    @Test
+    public void builderWithMalformedBaseUrlThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl("http://auth server/realms/my-realm")
+                .withClientId(CLIENT_ID)
+                .build());
+    }
+
+    @Test
+    public void builderWithRelativeBaseUrlThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl("auth.server/realms/my-realm")
+                .withClientId(CLIENT_ID)
+                .build());
+    }
+
+    @Test
+    public void builderWithMalformedEndpointThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(BASE_URL)
+                .withClientId(CLIENT_ID)
+                .withEndpointToken("/to ken")
+                .build());
+    }
+
+    @Test
+    public void builderWithoutRetryPolicyThrowsMissingConfigException() {
+        // expect
+        assertThrows(MissingConfigException.class, () -> AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(BASE_URL)
+                .withClientId(CLIENT_ID)
+                .withRetryPolicy(null)
+                .build());
     }
 
     @Test
@@ -127,7 +246,7 @@ public class AuthorizationServerConfigTest {
                 .build();
         AuthorizationServerConfig otherConfig = AuthorizationServerConfig
                 .newBuilder()
-                .withBaseUrl("other-base-url")
+                .withBaseUrl("http://other.server/auth/realms/my-realm/protocol/openid-connect")
                 .withClientId(CLIENT_ID)
                 .withEndpointAuth(CUSTOM_ENDPOINT_AUTH)
                 .withEndpointUserInfo(CUSTOM_ENDPOINT_USER_INFO)
@@ -0,0 +1,75 @@
+package com.giannivanhoecke.oauth.desktop;
+
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.representation.IntrospectionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class IntrospectionCacheTest {
+
+    @Test
+    public void putThenGet() {
+        // given
+        IntrospectionCache cache = IntrospectionCache.newBuilder().build();
+        IntrospectionResponse active = activeUntil(Instant.now().plusSeconds(300));
+
+        // when
+        cache.put("my-access-token", active);
+        cache.put("revoked-access-token", IntrospectionResponse.INACTIVE);
+
+        // then
+        assertThat(cache.get("my-access-token").get(), is(equalTo(active)));
+        assertThat(cache.get("revoked-access-token").get(), is(equalTo(IntrospectionResponse.INACTIVE)));
+        assertThat(cache.get("other-access-token").isPresent(), is(false));
+    }
+
+    @Test
+    public void putExpiredTokenIsNotCached() {
+        // given
+        IntrospectionCache cache = IntrospectionCache.newBuilder().build();
+
+        // when
+        cache.put("my-access-token", activeUntil(Instant.now().minusSeconds(10)));
+
+        // then
+        assertThat(cache.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void putInactiveTokenWithoutInactiveTtlIsNotCached() {
+        // given
+        IntrospectionCache cache = IntrospectionCache.newBuilder().withInactiveTtlInMs(0).build();
+
+        // when
+        cache.put("revoked-access-token", IntrospectionResponse.INACTIVE);
+
+        // then
+        assertThat(cache.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void builderWithInvalidActiveTtlThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> IntrospectionCache
+                .newBuilder()
+                .withActiveTtlInMs(0)
+                .build());
+    }
+
+    // util
+
+    private static IntrospectionResponse activeUntil(Instant expiresAt) {
+        return new IntrospectionResponse(true, "openid", "my-client", "my-username", "Bearer", "my-id", null,
+                expiresAt.getEpochSecond());
+    }
+}
@@ -0,0 +1,178 @@
+package com.giannivanhoecke.oauth.desktop;
+
+import com.giannivanhoecke.oauth.desktop.exception.DiscoveryException;
+import com.giannivanhoecke.oauth.desktop.fixtures.AuthorizationServerMock;
+import com.giannivanhoecke.oauth.desktop.representation.ProviderMetadata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class OidcDiscoveryTest {
+
+    private AuthorizationServerMock authorizationServerMock;
+
+    @TempDir
+    Path cacheDirectory;
+
+    @BeforeEach
+    public void setup()
+            throws IOException {
+        authorizationServerMock = new AuthorizationServerMock();
+        authorizationServerMock.start();
+    }
+
+    @AfterEach
+    public void teardown() {
+        authorizationServerMock.stop();
+    }
+
+    @Test
+    public void discoveredMetadataBuildsConfig() {
+        // given
+        String issuer = authorizationServerMock.getBaseUrl();
+        OidcDiscovery oidcDiscovery = OidcDiscovery.newBuilder().build();
+
+        // when
+        AuthorizationServerConfig authorizationServerConfig = AuthorizationServerConfig
+                .newBuilder()
+                .withProviderMetadata(oidcDiscovery.discover(issuer))
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .build();
+
+        // then
+        assertThat(authorizationServerConfig.getIssuer().orElse(null), is(equalTo(issuer)));
+        assertThat(authorizationServerConfig.getEndpointAuth(), is(equalTo(issuer + "/auth")));
+        assertThat(authorizationServerConfig.getEndpointToken(), is(equalTo(issuer + "/token")));
+        assertThat(authorizationServerConfig.getEndpointUserInfo(), is(equalTo(issuer + "/userinfo")));
+        assertThat(authorizationServerConfig.getEndpointJwks(), is(equalTo(issuer + "/certs")));
+    }
+
+    @Test
+    public void freshMetadataIsFetchedOnce() {
+        // given
+        String issuer = authorizationServerMock.getBaseUrl();
+        OidcDiscovery oidcDiscovery = OidcDiscovery.newBuilder().build();
+
+        // when
+        ProviderMetadata first = oidcDiscovery.discover(issuer);
+        ProviderMetadata second = oidcDiscovery.discover(issuer);
+
+        // then
+        assertThat(second, is(equalTo(first)));
+        assertThat(authorizationServerMock.getDiscoveryRequestCount(), is(equalTo(1)));
+    }
+
+    @Test
+    public void freshMetadataCachedOnDiskIsUsedWithoutRequest() {
+        // given
+        String issuer = authorizationServerMock.getBaseUrl();
+        ProviderMetadata discovered = newOidcDiscovery().discover(issuer);
+
+        // when
+        ProviderMetadata restored = newOidcDiscovery().discover(issuer);
+
+        // then
+        assertThat(restored, is(equalTo(discovered)));
+        assertThat(authorizationServerMock.getDiscoveryRequestCount(), is(equalTo(1)));
+    }
+
+    @Test
+    public void staleMetadataIsRevalidatedWithETag() {
+        // given
+        String issuer = authorizationServerMock.getBaseUrl();
+        authorizationServerMock.overrideDiscoveryMaxAgeInSeconds(0);
+        OidcDiscovery oidcDiscovery = newOidcDiscovery();
+        ProviderMetadata discovered = oidcDiscovery.discover(issuer);
+
+        // when
+        ProviderMetadata revalidated = oidcDiscovery.discover(issuer);
+
+        // then
+        assertThat(revalidated, is(equalTo(discovered)));
+        assertThat(authorizationServerMock.getDiscoveryRequestCount(), is(equalTo(2)));
+        assertThat(authorizationServerMock.getDiscoveryNotModifiedCount(), is(equalTo(1)));
+    }
+
+    @Test
+    public void noStoreMetadataIsNotCachedOnDisk()
+            throws IOException {
+        // given
+        String issuer = authorizationServerMock.getBaseUrl();
+        authorizationServerMock.overrideDiscoveryCacheControl("no-store");
+        ProviderMetadata discovered = newOidcDiscovery().discover(issuer);
+
+        // when
+        ProviderMetadata rediscovered = newOidcDiscovery().discover(issuer);
+
+        // then
+        assertThat(rediscovered, is(equalTo(discovered)));
+        assertThat(authorizationServerMock.getDiscoveryRequestCount(), is(equalTo(2)));
+        try (Stream<Path> cacheFiles = Files.list(cacheDirectory)) {
+            assertThat(cacheFiles.count(), is(equalTo(0L)));
+        }
+    }
+
+    @Test
+    public void staleMetadataIsUsedWhenIssuerIsUnreachable()
+            throws IOException {
+        // given
+        AuthorizationServerMock unreachableServerMock = new AuthorizationServerMock();
+        unreachableServerMock.start();
+        unreachableServerMock.overrideDiscoveryMaxAgeInSeconds(0);
+        String issuer = unreachableServerMock.getBaseUrl();
+        ProviderMetadata discovered = newOidcDiscovery().discover(issuer);
+        unreachableServerMock.stop();
+
+        // when
+        ProviderMetadata stale = newOidcDiscovery().discover(issuer);
+
+        // then
+        assertThat(stale, is(equalTo(discovered)));
+    }
+
+    @Test
+    public void unreachableIssuerWithoutCachedMetadataThrowsDiscoveryException()
+            throws IOException {
+        // given
+        AuthorizationServerMock unreachableServerMock = new AuthorizationServerMock();
+        unreachableServerMock.start();
+        String issuer = unreachableServerMock.getBaseUrl();
+        unreachableServerMock.stop();
+
+        // expect
+        assertThrows(DiscoveryException.class, () -> newOidcDiscovery().discover(issuer));
+    }
+
+    @Test
+    public void metadataOfAnotherIssuerThrowsDiscoveryException() {
+        // given
+        String issuer = authorizationServerMock.getBaseUrl().replace("localhost", "127.0.0.1");
+
+        // expect
+        assertThrows(DiscoveryException.class, () -> newOidcDiscovery().discover(issuer));
+    }
+
+    // util
+
+    private OidcDiscovery newOidcDiscovery() {
+        return OidcDiscovery
+                .newBuilder()
+                .withCacheDirectory(cacheDirectory)
+                .build();
+    }
+}
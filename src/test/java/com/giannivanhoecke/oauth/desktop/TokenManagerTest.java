@@ -0,0 +1,327 @@
+package com.giannivanhoecke.oauth.desktop;
+
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.MissingConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.TokenException;
+import com.giannivanhoecke.oauth.desktop.fixtures.AuthorizationServerMock;
+import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+import com.giannivanhoecke.oauth.desktop.store.InMemoryTokenStore;
+import com.giannivanhoecke.oauth.desktop.store.StoredTokens;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TokenManagerTest {
+
+    private AuthorizationServerMock authorizationServerMock;
+    private AuthorizationCodeFlowWithPkce flow;
+
+    @BeforeAll
+    public void setup()
+            throws IOException {
+        authorizationServerMock = new AuthorizationServerMock();
+        authorizationServerMock.start();
+
+        flow = new AuthorizationCodeFlowWithPkce(AuthorizationServerConfig
+                .newBuilder()
+                .withBaseUrl(authorizationServerMock.getBaseUrl())
+                .withClientId(AuthorizationServerMock.VALID_CLIENT_ID)
+                .build());
+    }
+
+    @AfterAll
+    public void teardown() {
+        authorizationServerMock.stop();
+    }
+
+    @Test
+    public void refreshesInBackgroundBeforeExpiry()
+            throws InterruptedException {
+        // given
+        CountDownLatch refreshed = new CountDownLatch(1);
+        AccessTokenResponse initial = new AccessTokenResponse(AuthorizationServerMock.VALID_ACCESS_TOKEN,
+                AuthorizationServerMock.VALID_REFRESH_TOKEN, null, "Bearer", 1);
+
+        // when
+        try (TokenManager tokenManager = TokenManager
+                .newBuilder()
+                .withAuthorizationCodeFlowWithPkce(flow)
+                .withAccessTokenResponse(initial)
+                .withTokenListener(accessTokenResponse -> refreshed.countDown())
+                .build()) {
+
+            // then
+            assertThat(tokenManager.getAccessToken(), is(equalTo(AuthorizationServerMock.VALID_ACCESS_TOKEN)));
+            assertThat(refreshed.await(1, TimeUnit.MINUTES), is(true));
+            assertThat(tokenManager.getAccessToken(), is(equalTo("new-access-token")));
+            assertThat(tokenManager.getAccessTokenResponse().getRefreshToken(), is(equalTo("new-refresh-token")));
+            assertThat(tokenManager.isExpired(), is(false));
+        }
+    }
+
+    @Test
+    public void refreshWithoutRotationKeepsRefreshToken()
+            throws InterruptedException {
+        // given
+        CountDownLatch refreshed = new CountDownLatch(2);
+        InMemoryTokenStore tokenStore = new InMemoryTokenStore();
+        AccessTokenResponse initial = new AccessTokenResponse(AuthorizationServerMock.VALID_ACCESS_TOKEN,
+                AuthorizationServerMock.VALID_REFRESH_TOKEN, null, "Bearer", 1);
+        authorizationServerMock.overrideRefreshTokenRotation(false);
+
+        // when
+        try (TokenManager tokenManager = TokenManager
+                .newBuilder()
+                .withAuthorizationCodeFlowWithPkce(flow)
+                .withAccessTokenResponse(initial)
+                .withTokenStore(tokenStore)
+                .withTokenListener(accessTokenResponse -> refreshed.countDown())
+                .build()) {
+
+            // then
+            assertThat(refreshed.await(1, TimeUnit.MINUTES), is(true));
+            assertThat(tokenManager.getAccessToken(), is(equalTo("new-access-token")));
+            assertThat(tokenManager.getAccessTokenResponse().getRefreshToken(),
+                    is(equalTo(AuthorizationServerMock.VALID_REFRESH_TOKEN)));
+            StoredTokens storedTokens = tokenStore.load(TokenManager.DEFAULT_TOKEN_STORE_KEY).orElseThrow();
+            assertThat(storedTokens.getAccessTokenResponse().getRefreshToken(),
+                    is(equalTo(AuthorizationServerMock.VALID_REFRESH_TOKEN)));
+        } finally {
+            authorizationServerMock.overrideRefreshTokenRotation(true);
+        }
+    }
+
+    @Test
+    public void unavailableRefreshIsRetried()
+            throws InterruptedException {
+        // given
+        CountDownLatch failed = new CountDownLatch(1);
+        CountDownLatch refreshed = new CountDownLatch(1);
+        AccessTokenResponse initial = new AccessTokenResponse(AuthorizationServerMock.VALID_ACCESS_TOKEN,
+                AuthorizationServerMock.VALID_REFRESH_TOKEN, null, "Bearer", 1);
+        authorizationServerMock.failNextTokenRequests(1, 503, null);
+
+        // when
+        try (TokenManager tokenManager = TokenManager
+                .newBuilder()
+                .withAuthorizationCodeFlowWithPkce(flow)
+                .withAccessTokenResponse(initial)
+                .withRetryDelayInMs(100)
+                .withTokenListener(new TokenListener() {
+                    @Override
+                    public void onTokenRefreshed(AccessTokenResponse accessTokenResponse) {
+                        refreshed.countDown();
+                    }
+
+                    @Override
+                    public void onTokenRefreshFailed(TokenException tokenException) {
+                        failed.countDown();
+                    }
+                })
+                .build()) {
+
+            // then
+            assertThat(failed.await(1, TimeUnit.MINUTES), is(true));
+            assertThat(refreshed.await(1, TimeUnit.MINUTES), is(true));
+            assertThat(tokenManager.getAccessToken(), is(equalTo("new-access-token")));
+        } finally {
+            authorizationServerMock.resetTokenFailures();
+        }
+    }
+
+    @Test
+    public void rejectedRefreshStopsAndExpiredTokenThrowsTokenException()
+            throws InterruptedException {
+        // given
+        CountDownLatch stopped = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        AccessTokenResponse initial = new AccessTokenResponse(AuthorizationServerMock.VALID_ACCESS_TOKEN,
+                "invalid-refresh-token", null, "Bearer", 1);
+
+        // when
+        try (TokenManager tokenManager = TokenManager
+                .newBuilder()
+                .withAuthorizationCodeFlowWithPkce(flow)
+                .withAccessTokenResponse(initial)
+                .withRetryDelayInMs(100)
+                .withTokenListener(new TokenListener() {
+                    @Override
+                    public void onTokenRefreshed(AccessTokenResponse accessTokenResponse) {
+                    }
+
+                    @Override
+                    public void onTokenRefreshFailed(TokenException tokenException) {
+                        failures.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onTokenRefreshStopped(TokenException tokenException) {
+                        stopped.countDown();
+                    }
+                })
+                .build()) {
+
+            // then
+            assertThat(stopped.await(1, TimeUnit.MINUTES), is(true));
+            int tokenRequestCount = authorizationServerMock.getTokenRequestCount();
+            Thread.sleep(Math.max(0, Duration.between(Instant.now(), tokenManager.getExpiresAt()).toMillis()) + 300);
+            assertThat(authorizationServerMock.getTokenRequestCount(), is(equalTo(tokenRequestCount)));
+            assertThat(failures.get(), is(equalTo(0)));
+            assertThat(tokenManager.isExpired(), is(true));
+            assertThrows(TokenException.class, tokenManager::getAccessToken);
+        }
+    }
+
+    @Test
+    public void refreshCompletingAfterUpdateIsDropped()
+            throws InterruptedException {
+        // given
+        AtomicInteger refreshes = new AtomicInteger();
+        AccessTokenResponse initial = new AccessTokenResponse(AuthorizationServerMock.VALID_ACCESS_TOKEN,
+                AuthorizationServerMock.VALID_REFRESH_TOKEN, null, "Bearer", 1);
+        AccessTokenResponse updated = new AccessTokenResponse("updated-access-token", "updated-refresh-token", null,
+                "Bearer", 300);
+        int tokenRequestCount = authorizationServerMock.getTokenRequestCount();
+        authorizationServerMock.overrideTokenDelayInMs(500);
+
+        // when
+        try (TokenManager tokenManager = TokenManager
+                .newBuilder()
+                .withAuthorizationCodeFlowWithPkce(flow)
+                .withAccessTokenResponse(initial)
+                .withRefreshFraction(0.01)
+                .withJitterFraction(0)
+                .withTokenListener(accessTokenResponse -> refreshes.incrementAndGet())
+                .build()) {
+            while (authorizationServerMock.getTokenRequestCount() == tokenRequestCount) {
+                Thread.sleep(10);
+            }
+            tokenManager.update(updated);
+            Thread.sleep(1_000);
+
+            // then
+            assertThat(tokenManager.getAccessTokenResponse(), is(equalTo(updated)));
+            assertThat(refreshes.get(), is(equalTo(0)));
+        } finally {
+            authorizationServerMock.overrideTokenDelayInMs(0);
+        }
+    }
+
+    @Test
+    public void tokenWithoutExpiryIsNotRefreshed() {
+        // given
+        AccessTokenResponse initial = new AccessTokenResponse(AuthorizationServerMock.VALID_ACCESS_TOKEN,
+                AuthorizationServerMock.VALID_REFRESH_TOKEN, null, "Bearer", 0);
+
+        // when
+        try (TokenManager tokenManager = TokenManager
+                .newBuilder()
+                .withAuthorizationCodeFlowWithPkce(flow)
+                .withAccessTokenResponse(initial)
+                .build()) {
+
+            // then
+            assertThat(tokenManager.isExpired(), is(false));
+            assertThat(tokenManager.getAccessToken(), is(equalTo(AuthorizationServerMock.VALID_ACCESS_TOKEN)));
+        }
+    }
+
+    @Test
+    public void builderWithoutAccessTokenResponseThrowsMissingConfigException() {
+        // expect
+        assertThrows(MissingConfigException.class, () -> TokenManager
+                .newBuilder()
+                .withAuthorizationCodeFlowWithPkce(flow)
+                .build());
+    }
+
+    @Test
+    public void updatedTokensAreSavedToTokenStore() {
+        // given
+        InMemoryTokenStore tokenStore = new InMemoryTokenStore();
+        AccessTokenResponse initial = new AccessTokenResponse(AuthorizationServerMock.VALID_ACCESS_TOKEN,
+                AuthorizationServerMock.VALID_REFRESH_TOKEN, null, "Bearer", 300);
+
+        // when
+        try (TokenManager tokenManager = TokenManager
+                .newBuilder()
+                .withAuthorizationCodeFlowWithPkce(flow)
+                .withAccessTokenResponse(initial)
+                .withTokenStore(tokenStore)
+                .withTokenStoreKey("account")
+                .build()) {
+
+            // then
+            StoredTokens storedTokens = tokenStore.load("account").orElseThrow();
+            assertThat(storedTokens.getAccessTokenResponse(), is(equalTo(initial)));
+            assertThat(storedTokens.getIssuedAt(), is(equalTo(tokenManager.getIssuedAt())));
+        }
+    }
+
+    @Test
+    public void tokensAreRestoredFromTokenStoreWithTheirIssuedAt() {
+        // given
+        InMemoryTokenStore tokenStore = new InMemoryTokenStore();
+        Instant issuedAt = Instant.now().minus(1, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.MILLIS);
+        AccessTokenResponse stored = new AccessTokenResponse(AuthorizationServerMock.VALID_ACCESS_TOKEN,
+                AuthorizationServerMock.VALID_REFRESH_TOKEN, null, "Bearer", 300);
+        tokenStore.save(TokenManager.DEFAULT_TOKEN_STORE_KEY, new StoredTokens(stored, issuedAt));
+
+        // when
+        try (TokenManager tokenManager = TokenManager
+                .newBuilder()
+                .withAuthorizationCodeFlowWithPkce(flow)
+                .withTokenStore(tokenStore)
+                .build()) {
+
+            // then
+            assertThat(tokenManager.getAccessTokenResponse(), is(equalTo(stored)));
+            assertThat(tokenManager.getIssuedAt(), is(equalTo(issuedAt)));
+            assertThat(tokenManager.getExpiresAt(), is(equalTo(issuedAt.plusSeconds(300))));
+        }
+    }
+
+    @Test
+    public void builderWithEmptyTokenStoreThrowsMissingConfigException() {
+        // expect
+        assertThrows(MissingConfigException.class, () -> TokenManager
+                .newBuilder()
+                .withAuthorizationCodeFlowWithPkce(flow)
+                .withTokenStore(new InMemoryTokenStore())
+                .build());
+    }
+
+    @Test
+    public void builderWithInvalidRefreshFractionThrowsInvalidConfigException() {
+        // given
+        AccessTokenResponse initial = new AccessTokenResponse(AuthorizationServerMock.VALID_ACCESS_TOKEN,
+                AuthorizationServerMock.VALID_REFRESH_TOKEN, null, "Bearer", 300);
+
+        // expect
+        assertThrows(InvalidConfigException.class, () -> TokenManager
+                .newBuilder()
+                .withAuthorizationCodeFlowWithPkce(flow)
+                .withAccessTokenResponse(initial)
+                .withRefreshFraction(1.5)
+                .build());
+    }
+}
@@ -0,0 +1,97 @@
+package com.giannivanhoecke.oauth.desktop;
+
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.representation.UserInfoResponse;
+import org.apache.commons.codec.binary.Base64;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class UserInfoCacheTest {
+
+    private static final UserInfoResponse USER_INFO = new UserInfoResponse(
+            "my-id", "my-username", "my-name", "my-email");
+
+    @Test
+    public void putThenGet() {
+        // given
+        UserInfoCache cache = UserInfoCache.newBuilder().build();
+
+        // when
+        cache.put("my-access-token", USER_INFO);
+
+        // then
+        assertThat(cache.get("my-access-token").isPresent(), is(true));
+        assertThat(cache.get("my-access-token").get(), is(equalTo(USER_INFO)));
+        assertThat(cache.get("other-access-token").isPresent(), is(false));
+        assertThat(cache.getHits(), is(equalTo(2L)));
+        assertThat(cache.getMisses(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void putExpiredJwtIsNotCached() {
+        // given
+        UserInfoCache cache = UserInfoCache.newBuilder().build();
+        String accessToken = jwtExpiringAt(Instant.now().minusSeconds(10));
+
+        // when
+        cache.put(accessToken, USER_INFO);
+
+        // then
+        assertThat(cache.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void putValidJwtIsCached() {
+        // given
+        UserInfoCache cache = UserInfoCache.newBuilder().build();
+        String accessToken = jwtExpiringAt(Instant.now().plusSeconds(300));
+
+        // when
+        cache.put(accessToken, USER_INFO);
+
+        // then
+        assertThat(cache.get(accessToken).isPresent(), is(true));
+    }
+
+    @Test
+    public void invalidate() {
+        // given
+        UserInfoCache cache = UserInfoCache.newBuilder().build();
+        cache.put("my-access-token", USER_INFO);
+
+        // when
+        cache.invalidate("my-access-token");
+
+        // then
+        assertThat(cache.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void builderWithInvalidMaxEntriesThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> UserInfoCache
+                .newBuilder()
+                .withMaxEntries(0)
+                .build());
+    }
+
+    // util
+
+    private static String jwtExpiringAt(Instant expiresAt) {
+        String header = Base64.encodeBase64URLSafeString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = Base64.encodeBase64URLSafeString(
+                String.format("{\"exp\":%d}", expiresAt.getEpochSecond()).getBytes(StandardCharsets.UTF_8));
+        return String.format("%s.%s.signature", header, payload);
+    }
+}
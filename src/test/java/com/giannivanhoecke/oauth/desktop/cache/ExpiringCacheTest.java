@@ -0,0 +1,91 @@
+package com.giannivanhoecke.oauth.desktop.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class ExpiringCacheTest {
+
+    @Test
+    public void getCountsHitsAndMisses() {
+        // given
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+        cache.put("key", "value", Instant.now().plusSeconds(60));
+
+        // when
+        Optional<String> hit = cache.get("key");
+        Optional<String> miss = cache.get("other-key");
+
+        // then
+        assertThat(hit.isPresent(), is(true));
+        assertThat(hit.get(), is(equalTo("value")));
+        assertThat(miss.isPresent(), is(false));
+        assertThat(cache.getHits(), is(equalTo(1L)));
+        assertThat(cache.getMisses(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void getExpiredEntryIsMiss() {
+        // given
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+        cache.put("key", "value", Instant.now().plusMillis(50));
+
+        // when
+        sleep(100);
+        Optional<String> value = cache.get("key");
+
+        // then
+        assertThat(value.isPresent(), is(false));
+        assertThat(cache.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void putAlreadyExpiredEntryIsIgnored() {
+        // given
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+
+        // when
+        cache.put("key", "value", Instant.now().minusSeconds(1));
+
+        // then
+        assertThat(cache.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void putEvictsLeastRecentlyUsedEntry() {
+        // given
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2);
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        cache.put("first", "1", expiresAt);
+        cache.put("second", "2", expiresAt);
+        cache.get("first");
+
+        // when
+        cache.put("third", "3", expiresAt);
+
+        // then
+        assertThat(cache.size(), is(equalTo(2)));
+        assertThat(cache.get("first").isPresent(), is(true));
+        assertThat(cache.get("second").isPresent(), is(false));
+        assertThat(cache.get("third").isPresent(), is(true));
+    }
+
+    // util
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
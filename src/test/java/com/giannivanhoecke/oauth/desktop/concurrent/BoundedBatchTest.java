@@ -0,0 +1,98 @@
+package com.giannivanhoecke.oauth.desktop.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class BoundedBatchTest {
+
+    @Test
+    public void runKeepsOrderAndBoundsParallelism()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        List<Integer> items = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        // when
+        List<Integer> results = BoundedBatch.run(items, 4, item -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                sleep(5);
+                inFlight.decrementAndGet();
+                return item * 2;
+            });
+        }).get(1, TimeUnit.MINUTES);
+
+        // then
+        assertThat(results, is(equalTo(items.stream().map(item -> item * 2).collect(Collectors.toList()))));
+        assertThat(maxInFlight.get(), is(lessThanOrEqualTo(4)));
+    }
+
+    @Test
+    public void runLargeBatchOfCompletedCalls()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // given
+        List<Integer> items = IntStream.range(0, 100_000).boxed().collect(Collectors.toList());
+
+        // when
+        List<Integer> results = BoundedBatch.run(items, 2, CompletableFuture::completedFuture)
+                .get(1, TimeUnit.MINUTES);
+
+        // then
+        assertThat(results.size(), is(equalTo(100_000)));
+        assertThat(results.get(99_999), is(equalTo(99_999)));
+    }
+
+    @Test
+    public void runFailingCallFailsBatch() {
+        // given
+        List<Integer> items = List.of(1, 2, 3);
+
+        // when
+        CompletableFuture<List<Integer>> results = BoundedBatch.run(items, 2, item -> item == 2
+                ? CompletableFuture.failedFuture(new IllegalArgumentException("failed"))
+                : CompletableFuture.completedFuture(item));
+
+        // then
+        ExecutionException executionException = assertThrows(
+                ExecutionException.class, () -> results.get(1, TimeUnit.MINUTES));
+        assertThat(executionException.getCause(), is(instanceOf(IllegalArgumentException.class)));
+    }
+
+    @Test
+    public void runEmptyBatch()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // expect
+        assertThat(BoundedBatch.run(List.of(), 2, CompletableFuture::completedFuture).get(1, TimeUnit.MINUTES)
+                .isEmpty(), is(true));
+    }
+
+    // util
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.giannivanhoecke.oauth.desktop.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class SingleFlightTest {
+
+    @Test
+    public void executeConcurrentCallsShareOneCall()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+        // when
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executorService.submit(() -> singleFlight.execute("key", () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "result";
+            })));
+        }
+        while (singleFlight.size() == 0) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // then
+        for (Future<String> result : results) {
+            assertThat(result.get(1, TimeUnit.MINUTES), is(equalTo("result")));
+        }
+        assertThat(calls.get(), is(equalTo(1)));
+        assertThat(singleFlight.size(), is(equalTo(0)));
+        executorService.shutdown();
+    }
+
+    @Test
+    public void executeAsyncConcurrentCallsShareOneCall()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> call = new CompletableFuture<>();
+
+        // when
+        CompletableFuture<String> first = singleFlight.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return call;
+        });
+        CompletableFuture<String> second = singleFlight.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return call;
+        });
+        call.complete("result");
+
+        // then
+        assertThat(first.get(1, TimeUnit.MINUTES), is(equalTo("result")));
+        assertThat(second.get(1, TimeUnit.MINUTES), is(equalTo("result")));
+        assertThat(calls.get(), is(equalTo(1)));
+        assertThat(singleFlight.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void executeAsyncCallAfterCompletionStartsNewCall() {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> next = singleFlight.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return call;
+        }).thenCompose(result -> singleFlight.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("next-result");
+        }));
+
+        // when
+        call.complete("result");
+
+        // then
+        assertThat(next.join(), is(equalTo("next-result")));
+        assertThat(calls.get(), is(equalTo(2)));
+        assertThat(singleFlight.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void executeAsyncOtherKeysDoNotShare() {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        singleFlight.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        singleFlight.executeAsync("other-key", () -> {
+            calls.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        // then
+        assertThat(calls.get(), is(equalTo(2)));
+        assertThat(singleFlight.size(), is(equalTo(2)));
+    }
+
+    @Test
+    public void executeAsyncFailureIsShared() {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> call = new CompletableFuture<>();
+
+        // when
+        CompletableFuture<String> first = singleFlight.executeAsync("key", () -> call);
+        CompletableFuture<String> second = singleFlight.executeAsync("key", () -> call);
+        call.completeExceptionally(new IllegalArgumentException("failed"));
+
+        // then
+        ExecutionException firstException = assertThrows(
+                ExecutionException.class, () -> first.get(1, TimeUnit.MINUTES));
+        ExecutionException secondException = assertThrows(
+                ExecutionException.class, () -> second.get(1, TimeUnit.MINUTES));
+        assertThat(firstException.getCause(), is(instanceOf(IllegalArgumentException.class)));
+        assertThat(secondException.getCause(), is(instanceOf(IllegalArgumentException.class)));
+        assertThat(singleFlight.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void executeErrorIsSharedAndReleasesKey()
+            throws InterruptedException {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CountDownLatch waiting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Future<String> first = executorService.submit(() -> singleFlight.execute("key", () -> {
+            waiting.countDown();
+            await(release);
+            throw new AssertionError("failed");
+        }));
+        waiting.await(1, TimeUnit.MINUTES);
+
+        // when
+        CompletableFuture<String> second = singleFlight.executeAsync("key", () -> new CompletableFuture<>());
+        release.countDown();
+
+        // then
+        ExecutionException firstException = assertThrows(
+                ExecutionException.class, () -> first.get(1, TimeUnit.MINUTES));
+        ExecutionException secondException = assertThrows(
+                ExecutionException.class, () -> second.get(1, TimeUnit.MINUTES));
+        assertThat(firstException.getCause(), is(instanceOf(AssertionError.class)));
+        assertThat(secondException.getCause(), is(instanceOf(AssertionError.class)));
+        assertThat(singleFlight.size(), is(equalTo(0)));
+        executorService.shutdown();
+    }
+
+    @Test
+    public void executeAsyncErrorIsRethrownAndReleasesKey() {
+        // given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        // expect
+        assertThrows(AssertionError.class, () -> singleFlight.executeAsync("key", () -> {
+            throw new AssertionError("failed");
+        }));
+        assertThat(singleFlight.size(), is(equalTo(0)));
+    }
+
+    // util
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.giannivanhoecke.oauth.desktop.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class VirtualThreadsTest {
+
+    @Test
+    public void newVirtualThreadPerTaskExecutorOnlyFromJava21()
+            throws ExecutionException, InterruptedException, TimeoutException {
+        // when
+        Optional<ExecutorService> executorService = VirtualThreads.newVirtualThreadPerTaskExecutor();
+
+        // then
+        assertThat(executorService.isPresent(), is(equalTo(Runtime.version().feature() >= 21)));
+        if (executorService.isPresent()) {
+            assertThat(executorService.get().submit(() -> 42).get(1, TimeUnit.MINUTES), is(equalTo(42)));
+            executorService.get().shutdown();
+        }
+    }
+}
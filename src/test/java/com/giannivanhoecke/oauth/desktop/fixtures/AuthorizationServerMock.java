@@ -14,9 +14,12 @@ import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
@@ -30,16 +33,42 @@ public class AuthorizationServerMock {
     public static final String VALID_REFRESH_TOKEN = "valid-refresh-token";
     public static final String VALID_CLIENT_ID = "valid-client-id";
     public static final String VALID_AUTHORIZATION_CODE = "valid-authorization-code";
+    public static final String DEFAULT_JWKS_CACHE_CONTROL = "public, max-age=300";
 
     private static final String HOSTNAME = "localhost";
     private static final int RANDOM_AVAILABLE_PORT = 0;
     private static final int WITHOUT_REQUEST_QUEUEING = 0;
+    private static final String DISCOVERY_ETAG = "\"v1\"";
+
+    static {
+        // without it, each response's headers and body go out as separate small writes, which Nagle's algorithm and
+        // the client's delayed ACK stall for ~40ms per exchange on a reused connection
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
 
     private final HttpServer server;
     private final ScheduledExecutorService scheduledExecutorService;
 
+    private final AtomicInteger tokenRequestCount = new AtomicInteger();
+    private final AtomicInteger jwksRequestCount = new AtomicInteger();
+    private final AtomicInteger discoveryRequestCount = new AtomicInteger();
+    private final AtomicInteger introspectionRequestCount = new AtomicInteger();
+    private final AtomicInteger revocationRequestCount = new AtomicInteger();
+    private final AtomicInteger discoveryNotModifiedCount = new AtomicInteger();
+    private final JwtSigner jwtSigner = new JwtSigner();
+    private final AtomicInteger tokenFailuresLeft = new AtomicInteger();
+    private final AtomicInteger revocationFailuresLeft = new AtomicInteger();
+    private final List<String> revokedTokens = new CopyOnWriteArrayList<>();
+    private final List<String> traceparents = new CopyOnWriteArrayList<>();
+
     private String authState = null;
     private String authCode = null;
+    private volatile long tokenDelayInMs = 0;
+    private volatile boolean refreshTokenRotation = true;
+    private volatile int tokenFailureCode = 0;
+    private volatile String tokenFailureRetryAfter = null;
+    private volatile String jwksCacheControl = DEFAULT_JWKS_CACHE_CONTROL;
+    private volatile String discoveryCacheControl = "max-age=300";
 
     public AuthorizationServerMock()
             throws IOException {
@@ -48,6 +77,11 @@ public class AuthorizationServerMock {
         mockAuthEndpoint();
         mockUserInfoEndpoint();
         mockTokenEndpoint();
+        mockJwksEndpoint();
+        mockDiscoveryEndpoint();
+        mockIntrospectionEndpoint();
+        mockRevocationEndpoint();
+        mockMalformedEndpoint();
         this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
         this.server.setExecutor(scheduledExecutorService);
     }
@@ -75,6 +109,80 @@ public class AuthorizationServerMock {
         this.authCode = authCode;
     }
 
+    public void overrideTokenDelayInMs(long tokenDelayInMs) {
+        this.tokenDelayInMs = tokenDelayInMs;
+    }
+
+    public void failNextTokenRequests(int count, int httpCode, String retryAfter) {
+        this.tokenFailureCode = httpCode;
+        this.tokenFailureRetryAfter = retryAfter;
+        this.tokenFailuresLeft.set(count);
+    }
+
+    public void overrideRefreshTokenRotation(boolean refreshTokenRotation) {
+        this.refreshTokenRotation = refreshTokenRotation;
+    }
+
+    public void resetTokenFailures() {
+        failNextTokenRequests(0, 0, null);
+    }
+
+    public int getTokenRequestCount() {
+        return this.tokenRequestCount.get();
+    }
+
+    public int getJwksRequestCount() {
+        return this.jwksRequestCount.get();
+    }
+
+    public void overrideJwksCacheControl(String jwksCacheControl) {
+        this.jwksCacheControl = jwksCacheControl;
+    }
+
+    public void overrideDiscoveryMaxAgeInSeconds(long discoveryMaxAgeInSeconds) {
+        overrideDiscoveryCacheControl("max-age=" + discoveryMaxAgeInSeconds);
+    }
+
+    public void overrideDiscoveryCacheControl(String discoveryCacheControl) {
+        this.discoveryCacheControl = discoveryCacheControl;
+    }
+
+    public int getDiscoveryRequestCount() {
+        return this.discoveryRequestCount.get();
+    }
+
+    public int getDiscoveryNotModifiedCount() {
+        return this.discoveryNotModifiedCount.get();
+    }
+
+    public int getIntrospectionRequestCount() {
+        return this.introspectionRequestCount.get();
+    }
+
+    public void failNextRevocationRequests(int count) {
+        this.revocationFailuresLeft.set(count);
+    }
+
+    public int getRevocationRequestCount() {
+        return this.revocationRequestCount.get();
+    }
+
+    public List<String> getRevokedTokens() {
+        return this.revokedTokens;
+    }
+
+    public JwtSigner getJwtSigner() {
+        return this.jwtSigner;
+    }
+
+    public List<String> getTraceparents() {
+        return this.traceparents;
+    }
+
+    public void resetTraceparents() {
+        this.traceparents.clear();
+    }
+
     public void resetAuth() {
         overrideAuthState(null);
         overrideAuthCode(null);
@@ -98,6 +206,7 @@ public class AuthorizationServerMock {
     private void mockUserInfoEndpoint() {
         server.createContext("/userinfo", exchange -> {
             LOGGER.debug("Received '/userinfo' request");
+            recordTraceparent(exchange);
             if (hasValidBearerToken(exchange)) {
                 sendResponse(exchange, 200, "{\"sub\":\"9047370c-24f9-45f1-9959-faca5e60e6b9\",\"email_verified\":true,\"name\":\"Gianni Van Hoecke\",\"preferred_username\":\"gianni@giannivanhoecke.com\",\"given_name\":\"Gianni\",\"locale\":\"en\",\"family_name\":\"Van Hoecke\",\"email\":\"gianni@giannivanhoecke.com\"}");
             } else {
@@ -109,10 +218,20 @@ public class AuthorizationServerMock {
     private void mockTokenEndpoint() {
         server.createContext("/token", exchange -> {
             LOGGER.debug("Received '/token' request");
+            tokenRequestCount.incrementAndGet();
+            recordTraceparent(exchange);
+            delay(tokenDelayInMs);
             String body = getRequestBody(exchange);
             Map<String, String> paramMap = QueryParameter.getParamMap(body);
-            if (isValidAuthorizationCodeRequest(paramMap.get("grant_type"), paramMap.get("code"))) {
+            if (tokenFailuresLeft.getAndUpdate(failuresLeft -> Math.max(failuresLeft - 1, 0)) > 0) {
+                if (tokenFailureRetryAfter != null) {
+                    exchange.getResponseHeaders().add("Retry-After", tokenFailureRetryAfter);
+                }
+                sendResponse(exchange, tokenFailureCode, "Unavailable");
+            } else if (isValidAuthorizationCodeRequest(paramMap.get("grant_type"), paramMap.get("code"))) {
                 sendResponse(exchange, 200, String.format("{\"access_token\":\"%s\",\"expires_in\":300,\"refresh_expires_in\":0,\"refresh_token\":\"%s\",\"not-before-policy\":0,\"session_state\":\"3dac9c9b-bcd8-4ed4-82c4-df618cbcb3ad\",\"scope\":\"openid offline_access email profile\"}", VALID_ACCESS_TOKEN, VALID_REFRESH_TOKEN));
+            } else if (isValidRefreshTokenRequest(body) && !refreshTokenRotation) {
+                sendResponse(exchange, 200, "{\"access_token\":\"new-access-token\",\"expires_in\":1,\"token_type\":\"Bearer\"}");
             } else if (isValidRefreshTokenRequest(body)) {
                 sendResponse(exchange, 200, "{\"access_token\":\"new-access-token\",\"expires_in\":300,\"refresh_expires_in\":0,\"refresh_token\":\"new-refresh-token\",\"not-before-policy\":0,\"session_state\":\"3dac9c9b-bcd8-4ed4-82c4-df618cbcb3ad\",\"scope\":\"openid offline_access email profile\"}");
             } else {
@@ -121,8 +240,97 @@ public class AuthorizationServerMock {
         });
     }
 
+    private void mockJwksEndpoint() {
+        server.createContext("/certs", exchange -> {
+            LOGGER.debug("Received '/certs' request");
+            jwksRequestCount.incrementAndGet();
+            exchange.getResponseHeaders().add("Cache-Control", jwksCacheControl);
+            sendResponse(exchange, 200, jwtSigner.getJwks());
+        });
+    }
+
+    private void mockDiscoveryEndpoint() {
+        server.createContext("/.well-known/openid-configuration", exchange -> {
+            LOGGER.debug("Received '/.well-known/openid-configuration' request");
+            discoveryRequestCount.incrementAndGet();
+            exchange.getResponseHeaders().add("ETag", DISCOVERY_ETAG);
+            exchange.getResponseHeaders().add("Cache-Control", discoveryCacheControl);
+            if (DISCOVERY_ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                discoveryNotModifiedCount.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            String baseUrl = getBaseUrl();
+            sendResponse(exchange, 200, String.format(
+                    "{\"issuer\":\"%1$s\",\"authorization_endpoint\":\"%1$s/auth\",\"token_endpoint\":\"%1$s/token\","
+                            + "\"userinfo_endpoint\":\"%1$s/userinfo\",\"jwks_uri\":\"%1$s/certs\","
+                            + "\"response_types_supported\":[\"code\"]}", baseUrl));
+        });
+    }
+
+    private void mockIntrospectionEndpoint() {
+        server.createContext("/token/introspect", exchange -> {
+            LOGGER.debug("Received '/token/introspect' request");
+            introspectionRequestCount.incrementAndGet();
+            delay(tokenDelayInMs);
+            Map<String, String> paramMap = QueryParameter.getParamMap(getRequestBody(exchange));
+            if (!VALID_CLIENT_ID.equals(paramMap.get("client_id"))) {
+                sendResponse(exchange, 401, "Unauthorized");
+            } else if (VALID_ACCESS_TOKEN.equals(paramMap.get("token"))) {
+                sendResponse(exchange, 200, String.format(
+                        "{\"active\":true,\"scope\":\"openid email\",\"client_id\":\"%s\",\"username\":\"gianni\","
+                                + "\"token_type\":\"Bearer\",\"exp\":%d,\"sub\":\"9047370c\",\"aud\":[\"account\"]}",
+                        VALID_CLIENT_ID, System.currentTimeMillis() / 1000 + 300));
+            } else {
+                sendResponse(exchange, 200, "{\"active\":false}");
+            }
+        });
+    }
+
+    private void mockRevocationEndpoint() {
+        server.createContext("/revoke", exchange -> {
+            LOGGER.debug("Received '/revoke' request");
+            revocationRequestCount.incrementAndGet();
+            Map<String, String> paramMap = QueryParameter.getParamMap(getRequestBody(exchange));
+            if (revocationFailuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                sendResponse(exchange, 503, "Service Unavailable");
+            } else if (!VALID_CLIENT_ID.equals(paramMap.get("client_id"))) {
+                sendResponse(exchange, 401, "Unauthorized");
+            } else {
+                revokedTokens.add(paramMap.get("token"));
+                sendResponse(exchange, 200, "");
+            }
+        });
+    }
+
+    private void mockMalformedEndpoint() {
+        server.createContext("/malformed", exchange -> {
+            LOGGER.debug("Received '/malformed' request");
+            getRequestBody(exchange);
+            sendResponse(exchange, 200, "{\"sub\":");
+        });
+    }
+
     // util
 
+    private void delay(long delayInMs) {
+        if (delayInMs > 0) {
+            try {
+                Thread.sleep(delayInMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void recordTraceparent(HttpExchange exchange) {
+        String traceparent = exchange.getRequestHeaders().getFirst("traceparent");
+        if (traceparent != null) {
+            this.traceparents.add(traceparent);
+        }
+    }
+
     private boolean hasValidBearerToken(HttpExchange exchange) {
         String authorization = exchange.getRequestHeaders().getFirst("Authorization");
         return StringUtils.isNotBlank(authorization) && getValidBearer().equals(authorization);
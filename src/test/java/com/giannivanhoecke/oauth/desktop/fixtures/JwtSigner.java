@@ -0,0 +1,112 @@
+package com.giannivanhoecke.oauth.desktop.fixtures;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Signs JWTs with an RSA and an EC key, and serves their public keys as a JSON Web Key Set.
+ *
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class JwtSigner {
+
+    public static final String RSA_KEY_ID = "rsa-key";
+    public static final String EC_KEY_ID = "ec-key";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final KeyPair rsaKeyPair;
+    private final KeyPair ecKeyPair;
+
+    public JwtSigner() {
+        try {
+            KeyPairGenerator rsaGenerator = KeyPairGenerator.getInstance("RSA");
+            rsaGenerator.initialize(2048);
+            rsaKeyPair = rsaGenerator.generateKeyPair();
+            KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+            ecGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+            ecKeyPair = ecGenerator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String getJwks() {
+        RSAPublicKey rsaPublicKey = (RSAPublicKey) rsaKeyPair.getPublic();
+        ECPublicKey ecPublicKey = (ECPublicKey) ecKeyPair.getPublic();
+        return String.format("{\"keys\":[" +
+                        "{\"kid\":\"%s\",\"kty\":\"RSA\",\"use\":\"sig\",\"alg\":\"RS256\"," +
+                        "\"n\":\"%s\",\"e\":\"%s\"}," +
+                        "{\"kid\":\"%s\",\"kty\":\"EC\",\"use\":\"sig\",\"crv\":\"P-256\",\"x\":\"%s\",\"y\":\"%s\"}," +
+                        "{\"kid\":\"enc-key\",\"kty\":\"RSA\",\"use\":\"enc\",\"n\":\"AQAB\",\"e\":\"AQAB\"}]}",
+                RSA_KEY_ID, encode(rsaPublicKey.getModulus()), encode(rsaPublicKey.getPublicExponent()),
+                EC_KEY_ID, encode(ecPublicKey.getW().getAffineX()), encode(ecPublicKey.getW().getAffineY()));
+    }
+
+    /**
+     * Creates the claims of an ID token, valid for five minutes.
+     *
+     * @param issuer the issuer
+     * @param audience the client ID
+     * @return the claims as JSON
+     */
+    public String idTokenClaims(String issuer, String audience) {
+        long now = Instant.now().getEpochSecond();
+        return String.format("{\"iss\":\"%s\",\"aud\":\"%s\",\"sub\":\"9047370c-24f9-45f1-9959-faca5e60e6b9\"," +
+                        "\"preferred_username\":\"gianni@giannivanhoecke.com\",\"name\":\"Gianni Van Hoecke\"," +
+                        "\"email\":\"gianni@giannivanhoecke.com\",\"iat\":%d,\"exp\":%d}",
+                issuer, audience, now, now + 300);
+    }
+
+    public String signRs256(String keyId, String claims) {
+        return sign("RS256", keyId, claims, "SHA256withRSA", rsaKeyPair.getPrivate());
+    }
+
+    public String signEs256(String keyId, String claims) {
+        return sign("ES256", keyId, claims, "SHA256withECDSAinP1363Format", ecKeyPair.getPrivate());
+    }
+
+    public String unsigned(String claims) {
+        return encode("{\"alg\":\"none\"}") + "." + encode(claims) + ".";
+    }
+
+    // util
+
+    private String sign(String algorithm, String keyId, String claims, String signatureAlgorithm,
+                        PrivateKey privateKey) {
+        String header = keyId == null
+                ? String.format("{\"alg\":\"%s\"}", algorithm)
+                : String.format("{\"alg\":\"%s\",\"kid\":\"%s\"}", algorithm, keyId);
+        String signingInput = encode(header) + "." + encode(claims);
+        try {
+            Signature signature = Signature.getInstance(signatureAlgorithm);
+            signature.initSign(privateKey);
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + ENCODER.encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // drop the sign byte
+        return ENCODER.encodeToString(bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes);
+    }
+}
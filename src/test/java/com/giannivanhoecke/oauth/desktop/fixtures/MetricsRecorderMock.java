@@ -0,0 +1,54 @@
+package com.giannivanhoecke.oauth.desktop.fixtures;
+
+import com.giannivanhoecke.oauth.desktop.observability.MetricsRecorder;
+import com.giannivanhoecke.oauth.desktop.observability.OAuthOperation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class MetricsRecorderMock implements MetricsRecorder {
+
+    private final List<String> responses = new CopyOnWriteArrayList<>();
+    private final List<String> failures = new CopyOnWriteArrayList<>();
+    private final List<Duration> callbacks = new CopyOnWriteArrayList<>();
+
+    private volatile long bytesReceived;
+
+    @Override
+    public void recordResponse(OAuthOperation operation, String endpoint, int statusCode, Duration duration,
+                               long bytesReceived) {
+        this.bytesReceived = bytesReceived;
+        this.responses.add(String.format("%s %s %d", operation, endpoint, statusCode));
+    }
+
+    @Override
+    public void recordFailure(OAuthOperation operation, String endpoint, Throwable failure, Duration duration) {
+        this.failures.add(String.format("%s %s %s", operation, endpoint, failure.getClass().getSimpleName()));
+    }
+
+    @Override
+    public void recordCallback(Duration duration) {
+        this.callbacks.add(duration);
+    }
+
+    public List<String> getResponses() {
+        return responses;
+    }
+
+    public List<String> getFailures() {
+        return failures;
+    }
+
+    public List<Duration> getCallbacks() {
+        return callbacks;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+}
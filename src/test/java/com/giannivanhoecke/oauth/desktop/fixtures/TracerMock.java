@@ -0,0 +1,93 @@
+package com.giannivanhoecke.oauth.desktop.fixtures;
+
+import com.giannivanhoecke.oauth.desktop.observability.Span;
+import com.giannivanhoecke.oauth.desktop.observability.Tracer;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class TracerMock implements Tracer {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private final AtomicLong spanIds = new AtomicLong();
+    private final List<SpanMock> spans = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Span startSpan(String name, Span parent) {
+        SpanMock span = new SpanMock(name, (SpanMock) parent, spanIds.incrementAndGet());
+        this.spans.add(span);
+        return span;
+    }
+
+    public List<SpanMock> getSpans() {
+        return spans;
+    }
+
+    public Optional<SpanMock> findSpan(String name) {
+        return this.spans.stream().filter(span -> span.getName().equals(name)).findFirst();
+    }
+
+    public static class SpanMock implements Span {
+
+        private final String name;
+        private final SpanMock parent;
+        private final String traceparent;
+        private final AtomicLong ends = new AtomicLong();
+
+        private volatile Long statusCode;
+        private volatile Throwable failure;
+
+        private SpanMock(String name, SpanMock parent, long spanId) {
+            this.name = name;
+            this.parent = parent;
+            this.traceparent = String.format("00-%s-%016x-01", TRACE_ID, spanId);
+        }
+
+        @Override
+        public void setAttribute(String key, long value) {
+            this.statusCode = value;
+        }
+
+        @Override
+        public void recordFailure(Throwable failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public Optional<String> getTraceparent() {
+            return Optional.of(this.traceparent);
+        }
+
+        @Override
+        public void end() {
+            this.ends.incrementAndGet();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Optional<String> getParentName() {
+            return Optional.ofNullable(this.parent).map(SpanMock::getName);
+        }
+
+        public Long getStatusCode() {
+            return statusCode;
+        }
+
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        public long getEnds() {
+            return ends.get();
+        }
+    }
+}
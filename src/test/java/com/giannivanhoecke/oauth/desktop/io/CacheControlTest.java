@@ -0,0 +1,57 @@
+package com.giannivanhoecke.oauth.desktop.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class CacheControlTest {
+
+    @Test
+    public void maxAgeIsReadInMs() {
+        // expect
+        assertThat(CacheControl.getMaxAgeInMs(headers("public, max-age=300")), is(equalTo(Optional.of(300_000L))));
+    }
+
+    @Test
+    public void noCacheOverridesMaxAge() {
+        // expect
+        assertThat(CacheControl.getMaxAgeInMs(headers("max-age=300, no-cache")), is(equalTo(Optional.of(0L))));
+    }
+
+    @Test
+    public void invalidMaxAgeIsNotCached() {
+        // expect
+        assertThat(CacheControl.getMaxAgeInMs(headers("max-age=soon")), is(equalTo(Optional.of(0L))));
+    }
+
+    @Test
+    public void noStoreIsDetected() {
+        // expect
+        assertThat(CacheControl.isNoStore(headers("private, No-Store")), is(true));
+        assertThat(CacheControl.isNoStore(headers("no-cache, max-age=0")), is(false));
+    }
+
+    @Test
+    public void missingHeaderIsEmpty() {
+        // expect
+        assertThat(CacheControl.getMaxAgeInMs(HttpHeaders.of(Map.of(), (name, value) -> true)),
+                is(equalTo(Optional.empty())));
+    }
+
+    // util
+
+    private static HttpHeaders headers(String cacheControl) {
+        return HttpHeaders.of(Map.of(HttpHeader.CACHE_CONTROL, List.of(cacheControl)), (name, value) -> true);
+    }
+}
@@ -0,0 +1,47 @@
+package com.giannivanhoecke.oauth.desktop.io;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class RedactionTest {
+
+    @Test
+    public void redactFormMasksSecrets() {
+        // given
+        String payload = "grant_type=authorization_code&code=my-code&code_verifier=my-verifier&client_id=my-client";
+
+        // when
+        String redacted = Redaction.redactForm(payload);
+
+        // then
+        assertThat(redacted, is(equalTo("grant_type=authorization_code&code=[REDACTED]" +
+                "&code_verifier=[REDACTED]&client_id=my-client")));
+    }
+
+    @Test
+    public void redactFormKeepsParametersWithoutValue() {
+        // expect
+        assertThat(Redaction.redactForm("refresh_token&scope=openid&"), is(equalTo("refresh_token&scope=openid&")));
+    }
+
+    @Test
+    public void redactFormMatchesWholeParameterNames() {
+        // expect
+        assertThat(Redaction.redactForm("token_type_hint=refresh_token&token=my-token"),
+                is(equalTo("token_type_hint=refresh_token&token=[REDACTED]")));
+    }
+
+    @Test
+    public void redactNullForm() {
+        // expect
+        assertThat(Redaction.redactForm(null), is(nullValue()));
+    }
+}
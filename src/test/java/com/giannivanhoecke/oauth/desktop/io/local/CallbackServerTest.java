@@ -9,8 +9,11 @@ import com.giannivanhoecke.oauth.desktop.representation.internal.AuthorizationCo
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
@@ -26,6 +29,7 @@ public class CallbackServerTest {
     private final CallbackServer callbackServer;
     
     private AuthorizationCodeResponse authorizationCodeResponse;
+    private CountDownLatch callbackLatch;
 
     public CallbackServerTest() {
         this.callbackServer = new CallbackServer(CallbackServerConfig
@@ -36,11 +40,13 @@ public class CallbackServerTest {
 
     private void callbackReceived(AuthorizationCodeResponse authorizationCodeResponse) {
         this.authorizationCodeResponse = authorizationCodeResponse;
+        this.callbackLatch.countDown();
     }
 
     @BeforeEach
     public void start()
             throws IOException {
+        this.callbackLatch = new CountDownLatch(1);
         this.callbackServer.start();
     }
 
@@ -52,7 +58,7 @@ public class CallbackServerTest {
 
     @RepeatedTest(2)
     public void callbackSuccess()
-            throws ResourceException {
+            throws ResourceException, InterruptedException {
         // given
         String callbackEndpoint = String.format(
                 "%s?state=my-state&code=my-code", this.callbackServer.getSuccessEndpoint());
@@ -67,8 +73,61 @@ public class CallbackServerTest {
         // then
         assertThat(getResult, is(not(equalTo(null))));
         assertThat(getResult.getResultCode(), is(equalTo(200)));
+        // the listener is notified after the response is sent
+        assertThat(this.callbackLatch.await(1, TimeUnit.MINUTES), is(true));
         assertThat(this.authorizationCodeResponse, is(not(equalTo(null))));
         assertThat(this.authorizationCodeResponse.getState(), is(equalTo("my-state")));
         assertThat(this.authorizationCodeResponse.getCode(), is(equalTo("my-code")));
     }
+
+    @Test
+    public void startWhileRunningReusesServer()
+            throws IOException {
+        // given
+        String successEndpoint = this.callbackServer.getSuccessEndpoint();
+
+        // when
+        this.callbackServer.start();
+
+        // then
+        assertThat(this.callbackServer.getSuccessEndpoint(), is(equalTo(successEndpoint)));
+    }
+
+    @Test
+    public void releaseWithoutIdleTimeoutStopsServer() {
+        // when
+        this.callbackServer.release();
+
+        // then
+        assertThat(this.callbackServer.isRunning(), is(false));
+    }
+
+    @Test
+    public void releaseWithIdleTimeoutKeepsServerWarm()
+            throws IOException, InterruptedException {
+        // given
+        CallbackServer idleCallbackServer = new CallbackServer(CallbackServerConfig
+                .newBuilder()
+                .withCallbackListener(this::callbackReceived)
+                .withIdleTimeoutInMs(200)
+                .build());
+        idleCallbackServer.start();
+        String successEndpoint = idleCallbackServer.getSuccessEndpoint();
+
+        // when
+        idleCallbackServer.release();
+        idleCallbackServer.start();
+        Thread.sleep(400);
+
+        // then
+        assertThat(idleCallbackServer.isRunning(), is(true));
+        assertThat(idleCallbackServer.getSuccessEndpoint(), is(equalTo(successEndpoint)));
+
+        // when
+        idleCallbackServer.release();
+        Thread.sleep(400);
+
+        // then
+        assertThat(idleCallbackServer.isRunning(), is(false));
+    }
 }
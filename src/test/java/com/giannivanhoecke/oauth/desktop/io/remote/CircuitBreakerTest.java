@@ -0,0 +1,119 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import com.giannivanhoecke.oauth.desktop.resilience.CircuitBreakerConfig;
+import com.giannivanhoecke.oauth.desktop.resilience.CircuitBreakerState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class CircuitBreakerTest {
+
+    private static final String ENDPOINT = "http://localhost/token";
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        // given
+        CircuitBreaker circuitBreaker = new CircuitBreaker(ENDPOINT, CircuitBreakerConfig
+                .newBuilder()
+                .withFailureThreshold(2)
+                .build());
+
+        // when
+        circuitBreaker.tryAcquire().orElseThrow().onFailure();
+        circuitBreaker.tryAcquire().orElseThrow().onFailure();
+
+        // then
+        assertThat(circuitBreaker.getState(), is(equalTo(CircuitBreakerState.OPEN)));
+        assertThat(circuitBreaker.tryAcquire().isPresent(), is(false));
+    }
+
+    @Test
+    public void successResetsConsecutiveFailures() {
+        // given
+        CircuitBreaker circuitBreaker = new CircuitBreaker(ENDPOINT, CircuitBreakerConfig
+                .newBuilder()
+                .withFailureThreshold(2)
+                .build());
+
+        // when
+        circuitBreaker.tryAcquire().orElseThrow().onFailure();
+        circuitBreaker.tryAcquire().orElseThrow().onSuccess();
+        circuitBreaker.tryAcquire().orElseThrow().onFailure();
+
+        // then
+        assertThat(circuitBreaker.getState(), is(equalTo(CircuitBreakerState.CLOSED)));
+    }
+
+    @Test
+    public void halfOpenLetsProbesThroughAndClosesOnSuccess()
+            throws InterruptedException {
+        // given
+        CircuitBreaker circuitBreaker = openCircuitBreaker(50);
+        Thread.sleep(100);
+
+        // when
+        Optional<CircuitBreaker.Permit> probe = circuitBreaker.tryAcquire();
+        Optional<CircuitBreaker.Permit> rejected = circuitBreaker.tryAcquire();
+
+        // then
+        assertThat(circuitBreaker.getState(), is(equalTo(CircuitBreakerState.HALF_OPEN)));
+        assertThat(probe.isPresent(), is(true));
+        assertThat(probe.get().isProbe(), is(true));
+        assertThat(rejected.isPresent(), is(false));
+
+        // when
+        probe.get().onSuccess();
+
+        // then
+        assertThat(circuitBreaker.getState(), is(equalTo(CircuitBreakerState.CLOSED)));
+    }
+
+    @Test
+    public void halfOpenReopensOnProbeFailure()
+            throws InterruptedException {
+        // given
+        CircuitBreaker circuitBreaker = openCircuitBreaker(50);
+        Thread.sleep(100);
+
+        // when
+        circuitBreaker.tryAcquire().orElseThrow().onFailure();
+
+        // then
+        assertThat(circuitBreaker.getState(), is(equalTo(CircuitBreakerState.OPEN)));
+    }
+
+    @Test
+    public void ignoredProbeFreesItsSlot()
+            throws InterruptedException {
+        // given
+        CircuitBreaker circuitBreaker = openCircuitBreaker(50);
+        Thread.sleep(100);
+
+        // when
+        circuitBreaker.tryAcquire().orElseThrow().onIgnored();
+
+        // then
+        assertThat(circuitBreaker.getState(), is(equalTo(CircuitBreakerState.HALF_OPEN)));
+        assertThat(circuitBreaker.tryAcquire().isPresent(), is(true));
+    }
+
+    // util
+
+    private CircuitBreaker openCircuitBreaker(long openDurationInMs) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(ENDPOINT, CircuitBreakerConfig
+                .newBuilder()
+                .withFailureThreshold(1)
+                .withOpenDurationInMs(openDurationInMs)
+                .build());
+        circuitBreaker.tryAcquire().orElseThrow().onFailure();
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,97 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void acquireWithinLimitCompletesRightAway() {
+        // given
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(2, 0);
+
+        // when
+        CompletableFuture<Void> first = concurrencyLimiter.acquire();
+        CompletableFuture<Void> second = concurrencyLimiter.acquire();
+
+        // then
+        assertThat(first.isDone(), is(true));
+        assertThat(second.isDone(), is(true));
+        assertThat(concurrencyLimiter.getInFlight(), is(equalTo(2)));
+    }
+
+    @Test
+    public void acquireOverLimitWaitsForRelease() {
+        // given
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(1, 1);
+        concurrencyLimiter.acquire();
+
+        // when
+        CompletableFuture<Void> waiting = concurrencyLimiter.acquire();
+
+        // then
+        assertThat(waiting.isDone(), is(false));
+        assertThat(concurrencyLimiter.getQueued(), is(equalTo(1)));
+
+        // when
+        concurrencyLimiter.release();
+
+        // then
+        assertThat(waiting.isDone(), is(true));
+        assertThat(concurrencyLimiter.getInFlight(), is(equalTo(1)));
+        assertThat(concurrencyLimiter.getQueued(), is(equalTo(0)));
+
+        // when
+        concurrencyLimiter.release();
+
+        // then
+        assertThat(concurrencyLimiter.getInFlight(), is(equalTo(0)));
+    }
+
+    @Test
+    public void acquireWithFullQueueIsRejected() {
+        // given
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(1, 1);
+        concurrencyLimiter.acquire();
+        concurrencyLimiter.acquire();
+
+        // when
+        CompletableFuture<Void> rejected = concurrencyLimiter.acquire();
+
+        // then
+        ExecutionException executionException = assertThrows(
+                ExecutionException.class, () -> rejected.get(1, TimeUnit.MINUTES));
+        assertThat(executionException.getCause(), is(instanceOf(RejectedExecutionException.class)));
+    }
+
+    @Test
+    public void releaseSkipsCancelledWaiters() {
+        // given
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(1, 2);
+        concurrencyLimiter.acquire();
+        CompletableFuture<Void> cancelled = concurrencyLimiter.acquire();
+        CompletableFuture<Void> waiting = concurrencyLimiter.acquire();
+
+        // when
+        cancelled.cancel(false);
+        concurrencyLimiter.release();
+
+        // then
+        assertThat(waiting.isDone(), is(true));
+        assertThat(concurrencyLimiter.getInFlight(), is(equalTo(1)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import com.giannivanhoecke.oauth.desktop.concurrent.VirtualThreads;
+import com.giannivanhoecke.oauth.desktop.system.ExecutorStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class HttpClientRegistryTest {
+
+    private static final HttpClientKey KEY = new HttpClientKey(
+            10_000, ProxySelector.getDefault(), HttpClient.Version.HTTP_1_1);
+
+    @Test
+    public void getSameKeyReturnsSameClient() {
+        // given
+        HttpClientRegistry registry = new HttpClientRegistry();
+
+        // when
+        HttpClient thisClient = registry.get(KEY);
+        HttpClient otherClient = registry.get(new HttpClientKey(
+                10_000, ProxySelector.getDefault(), HttpClient.Version.HTTP_1_1));
+
+        // then
+        assertThat(thisClient, is(sameInstance(otherClient)));
+        assertThat(registry.size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void getOtherKeyReturnsOtherClient() {
+        // given
+        HttpClientRegistry registry = new HttpClientRegistry();
+
+        // when
+        HttpClient thisClient = registry.get(KEY);
+        HttpClient otherClient = registry.get(new HttpClientKey(
+                5_000, ProxySelector.getDefault(), HttpClient.Version.HTTP_1_1));
+
+        // then
+        assertThat(thisClient, is(not(sameInstance(otherClient))));
+        assertThat(registry.size(), is(equalTo(2)));
+    }
+
+    @Test
+    public void getOtherHttpVersionReturnsOtherClient() {
+        // given
+        HttpClientRegistry registry = new HttpClientRegistry();
+
+        // when
+        HttpClient thisClient = registry.get(KEY);
+        HttpClient otherClient = registry.get(new HttpClientKey(
+                10_000, ProxySelector.getDefault(), HttpClient.Version.HTTP_2));
+
+        // then
+        assertThat(thisClient, is(not(sameInstance(otherClient))));
+        assertThat(otherClient.version(), is(equalTo(HttpClient.Version.HTTP_2)));
+    }
+
+    @Test
+    public void getOtherExecutorStrategyReturnsOtherClient() {
+        // given
+        HttpClientRegistry registry = new HttpClientRegistry();
+
+        // when
+        HttpClient thisClient = registry.get(KEY);
+        HttpClient otherClient = registry.get(new HttpClientKey(
+                10_000, ProxySelector.getDefault(), HttpClient.Version.HTTP_1_1, ExecutorStrategy.VIRTUAL_THREADS));
+
+        // then
+        assertThat(thisClient, is(not(sameInstance(otherClient))));
+        assertThat(otherClient.executor().isPresent(), is(equalTo(Runtime.version().feature() >= 21)));
+    }
+
+    @Test
+    public void getAppliesKey() {
+        // given
+        HttpClientRegistry registry = new HttpClientRegistry();
+
+        // when
+        HttpClient client = registry.get(KEY);
+
+        // then
+        assertThat(client.version(), is(equalTo(HttpClient.Version.HTTP_1_1)));
+        assertThat(client.connectTimeout().isPresent(), is(true));
+        assertThat(client.connectTimeout().get().toMillis(), is(equalTo(10_000L)));
+    }
+
+    @Test
+    public void closeReleasesClients() {
+        // given
+        HttpClientRegistry registry = new HttpClientRegistry();
+        HttpClient thisClient = registry.get(KEY);
+
+        // when
+        registry.close();
+        HttpClient otherClient = registry.get(KEY);
+
+        // then
+        assertThat(thisClient, is(not(sameInstance(otherClient))));
+        assertThat(registry.size(), is(equalTo(1)));
+    }
+
+    @Test
+    public void closeKeepsDefaultClients() {
+        // given
+        HttpClientRegistry registry = HttpClientRegistry.getDefault();
+        HttpClient thisClient = registry.get(KEY);
+
+        // when
+        registry.close();
+        HttpClient otherClient = registry.get(KEY);
+
+        // then
+        assertThat(thisClient, is(sameInstance(otherClient)));
+    }
+
+    @Test
+    public void closeShutsDownOwnedExecutors() {
+        // given
+        assumeTrue(VirtualThreads.isSupported());
+        HttpClientRegistry registry = new HttpClientRegistry();
+        HttpClient client = registry.get(new HttpClientKey(
+                10_000, ProxySelector.getDefault(), HttpClient.Version.HTTP_1_1, ExecutorStrategy.VIRTUAL_THREADS));
+
+        // when
+        registry.close();
+
+        // then
+        assertThat(((ExecutorService) client.executor().get()).isShutdown(), is(true));
+    }
+}
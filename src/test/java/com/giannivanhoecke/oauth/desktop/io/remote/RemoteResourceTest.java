@@ -0,0 +1,62 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import com.giannivanhoecke.oauth.desktop.fixtures.AuthorizationServerMock;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class RemoteResourceTest {
+
+    @Test
+    public void postWaitingForRequestSlotTimesOut()
+            throws IOException, InterruptedException {
+        // given
+        AuthorizationServerMock authorizationServerMock = new AuthorizationServerMock();
+        authorizationServerMock.start();
+        authorizationServerMock.overrideTokenDelayInMs(1500);
+        RemoteResource remoteResource = new RemoteResource();
+        PostRequest postRequest = new PostRequest(RequestParameters
+                .newBuilder()
+                .withEndpoint(authorizationServerMock.getBaseUrl() + "/token")
+                .withRequestTimeoutInMs(1000)
+                .withMaxConcurrentRequests(1)
+                .withMaxQueuedRequests(2)
+                .build(), "grant_type=refresh_token");
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+
+        try {
+            // when
+            // the first request holds the only slot until it times out, then hands it to the second one
+            executorService.submit(() -> remoteResource.post(postRequest));
+            Thread.sleep(100);
+            executorService.submit(() -> remoteResource.post(postRequest));
+            Thread.sleep(100);
+            Future<PostResult> third = executorService.submit(() -> remoteResource.post(postRequest));
+
+            // then
+            ExecutionException executionException = assertThrows(
+                    ExecutionException.class, () -> third.get(1, TimeUnit.MINUTES));
+            assertThat(executionException.getCause(), is(instanceOf(ResourceException.class)));
+            assertThat(executionException.getCause().getCause(), is(instanceOf(TimeoutException.class)));
+        } finally {
+            authorizationServerMock.overrideTokenDelayInMs(0);
+            executorService.shutdown();
+            authorizationServerMock.stop();
+        }
+    }
+}
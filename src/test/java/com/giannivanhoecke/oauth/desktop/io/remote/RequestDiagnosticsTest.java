@@ -0,0 +1,56 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.slf4j.helpers.NOPLogger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class RequestDiagnosticsTest {
+
+    private static final String ENDPOINT = "https://auth.example.com/token";
+    private static final String PAYLOAD  = "grant_type=refresh_token&refresh_token=my-refresh-token";
+
+    private final RequestParameters requestParameters = RequestParameters
+            .newBuilder()
+            .withEndpoint(ENDPOINT)
+            .build();
+
+    @Test
+    public void startWithDebugEnabledPutsRedactedDetails() {
+        // when
+        try (RequestDiagnostics diagnostics = RequestDiagnostics.start(
+                LoggerFactory.getLogger(RequestDiagnosticsTest.class), this.requestParameters, PAYLOAD)) {
+
+            // then
+            assertThat(diagnostics.isEnabled(), is(true));
+            assertThat(MDC.get(RemoteResourceMdcConstants.LOGGER_MDC_REMOTE_LOCATION), is(equalTo(ENDPOINT)));
+            assertThat(MDC.get(RemoteResourceMdcConstants.LOGGER_MDC_PAYLOAD),
+                    is(equalTo("grant_type=refresh_token&refresh_token=[REDACTED]")));
+        }
+        assertThat(MDC.get(RemoteResourceMdcConstants.LOGGER_MDC_REMOTE_LOCATION), is(nullValue()));
+        assertThat(MDC.get(RemoteResourceMdcConstants.LOGGER_MDC_PAYLOAD), is(nullValue()));
+        assertThat(MDC.get(RemoteResourceMdcConstants.LOGGER_MDC_KEY_VALUES), is(nullValue()));
+    }
+
+    @Test
+    public void startWithDebugDisabledPutsNothing() {
+        // when
+        try (RequestDiagnostics diagnostics = RequestDiagnostics.start(
+                NOPLogger.NOP_LOGGER, this.requestParameters, PAYLOAD)) {
+
+            // then
+            assertThat(diagnostics.isEnabled(), is(false));
+            assertThat(MDC.get(RemoteResourceMdcConstants.LOGGER_MDC_REMOTE_LOCATION), is(nullValue()));
+            assertThat(MDC.get(RemoteResourceMdcConstants.LOGGER_MDC_PAYLOAD), is(nullValue()));
+        }
+    }
+}
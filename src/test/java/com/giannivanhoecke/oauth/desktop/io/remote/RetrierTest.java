@@ -0,0 +1,112 @@
+package com.giannivanhoecke.oauth.desktop.io.remote;
+
+import com.giannivanhoecke.oauth.desktop.resilience.RetryPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class RetrierTest {
+
+    private static final RetryPolicy RETRY_POLICY = RetryPolicy
+            .newBuilder()
+            .withInitialBackoffInMs(1)
+            .build();
+
+    @Test
+    public void parseRetryAfterInSeconds() {
+        // when
+        Optional<Long> retryAfterInMs = Retrier.parseRetryAfterInMs("2");
+
+        // then
+        assertThat(retryAfterInMs, is(equalTo(Optional.of(2_000L))));
+    }
+
+    @Test
+    public void parseRetryAfterAsHttpDate() {
+        // given
+        String retryAfter = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusHours(1));
+
+        // when
+        Optional<Long> retryAfterInMs = Retrier.parseRetryAfterInMs(retryAfter);
+
+        // then
+        assertThat(retryAfterInMs.isPresent(), is(true));
+        assertThat(retryAfterInMs.get() > 3_500_000L, is(true));
+    }
+
+    @Test
+    public void parseInvalidRetryAfterIsEmpty() {
+        // expect
+        assertThat(Retrier.parseRetryAfterInMs("soon"), is(equalTo(Optional.empty())));
+    }
+
+    @Test
+    public void executeNonIdempotentRetriesConnectFailure()
+            throws Exception {
+        // given
+        Retrier retrier = new Retrier(RETRY_POLICY);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // expect
+        assertThrows(ConnectException.class, () -> retrier.execute(false, () -> {
+            attempts.incrementAndGet();
+            throw new ConnectException("Connection refused");
+        }));
+
+        // then
+        assertThat(attempts.get(), is(equalTo(3)));
+    }
+
+    @Test
+    public void executeNonIdempotentDoesNotRetryOtherFailures() {
+        // given
+        Retrier retrier = new Retrier(RETRY_POLICY);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // expect
+        assertThrows(IOException.class, () -> retrier.execute(false, () -> {
+            attempts.incrementAndGet();
+            throw new IOException("Connection reset");
+        }));
+
+        // then
+        assertThat(attempts.get(), is(equalTo(1)));
+    }
+
+    @Test
+    public void executeStopsWhenRetryBudgetIsExhausted() {
+        // given
+        Retrier retrier = new Retrier(RetryPolicy
+                .newBuilder()
+                .withInitialBackoffInMs(1)
+                .withMaxAttempts(10)
+                .withRetryBudgetMinimum(2)
+                .withRetryBudgetRatio(0.0)
+                .build());
+        AtomicInteger attempts = new AtomicInteger();
+
+        // expect
+        assertThrows(IOException.class, () -> retrier.execute(true, () -> {
+            attempts.incrementAndGet();
+            throw new IOException("Connection reset");
+        }));
+
+        // then
+        assertThat(attempts.get(), is(equalTo(3)));
+    }
+}
@@ -0,0 +1,113 @@
+package com.giannivanhoecke.oauth.desktop.jwt;
+
+import com.giannivanhoecke.oauth.desktop.exception.VerificationException;
+import com.giannivanhoecke.oauth.desktop.fixtures.JwtSigner;
+import com.giannivanhoecke.oauth.desktop.io.remote.JsonResult;
+import com.giannivanhoecke.oauth.desktop.representation.internal.JsonWebKeySet;
+import com.giannivanhoecke.oauth.desktop.representation.internal.ResponseParser;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class IdTokenVerifierTest {
+
+    private static final String ISSUER = "https://auth.example.com/realms/example";
+    private static final String CLIENT_ID = "client-id";
+    private static final JwtSigner JWT_SIGNER = new JwtSigner();
+
+    private IdTokenVerifier idTokenVerifier;
+
+    @BeforeEach
+    public void setup()
+            throws IOException {
+        JsonResult<JsonWebKeySet> jsonWebKeySet =
+                JsonResult.parsed(200, ResponseParser.JSON_WEB_KEY_SET_ADAPTER.fromJson(JWT_SIGNER.getJwks()));
+        idTokenVerifier = new IdTokenVerifier(ISSUER, CLIENT_ID, new JwksCache(() -> jsonWebKeySet, 60_000, 0),
+                IdTokenVerifier.DEFAULT_CLOCK_SKEW_IN_MS);
+    }
+
+    @Test
+    public void rs256TokenIsVerified() {
+        // when
+        JsonObject claims = idTokenVerifier.verify(
+                JWT_SIGNER.signRs256(JwtSigner.RSA_KEY_ID, JWT_SIGNER.idTokenClaims(ISSUER, CLIENT_ID)));
+
+        // then
+        assertThat(claims.get("sub").getAsString(), is(equalTo("9047370c-24f9-45f1-9959-faca5e60e6b9")));
+    }
+
+    @Test
+    public void es256TokenWithoutKeyIdIsVerified() {
+        // when
+        JsonObject claims = idTokenVerifier.verify(
+                JWT_SIGNER.signEs256(null, JWT_SIGNER.idTokenClaims(ISSUER, CLIENT_ID)));
+
+        // then
+        assertThat(claims.get("iss").getAsString(), is(equalTo(ISSUER)));
+    }
+
+    @Test
+    public void tamperedTokenThrowsVerificationException() {
+        // given
+        String idToken = JWT_SIGNER.signRs256(JwtSigner.RSA_KEY_ID, JWT_SIGNER.idTokenClaims(ISSUER, CLIENT_ID));
+        String otherClaims = JWT_SIGNER.signRs256(JwtSigner.RSA_KEY_ID,
+                JWT_SIGNER.idTokenClaims(ISSUER, "other-client-id")).split("\\.")[1];
+        String[] parts = idToken.split("\\.");
+
+        // expect
+        assertThrows(VerificationException.class,
+                () -> idTokenVerifier.verify(parts[0] + "." + otherClaims + "." + parts[2]));
+    }
+
+    @Test
+    public void unsignedTokenThrowsVerificationException() {
+        // expect
+        assertThrows(VerificationException.class,
+                () -> idTokenVerifier.verify(JWT_SIGNER.unsigned(JWT_SIGNER.idTokenClaims(ISSUER, CLIENT_ID))));
+    }
+
+    @Test
+    public void tokenForOtherClientThrowsVerificationException() {
+        // expect
+        assertThrows(VerificationException.class, () -> idTokenVerifier.verify(
+                JWT_SIGNER.signRs256(JwtSigner.RSA_KEY_ID, JWT_SIGNER.idTokenClaims(ISSUER, "other-client-id"))));
+    }
+
+    @Test
+    public void tokenOfOtherIssuerThrowsVerificationException() {
+        // expect
+        assertThrows(VerificationException.class, () -> idTokenVerifier.verify(
+                JWT_SIGNER.signRs256(JwtSigner.RSA_KEY_ID, JWT_SIGNER.idTokenClaims("https://other", CLIENT_ID))));
+    }
+
+    @Test
+    public void expiredTokenThrowsVerificationException() {
+        // given
+        long expiry = Instant.now().minusSeconds(120).getEpochSecond();
+        String claims = String.format("{\"iss\":\"%s\",\"aud\":[\"%s\"],\"sub\":\"user\",\"exp\":%d}",
+                ISSUER, CLIENT_ID, expiry);
+
+        // expect
+        assertThrows(VerificationException.class,
+                () -> idTokenVerifier.verify(JWT_SIGNER.signRs256(JwtSigner.RSA_KEY_ID, claims)));
+    }
+
+    @Test
+    public void malformedTokenThrowsVerificationException() {
+        // expect
+        assertThrows(VerificationException.class, () -> idTokenVerifier.verify("not-a-jwt"));
+        assertThrows(VerificationException.class, () -> idTokenVerifier.verify("a.b.c"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.giannivanhoecke.oauth.desktop.jwt;
+
+import com.giannivanhoecke.oauth.desktop.exception.VerificationException;
+import com.giannivanhoecke.oauth.desktop.fixtures.JwtSigner;
+import com.giannivanhoecke.oauth.desktop.io.remote.JsonResult;
+import com.giannivanhoecke.oauth.desktop.representation.internal.JsonWebKeySet;
+import com.giannivanhoecke.oauth.desktop.representation.internal.ResponseParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class JwksCacheTest {
+
+    private static final JwtSigner JWT_SIGNER = new JwtSigner();
+
+    @Test
+    public void keysAreFetchedOnce()
+            throws IOException {
+        // given
+        AtomicInteger fetches = new AtomicInteger();
+        JwksCache jwksCache = new JwksCache(counting(fetches, jsonWebKeySet()), 60_000, 0);
+
+        // when
+        jwksCache.getKey(JwtSigner.RSA_KEY_ID, JwtAlgorithm.RS256);
+        jwksCache.getKey(JwtSigner.EC_KEY_ID, JwtAlgorithm.ES256);
+
+        // then
+        assertThat(fetches.get(), is(equalTo(1)));
+    }
+
+    @Test
+    public void unknownKeyIsFetchedAgain()
+            throws IOException {
+        // given
+        AtomicInteger fetches = new AtomicInteger();
+        JwksCache jwksCache = new JwksCache(counting(fetches, jsonWebKeySet()), 60_000, 0);
+        jwksCache.getKey(JwtSigner.RSA_KEY_ID, JwtAlgorithm.RS256);
+
+        // expect
+        assertThrows(VerificationException.class, () -> jwksCache.getKey("rotated-key", JwtAlgorithm.RS256));
+        assertThat(fetches.get(), is(equalTo(2)));
+    }
+
+    @Test
+    public void unknownKeyIsNotFetchedAgainWithinMinRefreshInterval()
+            throws IOException {
+        // given
+        AtomicInteger fetches = new AtomicInteger();
+        JwksCache jwksCache = new JwksCache(counting(fetches, jsonWebKeySet()), 60_000, 60_000);
+        jwksCache.getKey(JwtSigner.RSA_KEY_ID, JwtAlgorithm.RS256);
+
+        // expect
+        assertThrows(VerificationException.class, () -> jwksCache.getKey("rotated-key", JwtAlgorithm.RS256));
+        assertThat(fetches.get(), is(equalTo(1)));
+    }
+
+    @Test
+    public void keyOfOtherTypeIsNotReturned()
+            throws IOException {
+        // given
+        JwksCache jwksCache = new JwksCache(counting(new AtomicInteger(), jsonWebKeySet()), 60_000, 0);
+
+        // expect
+        assertThrows(VerificationException.class, () -> jwksCache.getKey(JwtSigner.RSA_KEY_ID, JwtAlgorithm.ES256));
+        assertThrows(VerificationException.class, () -> jwksCache.getKey("enc-key", JwtAlgorithm.RS256));
+    }
+
+    @Test
+    public void expiredKeysAreKeptWhenFetchingFails()
+            throws IOException {
+        // given
+        JsonResult<JsonWebKeySet> jsonWebKeySet = jsonWebKeySet();
+        AtomicInteger fetches = new AtomicInteger();
+        JwksCache jwksCache = new JwksCache(() -> {
+            if (fetches.getAndIncrement() > 0) {
+                return JsonResult.unparsed(503, "Unavailable");
+            }
+            return jsonWebKeySet;
+        }, 0, 0);
+        jwksCache.getKey(JwtSigner.RSA_KEY_ID, JwtAlgorithm.RS256);
+
+        // expect
+        assertThat(jwksCache.getKey(JwtSigner.RSA_KEY_ID, JwtAlgorithm.RS256), is(notNullValue()));
+        assertThat(fetches.get(), is(equalTo(2)));
+    }
+
+    @Test
+    public void failingFirstFetchThrowsVerificationException() {
+        // given
+        JwksCache jwksCache = new JwksCache(() -> JsonResult.unparsed(503, "Unavailable"), 60_000, 0);
+
+        // expect
+        assertThrows(VerificationException.class, () -> jwksCache.getKey(JwtSigner.RSA_KEY_ID, JwtAlgorithm.RS256));
+    }
+
+    // util
+
+    private static JsonResult<JsonWebKeySet> jsonWebKeySet()
+            throws IOException {
+        return JsonResult.parsed(200, ResponseParser.JSON_WEB_KEY_SET_ADAPTER.fromJson(JWT_SIGNER.getJwks()));
+    }
+
+    private static Supplier<JsonResult<JsonWebKeySet>> counting(AtomicInteger fetches,
+                                                                JsonResult<JsonWebKeySet> jsonWebKeySet) {
+        return () -> {
+            fetches.incrementAndGet();
+            return jsonWebKeySet;
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.giannivanhoecke.oauth.desktop.representation.internal;
+
+import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+import com.giannivanhoecke.oauth.desktop.representation.UserInfoResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class ResponseParserTest {
+
+    private static final String ACCESS_TOKEN_RESPONSE = "{\"access_token\":\"my-access-token\",\"expires_in\":300," +
+            "\"refresh_expires_in\":0,\"refresh_token\":\"my-refresh-token\",\"token_type\":\"Bearer\"," +
+            "\"id_token\":\"my-id-token\",\"not-before-policy\":0,\"session_state\":\"my-session-state\"," +
+            "\"scope\":\"openid offline_access email profile\",\"nested\":{\"array\":[1,2,3]}}";
+    private static final String USER_INFO_RESPONSE = "{\"sub\":\"my-id\",\"email_verified\":true," +
+            "\"name\":\"my-name\",\"preferred_username\":\"my-username\",\"given_name\":\"my-given-name\"," +
+            "\"locale\":\"en\",\"email\":\"my-email\"}";
+
+    @Test
+    public void toAccessTokenResponse()
+            throws IOException {
+        // when
+        AccessTokenResponse accessTokenResponse = ResponseParser.toAccessTokenResponse(ACCESS_TOKEN_RESPONSE);
+
+        // then
+        assertThat(accessTokenResponse, is(equalTo(new AccessTokenResponse(
+                "my-access-token", "my-refresh-token", "my-id-token", "Bearer", 300))));
+    }
+
+    @Test
+    public void toAccessTokenResponseWithNulls()
+            throws IOException {
+        // when
+        AccessTokenResponse accessTokenResponse = ResponseParser.toAccessTokenResponse(
+                "{\"access_token\":\"my-access-token\",\"refresh_token\":null,\"expires_in\":null}");
+
+        // then
+        assertThat(accessTokenResponse, is(equalTo(new AccessTokenResponse(
+                "my-access-token", null, null, null, 0))));
+    }
+
+    @Test
+    public void toAccessTokenResponseMatchesReflectiveGson()
+            throws IOException {
+        // when
+        AccessTokenResponse accessTokenResponse = ResponseParser.toAccessTokenResponse(ACCESS_TOKEN_RESPONSE);
+        AccessTokenResponse reflectiveAccessTokenResponse = new com.google.gson.Gson().fromJson(
+                ACCESS_TOKEN_RESPONSE, AccessTokenResponse.class);
+
+        // then
+        assertThat(accessTokenResponse, is(equalTo(reflectiveAccessTokenResponse)));
+    }
+
+    @Test
+    public void toAccessTokenResponseInvalidJsonThrowsIOException() {
+        // expect
+        assertThrows(IOException.class, () -> ResponseParser.toAccessTokenResponse("{\"access_token\":"));
+    }
+
+    @Test
+    public void toUserInfoResponse()
+            throws IOException {
+        // when
+        UserInfoResponse userInfoResponse = ResponseParser.toUserInfoResponse(USER_INFO_RESPONSE);
+
+        // then
+        assertThat(userInfoResponse, is(equalTo(new UserInfoResponse(
+                "my-id", "my-username", "my-name", "my-email"))));
+    }
+
+    @Test
+    public void sharedGsonRoundTrip() {
+        // given
+        AccessTokenResponse accessTokenResponse = new AccessTokenResponse(
+                "my-access-token", "my-refresh-token", null, "Bearer", 300);
+
+        // when
+        String json = ResponseParser.getGson().toJson(accessTokenResponse);
+        AccessTokenResponse parsed = ResponseParser.getGson().fromJson(json, AccessTokenResponse.class);
+
+        // then
+        assertThat(json, is(equalTo("{\"access_token\":\"my-access-token\",\"refresh_token\":\"my-refresh-token\"," +
+                "\"token_type\":\"Bearer\",\"expires_in\":300}")));
+        assertThat(parsed, is(equalTo(accessTokenResponse)));
+    }
+}
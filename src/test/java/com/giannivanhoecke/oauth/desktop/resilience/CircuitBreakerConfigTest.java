@@ -0,0 +1,52 @@
+package com.giannivanhoecke.oauth.desktop.resilience;
+
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class CircuitBreakerConfigTest {
+
+    @Test
+    public void builderWithDefaultProperties() {
+        // when
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.newBuilder().build();
+
+        // then
+        assertThat(circuitBreakerConfig.isEnabled(), is(true));
+        assertThat(circuitBreakerConfig.getFailureThreshold(), is(equalTo(5)));
+        assertThat(circuitBreakerConfig.getOpenDurationInMs(), is(equalTo(30_000L)));
+        assertThat(circuitBreakerConfig.getHalfOpenProbes(), is(equalTo(1)));
+    }
+
+    @Test
+    public void disabledIsNotEnabled() {
+        // expect
+        assertThat(CircuitBreakerConfig.DISABLED.isEnabled(), is(false));
+    }
+
+    @Test
+    public void builderWithNegativeFailureThresholdThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> CircuitBreakerConfig
+                .newBuilder()
+                .withFailureThreshold(-1)
+                .build());
+    }
+
+    @Test
+    public void builderWithoutHalfOpenProbesThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> CircuitBreakerConfig
+                .newBuilder()
+                .withHalfOpenProbes(0)
+                .build());
+    }
+}
@@ -0,0 +1,75 @@
+package com.giannivanhoecke.oauth.desktop.resilience;
+
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.MissingConfigException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class RetryPolicyTest {
+
+    @Test
+    public void builderWithDefaultProperties() {
+        // when
+        RetryPolicy retryPolicy = RetryPolicy.newBuilder().build();
+
+        // then
+        assertThat(retryPolicy.getMaxAttempts(), is(equalTo(3)));
+        assertThat(retryPolicy.isEnabled(), is(true));
+        assertThat(retryPolicy.getInitialBackoffInMs(), is(equalTo(200L)));
+        assertThat(retryPolicy.getMaxBackoffInMs(), is(equalTo(5_000L)));
+        assertThat(retryPolicy.getRetryableStatusCodes(), is(equalTo(Set.of(429, 502, 503, 504))));
+    }
+
+    @Test
+    public void noneIsDisabled() {
+        // expect
+        assertThat(RetryPolicy.NONE.isEnabled(), is(false));
+    }
+
+    @Test
+    public void builderWithInvalidMaxAttemptsThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> RetryPolicy.newBuilder().withMaxAttempts(0).build());
+    }
+
+    @Test
+    public void builderWithMaxBackoffUnderInitialBackoffThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> RetryPolicy
+                .newBuilder()
+                .withInitialBackoffInMs(1_000)
+                .withMaxBackoffInMs(100)
+                .build());
+    }
+
+    @Test
+    public void builderWithInvalidJitterThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> RetryPolicy.newBuilder().withJitter(1.5).build());
+    }
+
+    @Test
+    public void builderWithInvalidRetryBudgetRatioThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> RetryPolicy.newBuilder().withRetryBudgetRatio(-0.1).build());
+    }
+
+    @Test
+    public void builderWithoutRetryableStatusCodesThrowsMissingConfigException() {
+        // expect
+        assertThrows(MissingConfigException.class, () -> RetryPolicy
+                .newBuilder()
+                .withRetryableStatusCodes(null)
+                .build());
+    }
+}
@@ -0,0 +1,322 @@
+package com.giannivanhoecke.oauth.desktop.store;
+
+import com.giannivanhoecke.oauth.desktop.exception.InvalidConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.MissingConfigException;
+import com.giannivanhoecke.oauth.desktop.exception.TokenStoreException;
+import com.giannivanhoecke.oauth.desktop.representation.AccessTokenResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author gvhoecke {@literal <gianni@giannivanhoecke.com>}
+ * @since 1.1
+ */
+public class FileTokenStoreTest {
+
+    private static final SecretKey SECRET_KEY = FileTokenStore.generateSecretKey();
+    private static final StoredTokens TOKENS = new StoredTokens(
+            new AccessTokenResponse("access-token", "refresh-token", null, "Bearer", 300),
+            Instant.ofEpochMilli(1_700_000_000_000L));
+    private static final StoredTokens NEW_TOKENS = new StoredTokens(
+            new AccessTokenResponse("new-access-token", "new-refresh-token", "id-token", "Bearer", 600),
+            Instant.ofEpochMilli(1_700_000_300_000L));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void savedTokensSurviveReopening() {
+        // given
+        Path path = directory.resolve("tokens.db");
+        try (FileTokenStore fileTokenStore = open(path)) {
+            fileTokenStore.save("account", TOKENS);
+            fileTokenStore.save("account", NEW_TOKENS);
+            fileTokenStore.save("other-account", TOKENS);
+        }
+
+        // when
+        try (FileTokenStore fileTokenStore = open(path)) {
+
+            // then
+            assertThat(fileTokenStore.load("account"), is(equalTo(Optional.of(NEW_TOKENS))));
+            assertThat(fileTokenStore.load("other-account"), is(equalTo(Optional.of(TOKENS))));
+            assertThat(fileTokenStore.load("unknown-account"), is(equalTo(Optional.empty())));
+        }
+    }
+
+    @Test
+    public void removedTokensStayRemovedAfterReopening() {
+        // given
+        Path path = directory.resolve("tokens.db");
+        try (FileTokenStore fileTokenStore = open(path)) {
+            fileTokenStore.save("account", TOKENS);
+            fileTokenStore.remove("account");
+        }
+
+        // when
+        try (FileTokenStore fileTokenStore = open(path)) {
+
+            // then
+            assertThat(fileTokenStore.load("account"), is(equalTo(Optional.empty())));
+        }
+    }
+
+    @Test
+    public void tokensAreNotStoredInPlaintext()
+            throws IOException {
+        // given
+        Path path = directory.resolve("tokens.db");
+
+        // when
+        try (FileTokenStore fileTokenStore = open(path)) {
+            fileTokenStore.save("account", TOKENS);
+        }
+
+        // then
+        String contents = new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1);
+        assertThat(contents.contains("access-token"), is(false));
+        assertThat(contents.contains("refresh-token"), is(false));
+    }
+
+    @Test
+    public void tornTailIsDroppedOnReopening()
+            throws IOException {
+        // given
+        Path path = directory.resolve("tokens.db");
+        long logSize;
+        try (FileTokenStore fileTokenStore = open(path)) {
+            fileTokenStore.save("account", TOKENS);
+            logSize = fileTokenStore.getLogSizeInBytes();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(64).putInt(60).put(new byte[] { 1, 2, 3 }).rewind(), logSize);
+        }
+
+        // when
+        try (FileTokenStore fileTokenStore = open(path)) {
+            fileTokenStore.save("other-account", NEW_TOKENS);
+
+            // then
+            assertThat(fileTokenStore.load("account"), is(equalTo(Optional.of(TOKENS))));
+        }
+        try (FileTokenStore fileTokenStore = open(path)) {
+            assertThat(fileTokenStore.load("other-account"), is(equalTo(Optional.of(NEW_TOKENS))));
+        }
+    }
+
+    @Test
+    public void fileWithoutHeaderIsOpenedAsNewStore()
+            throws IOException {
+        // given
+        Path path = directory.resolve("tokens.db");
+        Files.write(path, new byte[64 * 1024]);
+
+        // when
+        try (FileTokenStore fileTokenStore = open(path)) {
+            fileTokenStore.save("account", TOKENS);
+        }
+
+        // then
+        try (FileTokenStore fileTokenStore = open(path)) {
+            assertThat(fileTokenStore.load("account"), is(equalTo(Optional.of(TOKENS))));
+        }
+    }
+
+    @Test
+    public void corruptRecordBeforeOthersThrowsTokenStoreExceptionAndKeepsFile()
+            throws IOException {
+        // given
+        Path path = directory.resolve("tokens.db");
+        long firstRecordEnd;
+        try (FileTokenStore fileTokenStore = open(path)) {
+            fileTokenStore.save("account", TOKENS);
+            firstRecordEnd = fileTokenStore.getLogSizeInBytes();
+            fileTokenStore.save("other-account", NEW_TOKENS);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 42 }), firstRecordEnd - 1);
+        }
+        byte[] contents = Files.readAllBytes(path);
+
+        // when
+        assertThrows(TokenStoreException.class, () -> open(path));
+
+        // then
+        assertThat(Files.readAllBytes(path), is(equalTo(contents)));
+    }
+
+    @Test
+    public void replayedRecordThrowsTokenStoreException()
+            throws IOException {
+        // given
+        Path path = directory.resolve("tokens.db");
+        int firstRecordStart;
+        int recordSize;
+        try (FileTokenStore fileTokenStore = open(path)) {
+            firstRecordStart = (int) fileTokenStore.getLogSizeInBytes();
+            fileTokenStore.save("account", TOKENS);
+            recordSize = (int) fileTokenStore.getLogSizeInBytes() - firstRecordStart;
+            fileTokenStore.save("account", TOKENS);
+            fileTokenStore.save("other-account", NEW_TOKENS);
+        }
+        // replay the first record in place of the second one
+        byte[] contents = Files.readAllBytes(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(contents, firstRecordStart, recordSize), firstRecordStart + recordSize);
+        }
+
+        // expect
+        assertThrows(TokenStoreException.class, () -> open(path));
+    }
+
+    @Test
+    public void failingCompactionKeepsTokens()
+            throws IOException {
+        // given
+        Path path = directory.resolve("tokens.db");
+        Path compactionPath = directory.resolve("tokens.db.compact");
+        try (FileTokenStore fileTokenStore = FileTokenStore
+                .newBuilder()
+                .withPath(path)
+                .withSecretKey(SECRET_KEY)
+                .withFsyncPolicy(FsyncPolicy.ON_CLOSE)
+                .withCompactionThresholdInBytes(4096)
+                .build()) {
+            // a directory in the way of the compacted log
+            Files.createDirectories(compactionPath.resolve("blocked"));
+
+            // when
+            for (int i = 0; i < 200; i++) {
+                fileTokenStore.save("account", TOKENS);
+            }
+            fileTokenStore.save("account", NEW_TOKENS);
+
+            // then
+            assertThat(fileTokenStore.getLogSizeInBytes(), is(greaterThan(4096L)));
+            assertThat(fileTokenStore.load("account"), is(equalTo(Optional.of(NEW_TOKENS))));
+        }
+        Files.delete(compactionPath.resolve("blocked"));
+        Files.delete(compactionPath);
+        try (FileTokenStore fileTokenStore = open(path)) {
+            assertThat(fileTokenStore.load("account"), is(equalTo(Optional.of(NEW_TOKENS))));
+        }
+    }
+
+    @Test
+    public void replacedTokensAreCompacted() {
+        // given
+        Path path = directory.resolve("tokens.db");
+        try (FileTokenStore fileTokenStore = FileTokenStore
+                .newBuilder()
+                .withPath(path)
+                .withSecretKey(SECRET_KEY)
+                .withFsyncPolicy(FsyncPolicy.ON_CLOSE)
+                .withCompactionThresholdInBytes(4096)
+                .build()) {
+
+            // when
+            for (int i = 0; i < 200; i++) {
+                fileTokenStore.save("account", TOKENS);
+            }
+            fileTokenStore.save("account", NEW_TOKENS);
+
+            // then
+            assertThat(fileTokenStore.getLogSizeInBytes(), is(lessThan(4096L)));
+            assertThat(fileTokenStore.load("account"), is(equalTo(Optional.of(NEW_TOKENS))));
+        }
+        assertThat(Files.exists(directory.resolve("tokens.db.compact")), is(false));
+        try (FileTokenStore fileTokenStore = open(path)) {
+            assertThat(fileTokenStore.load("account"), is(equalTo(Optional.of(NEW_TOKENS))));
+        }
+    }
+
+    @Test
+    public void openingWithAnotherKeyThrowsTokenStoreException() {
+        // given
+        Path path = directory.resolve("tokens.db");
+        try (FileTokenStore fileTokenStore = open(path)) {
+            fileTokenStore.save("account", TOKENS);
+        }
+
+        // expect
+        assertThrows(TokenStoreException.class, () -> FileTokenStore
+                .newBuilder()
+                .withPath(path)
+                .withSecretKey(FileTokenStore.generateSecretKey())
+                .build());
+    }
+
+    @Test
+    public void openingTwiceThrowsTokenStoreException() {
+        // given
+        Path path = directory.resolve("tokens.db");
+        FileTokenStore fileTokenStore = open(path);
+
+        try {
+            // expect
+            assertThrows(TokenStoreException.class, () -> open(path));
+        } finally {
+            fileTokenStore.close();
+        }
+    }
+
+    @Test
+    public void usingClosedStoreThrowsTokenStoreException() {
+        // given
+        FileTokenStore fileTokenStore = open(directory.resolve("tokens.db"));
+
+        // when
+        fileTokenStore.close();
+
+        // then
+        assertThrows(TokenStoreException.class, () -> fileTokenStore.load("account"));
+    }
+
+    @Test
+    public void builderWithoutSecretKeyThrowsMissingConfigException() {
+        // expect
+        assertThrows(MissingConfigException.class, () -> FileTokenStore
+                .newBuilder()
+                .withPath(directory.resolve("tokens.db"))
+                .build());
+    }
+
+    @Test
+    public void builderWithNonAesKeyThrowsInvalidConfigException() {
+        // expect
+        assertThrows(InvalidConfigException.class, () -> FileTokenStore
+                .newBuilder()
+                .withPath(directory.resolve("tokens.db"))
+                .withSecretKey(new SecretKeySpec(new byte[32], "HmacSHA256"))
+                .build());
+    }
+
+    // util
+
+    private static FileTokenStore open(Path path) {
+        return FileTokenStore
+                .newBuilder()
+                .withPath(path)
+                .withSecretKey(SECRET_KEY)
+                .build();
+    }
+}